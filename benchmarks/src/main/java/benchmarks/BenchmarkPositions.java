@@ -0,0 +1,62 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.Position;
+
+/**
+ * The standard perft positions, with their published node counts by depth.
+ * See https://www.chessprogramming.org/Perft_Results
+ */
+public enum BenchmarkPositions {
+    STARTING("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            20, 400, 8902, 197281, 4865609),
+    KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            48, 2039, 97862, 4085603),
+    ENDGAME("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            14, 191, 2812, 43238, 674624),
+    PROMOTIONS("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            6, 264, 9467, 422333),
+    TACTICAL("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            44, 1486, 62379, 2103487),
+    MIDDLEGAME("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            46, 2079, 89890, 3894594);
+
+    private final String fen;
+    private final long[] nodes;
+
+    BenchmarkPositions(String fen, long... nodes) {
+        this.fen = fen;
+        this.nodes = nodes;
+    }
+
+    public String fen() {
+        return fen;
+    }
+
+    public Position position() {
+        return Position.fromFen(fen);
+    }
+
+    public ChessGame game() {
+        Position position = position();
+        ChessGame game = new ChessGame();
+        game.setBoard(position.toBoard());
+        game.setTeamTurn(ChessGame.TeamColor.values()[position.sideToMove()]);
+        return game;
+    }
+
+    /**
+     * @return the deepest depth with a known node count
+     */
+    public int maxDepth() {
+        return nodes.length;
+    }
+
+    /**
+     * @param depth 1 or more, up to {@link #maxDepth()}
+     * @return the published leaf count at that depth
+     */
+    public long expectedNodes(int depth) {
+        return nodes[depth - 1];
+    }
+}
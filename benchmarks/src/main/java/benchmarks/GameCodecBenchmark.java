@@ -0,0 +1,80 @@
+package benchmarks;
+
+import chess.CanonicalTypeAdapterFactory;
+import chess.ChessGame;
+import chess.GameCodec;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times reading and writing a stored game in each format the games table has held: Gson's
+ * JSON, FEN, and {@link GameCodec}'s binary form.
+ * <p>
+ * Run with {@code mvn -pl benchmarks -am package -DskipTests} and then
+ * {@code java -jar benchmarks/target/benchmarks-jar-with-dependencies.jar GameCodec}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameCodecBenchmark {
+
+    @Param
+    public BenchmarkPositions corpus;
+
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapterFactory(new CanonicalTypeAdapterFactory())
+            .create();
+
+    private ChessGame game;
+    private String json;
+    private String fen;
+    private byte[] bytes;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(GameCodec.SIZE);
+
+    @Setup
+    public void setUp() {
+        game = ChessGame.fromFen(corpus.fen());
+        json = gson.toJson(game);
+        fen = game.toFen();
+        bytes = GameCodec.encode(game);
+    }
+
+    @Benchmark
+    public ChessGame readJson() {
+        return gson.fromJson(json, ChessGame.class);
+    }
+
+    @Benchmark
+    public ChessGame readFen() {
+        return ChessGame.fromFen(fen);
+    }
+
+    @Benchmark
+    public ChessGame readBinary() {
+        return GameCodec.decode(bytes);
+    }
+
+    @Benchmark
+    public String writeJson() {
+        return gson.toJson(game);
+    }
+
+    @Benchmark
+    public String writeFen() {
+        return game.toFen();
+    }
+
+    @Benchmark
+    public ByteBuffer writeBinary() {
+        buffer.clear();
+        GameCodec.write(game, buffer);
+        return buffer;
+    }
+}
@@ -0,0 +1,94 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.MoveNotation;
+import com.google.gson.Gson;
+import json.Json;
+import org.openjdk.jmh.annotations.*;
+import webSocketMessages.serverMessages.LoadGame;
+import webSocketMessages.serverMessages.ServerMessage;
+import webSocketMessages.userCommands.MakeMove;
+import webSocketMessages.userCommands.UserGameCommand;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the JSON on the path of a move through {@code WSHandler.handleMakeMove}: reading the
+ * command, and writing the game and the LOAD_GAME message. Each is timed with Gson's
+ * reflective binding, as every Gson in the tree used to be built, and with the hand-written
+ * adapters in {@link Json#GSON}.
+ * <p>
+ * Run with {@code mvn -pl benchmarks -am package -DskipTests} and then
+ * {@code java -jar benchmarks/target/benchmarks-jar-with-dependencies.jar Json}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonBenchmark {
+
+    @Param
+    public BenchmarkPositions corpus;
+
+    private final Gson reflective = new Gson();
+    private final Gson adapters = Json.GSON;
+
+    private ChessGame game;
+    private String gameJson;
+    private String makeMoveJson;
+    private LoadGame loadGame;
+
+    @Setup
+    public void setUp() {
+        game = ChessGame.fromFen(corpus.fen());
+        gameJson = reflective.toJson(game);
+        ChessMove move = MoveNotation.fromUci("e2e4");
+        makeMoveJson = reflective.toJson(new MakeMove("token", 1, move));
+        loadGame = new LoadGame(ServerMessage.ServerMessageType.LOAD_GAME, "game", game.evaluation(), game.toFen());
+    }
+
+    @Benchmark
+    public ChessGame readGameReflective() {
+        return reflective.fromJson(gameJson, ChessGame.class);
+    }
+
+    @Benchmark
+    public ChessGame readGameAdapters() {
+        return adapters.fromJson(gameJson, ChessGame.class);
+    }
+
+    @Benchmark
+    public String writeGameReflective() {
+        return reflective.toJson(game);
+    }
+
+    @Benchmark
+    public String writeGameAdapters() {
+        return adapters.toJson(game);
+    }
+
+    // The server used to parse each command twice: once for its type, then as its subclass
+    @Benchmark
+    public MakeMove readMakeMoveReflective() {
+        reflective.fromJson(makeMoveJson, UserGameCommand.class);
+        return reflective.fromJson(makeMoveJson, MakeMove.class);
+    }
+
+    @Benchmark
+    public MakeMove readMakeMoveAdapters() {
+        return (MakeMove) adapters.fromJson(makeMoveJson, UserGameCommand.class);
+    }
+
+    @Benchmark
+    public String writeLoadGameReflective() {
+        return reflective.toJson(loadGame);
+    }
+
+    @Benchmark
+    public String writeLoadGameAdapters() {
+        return adapters.toJson(loadGame);
+    }
+}
@@ -0,0 +1,89 @@
+package benchmarks;
+
+import chess.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the public {@link ChessGame} and {@link ChessPiece} entry points, and the raw
+ * {@link MoveGenerator} underneath them, over the {@link BenchmarkPositions} corpus.
+ * <p>
+ * Run with {@code mvn -pl benchmarks -am package -DskipTests} and then
+ * {@code java -jar benchmarks/target/benchmarks-jar-with-dependencies.jar}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveGenerationBenchmark {
+
+    @Param
+    public BenchmarkPositions corpus;
+
+    private ChessGame game;
+    private ChessGame.TeamColor turn;
+    private final List<ChessPosition> ownSquares = new ArrayList<>();
+    private Position position;
+    private final MoveList moves = new MoveList();
+
+    @Setup
+    public void setUp() {
+        game = corpus.game();
+        turn = game.getTeamTurn();
+        position = corpus.position();
+
+        ownSquares.clear();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition square = new ChessPosition(row, col);
+                ChessPiece piece = game.getBoard().getPiece(square);
+                if (piece != null && piece.getTeamColor() == turn) {
+                    ownSquares.add(square);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        ChessBoard board = game.getBoard();
+        for (ChessPosition square : ownSquares) {
+            blackhole.consume(board.getPiece(square).pieceMoves(board, square));
+        }
+    }
+
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for (ChessPosition square : ownSquares) {
+            blackhole.consume(game.validMoves(square));
+        }
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(turn);
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(turn);
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return game.isInStalemate(turn);
+    }
+
+    @Benchmark
+    public int generateLegal() {
+        moves.clear();
+        MoveGenerator.generateLegal(position, position.sideToMove(), moves);
+        return moves.size();
+    }
+}
@@ -0,0 +1,44 @@
+package benchmarks;
+
+import chess.Perft;
+import chess.Position;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-tree perft timings; divide the node counts in {@link BenchmarkPositions} by the
+ * reported time for nodes per second. {@link PerftMain} prints that figure directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PerftBenchmark {
+
+    @Param
+    public BenchmarkPositions corpus;
+
+    @Param({"3"})
+    public int depth;
+
+    private Position position;
+
+    @Setup
+    public void setUp() {
+        position = corpus.position();
+    }
+
+    @Benchmark
+    public long perft() {
+        return Perft.perft(position, depth);
+    }
+
+    // Fork/join over the common pool; compare with perft() for the scaling across cores
+    @Benchmark
+    public long parallelPerft() {
+        return Perft.parallelPerft(position, depth);
+    }
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import chess.Perft;
+import chess.Position;
+
+/**
+ * Runs perft over the {@link BenchmarkPositions} corpus, checks every count against the
+ * published value and reports nodes per second. Exits with status 1 on any mismatch, so it
+ * can gate a build.
+ * <p>
+ * Usage, after {@code mvn -pl benchmarks -am package -DskipTests}:
+ * {@code java -cp benchmarks/target/benchmarks-jar-with-dependencies.jar benchmarks.PerftMain [maxDepth]}
+ */
+public class PerftMain {
+
+    private static final int DEFAULT_MAX_DEPTH = 4;
+
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MAX_DEPTH;
+        boolean allPassed = true;
+        long totalNodes = 0;
+        long totalNanos = 0;
+
+        System.out.printf("%-12s %5s %12s %12s %8s %14s%n", "position", "depth", "nodes", "expected", "ms", "nodes/s");
+        for (BenchmarkPositions corpus : BenchmarkPositions.values()) {
+            Position position = corpus.position();
+            for (int depth = 1; depth <= Math.min(maxDepth, corpus.maxDepth()); depth++) {
+                long start = System.nanoTime();
+                long nodes = Perft.perft(position, depth);
+                long elapsed = System.nanoTime() - start;
+
+                long expected = corpus.expectedNodes(depth);
+                boolean passed = nodes == expected;
+                allPassed &= passed;
+                totalNodes += nodes;
+                totalNanos += elapsed;
+
+                System.out.printf("%-12s %5d %12d %12d %8.1f %14.0f%s%n", corpus, depth, nodes, expected,
+                        elapsed / 1e6, nodes / (elapsed / 1e9), passed ? "" : "  MISMATCH");
+            }
+        }
+
+        System.out.printf("total: %d nodes in %.1f ms, %.0f nodes/s%n", totalNodes, totalNanos / 1e6,
+                totalNodes / (totalNanos / 1e9));
+        if (!allPassed) {
+            System.out.println("Perft mismatch, see above");
+            System.exit(1);
+        }
+    }
+}
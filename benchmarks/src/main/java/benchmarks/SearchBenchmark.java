@@ -0,0 +1,42 @@
+package benchmarks;
+
+import chess.Position;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-node searches, so the reported time converts straight into nodes per second:
+ * {@link #NODES} divided by the average time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    public static final long NODES = 1_000_000;
+
+    @Param({"STARTING", "KIWIPETE", "MIDDLEGAME"})
+    public BenchmarkPositions corpus;
+
+    private Position position;
+    private Search search;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        position = corpus.position();
+        search = new Search();
+        search.table().clear();
+    }
+
+    @Benchmark
+    public int search() {
+        search.table().clear();
+        return search.search(position, SearchLimits.nodes(NODES)).getPackedMove();
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import chess.Position;
+import chess.engine.ParallelSearch;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+
+/**
+ * Reports how Lazy SMP scales: for 1, 2, 4... threads up to the given maximum, searches the
+ * {@link BenchmarkPositions} corpus to a fixed depth and prints total nodes per second, the
+ * speedup in time to depth over one thread, and that speedup divided by the thread count.
+ * Each run starts from an empty transposition table.
+ * <p>
+ * Usage, after {@code mvn -pl benchmarks -am package -DskipTests}:
+ * {@code java -cp benchmarks/target/benchmarks-jar-with-dependencies.jar benchmarks.SmpMain [maxThreads] [depth]}
+ */
+public class SmpMain {
+
+    private static final int DEFAULT_DEPTH = 8;
+
+    public static void main(String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_DEPTH;
+
+        System.out.printf("%7s %12s %10s %14s %8s %10s%n", "threads", "nodes", "ms", "nodes/s", "speedup", "efficiency");
+        double baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            long nodes = 0;
+            long nanos = 0;
+            for (BenchmarkPositions corpus : BenchmarkPositions.values()) {
+                Position position = corpus.position();
+                try (ParallelSearch search = new ParallelSearch(threads)) {
+                    long start = System.nanoTime();
+                    SearchResult result = search.search(position, SearchLimits.depth(depth));
+                    nanos += System.nanoTime() - start;
+                    nodes += result.getNodes();
+                }
+            }
+
+            double ms = nanos / 1e6;
+            if (threads == 1) {
+                baseline = ms;
+            }
+            double speedup = baseline / ms;
+            System.out.printf("%7d %12d %10.1f %14.0f %8.2f %10.2f%n", threads, nodes, ms,
+                    nodes / (nanos / 1e9), speedup, speedup / threads);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package benchmarks;
+
+import chess.Position;
+import chess.engine.ParallelSearch;
+import chess.engine.SearchLimits;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to a fixed depth with Lazy SMP against the single-threaded baseline
+ * ({@code threads = 1}). {@link SmpMain} prints the same comparison as nodes per second
+ * and scaling efficiency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SmpSearchBenchmark {
+
+    @Param({"KIWIPETE", "MIDDLEGAME"})
+    public BenchmarkPositions corpus;
+
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    @Param({"7"})
+    public int depth;
+
+    private Position position;
+    private ParallelSearch search;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        position = corpus.position();
+        search = new ParallelSearch(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        search.close();
+    }
+
+    @Benchmark
+    public int search() {
+        search.table().clear();
+        return search.search(position, SearchLimits.depth(depth)).getPackedMove();
+    }
+}
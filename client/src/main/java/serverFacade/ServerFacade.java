@@ -12,6 +12,7 @@ import java.util.Collection;
 import chess.ChessGame;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import json.Json;
 import model.GameData;
 import request.GameCreationRequest;
 import request.JoinGameRequest;
@@ -26,7 +27,7 @@ public class ServerFacade {
     private final String authToken;
     private final String serverBaseUri;
     private final HttpClient httpClient;
-    private final Gson gson = new Gson();
+    private final Gson gson = Json.GSON;
 
     public ServerFacade(String authToken, int port) {
         //this.serverBaseUri = serverBaseUri;
@@ -52,7 +53,6 @@ public class ServerFacade {
 
         try {
             HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
-            Gson gson = new Gson();
             return gson.fromJson(response.body(), RegisterResult.class);
         } catch (Exception e) {
             return new RegisterResult(false, "failed", null, null);
@@ -110,7 +110,6 @@ public class ServerFacade {
 
         try {
             HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
-            Gson gson = new Gson();
             return gson.fromJson(response.body(), GameCreationResult.class);
         } catch (Exception e) {
             return new GameCreationResult(false, "Failed!!", 0);
@@ -128,7 +127,6 @@ public class ServerFacade {
             HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
 
             if (response.statusCode() == 200) {
-                Gson gson = new Gson();
                 GamesWrapper gamesWrapper = gson.fromJson(response.body(), GamesWrapper.class);
                 return Result.success(gamesWrapper.getGames());
             } else {
@@ -152,7 +150,6 @@ public class ServerFacade {
 
         try {
             HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
-            Gson gson = new Gson();
             return gson.fromJson(response.body(), JoinGameResult.class);
         } catch (Exception e) {
             return new JoinGameResult(false, "join failed!!!");
@@ -172,7 +169,6 @@ public class ServerFacade {
 
         try {
             HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
-            Gson gson = new Gson();
             return gson.fromJson(response.body(), JoinGameResult.class);
         } catch (Exception e) {
             return new JoinGameResult(false, "join failed!!!");
@@ -195,7 +191,7 @@ public class ServerFacade {
 
     public Result<Void> setGameState(int gameId, ChessGame game) {
         String url = serverBaseUri + "/game/update/" + gameId;
-        String requestBody = new Gson().toJson(game); // Serialize your ChessGame object to JSON
+        String requestBody = gson.toJson(game); // Serialize your ChessGame object to JSON
 
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url))
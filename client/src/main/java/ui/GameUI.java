@@ -1,7 +1,8 @@
 package ui;
 
 import chess.*;
-import com.google.gson.Gson;
+import chess.engine.OpeningBook;
+import json.Json;
 import serverFacade.Result;
 import serverFacade.ServerFacade;
 import webSocketMessages.userCommands.*;
@@ -9,6 +10,8 @@ import websocket.WSClientEndpoint;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 public class GameUI {
@@ -24,6 +27,10 @@ public class GameUI {
 
     private ChessGame game;
 
+    // Loaded on first use from the chess.openingBook system property, if it names a book file
+    private OpeningBook openingBook;
+    private boolean openingBookLoaded;
+
     // Unicode symbols for chess pieces
     private static final Map<ChessPiece.PieceType, String> whitePieceSymbols = Map.of(
             ChessPiece.PieceType.PAWN, "♟",
@@ -81,6 +88,7 @@ public class GameUI {
         System.out.println("4. " + ANSI_GREEN + "Make Move!" + ANSI_RESET);
         System.out.println("5. " + ANSI_RED +  "Resign" + ANSI_RESET);
         System.out.println("6. " + ANSI_YELLOW + "Highlight Legal Moves" + ANSI_RESET);
+        System.out.println("7. " + ANSI_BLUE + "Opening Book Hint" + ANSI_RESET);
         System.out.print("Please enter your choice: ");
     }
 
@@ -91,13 +99,13 @@ public class GameUI {
     private void sendInitialMessage() {
         if (userColor == null) {
             JoinObserver command = new JoinObserver(authToken, gameId);
-            String message = new Gson().toJson(command);
+            String message = Json.GSON.toJson(command);
             sendWebSocketMessage(message);
             System.out.println(ANSI_GREEN + "Observer Joined the game." + ANSI_RESET);
         } else {
             ChessGame.TeamColor playerColor = ChessGame.TeamColor.valueOf(userColor.toUpperCase());
             JoinPlayer command = new JoinPlayer(authToken, gameId, playerColor);
-            String message = new Gson().toJson(command);
+            String message = Json.GSON.toJson(command);
             sendWebSocketMessage(message);
             System.out.println(ANSI_GREEN + userColor + " Joined the game." + ANSI_RESET);
         }
@@ -131,6 +139,9 @@ public class GameUI {
                 case "6":
                     highlightLegalMoves();
                     break;
+                case "7":
+                    showBookHint();
+                    break;
                 default:
                     System.out.println(ANSI_RED + "Invalid input. Please try again." + ANSI_RESET);
                     break;
@@ -173,9 +184,41 @@ public class GameUI {
     }
 
 
+    private void showBookHint() {
+        OpeningBook book = openingBook();
+        if (book == null) {
+            System.out.println(ANSI_RED + "No opening book is available." + ANSI_RESET);
+            return;
+        }
+
+        ChessMove move = book.bestMove(game);
+        if (move == null) {
+            System.out.println("This position is not in the opening book.");
+            return;
+        }
+
+        System.out.println(ANSI_GREEN + "Book move: " + MoveNotation.toSan(game, move) + ANSI_RESET);
+        redrawChessboard(Set.of(move.getStartPosition(), move.getEndPosition()));
+    }
+
+    private OpeningBook openingBook() {
+        if (!openingBookLoaded) {
+            openingBookLoaded = true;
+            String path = System.getProperty("chess.openingBook");
+            if (path != null && Files.isRegularFile(Path.of(path))) {
+                try {
+                    openingBook = OpeningBook.open(Path.of(path));
+                } catch (IOException e) {
+                    System.out.println(ANSI_RED + "Could not load the opening book: " + e.getMessage() + ANSI_RESET);
+                }
+            }
+        }
+        return openingBook;
+    }
+
     private void leaveGame() {
         Leave command = new Leave(authToken, gameId);
-        String message = new Gson().toJson(command);
+        String message = Json.GSON.toJson(command);
         sendWebSocketMessage(message);
         System.out.println(ANSI_GREEN + "You have left the game." + ANSI_RESET);
     }
@@ -183,57 +226,62 @@ public class GameUI {
 
     private void resignGame() {
         Resign command = new Resign(authToken, gameId);
-        String message = new Gson().toJson(command);
+        String message = Json.GSON.toJson(command);
         sendWebSocketMessage(message);
         System.out.println(ANSI_GREEN + "Player Resigned." + ANSI_RESET);
     }
 
     private void makeMove() {
         try {
-            System.out.println("What piece would you like to move?");
-            ChessPosition startPosition = promptForPosition();
-            if (startPosition == null) return;  // Error handling or user cancellation.
-
-            ChessPiece piece = game.getBoard().getPiece(startPosition);  // Access the board from ChessGame
-            if (piece == null) {
-                System.out.println("There is no piece at the specified position. Try again.");
+            if (!Objects.equals(game.getTeamTurn().toString(), userColor)) {
+                System.out.println("It is not your turn!");
                 return;
             }
 
-            if (!Objects.equals(piece.getTeamColor().toString(), userColor)) {
-                System.out.println("You can't move the opponent's pieces!");
+            Position position = game.copyPosition();
+            MoveList legal = new MoveList();
+            MoveGenerator.generateLegal(position, position.sideToMove(), legal);
+            if (legal.isEmpty()) {
+                System.out.println("You have no legal moves.");
                 return;
             }
 
-            Collection<ChessMove> availableMoves = piece.pieceMoves(game.getBoard(), startPosition);  // Assuming `pieceMoves` returns legal moves.
-            if (availableMoves.isEmpty()) {
-                System.out.println("No legal moves available for " + piece.getPieceType());
-                return;
+            StringBuilder available = new StringBuilder("Legal moves:");
+            for (int i = 0; i < legal.size(); i++) {
+                available.append(' ').append(MoveNotation.toSan(position, legal.get(i)));
             }
+            System.out.println(available);
+            System.out.print("Enter your move (for example Nf3, exd5, O-O or e2e4): ");
+            String text = scanner.nextLine().trim();
+            if (text.isEmpty()) return;
 
-            System.out.println("Selected " + piece.getPieceType() + ". Available moves:");
-            availableMoves.forEach(move -> System.out.println(" " + move.getEndPosition().getRow() + " - " + (char)(move.getEndPosition().getColumn() - 1 + 'a')));
-            System.out.println("Enter the target position for your piece:");
-
-            ChessPosition targetPosition = promptForPosition();
-            if (targetPosition == null) return;
-
-            ChessMove proposedMove = new ChessMove(startPosition, targetPosition, null);
+            ChessMove proposedMove = readMove(position, text);
+            String san = MoveNotation.toSan(game, proposedMove);
             game.makeMove(proposedMove);
 
             MakeMove command = new MakeMove(authToken, gameId, proposedMove);
-            String message = new Gson().toJson(command);
+            String message = Json.GSON.toJson(command);
             sendWebSocketMessage(message);
-            System.out.println(ANSI_GREEN + "Move made!" + ANSI_RESET);
-
-            System.out.println("Move successful: " + startPosition + " to " + targetPosition);
-        } catch (InvalidMoveException ime) {
-            System.out.println("Invalid move: " + ime.getMessage());
+            System.out.println(ANSI_GREEN + "Move made: " + san + ANSI_RESET);
+        } catch (IllegalArgumentException | InvalidMoveException e) {
+            System.out.println("Invalid move: " + e.getMessage());
         } catch (Exception e) {
             System.out.println("An error occurred: " + e.getMessage());
         }
     }
 
+    // SAN first, since that is what the legal moves are listed in; UCI coordinates otherwise
+    private ChessMove readMove(Position position, String text) {
+        try {
+            return Move.toChessMove(MoveNotation.parseSan(position, text));
+        } catch (IllegalArgumentException e) {
+            if (text.length() == 4 || text.length() == 5) {
+                return Move.toChessMove(MoveNotation.parseUci(position, text));
+            }
+            throw e;
+        }
+    }
+
     private ChessPosition promptForPosition() {
         System.out.print("Column (a-h): ");
         String colLetter = scanner.nextLine().trim().toLowerCase();
@@ -267,9 +315,10 @@ public class GameUI {
         System.out.println("- Type '1' to see this help message.");
         System.out.println("- Type '2' to reprint the Chessboard in the display");
         System.out.println("- Type '3' to leave the current game and return to PostLoginUI.");
-        System.out.println("- Type '4' to select a piece you would like to move, as well as where to move it to.");
+        System.out.println("- Type '4' to make a move, entered in SAN (Nf3, exd5, O-O) or as squares (e2e4, e7e8q).");
         System.out.println("- Type '5' to resign, or give up and lose the game.");
         System.out.println("- Type '6' to highlight the legal moves in green for a selected piece.");
+        System.out.println("- Type '7' to highlight the opening book's move for this position, if it has one.");
     }
 
     // Display the board from both perspectives
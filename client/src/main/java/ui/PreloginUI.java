@@ -8,6 +8,7 @@ import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import json.Json;
 import result.RegisterResult;
 import serverFacade.ServerFacade;
 import serverFacade.Result;
@@ -37,7 +38,7 @@ public class PreloginUI {
 
     public String createAuth(HttpResponse<String> response){
         String responseBody = response.body();
-        Gson gson = new Gson();
+        Gson gson = Json.GSON;
         JsonObject jsonResponse = gson.fromJson(responseBody, JsonObject.class);
         System.out.println(jsonResponse.get("authToken").getAsString());
         return jsonResponse.get("authToken").getAsString();
@@ -7,8 +7,15 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 import chess.ChessGame;
+import chess.MoveNotation;
 import com.google.gson.Gson;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.JsonParseException;
+import json.Json;
+import webSocketMessages.serverMessages.AnalysisUpdate;
+import webSocketMessages.serverMessages.Error;
+import webSocketMessages.serverMessages.LoadGame;
+import webSocketMessages.serverMessages.Notification;
+import webSocketMessages.serverMessages.ServerMessage;
 
 @ClientEndpoint
 public class WSClientEndpoint {
@@ -20,6 +27,7 @@ public class WSClientEndpoint {
     private final Runnable onConnect;
 
     private static final int MAX_RECONNECT_ATTEMPTS = 3;
+    private static final Gson GSON = Json.GSON;
     private AtomicInteger reconnectAttempts = new AtomicInteger(0);
 
     public WSClientEndpoint(URI endpointURI, Consumer<ChessGame> gameUpdateHandler, Runnable onConnect) {
@@ -66,12 +74,22 @@ public class WSClientEndpoint {
     @OnMessage
     public void onMessage(String message) {
         try {
-            ChessGame game = new Gson().fromJson(message, ChessGame.class);
-            if (game != null) {
-                gameUpdateHandler.accept(game);
+            // Read by its serverMessageType, so only LOAD_GAME replaces the game
+            ServerMessage serverMessage = GSON.fromJson(message, ServerMessage.class);
+            if (serverMessage instanceof LoadGame loadGame) {
+                if (loadGame.getFen() != null) {
+                    gameUpdateHandler.accept(ChessGame.fromFen(loadGame.getFen()));
+                }
+            } else if (serverMessage instanceof Notification notification) {
+                System.out.println(notification.getNotification());
+            } else if (serverMessage instanceof Error error) {
+                System.out.println("Error: " + error.getErrorMessage());
+            } else if (serverMessage instanceof AnalysisUpdate update && update.getBestMove() != null) {
+                System.out.println("Analysis depth " + update.getDepth() + ": " + update.getScore()
+                        + " (best move " + MoveNotation.toUci(update.getBestMove()) + ")");
             }
-        } catch (JsonSyntaxException e) {
-            System.out.println("Failed to parse incoming message as ChessGame: " + e.getMessage());
+        } catch (JsonParseException | IllegalArgumentException e) {
+            System.out.println("Failed to parse incoming server message: " + e.getMessage());
         }
     }
 
@@ -0,0 +1,568 @@
+package dataAccess;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of JDBC connections. Closing a borrowed connection hands it back rather
+ * than closing it, so try-with-resources works as it does with a fresh connection.
+ * <p>
+ * At most {@code maxSize} connections are open or lent at once; borrowers beyond that wait
+ * in arrival order, up to {@code timeoutMillis}. A connection idle for longer than a moment
+ * is checked with {@link Connection#isValid} before it is lent, and connections idle past
+ * {@code idleTimeoutMillis} or older than {@code maxLifetimeMillis} are closed, both when
+ * borrowed and by a background sweep.
+ * <p>
+ * Each connection keeps the statements prepared on it by SQL text, up to
+ * {@code statementCacheSize} of them, closing the least recently used beyond that. Closing
+ * a cached statement clears it for the next caller rather than deallocating it, so with
+ * server-side prepared statements the server parses each query once per connection.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Opens a new physical connection
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    // A connection handed back this recently is lent again without a round trip to check it
+    private static final long VALIDATION_BYPASS_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+    private final ConnectionFactory factory;
+    private final int maxSize;
+    private final long timeoutNanos;
+    private final long idleTimeoutNanos;
+    private final long maxLifetimeNanos;
+    private final int statementCacheSize;
+
+    // One permit per connection that may be lent; fair, so waiters are served in arrival order
+    private final Semaphore permits;
+    // Most recently returned first, so the rest stay idle long enough to be evicted when load drops
+    private final ConcurrentLinkedDeque<Pooled> idle = new ConcurrentLinkedDeque<>();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementPrepares = new LongAdder();
+    private final LongAdder statementEvictions = new LongAdder();
+
+    /**
+     * @param factory           opens the physical connections
+     * @param maxSize           the most connections open at once
+     * @param timeoutMillis     how long a borrower waits for a connection before giving up
+     * @param idleTimeoutMillis how long a connection may sit unused before it is closed
+     * @param maxLifetimeMillis how long a connection may live, so none outlasts the server's own timeouts
+     */
+    public ConnectionPool(ConnectionFactory factory, int maxSize, long timeoutMillis, long idleTimeoutMillis,
+                          long maxLifetimeMillis) {
+        this(factory, maxSize, timeoutMillis, idleTimeoutMillis, maxLifetimeMillis, DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * @param statementCacheSize the most prepared statements each connection keeps, or 0 to keep none
+     */
+    public ConnectionPool(ConnectionFactory factory, int maxSize, long timeoutMillis, long idleTimeoutMillis,
+                          long maxLifetimeMillis, int statementCacheSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1: " + maxSize);
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Statement cache size must not be negative: " + statementCacheSize);
+        }
+        this.statementCacheSize = statementCacheSize;
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.maxLifetimeNanos = TimeUnit.MILLISECONDS.toNanos(maxLifetimeMillis);
+        this.permits = new Semaphore(maxSize, true);
+
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepMillis = Math.max(1000, Math.min(idleTimeoutMillis, maxLifetimeMillis) / 4);
+        evictor.scheduleWithFixedDelay(this::evictExpired, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lends a connection, opening one if none is idle and the pool has room
+     *
+     * @return a connection to close when done, which hands it back
+     * @throws SQLTimeoutException if none comes free within the timeout
+     * @throws SQLException        if the pool is closed or a new connection cannot be opened
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        waiters.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                timeouts.increment();
+                throw new SQLTimeoutException("Timed out after " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos)
+                        + "ms waiting for a database connection; all " + maxSize + " are in use");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a database connection", e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+
+        try {
+            Pooled pooled = takeIdle();
+            if (pooled == null) {
+                pooled = new Pooled(factory.open());
+                open.incrementAndGet();
+                created.increment();
+            }
+            long waited = System.nanoTime() - start;
+            waitNanos.add(waited);
+            maxWaitNanos.accumulate(waited);
+            borrows.increment();
+            active.incrementAndGet();
+            return pooled.lend();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // The most recently used idle connection still fit to lend, closing any that are not
+    private Pooled takeIdle() {
+        for (Pooled pooled; (pooled = idle.pollFirst()) != null; ) {
+            long now = System.nanoTime();
+            if (pooled.isExpired(now) || !pooled.isValid(now)) {
+                discard(pooled);
+                continue;
+            }
+            return pooled;
+        }
+        return null;
+    }
+
+    private void giveBack(Pooled pooled) {
+        active.decrementAndGet();
+        if (closed || !pooled.reset()) {
+            discard(pooled);
+        } else {
+            pooled.lastUsed = System.nanoTime();
+            idle.offerFirst(pooled);
+        }
+        permits.release();
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        for (Pooled pooled : idle) {
+            // Only the thread that removes it may close it; a borrower may have taken it first
+            if (pooled.isExpired(now) && idle.remove(pooled)) {
+                discard(pooled);
+            }
+        }
+    }
+
+    private void discard(Pooled pooled) {
+        open.decrementAndGet();
+        evicted.increment();
+        try {
+            pooled.connection.close();
+        } catch (SQLException e) {
+            // Already broken, which is often why it is being discarded
+        }
+    }
+
+    /**
+     * Closes the idle connections and stops lending; connections still out are closed as
+     * they come back
+     */
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        for (Pooled pooled; (pooled = idle.pollFirst()) != null; ) {
+            discard(pooled);
+        }
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return connections open, lent or idle
+     */
+    public int total() {
+        return open.get();
+    }
+
+    public int active() {
+        return active.get();
+    }
+
+    public int idle() {
+        return idle.size();
+    }
+
+    /**
+     * @return borrowers waiting for a connection right now
+     */
+    public int waiters() {
+        return waiters.get();
+    }
+
+    public long borrows() {
+        return borrows.sum();
+    }
+
+    public long created() {
+        return created.sum();
+    }
+
+    /**
+     * @return connections closed for being idle too long, too old, invalid or broken
+     */
+    public long evicted() {
+        return evicted.sum();
+    }
+
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * @return the mean time a borrow took, including opening a connection when one was needed
+     */
+    public double averageWaitMillis() {
+        long count = borrows.sum();
+        return count == 0 ? 0 : waitNanos.sum() / 1e6 / count;
+    }
+
+    public double maxWaitMillis() {
+        return maxWaitNanos.get() / 1e6;
+    }
+
+    /**
+     * @return statements reused from a connection's cache instead of prepared again
+     */
+    public long statementHits() {
+        return statementHits.sum();
+    }
+
+    /**
+     * @return statements prepared on a connection, each a parse on the server
+     */
+    public long statementPrepares() {
+        return statementPrepares.sum();
+    }
+
+    /**
+     * @return cached statements closed to keep a connection's cache within its bound
+     */
+    public long statementEvictions() {
+        return statementEvictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPool{total=" + total() + ", active=" + active() + ", idle=" + idle()
+                + ", waiters=" + waiters() + ", borrows=" + borrows() + ", created=" + created()
+                + ", evicted=" + evicted() + ", timeouts=" + timeouts()
+                + ", statementHits=" + statementHits() + ", statementPrepares=" + statementPrepares()
+                + ", statementEvictions=" + statementEvictions()
+                + String.format(", averageWaitMillis=%.3f, maxWaitMillis=%.3f}", averageWaitMillis(), maxWaitMillis());
+    }
+
+    private final class Pooled {
+        final Connection connection;
+        final long createdAt = System.nanoTime();
+        long lastUsed = createdAt;
+
+        // Only the borrower touches it, so it needs no lock; access order makes it least recently used first
+        final Map<StatementKey, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<StatementKey, CachedStatement> eldest) {
+                if (size() <= statementCacheSize) {
+                    return false;
+                }
+                statementEvictions.increment();
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+
+        Pooled(Connection connection) {
+            this.connection = connection;
+        }
+
+        boolean isExpired(long now) {
+            return now - createdAt > maxLifetimeNanos || now - lastUsed > idleTimeoutNanos;
+        }
+
+        boolean isValid(long now) {
+            if (now - lastUsed < VALIDATION_BYPASS_NANOS) {
+                return true;
+            }
+            try {
+                return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        // Undoes what a borrower may have left behind; false if the connection is no longer usable
+        boolean reset() {
+            try {
+                if (connection.isClosed()) {
+                    return false;
+                }
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                // Statements the borrower never closed are taken back with the connection
+                for (CachedStatement cached : statements.values()) {
+                    cached.release();
+                }
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        Connection lend() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Lease(this));
+        }
+
+        PreparedStatement prepare(Connection lease, String sql, int autoGeneratedKeys) throws SQLException {
+            StatementKey key = new StatementKey(sql, autoGeneratedKeys);
+            CachedStatement cached = statements.get(key);
+            if (cached != null && cached.evicted) {
+                // Closed because it could not be cleared when handed back; prepared afresh in its place
+                statements.remove(key);
+                cached = null;
+            }
+            if (cached != null && !cached.inUse) {
+                statementHits.increment();
+                return cached.checkOut(lease);
+            }
+            statementPrepares.increment();
+            PreparedStatement statement = connection.prepareStatement(sql, autoGeneratedKeys);
+            if (cached != null) {
+                // The cached one is still open for this borrower, so this one is theirs alone
+                return statement;
+            }
+            cached = new CachedStatement(statement);
+            statements.put(key, cached);
+            return cached.checkOut(lease);
+        }
+    }
+
+    private record StatementKey(String sql, int autoGeneratedKeys) {
+    }
+
+    private static final class CachedStatement {
+        final PreparedStatement statement;
+        boolean inUse;
+        boolean evicted;
+        // Bumped on every release, so a handle from an earlier checkout cannot touch the statement
+        int generation;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        PreparedStatement checkOut(Connection lease) {
+            inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, new StatementHandle(this, generation, lease));
+        }
+
+        // Clears what the last caller left so the next one starts as with a new statement
+        void release() {
+            if (!inUse) {
+                return;
+            }
+            inUse = false;
+            generation++;
+            if (evicted) {
+                closeQuietly();
+                return;
+            }
+            try {
+                ResultSet results = statement.getResultSet();
+                if (results != null) {
+                    results.close();
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+            } catch (SQLException e) {
+                closeQuietly();
+            }
+        }
+
+        // Closed now unless a borrower holds it, in which case it closes when they do
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        void closeQuietly() {
+            evicted = true;
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // Nothing more to release
+            }
+        }
+    }
+
+    // The caller's view of a cached statement: close hands it back to the cache
+    private static final class StatementHandle implements InvocationHandler {
+        private final CachedStatement cached;
+        private final int generation;
+        private final Connection lease;
+
+        StatementHandle(CachedStatement cached, int generation, Connection lease) {
+            this.cached = cached;
+            this.generation = generation;
+            this.lease = lease;
+        }
+
+        private boolean isOpen() {
+            return cached.inUse && cached.generation == generation;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (isOpen()) {
+                        cached.release();
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return !isOpen() || cached.statement.isClosed();
+                }
+                case "getConnection" -> {
+                    return lease;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Cached[" + cached.statement + "]";
+                }
+                default -> {
+                    if (!isOpen()) {
+                        throw new SQLException("Statement is closed");
+                    }
+                    try {
+                        return method.invoke(cached.statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            }
+        }
+    }
+
+    // Only the plain forms are cached; those naming a result set type or key columns are rare
+    // enough to prepare each time
+    private static boolean isCacheable(Class<?>[] parameterTypes) {
+        return parameterTypes.length == 1 || parameterTypes.length == 2 && parameterTypes[1] == int.class;
+    }
+
+    // The borrower's view of a connection: close hands it back, and it is unusable after that
+    private final class Lease implements InvocationHandler {
+        private Pooled pooled;
+
+        Lease(Pooled pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (pooled != null) {
+                        Pooled returning = pooled;
+                        pooled = null;
+                        giveBack(returning);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return pooled == null || pooled.connection.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled" + (pooled == null ? "[returned]" : "[" + pooled.connection + "]");
+                }
+                default -> {
+                    if (pooled == null) {
+                        throw new SQLException("Connection has been returned to the pool");
+                    }
+                    if (statementCacheSize > 0 && method.getName().equals("prepareStatement")
+                            && isCacheable(method.getParameterTypes())) {
+                        int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                        return pooled.prepare((Connection) proxy, (String) args[0], autoGeneratedKeys);
+                    }
+                    try {
+                        return method.invoke(pooled.connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            }
+        }
+    }
+}
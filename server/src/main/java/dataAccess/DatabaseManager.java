@@ -2,8 +2,12 @@ package dataAccess;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 
 public class DatabaseManager {
@@ -11,6 +15,7 @@ public class DatabaseManager {
     private static final String user;
     private static final String password;
     private static final String connectionUrl;
+    private static final ConnectionPool pool;
 
     /*
      * Load the database information for the db.properties file.
@@ -28,7 +33,16 @@ public class DatabaseManager {
                 var host = props.getProperty("db.host");
                 var port = Integer.parseInt(props.getProperty("db.port"));
                 //connectionUrl = "jdbc:mysql://localhost:3306/chess";
-                connectionUrl = String.format("jdbc:mysql://%s:%d", host, port);
+                // Server-side prepares, so the statements the pool caches are parsed once per connection
+                connectionUrl = String.format("jdbc:mysql://%s:%d?useServerPrepStmts=true", host, port);
+
+                pool = new ConnectionPool(DatabaseManager::openConnection,
+                        Integer.parseInt(props.getProperty("db.pool.size", "10")),
+                        Long.parseLong(props.getProperty("db.pool.timeoutMillis", "30000")),
+                        Long.parseLong(props.getProperty("db.pool.idleTimeoutMillis", "600000")),
+                        Long.parseLong(props.getProperty("db.pool.maxLifetimeMillis", "1800000")),
+                        Integer.parseInt(props.getProperty("db.pool.statementCacheSize",
+                                String.valueOf(ConnectionPool.DEFAULT_STATEMENT_CACHE_SIZE))));
             }
         } catch (Exception ex) {
             throw new RuntimeException("unable to process db.properties. " + ex.getMessage());
@@ -41,8 +55,9 @@ public class DatabaseManager {
     public static void createDatabase() throws DataAccessException {
         try {
             var statement = "CREATE DATABASE IF NOT EXISTS " + databaseName;
-            var conn = DriverManager.getConnection(connectionUrl, user, password);
-            try (var preparedStatement = conn.prepareStatement(statement)) {
+            // Outside the pool, whose connections all open on the database this creates
+            try (var conn = DriverManager.getConnection(connectionUrl, user, password);
+                 var preparedStatement = conn.prepareStatement(statement)) {
                 preparedStatement.executeUpdate();
             }
         } catch (SQLException e) {
@@ -51,26 +66,62 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
-     * The easiest way to do that is with a try-with-resource block.
+     * Borrows a connection from the pool, its catalog set to the database named in
+     * db.properties. Connections to the database should be short-lived, and you must close
+     * the connection when you are done with it, which hands it back to the pool. The easiest
+     * way to do that is with a try-with-resource block.
      * <br/>
      * <code>
-     * try (var conn = DbInfo.getConnection(databaseName)) {
+     * try (var conn = DatabaseManager.getConnection()) {
      * // execute SQL statements.
      * }
      * </code>
      */
     static Connection getConnection() throws DataAccessException {
         try {
-            var conn = DriverManager.getConnection(connectionUrl, user, password);
-            conn.setCatalog(databaseName);
-            return conn;
+            return pool.getConnection();
         } catch (SQLException e) {
             throw new DataAccessException(e.getMessage());
         }
     }
+
+    /**
+     * @return the pool every SQL DAO draws its connections from, for its metrics
+     */
+    public static ConnectionPool pool() {
+        return pool;
+    }
+
+    /**
+     * Reads the server's own prepared statement counters, which count every client's
+     * statements, not just this pool's
+     *
+     * @return each of Com_stmt_prepare, Com_stmt_execute, Com_stmt_close and Prepared_stmt_count by name
+     */
+    public static Map<String, Long> serverStatementCounts() throws DataAccessException {
+        String sql = """
+                SHOW GLOBAL STATUS WHERE Variable_name IN
+                ('Com_stmt_prepare', 'Com_stmt_execute', 'Com_stmt_close', 'Prepared_stmt_count');
+                """;
+        Map<String, Long> counts = new LinkedHashMap<>();
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                counts.put(rs.getString(1), rs.getLong(2));
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to read statement counts: " + e.getMessage());
+        }
+        return counts;
+    }
+
+    private static Connection openConnection() throws SQLException {
+        var conn = DriverManager.getConnection(connectionUrl, user, password);
+        conn.setCatalog(databaseName);
+        return conn;
+    }
+
     public static void clear() throws DataAccessException {
         String[] tablesToDrop = {"YourTable1", "YourTable2", "YourTableN"}; // List your tables here
 
@@ -132,12 +183,30 @@ public class DatabaseManager {
                             `game_name` VARCHAR(255) NOT NULL,
                             `black_username` VARCHAR(255),
                             `white_username` VARCHAR(255),
-                            `game_state` TEXT,
+                            `game_state` BLOB,
+                            `snapshot_ply` INT NOT NULL DEFAULT 0,
                             `creation_time` TIMESTAMP DEFAULT CURRENT_TIMESTAMP
                         ) ENGINE=InnoDB DEFAULT CHARSET=utf8;
                         """;
                 stmt.executeUpdate(sqlCreateGamesTable);
-            }try (Statement stmt = conn.createStatement()) {
+                migrateGameStateColumn(conn, stmt);
+                addSnapshotPlyColumn(conn, stmt);
+            } try (Statement stmt = conn.createStatement()) {
+                // One row per move, appended as it is played; games.game_state holds a snapshot
+                // taken at snapshot_ply and the moves after it are replayed on top
+                String sqlCreateGameMovesTable =
+                        """
+                        CREATE TABLE IF NOT EXISTS `game_moves` (
+                            `game_id` INT NOT NULL,
+                            `ply` INT NOT NULL,
+                            `move` SMALLINT NOT NULL,
+                            `played_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            PRIMARY KEY (`game_id`, `ply`),
+                            FOREIGN KEY (`game_id`) REFERENCES `games`(`game_id`) ON DELETE CASCADE
+                        ) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+                        """;
+                stmt.executeUpdate(sqlCreateGameMovesTable);
+            } try (Statement stmt = conn.createStatement()) {
                 String sqlCreateGameParticipantsTable =
                         """
                         CREATE TABLE IF NOT EXISTS `game_participants` (
@@ -178,4 +247,38 @@ public class DatabaseManager {
             throw new DataAccessException("Failed to setup database tables: " + e.getMessage());
         }
     }
+
+    // game_state used to be TEXT holding JSON or FEN. Switching it to BLOB keeps those rows'
+    // bytes as they are; SQLGameDAO then rewrites them in the binary encoding.
+    private static void migrateGameStateColumn(Connection conn, Statement stmt) throws SQLException {
+        String sqlColumnType = """
+                SELECT DATA_TYPE FROM information_schema.COLUMNS
+                WHERE TABLE_SCHEMA = ? AND TABLE_NAME = 'games' AND COLUMN_NAME = 'game_state';
+                """;
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlColumnType)) {
+            pstmt.setString(1, databaseName);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next() && !rs.getString(1).equalsIgnoreCase("blob")) {
+                    stmt.executeUpdate("ALTER TABLE `games` MODIFY `game_state` BLOB;");
+                }
+            }
+        }
+    }
+
+    // Games from before the move log have none of their moves logged, so their stored state
+    // is a snapshot with nothing to replay after it; 0 says just that.
+    private static void addSnapshotPlyColumn(Connection conn, Statement stmt) throws SQLException {
+        String sqlColumnExists = """
+                SELECT COUNT(*) FROM information_schema.COLUMNS
+                WHERE TABLE_SCHEMA = ? AND TABLE_NAME = 'games' AND COLUMN_NAME = 'snapshot_ply';
+                """;
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlColumnExists)) {
+            pstmt.setString(1, databaseName);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next() && rs.getInt(1) == 0) {
+                    stmt.executeUpdate("ALTER TABLE `games` ADD COLUMN `snapshot_ply` INT NOT NULL DEFAULT 0;");
+                }
+            }
+        }
+    }
 }
@@ -1,10 +1,13 @@
 package dataAccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
 import model.GameData;
 import request.JoinGameRequest;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
 
 public interface GameDAO {
 
@@ -14,8 +17,25 @@ public interface GameDAO {
 
     Collection<GameData> listGames();
 
+    /**
+     * Hands every game to an action in turn without collecting them first, so exports
+     * of the whole table run in constant memory. Each comes with every move it has logged
+     * through {@link #recordMove}, oldest first. A game stored whole through
+     * {@link #updateGame} keeps the moves logged up to that point, so the moves need not
+     * lead to the game as it stands.
+     */
+    void forEachGameWithMoves(BiConsumer<GameData, List<ChessMove>> action);
+
     boolean updateGame(int gameID, ChessGame updatedChessGame);
 
+    /**
+     * Saves a move just played. Stores that keep a log append the move rather than rewriting
+     * the whole game, so {@code updatedChessGame} must be the game with the move already made.
+     *
+     * @return false if the game does not exist or already has a move at this point
+     */
+    boolean recordMove(int gameID, ChessMove move, ChessGame updatedChessGame);
+
     boolean joinGame(int gameID, String color, String authToken, String username);
 
     boolean isColorTaken(int gameID, String color);
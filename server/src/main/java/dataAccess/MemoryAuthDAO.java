@@ -1,11 +1,11 @@
 package dataAccess;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class MemoryAuthDAO implements AuthDAO {
-    private final Map<String, String> authTokens = new HashMap<>();
+    private final Map<String, String> authTokens = new ConcurrentHashMap<>();
 
     @Override
     public String createAuth(String username) {
@@ -1,21 +1,34 @@
 package dataAccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.GameCodec;
 import model.GameData;
 import request.JoinGameRequest;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 public class MemoryGameDAO implements GameDAO {
-    private final List<GameData> gameInfo = new ArrayList<>();
+    // Bots and analysis read games from their own threads while moves are stored. Like the
+    // SQL DAO, this stores and hands out copies, so no caller shares a game with another.
+    private final List<GameData> gameInfo = new CopyOnWriteArrayList<>();
+    private final Map<Integer, String> gameStatus = new ConcurrentHashMap<>();
+    // Each game's moves by the ply they led to, as SQL's game_moves holds them; guarded by the game
+    private final Map<Integer, NavigableMap<Integer, ChessMove>> moveLogs = new ConcurrentHashMap<>();
     private final AtomicInteger gameIdCounter = new AtomicInteger();
     public int createGame(String gameName, String blackUsername, String whiteUsername, ChessGame chessGame){
 
         int gameId = gameIdCounter.incrementAndGet();
-        GameData newGame = new GameData(gameId, blackUsername, whiteUsername, gameName, chessGame);
+        GameData newGame = new GameData(gameId, blackUsername, whiteUsername, gameName, copy(chessGame));
         gameInfo.add(newGame);
         return gameId;
     }
@@ -38,6 +51,15 @@ public class MemoryGameDAO implements GameDAO {
 
     @Override
     public boolean rejoinPlayer(int gameID, String color, String username) {
+        GameData game = find(gameID);
+        if (game == null || username == null) {
+            return false;
+        }
+        if ("BLACK".equalsIgnoreCase(color)) {
+            return username.equals(game.getBlackUsername());
+        } else if ("WHITE".equalsIgnoreCase(color)) {
+            return username.equals(game.getWhiteUsername());
+        }
         return false;
     }
 
@@ -47,32 +69,47 @@ public class MemoryGameDAO implements GameDAO {
     }
 
     @Override
-    public ChessGame.TeamColor getPlayerColor(int gameId, String authToken) {
+    public ChessGame.TeamColor getPlayerColor(int gameId, String username) {
+        GameData game = find(gameId);
+        if (game == null || username == null) {
+            return null;
+        }
+        if (username.equals(game.getBlackUsername())) {
+            return ChessGame.TeamColor.BLACK;
+        } else if (username.equals(game.getWhiteUsername())) {
+            return ChessGame.TeamColor.WHITE;
+        }
         return null;
     }
 
     @Override
     public String getGameStatus(int gameID) {
-        return null;
+        return gameStatus.getOrDefault(gameID, "Active");
     }
 
     @Override
     public void updateGameStatus(int gameID, String status) {
-
+        gameStatus.put(gameID, status);
     }
 
     @Override
     public boolean updateChessGame(int gameId, ChessGame updatedGame) {
-        return false;
+        return updateGame(gameId, updatedGame);
     }
 
     @Override
     public ChessGame getGameState(int gameId) {
-        return null;
+        GameData game = find(gameId);
+        return game == null ? null : copy(game);
     }
 
 
     public GameData getGame(int gameID) {
+        GameData game = find(gameID);
+        return game == null ? null : copyOf(game);
+    }
+
+    private GameData find(int gameID) {
         Optional<GameData> match = gameInfo.stream()
                 .filter(game -> game.getGameID() == gameID)
                 .findFirst();
@@ -81,7 +118,7 @@ public class MemoryGameDAO implements GameDAO {
 
     @Override
     public boolean joinGame(int gameID, String color, String authToken, String username) {
-        GameData game = getGame(gameID); // Implement this method to find a game by ID
+        GameData game = find(gameID);
         if (game == null) {
             return false; // Game not found
         }
@@ -107,29 +144,87 @@ public class MemoryGameDAO implements GameDAO {
     }
 
     public ArrayList<GameData> listGames() {
-        return new ArrayList<>(gameInfo); // Return a copy of the gameInfo list
+        ArrayList<GameData> games = new ArrayList<>(gameInfo.size());
+        for (GameData game : gameInfo) {
+            games.add(copyOf(game));
+        }
+        return games;
+    }
+
+    @Override
+    public void forEachGameWithMoves(BiConsumer<GameData, List<ChessMove>> action) {
+        for (GameData game : gameInfo) {
+            GameData copy;
+            List<ChessMove> moves;
+            synchronized (game) {
+                copy = copyOf(game);
+                moves = new ArrayList<>(moveLog(game.getGameID()).values());
+            }
+            action.accept(copy, moves);
+        }
     }
 
     public boolean updateGame(int gameID, ChessGame updatedChessGame) {
-        for (int i = 0; i < gameInfo.size(); i++) {
-            GameData currentGame = gameInfo.get(i);
-            if (currentGame.getGameID() == gameID) {
-                // Create a new GameData instance with the updated ChessGame
-                GameData updatedGame = new GameData(
-                        currentGame.getGameID(),
-                        currentGame.getBlackUsername(),
-                        currentGame.getWhiteUsername(),
-                        currentGame.getGameName(),
-                        updatedChessGame);
-                // Replace the old GameData with the updated one
-                gameInfo.set(i, updatedGame);
-                return true; // Update successful
+        GameData game = find(gameID);
+        if (game == null) {
+            return false; // GameID not found, update unsuccessful
+        }
+        // In place, under the lock joinGame takes, so a player joining is not lost
+        ChessGame stored = copy(updatedChessGame);
+        synchronized (game) {
+            game.setGame(stored);
+            // The game now stands exactly as given, so no logged move past it still applies
+            moveLog(gameID).tailMap(ply(updatedChessGame), false).clear();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean recordMove(int gameID, ChessMove move, ChessGame updatedChessGame) {
+        GameData game = find(gameID);
+        if (game == null) {
+            return false;
+        }
+        ChessGame stored = copy(updatedChessGame);
+        synchronized (game) {
+            if (moveLog(gameID).putIfAbsent(updatedChessGame.ply(), move) != null) {
+                return false; // A move was already logged at this ply
             }
+            game.setGame(stored);
         }
-        return false; // GameID not found, update unsuccessful
+        return true;
+    }
+
+    private NavigableMap<Integer, ChessMove> moveLog(int gameID) {
+        return moveLogs.computeIfAbsent(gameID, id -> new TreeMap<>());
+    }
+
+    private static int ply(ChessGame game) {
+        return game == null ? 0 : game.ply();
+    }
+
+    private static GameData copyOf(GameData game) {
+        synchronized (game) {
+            return new GameData(game.getGameID(), game.getWhiteUsername(), game.getBlackUsername(),
+                    game.getGameName(), copy(game.getGame()));
+        }
+    }
+
+    // Through the binary encoding, which drops the moves a game could take back, as storing
+    // a game in SQL does
+    private static ChessGame copy(GameData game) {
+        synchronized (game) {
+            return copy(game.getGame());
+        }
+    }
+
+    private static ChessGame copy(ChessGame game) {
+        return game == null ? null : GameCodec.decode(GameCodec.encode(game));
     }
 
     public void clearAll(){
         gameInfo.clear();
+        gameStatus.clear();
+        moveLogs.clear();
     }
 }
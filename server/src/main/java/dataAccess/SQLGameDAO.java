@@ -1,30 +1,60 @@
 package dataAccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.GameCodec;
+import chess.InvalidMoveException;
+import chess.Move;
 import com.google.gson.Gson;
+import json.Json;
 import model.GameData;
 import request.JoinGameRequest;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
 
 public class  SQLGameDAO implements GameDAO {
-    private final Gson gson = new Gson();
+    /**
+     * How many half-moves apart {@link #recordMove} rewrites the snapshot in {@code games}, and
+     * so the most moves a read replays
+     */
+    public static final int SNAPSHOT_INTERVAL = 16;
+
+    // Each game's snapshot with the logged moves after it, in order; a game with none has one row whose move is NULL
+    private static final String SELECT_GAMES = """
+            SELECT g.game_id, g.game_name, g.black_username, g.white_username, g.game_state, g.snapshot_ply, m.ply, m.move
+            FROM games g LEFT JOIN game_moves m ON m.game_id = g.game_id AND m.ply > g.snapshot_ply
+            """;
+
+    // The same with every logged move, from before the snapshot as well
+    private static final String SELECT_GAMES_WITH_MOVES = """
+            SELECT g.game_id, g.game_name, g.black_username, g.white_username, g.game_state, g.snapshot_ply, m.ply, m.move
+            FROM games g LEFT JOIN game_moves m ON m.game_id = g.game_id
+            ORDER BY g.game_id, m.ply;
+            """;
+
+    // Reads rows stored as JSON before the binary encoding
+    private final Gson gson = Json.GSON;
 
     public SQLGameDAO() throws DataAccessException {
         DatabaseManager.setupDatabaseTables();
+        migrateGameStates();
     }
 
     @Override
     public int createGame(String gameName, String blackUsername, String whiteUsername, ChessGame gameState) {
-        String sql = "INSERT INTO games (game_name, black_username, white_username, game_state) VALUES (?, ?, ?, ?);";
+        String sql = "INSERT INTO games (game_name, black_username, white_username, game_state, snapshot_ply) VALUES (?, ?, ?, ?, ?);";
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, gameName);
             pstmt.setString(2, blackUsername);
             pstmt.setString(3, whiteUsername);
-            pstmt.setString(4, gson.toJson(gameState)); // Serialize gameState to JSON
+            pstmt.setBytes(4, snapshot(gameState));
+            pstmt.setInt(5, gameState == null ? 0 : gameState.ply());
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows == 0) {
@@ -45,133 +75,132 @@ public class  SQLGameDAO implements GameDAO {
 
     @Override
     public GameData getGame(int gameId) {
-        String sql = "SELECT * FROM games WHERE game_id = ?;";
+        String sql = SELECT_GAMES + "WHERE g.game_id = ? ORDER BY m.ply;";
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, gameId);
             try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return new GameData(
-                            rs.getInt("game_id"),
-                            rs.getString("black_username"),
-                            rs.getString("white_username"),
-                            rs.getString("game_name"),
-                            gson.fromJson(rs.getString("game_state"), ChessGame.class)); // Deserialize game state from JSON
-                }
+                GameData[] found = new GameData[1];
+                readGames(rs, (game, moves) -> found[0] = game);
+                return found[0];
             }
         } catch (SQLException | DataAccessException e) {
             throw new RuntimeException("Error fetching game: " + e.getMessage());
         }
-        return null;
     }
 
     @Override
     public Collection<GameData> listGames() {
-        String sql = "SELECT * FROM games;";
+        String sql = SELECT_GAMES + "ORDER BY g.game_id, m.ply;";
         ArrayList<GameData> gamesList = new ArrayList<>();
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
-            while (rs.next()) {
-                gamesList.add(new GameData(
-                        rs.getInt("game_id"),
-                        rs.getString("white_username"),
-                        rs.getString("black_username"),
-                        rs.getString("game_name"),
-                        gson.fromJson(rs.getString("game_state"), ChessGame.class))); // Deserialize game state from JSON
-            }
+            readGames(rs, (game, moves) -> gamesList.add(game));
         } catch (SQLException | DataAccessException e) {
             throw new RuntimeException("Error listing games: " + e.getMessage());
         }
         return gamesList;
     }
 
+    @Override
+    public void forEachGameWithMoves(BiConsumer<GameData, List<ChessMove>> action) {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_GAMES_WITH_MOVES,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // MySQL's driver streams rows one at a time with this fetch size instead of buffering the whole result
+            pstmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                readGames(rs, action);
+            }
+        } catch (SQLException | DataAccessException e) {
+            throw new RuntimeException("Error reading games: " + e.getMessage());
+        }
+    }
+
     @Override
     public boolean joinGame(int gameID, String color, String authToken, String username) {
-        Connection conn = null;
-        try {
-            conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getConnection()) {
             conn.setAutoCommit(false); // Disable auto-commit to manage transaction manually
-
-            if (color == null || color.isEmpty()) {
-                // Joining as a watcher, assuming there's a watchers table or a way to mark them in game_participants
-                String sqlInsertWatcher = "INSERT INTO game_watchers (game_id, username) VALUES (?, ?);";
-                try (PreparedStatement pstmt = conn.prepareStatement(sqlInsertWatcher)) {
-                    pstmt.setInt(1, gameID);
-                    pstmt.setString(2, username);
-                    pstmt.executeUpdate();
-                }
-            } else {
-                // Joining as a player, make sure color is not already taken
-                if (isColorTaken(gameID, color)) {
-                    conn.rollback(); // Rollback to ensure consistency
-                    return false;
-                }
-
-                String updateSql = "UPDATE games SET ";
-                if ("BLACK".equalsIgnoreCase(color)) {
-                    updateSql += "black_username = ? ";
-                } else if ("WHITE".equalsIgnoreCase(color)) {
-                    updateSql += "white_username = ? ";
-                }
-                updateSql += "WHERE game_id = ?;";
-
-                try (PreparedStatement pstmtUpdate = conn.prepareStatement(updateSql)) {
-                    pstmtUpdate.setString(1, username);
-                    pstmtUpdate.setInt(2, gameID);
-                    int rowsUpdated = pstmtUpdate.executeUpdate();
-                    if (rowsUpdated == 0) {
-                        conn.rollback(); // Rollback in case no rows were updated, which means game ID does not exist
+            try {
+                if (color == null || color.isEmpty()) {
+                    // Joining as a watcher, assuming there's a watchers table or a way to mark them in game_participants
+                    String sqlInsertWatcher = "INSERT INTO game_watchers (game_id, username) VALUES (?, ?);";
+                    try (PreparedStatement pstmt = conn.prepareStatement(sqlInsertWatcher)) {
+                        pstmt.setInt(1, gameID);
+                        pstmt.setString(2, username);
+                        pstmt.executeUpdate();
+                    }
+                } else {
+                    // Joining as a player, make sure color is not already taken, locking the
+                    // game's row so no other join can take the seat before this one commits
+                    if (isColorTaken(conn, gameID, color, true)) {
+                        conn.rollback(); // Rollback to ensure consistency
                         return false;
                     }
+
+                    String updateSql = "UPDATE games SET ";
+                    if ("BLACK".equalsIgnoreCase(color)) {
+                        updateSql += "black_username = ? ";
+                    } else if ("WHITE".equalsIgnoreCase(color)) {
+                        updateSql += "white_username = ? ";
+                    }
+                    updateSql += "WHERE game_id = ?;";
+
+                    try (PreparedStatement pstmtUpdate = conn.prepareStatement(updateSql)) {
+                        pstmtUpdate.setString(1, username);
+                        pstmtUpdate.setInt(2, gameID);
+                        int rowsUpdated = pstmtUpdate.executeUpdate();
+                        if (rowsUpdated == 0) {
+                            conn.rollback(); // Rollback in case no rows were updated, which means game ID does not exist
+                            return false;
+                        }
+                    }
                 }
-            }
 
-            conn.commit(); // Commit the transaction if everything went fine
-            return true;
+                conn.commit(); // Commit the transaction if everything went fine
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException | DataAccessException e) {
             e.printStackTrace(); // Consider proper logging
-            // Handle rollback in catch block if necessary
-            try {
-                if (conn != null) conn.rollback();
-            } catch (SQLException ex) {
-                ex.printStackTrace();
-            }
             throw new RuntimeException("Error joining game: " + e.getMessage());
-        } finally {
-            // Finally block for setting auto-commit true and closing the connection is unnecessary with try-with-resources
         }
     }
 
-
-
-
-
-
     @Override
     public boolean isColorTaken(int gameID, String color) {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            return isColorTaken(conn, gameID, color, false);
+        } catch (SQLException | DataAccessException e) {
+            throw new RuntimeException("Error checking if color is taken: " + e.getMessage());
+        }
+    }
+
+    // On the caller's connection, so a transaction can check and claim a seat without borrowing
+    // a second connection; with lock set the game's row stays locked until that transaction ends
+    private static boolean isColorTaken(Connection conn, int gameID, String color, boolean lock) throws SQLException {
         String sqlCheck;
         if ("BLACK".equalsIgnoreCase(color)) {
-            sqlCheck = "SELECT count(*) FROM games WHERE game_id = ? AND black_username IS NOT NULL;";
+            sqlCheck = "SELECT black_username IS NOT NULL FROM games WHERE game_id = ?";
         } else if ("WHITE".equalsIgnoreCase(color)) {
-            sqlCheck = "SELECT count(*) FROM games WHERE game_id = ? AND white_username IS NOT NULL;";
+            sqlCheck = "SELECT white_username IS NOT NULL FROM games WHERE game_id = ?";
         } else {
             // If color is neither BLACK nor WHITE, assume it's not taken
             return false;
         }
+        sqlCheck += lock ? " FOR UPDATE;" : ";";
 
-        try (Connection conn = DatabaseManager.getConnection();
-            PreparedStatement pstmt = conn.prepareStatement(sqlCheck)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlCheck)) {
             pstmt.setInt(1, gameID);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    int count = rs.getInt(1);
-                    return count > 0; // If count > 0, then the specified color is already taken
+                    return rs.getBoolean(1); // True if the specified color is already taken
                 }
             }
-        } catch (SQLException | DataAccessException e) {
-            throw new RuntimeException("Error checking if color is taken: " + e.getMessage());
         }
         return false; // Default to false if not found
     }
@@ -183,14 +212,17 @@ public class  SQLGameDAO implements GameDAO {
     public void clearAll() {
         // Start with deleting data from child tables to maintain referential integrity
         String sqlDeleteParticipants = "DELETE FROM game_participants;";
+        String sqlDeleteMoves = "DELETE FROM game_moves;";
         String sqlDeleteGames = "DELETE FROM games;";
 
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement pstmtParticipants = conn.prepareStatement(sqlDeleteParticipants);
+             PreparedStatement pstmtMoves = conn.prepareStatement(sqlDeleteMoves);
              PreparedStatement pstmtGames = conn.prepareStatement(sqlDeleteGames)) {
 
-            // Delete participants first to avoid foreign key constraint violations
+            // Delete participants and moves first to avoid foreign key constraint violations
             pstmtParticipants.executeUpdate();
+            pstmtMoves.executeUpdate();
 
             // Now, it's safe to delete the games
             pstmtGames.executeUpdate();
@@ -201,19 +233,58 @@ public class  SQLGameDAO implements GameDAO {
 
     @Override
     public boolean updateGame(int gameID, ChessGame updatedChessGame) {
-        String sql = "UPDATE games SET game_state = ? WHERE game_id = ?;";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, gson.toJson(updatedChessGame)); // Serialize the updated game state to JSON
-            pstmt.setInt(2, gameID);
-
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0; // If affectedRows is greater than 0, the update was successful
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                boolean updated = writeSnapshot(conn, gameID, updatedChessGame);
+                // The game now stands exactly as given, so no logged move past it may be replayed
+                String sqlDeleteLaterMoves = "DELETE FROM game_moves WHERE game_id = ? AND ply > ?;";
+                try (PreparedStatement pstmt = conn.prepareStatement(sqlDeleteLaterMoves)) {
+                    pstmt.setInt(1, gameID);
+                    pstmt.setInt(2, ply(updatedChessGame));
+                    pstmt.executeUpdate();
+                }
+                conn.commit();
+                return updated; // True if the game exists and was updated
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException | DataAccessException e) {
             throw new RuntimeException("Error updating game: " + e.getMessage());
         }
     }
 
+    @Override
+    public boolean recordMove(int gameID, ChessMove move, ChessGame updatedChessGame) {
+        int ply = updatedChessGame.ply();
+        String sql = "INSERT INTO game_moves (game_id, ply, move) VALUES (?, ?, ?);";
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, gameID);
+                    pstmt.setInt(2, ply);
+                    pstmt.setShort(3, (short) Move.fromChessMove(move));
+                    pstmt.executeUpdate();
+                }
+                if (ply % SNAPSHOT_INTERVAL == 0) {
+                    writeSnapshot(conn, gameID, updatedChessGame);
+                }
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLIntegrityConstraintViolationException e) {
+            // The game does not exist, or a move was already logged at this ply
+            return false;
+        } catch (SQLException | DataAccessException e) {
+            throw new RuntimeException("Error recording move: " + e.getMessage());
+        }
+    }
+
     @Override
     public boolean rejoinPlayer(int gameID, String color, String username) {
         String sqlCheck = "";
@@ -335,15 +406,9 @@ public class  SQLGameDAO implements GameDAO {
 
     @Override
     public boolean updateChessGame(int gameId, ChessGame updatedGame) {
-        String sql = "UPDATE games SET game_state = ? WHERE game_id = ?;";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, new Gson().toJson(updatedGame)); // Serialize the updated game state to JSON
-            pstmt.setInt(2, gameId);
-
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0; // True if the update was successful
-        } catch (SQLException | DataAccessException e) {
+        try {
+            return updateGame(gameId, updatedGame);
+        } catch (RuntimeException e) {
             e.printStackTrace(); // Log the SQL error here
             return false;
         }
@@ -351,25 +416,113 @@ public class  SQLGameDAO implements GameDAO {
 
     @Override
     public ChessGame getGameState(int gameId){
-        String sql = "SELECT game_state FROM games WHERE game_id = ?;";
+        GameData data = getGame(gameId);
+        if (data == null) {
+            throw new RuntimeException("SQL error occurred while retrieving game state: Game with ID " + gameId + " not found.");
+        }
+        if (data.getGame() == null) {
+            throw new RuntimeException("SQL error occurred while retrieving game state: No game state available for game ID " + gameId);
+        }
+        return data.getGame();
+    }
+
+    private boolean writeSnapshot(Connection conn, int gameID, ChessGame game) throws SQLException {
+        String sql = "UPDATE games SET game_state = ?, snapshot_ply = ? WHERE game_id = ?;";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setBytes(1, snapshot(game));
+            pstmt.setInt(2, ply(game));
+            pstmt.setInt(3, gameID);
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    // Rows come grouped by game with its moves in order, as SELECT_GAMES and ORDER BY g.game_id, m.ply give them.
+    // Every move read is handed over with its game; only those past the snapshot are replayed on it.
+    private void readGames(ResultSet rs, BiConsumer<GameData, List<ChessMove>> action)
+            throws SQLException, DataAccessException {
+        GameData current = null;
+        List<ChessMove> moves = null;
+        int snapshotPly = 0;
+        while (rs.next()) {
+            int gameId = rs.getInt("game_id");
+            if (current == null || current.getGameID() != gameId) {
+                if (current != null) {
+                    action.accept(current, moves);
+                }
+                current = new GameData(
+                        gameId,
+                        rs.getString("white_username"),
+                        rs.getString("black_username"),
+                        rs.getString("game_name"),
+                        restore(rs.getBytes("game_state")));
+                moves = new ArrayList<>();
+                snapshotPly = rs.getInt("snapshot_ply");
+            }
+            short move = rs.getShort("move");
+            if (!rs.wasNull()) {
+                moves.add(Move.toChessMove(move));
+                if (rs.getInt("ply") > snapshotPly && current.getGame() != null) {
+                    replay(current.getGame(), move, gameId);
+                }
+            }
+        }
+        if (current != null) {
+            action.accept(current, moves);
+        }
+    }
+
+    private static void replay(ChessGame game, short move, int gameId) throws DataAccessException {
+        try {
+            game.makeMove(Move.toChessMove(move));
+        } catch (InvalidMoveException e) {
+            throw new DataAccessException("Logged move " + Move.toChessMove(move) + " does not follow in game " + gameId);
+        }
+    }
+
+    private static int ply(ChessGame game) {
+        return game == null ? 0 : game.ply();
+    }
+
+    // Rewrites rows saved as JSON or FEN in the binary encoding, so reads only ever decode it.
+    // Encoded rows start with the version byte, which no text row can, so only text rows are read.
+    private void migrateGameStates() throws DataAccessException {
+        String sqlSelect = "SELECT game_id, game_state FROM games WHERE game_state IS NOT NULL AND ASCII(game_state) <> ?;";
+        String sqlUpdate = "UPDATE games SET game_state = ? WHERE game_id = ?;";
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, gameId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    String gameStateJson = rs.getString("game_state");
-                    if (gameStateJson != null) {
-                        return gson.fromJson(gameStateJson, ChessGame.class);
-                    } else {
-                        throw new DataAccessException("No game state available for game ID " + gameId);
-                    }
-                } else {
-                    throw new DataAccessException("Game with ID " + gameId + " not found.");
+             PreparedStatement select = conn.prepareStatement(sqlSelect);
+             PreparedStatement update = conn.prepareStatement(sqlUpdate)) {
+            select.setInt(1, GameCodec.VERSION);
+            int pending = 0;
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    update.setBytes(1, snapshot(restore(rs.getBytes("game_state"))));
+                    update.setInt(2, rs.getInt("game_id"));
+                    update.addBatch();
+                    pending++;
                 }
             }
-        } catch (SQLException | DataAccessException e) {
-            throw new RuntimeException("SQL error occurred while retrieving game state: " + e.getMessage());
+            if (pending > 0) {
+                update.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to migrate stored games: " + e.getMessage());
         }
     }
 
+    // Games are stored in GameCodec's fixed-size binary form. Rows from before that hold FEN
+    // or JSON text, which still reads, though the constructor migrates them.
+    private static byte[] snapshot(ChessGame game) {
+        return game == null ? null : GameCodec.encode(game);
+    }
+
+    private ChessGame restore(byte[] gameState) {
+        if (gameState == null) {
+            return null;
+        }
+        if (GameCodec.isEncoded(gameState)) {
+            return GameCodec.decode(gameState);
+        }
+        String text = new String(gameState, StandardCharsets.UTF_8);
+        return text.startsWith("{") ? gson.fromJson(text, ChessGame.class) : ChessGame.fromFen(text);
+    }
 }
@@ -0,0 +1,7 @@
+package exceptions;
+
+public class AnalysisRejectedException extends Exception {
+    public AnalysisRejectedException(String message) {
+        super(message);
+    }
+}
@@ -1,10 +1,15 @@
 package handlers;
 
 import com.google.gson.Gson;
+import dataAccess.ConnectionPool;
+import dataAccess.DataAccessException;
+import dataAccess.DatabaseManager;
+import json.Json;
 import service.AdminService;
 import spark.Request;
 import spark.Response;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class AdminHandler {
@@ -13,7 +18,7 @@ public class AdminHandler {
 
     public AdminHandler(AdminService adminService) {
         AdminHandler.adminService = adminService;
-        gson = new Gson();
+        gson = Json.GSON;
     }
 
     public Object clearApplicationData(Request req, Response res) {
@@ -30,4 +35,41 @@ public class AdminHandler {
             return gson.toJson(Map.of("error", "An error occurred while clearing application data"));
         }
     }
+
+    /**
+     * Reports the database connection pool's gauges and counters, with the server's prepared
+     * statement counters when the database can be reached. Needs a signed-in user's token,
+     * as the statement counters cover everything the database server runs.
+     */
+    public Object poolStats(Request req, Response res) {
+        String authToken = req.headers("Authorization");
+        if (authToken == null || authToken.isEmpty() || !adminService.checkAuth(authToken)) {
+            res.status(401); // Unauthorized
+            return gson.toJson(new SimpleResponse(false, "Error: unauthorized"));
+        }
+
+        ConnectionPool pool = DatabaseManager.pool();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxSize", pool.maxSize());
+        stats.put("total", pool.total());
+        stats.put("active", pool.active());
+        stats.put("idle", pool.idle());
+        stats.put("waiters", pool.waiters());
+        stats.put("borrows", pool.borrows());
+        stats.put("created", pool.created());
+        stats.put("evicted", pool.evicted());
+        stats.put("timeouts", pool.timeouts());
+        stats.put("averageWaitMillis", pool.averageWaitMillis());
+        stats.put("maxWaitMillis", pool.maxWaitMillis());
+        stats.put("statementHits", pool.statementHits());
+        stats.put("statementPrepares", pool.statementPrepares());
+        stats.put("statementEvictions", pool.statementEvictions());
+        try {
+            stats.put("server", DatabaseManager.serverStatementCounts());
+        } catch (DataAccessException e) {
+            stats.put("serverError", e.getMessage());
+        }
+        res.status(200);
+        return gson.toJson(stats);
+    }
 }
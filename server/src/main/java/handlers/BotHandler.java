@@ -0,0 +1,64 @@
+package handlers;
+
+import chess.ChessGame;
+import chess.engine.SearchLimits;
+import com.google.gson.Gson;
+import exceptions.AlreadyTakenException;
+import exceptions.InvalidGameIdException;
+import json.Json;
+import request.BotRequest;
+import result.JoinGameResult;
+import server.websocket.BotManager;
+import server.websocket.BotPlayer;
+import service.AdminService;
+import spark.Request;
+import spark.Response;
+
+public class BotHandler {
+
+    private final Gson gson;
+
+    private final BotManager botManager;
+
+    private final AdminService adminService;
+
+    public BotHandler(BotManager botManager, AdminService adminService) {
+        this.botManager = botManager;
+        this.adminService = adminService;
+        this.gson = Json.GSON;
+    }
+
+    public Object addBot(Request req, Response res) {
+        try {
+            String authToken = req.headers("Authorization");
+            if (authToken == null || authToken.isEmpty() || !adminService.checkAuth(authToken)) {
+                res.status(401); // Unauthorized
+                return gson.toJson(new SimpleResponse(false, "Error: unauthorized"));
+            }
+
+            BotRequest botRequest = gson.fromJson(req.body(), BotRequest.class);
+            if (botRequest == null || botRequest.playerColor() == null) {
+                res.status(400); // Bad Request
+                return gson.toJson(new SimpleResponse(false, "Error: bad request"));
+            }
+            ChessGame.TeamColor color = ChessGame.TeamColor.valueOf(botRequest.playerColor().toUpperCase());
+            SearchLimits strength = new SearchLimits().setDepth(botRequest.depth()).setMoveTime(botRequest.moveTime());
+
+            BotPlayer bot = botManager.seat(botRequest.gameID(), color, strength);
+            res.status(200); // Success
+            return gson.toJson(new JoinGameResult(true, bot.getUsername() + " joined as " + color));
+        } catch (IllegalArgumentException e) {
+            res.status(400); // Bad Request
+            return gson.toJson(new SimpleResponse(false, "Error: bad request"));
+        } catch (InvalidGameIdException e) {
+            res.status(400); // Bad Request
+            return gson.toJson(new SimpleResponse(false, e.getMessage()));
+        } catch (AlreadyTakenException e) {
+            res.status(403); // Forbidden
+            return gson.toJson(new SimpleResponse(false, e.getMessage()));
+        } catch (Exception e) {
+            res.status(500); // Internal Server Error
+            return gson.toJson(new SimpleResponse(false, "Error: " + e.getMessage()));
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.google.gson.Gson;
 import exceptions.AlreadyTakenException;
 import exceptions.AuthenticationException;
 import exceptions.InvalidGameIdException;
+import json.Json;
 import model.GameData;
 import request.GameCreationRequest;
 import request.JoinGameRequest;
@@ -17,6 +18,10 @@ import spark.Request;
 import spark.Response;
 import wrappers.GamesWrapper;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 
 public class GameHandler {
@@ -33,7 +38,7 @@ public class GameHandler {
         this.gameService = gameService;
         this.userService = userService;
         this.adminService = adminService;
-        this.gson = new Gson();
+        this.gson = Json.GSON;
     }
 
     public Object handleGameCreation(Request req, Response res) {
@@ -104,6 +109,35 @@ public class GameHandler {
     }
 
 
+    public Object exportPgn(Request req, Response res) {
+        String authToken = req.headers("Authorization");
+        if (authToken == null || authToken.isEmpty()) {
+            res.status(401); // Unauthorized
+            return gson.toJson(new SimpleResponse(false, "error: No authorization token provided."));
+        }
+        if (!adminService.checkAuth(authToken)) {
+            res.status(401); // Unauthorized
+            return gson.toJson(new SimpleResponse(false, "error: Invalid or expired authorization token."));
+        }
+
+        // Streamed straight to the response, so the export never sits in memory whole
+        res.status(200);
+        res.type("application/x-chess-pgn");
+        res.header("Content-Disposition", "attachment; filename=\"games.pgn\"");
+        try {
+            Writer out = new BufferedWriter(new OutputStreamWriter(res.raw().getOutputStream(), StandardCharsets.UTF_8));
+            gameService.exportPgn(authToken, out);
+        } catch (Exception e) {
+            // Part of the PGN may be sent already, so an error body would only be appended to it.
+            // Dropping the connection instead tells the client the download did not finish.
+            System.err.println("PGN export failed: " + e.getMessage());
+            if (res.raw() instanceof org.eclipse.jetty.server.Response jettyResponse) {
+                jettyResponse.getHttpChannel().abort(e);
+            }
+        }
+        return "";
+    }
+
     public Object joinGameHandler(Request req, Response res) {
         try {
             String authToken = req.headers("Authorization");
@@ -2,6 +2,7 @@ package handlers;
 
 import com.google.gson.Gson;
 import exceptions.AuthenticationException;
+import json.Json;
 import request.LoginRequest;
 import request.RegisterRequest;
 import result.LoginResult;
@@ -16,7 +17,7 @@ public class UserHandler {
 
     public UserHandler(UserService userService) {
         this.userService = userService;
-        this.gson = new Gson();
+        this.gson = Json.GSON;
     }
 
     public Object handleLogin(Request req, Response res) {
@@ -1,18 +1,30 @@
 package server;
 
+import chess.ChessGame;
+import chess.Tablebase;
+import chess.engine.OpeningBook;
 import dataAccess.*;
 import handlers.AdminHandler;
+import handlers.BotHandler;
 import handlers.GameHandler;
 import handlers.UserHandler;
+import server.websocket.BotManager;
 import server.websocket.WSHandler;
 import server.websocket.WSServer;
 import service.AdminService;
+import service.AnalysisService;
 import service.GameService;
 import service.UserService;
 import spark.Spark;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 public class Server {
 
+    private AnalysisService analysisService;
+    private BotManager botManager;
 
     public int run(int desiredPort) {
         Spark.port(desiredPort);
@@ -42,24 +54,68 @@ public class Server {
         GameService gameService = new GameService(gameDAO, authDAO, userDAO);
         GameHandler gameHandler = new GameHandler(gameService, userService, adminService);
 
-        WSHandler wsHandler = new WSHandler(gameService, userService, adminService);
+        ChessGame.setTablebase(loadTablebase());
+        analysisService = new AnalysisService(gameDAO);
+
+        WSHandler wsHandler = new WSHandler(gameService, userService, adminService, analysisService);
 
         Spark.webSocket("/connect", wsHandler);
 
+        botManager = new BotManager(wsHandler, userService, gameService);
+        botManager.setOpeningBook(loadOpeningBook());
+        BotHandler botHandler = new BotHandler(botManager, adminService);
+
         // Register endpoints
         Spark.post("/session", userHandler::handleLogin);
         Spark.post("/user", userHandler::registerUser);
         Spark.delete("/db", AdminHandler::clearApplicationData);
+        Spark.get("/db/pool", AdminHandler::poolStats);
         Spark.delete("/session", userHandler::logoutUser);
         Spark.post("/game", gameHandler::handleGameCreation);
         Spark.get("/game", gameHandler::listGames);
+        Spark.get("/game/pgn", gameHandler::exportPgn);
         Spark.put("/game", gameHandler::joinGameHandler);
+        Spark.post("/game/bot", botHandler::addBot);
 
         Spark.awaitInitialization();
         return Spark.port();
     }
 
+    // The book file is optional; without one bots search every move
+    private static OpeningBook loadOpeningBook() {
+        String path = System.getProperty("chess.openingBook");
+        if (path == null || !Files.isRegularFile(Path.of(path))) {
+            return null;
+        }
+        try {
+            return OpeningBook.open(Path.of(path));
+        } catch (IOException e) {
+            System.err.println("Could not load opening book " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Tablebases are optional too; without them endgames are searched like any position
+    private static Tablebase loadTablebase() {
+        String path = System.getProperty("chess.tablebase");
+        if (path == null || !Files.isDirectory(Path.of(path))) {
+            return null;
+        }
+        try {
+            return Tablebase.open(Path.of(path));
+        } catch (IOException e) {
+            System.err.println("Could not load tablebase " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
     public void stop() {
+        if (botManager != null) {
+            botManager.shutdown();
+        }
+        if (analysisService != null) {
+            analysisService.shutdown();
+        }
         Spark.stop();
         Spark.awaitStop();
     }
@@ -0,0 +1,222 @@
+package server.websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+import chess.engine.OpeningBook;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import com.google.gson.Gson;
+import exceptions.AlreadyTakenException;
+import exceptions.AuthenticationException;
+import exceptions.InvalidGameIdException;
+import json.Json;
+import request.JoinGameRequest;
+import request.RegisterRequest;
+import result.RegisterResult;
+import service.GameService;
+import service.UserService;
+import webSocketMessages.userCommands.JoinPlayer;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Seats {@link BotPlayer}s in games and runs all of their turns on one shared scheduler.
+ * <p>
+ * A bot costs one small object while it waits for its turn. Only bots that are thinking
+ * use a thread, so hundreds of bot games can share a pool sized to the cores. Each
+ * scheduler thread keeps its own search and table and uses them for whichever bot runs on it.
+ */
+public class BotManager {
+
+    // A bot leaves after this many of its own moves, so two bots shuffling back and forth end
+    public static final int MAX_MOVES = 300;
+
+    // Strength caps, so one bot cannot hold a scheduler thread for long
+    public static final int MAX_DEPTH = 20;
+    public static final long MAX_MOVE_TIME = 5_000;
+    public static final long DEFAULT_MOVE_TIME = 500;
+
+    private static final int TABLE_MEGABYTES = 4;
+
+    private final WSHandler wsHandler;
+    private final UserService userService;
+    private final GameService gameService;
+    private final long moveDelayMillis;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Set<BotPlayer> bots = ConcurrentHashMap.newKeySet();
+    // Users of bots that have left, signed in and free to play as again
+    private final Deque<BotAccount> idleAccounts = new ConcurrentLinkedDeque<>();
+    private final Gson gson = Json.GSON;
+    private volatile OpeningBook openingBook;
+
+    private final ThreadLocal<Search> searches = Search.perThread(TABLE_MEGABYTES);
+
+    public BotManager(WSHandler wsHandler, UserService userService, GameService gameService) {
+        this(wsHandler, userService, gameService, Runtime.getRuntime().availableProcessors(), 0);
+    }
+
+    /**
+     * @param threads         scheduler threads shared by every bot, at least 1
+     * @param moveDelayMillis how long a bot waits before it starts thinking, to pace load tests
+     */
+    public BotManager(WSHandler wsHandler, UserService userService, GameService gameService,
+                      int threads, long moveDelayMillis) {
+        this.wsHandler = wsHandler;
+        this.userService = userService;
+        this.gameService = gameService;
+        this.moveDelayMillis = moveDelayMillis;
+
+        AtomicInteger worker = new AtomicInteger();
+        this.scheduler = new ScheduledThreadPoolExecutor(threads, task -> {
+            Thread thread = new Thread(task, "bot-" + worker.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        wsHandler.setBotManager(this);
+    }
+
+    /**
+     * Joins a bot user to a game like any player and seats it with JOIN_PLAYER. A bot seated
+     * as white makes its first move straight away.
+     * <p>
+     * Bots that have left hand their user back for the next bot to play as, so a load test
+     * registers only as many bot users as it has bots playing at once.
+     *
+     * @param gameID   the game to play in
+     * @param color    the side to play
+     * @param strength depth and time per move; both are capped and a default time applies
+     * @return the bot, which plays until the game ends or it is told to leave
+     * @throws InvalidGameIdException if there is no such game
+     * @throws AlreadyTakenException  if the color is already taken
+     */
+    public BotPlayer seat(int gameID, ChessGame.TeamColor color, SearchLimits strength)
+            throws InvalidGameIdException, AlreadyTakenException, AuthenticationException {
+        SearchLimits capped = strength.capped(MAX_DEPTH, MAX_MOVE_TIME, DEFAULT_MOVE_TIME);
+        BotAccount account = idleAccount(gameID);
+        if (account != null) {
+            try {
+                return seatAs(account, gameID, color, capped);
+            } catch (AuthenticationException e) {
+                // The users were cleared with the rest of the data, so no idle account works
+                idleAccounts.clear();
+            }
+        }
+        return seatAs(register(), gameID, color, capped);
+    }
+
+    private BotPlayer seatAs(BotAccount account, int gameID, ChessGame.TeamColor color, SearchLimits strength)
+            throws InvalidGameIdException, AlreadyTakenException, AuthenticationException {
+        try {
+            gameService.joinGame(account.authToken(), new JoinGameRequest(gameID, color.toString()));
+        } catch (InvalidGameIdException | AlreadyTakenException e) {
+            idleAccounts.push(account);
+            throw e;
+        }
+        BotPlayer bot = new BotPlayer(this, wsHandler, gameService, account.username(), account.authToken(),
+                gameID, color, strength);
+        bots.add(bot);
+        wsHandler.handle(bot, gson.toJson(new JoinPlayer(account.authToken(), gameID, color)));
+        return bot;
+    }
+
+    // One not seated in this game already, so a game never has the same user on both sides
+    private BotAccount idleAccount(int gameID) {
+        for (BotAccount account : idleAccounts) {
+            if (gameService.getPlayerColor(gameID, account.username()) == null && idleAccounts.remove(account)) {
+                return account;
+            }
+        }
+        return null;
+    }
+
+    private BotAccount register() {
+        String username = "bot-" + UUID.randomUUID().toString().substring(0, 8);
+        RegisterResult registered = userService.register(
+                new RegisterRequest(username, UUID.randomUUID().toString(), username + "@bots"));
+        if (!registered.success()) {
+            throw new IllegalStateException("Could not register bot: " + registered.message());
+        }
+        return new BotAccount(username, registered.authToken());
+    }
+
+    /**
+     * @param openingBook the book bots play from while a game is in it, or null to always search
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    /**
+     * @return the bots still playing
+     */
+    public List<BotPlayer> activeBots() {
+        return new ArrayList<>(bots);
+    }
+
+    /**
+     * Makes every bot seated in a game leave it, for when the game has ended
+     *
+     * @param gameID the game that ended
+     */
+    public void leaveGame(int gameID) {
+        for (BotPlayer bot : activeBots()) {
+            if (bot.getGameID() == gameID) {
+                bot.leave();
+            }
+        }
+    }
+
+    /**
+     * Makes every bot leave its game and stops the scheduler
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        for (BotPlayer bot : activeBots()) {
+            bot.leave();
+        }
+    }
+
+    void schedule(Runnable turn) {
+        if (!scheduler.isShutdown()) {
+            scheduler.schedule(turn, moveDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return a weighted random book move for the game, or null when it is out of book
+     */
+    ChessMove bookMove(ChessGame game) {
+        OpeningBook book = openingBook;
+        if (book == null) {
+            return null;
+        }
+        int move = book.pickMove(game.copyPosition(), ThreadLocalRandom.current());
+        return move == Move.NONE ? null : Move.toChessMove(move);
+    }
+
+    SearchResult search(ChessGame game, SearchLimits strength) {
+        return searches.get().search(game, strength);
+    }
+
+    void remove(BotPlayer bot) {
+        if (bots.remove(bot)) {
+            idleAccounts.push(new BotAccount(bot.getUsername(), bot.getAuthToken()));
+        }
+    }
+
+    private record BotAccount(String username, String authToken) {
+    }
+}
@@ -0,0 +1,160 @@
+package server.websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.engine.SearchLimits;
+import com.google.gson.Gson;
+import json.Json;
+import service.GameService;
+import webSocketMessages.serverMessages.ServerMessage;
+import webSocketMessages.userCommands.Leave;
+import webSocketMessages.userCommands.MakeMove;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An engine player seated in one game. It is a {@link Connection} like any client: the
+ * server's messages come to {@link #send(String)}, and its moves go through
+ * {@link WSHandler#handle(Connection, String)} as MAKE_MOVE commands.
+ * <p>
+ * A bot has no thread of its own. When a LOAD_GAME arrives it books a turn on its
+ * {@link BotManager}'s scheduler. That turn reads the game and, if it is the bot's move,
+ * searches and answers. Turns never overlap: a message that arrives while one is running
+ * makes it look again afterwards instead of starting a second one.
+ */
+public class BotPlayer implements Connection {
+
+    private static final Gson GSON = Json.GSON;
+
+    private final BotManager manager;
+    private final WSHandler wsHandler;
+    private final GameService gameService;
+    private final String username;
+    private final String authToken;
+    private final int gameID;
+    private final ChessGame.TeamColor color;
+    private final SearchLimits strength;
+
+    // Wake-ups not yet seen by a turn; the one that takes it from 0 books the turn
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger movesPlayed = new AtomicInteger();
+    private final AtomicInteger errorsReceived = new AtomicInteger();
+    private volatile boolean open = true;
+
+    BotPlayer(BotManager manager, WSHandler wsHandler, GameService gameService, String username, String authToken,
+              int gameID, ChessGame.TeamColor color, SearchLimits strength) {
+        this.manager = manager;
+        this.wsHandler = wsHandler;
+        this.gameService = gameService;
+        this.username = username;
+        this.authToken = authToken;
+        this.gameID = gameID;
+        this.color = color;
+        this.strength = strength;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    String getAuthToken() {
+        return authToken;
+    }
+
+    public int getGameID() {
+        return gameID;
+    }
+
+    public ChessGame.TeamColor getColor() {
+        return color;
+    }
+
+    public int getMovesPlayed() {
+        return movesPlayed.get();
+    }
+
+    /**
+     * @return how many ERROR messages the server has sent this bot, such as for a rejected move
+     */
+    public int getErrorsReceived() {
+        return errorsReceived.get();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void send(String message) {
+        if (!open) {
+            return;
+        }
+        ServerMessage serverMessage = GSON.fromJson(message, ServerMessage.class);
+        if (serverMessage.getServerMessageType() == ServerMessage.ServerMessageType.ERROR) {
+            errorsReceived.incrementAndGet();
+            System.err.println("Bot " + username + " got an error in game " + gameID + ": " + message);
+        }
+        if (serverMessage.getServerMessageType() == ServerMessage.ServerMessageType.LOAD_GAME
+                && pending.getAndIncrement() == 0) {
+            manager.schedule(this::takeTurns);
+        }
+    }
+
+    /**
+     * Leaves the game; the bot makes no more moves
+     */
+    public void leave() {
+        if (open) {
+            open = false;
+            wsHandler.handle(this, GSON.toJson(new Leave(authToken, gameID)));
+            manager.remove(this);
+        }
+    }
+
+    private void takeTurns() {
+        for (;;) {
+            int seen = pending.get();
+            try {
+                takeTurn();
+            } catch (RuntimeException e) {
+                System.err.println("Bot " + username + " failed in game " + gameID + ": " + e.getMessage());
+                leave();
+            }
+            if (pending.compareAndSet(seen, 0)) {
+                return;
+            }
+        }
+    }
+
+    private void takeTurn() {
+        if (!open) {
+            return;
+        }
+        ChessGame game = gameService.getGame(gameID);
+        if (game == null || gameService.isGameOver(gameID)
+                || movesPlayed.get() >= BotManager.MAX_MOVES) {
+            leave();
+            return;
+        }
+        if (game.getTeamTurn() != color) {
+            return;
+        }
+        if (game.adjudicate() != ChessGame.Outcome.ONGOING) {
+            leave();
+            return;
+        }
+
+        // Known openings are answered from the book without searching
+        ChessMove move = manager.bookMove(game);
+        if (move == null) {
+            move = manager.search(game, strength).getBestMove();
+        }
+        if (move == null) {
+            leave();
+            return;
+        }
+        movesPlayed.incrementAndGet();
+        wsHandler.handle(this, GSON.toJson(new MakeMove(authToken, gameID, move)));
+    }
+}
@@ -0,0 +1,14 @@
+package server.websocket;
+
+import java.io.IOException;
+
+/**
+ * One end of the /connect protocol that the server can send messages to: a client's
+ * WebSocket session, or a bot playing inside the server
+ */
+public interface Connection {
+
+    boolean isOpen();
+
+    void send(String message) throws IOException;
+}
@@ -1,21 +1,20 @@
 package server.websocket;
 
-import org.eclipse.jetty.websocket.api.Session;
 import java.io.IOException;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class ConnectionManager {
-    private final Map<Integer, Set<Session>> gameSessions = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Connection>> gameSessions = new ConcurrentHashMap<>();
 
-    public void addSession(int gameId, Session session) {
+    public void addSession(int gameId, Connection session) {
         gameSessions.computeIfAbsent(gameId, k -> ConcurrentHashMap.newKeySet()).add(session);
         System.out.println("Session added for game ID " + gameId);
     }
 
-    public void removeSession(int gameId, Session session) {
-        Set<Session> sessions = gameSessions.get(gameId);
+    public void removeSession(int gameId, Connection session) {
+        Set<Connection> sessions = gameSessions.get(gameId);
         if (sessions != null) {
             sessions.remove(session);
             System.out.println("Session removed for game ID " + gameId);
@@ -26,10 +25,10 @@ public class ConnectionManager {
         }
     }
 
-    public void sendMessageToSession(Session session, String message) {
+    public void sendMessageToSession(Connection session, String message) {
         try {
             if (session != null && session.isOpen()) {
-                session.getRemote().sendString(message);
+                session.send(message);
             } else {
                 System.out.println("Session is closed or null, cannot send message.");
             }
@@ -39,12 +38,12 @@ public class ConnectionManager {
     }
 
     public void broadcastToGame(int gameId, String message) {
-        Set<Session> sessions = gameSessions.get(gameId);
+        Set<Connection> sessions = gameSessions.get(gameId);
         if (sessions != null) {
-            for (Session session : sessions) {
+            for (Connection session : sessions) {
                 try {
                     if (session.isOpen()) {
-                        session.getRemote().sendString(message);
+                        session.send(message);
                     }
                 } catch (IOException e) {
                     System.out.println("Error sending message to one of the game " + gameId + " sessions: " + e.getMessage());
@@ -55,13 +54,13 @@ public class ConnectionManager {
         }
     }
 
-    public void broadcastToGameExcept(int gameId, Session exceptSession, String message) {
-        Set<Session> sessions = gameSessions.get(gameId);
+    public void broadcastToGameExcept(int gameId, Connection exceptSession, String message) {
+        Set<Connection> sessions = gameSessions.get(gameId);
         if (sessions != null) {
-            for (Session session : sessions) {
+            for (Connection session : sessions) {
                 try {
                     if (session != exceptSession && session.isOpen()) {
-                        session.getRemote().sendString(message);
+                        session.send(message);
                     }
                 } catch (IOException e) {
                     System.out.println("Error sending message to one of the game " + gameId + " sessions (excluding one session): " + e.getMessage());
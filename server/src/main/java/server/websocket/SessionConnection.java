@@ -0,0 +1,34 @@
+package server.websocket;
+
+import org.eclipse.jetty.websocket.api.Session;
+
+import java.io.IOException;
+
+/**
+ * A client connected over a real WebSocket
+ */
+public class SessionConnection implements Connection {
+
+    private final Session session;
+
+    public SessionConnection(Session session) {
+        this.session = session;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return session.isOpen();
+    }
+
+    /**
+     * Sends one message at a time per session. Analysis workers, bots and the thread
+     * handling a move can all write to one client, and Jetty's blocking remote endpoint
+     * does not allow concurrent writes.
+     */
+    @Override
+    public void send(String message) throws IOException {
+        synchronized (session) {
+            session.getRemote().sendString(message);
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package server.websocket;
 
 import chess.ChessGame;
+import chess.ChessMove;
 import chess.ChessPiece;
 import chess.ChessPosition;
+import chess.MoveNotation;
+import json.Json;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketConnect;
@@ -12,7 +15,11 @@ import com.google.gson.Gson;
 import request.JoinGameRequest;
 import result.JoinGameResult;
 import server.websocket.ConnectionManager;
+import chess.engine.SearchLimits;
+import exceptions.AnalysisRejectedException;
+import exceptions.InvalidGameIdException;
 import service.AdminService;
+import service.AnalysisService;
 import service.GameService;
 import service.UserService;
 import webSocketMessages.serverMessages.LoadGame;
@@ -22,24 +29,37 @@ import webSocketMessages.serverMessages.Error;
 import webSocketMessages.userCommands.*;
 
 import java.io.IOException;
-import java.util.Objects;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 @WebSocket
 public class WSHandler {
 
     private final ConnectionManager connectionManager = new ConnectionManager();
-    private final Gson gson = new Gson();
+    private final Map<Session, Connection> connections = new ConcurrentHashMap<>();
+    private final Gson gson = Json.GSON;
 
     private final GameService gameService;
     private final UserService userService;
 
     private final AdminService adminService;
 
-    public WSHandler(GameService gameService, UserService userService, AdminService adminService) {
+    private final AnalysisService analysisService;
+
+    // Set once bots can be seated; they are sent away when their game ends
+    private volatile BotManager botManager;
+
+    public WSHandler(GameService gameService, UserService userService, AdminService adminService,
+                     AnalysisService analysisService) {
         this.gameService = gameService;
         this.userService = userService;
         this.adminService = adminService;
+        this.analysisService = analysisService;
+    }
+
+    void setBotManager(BotManager botManager) {
+        this.botManager = botManager;
     }
 
     @OnWebSocketConnect
@@ -50,28 +70,44 @@ public class WSHandler {
     @OnWebSocketClose
     public void onClose(Session session, int statusCode, String reason) {
         System.out.println("Closed:");
+        connections.remove(session);
     }
 
     @OnWebSocketMessage
     public void onMessage(Session session, String message) {
+        handle(connections.computeIfAbsent(session, SessionConnection::new), message);
+    }
+
+    /**
+     * Handles one command from a connection. WebSocket clients come through
+     * {@link #onMessage}; bots running inside the server call this directly.
+     *
+     * @param session where replies to this command go
+     * @param message the command as JSON
+     */
+    public void handle(Connection session, String message) {
         try {
+            // One parse: the adapter hands back the subclass the command type names
             UserGameCommand command = gson.fromJson(message, UserGameCommand.class);
             System.out.println("Received command type: " + command.getCommandType());  // Log command type
             switch (command.getCommandType()) {
                 case LEAVE:
-                    handleLeaveGame(gson.fromJson(message, Leave.class), session);
+                    handleLeaveGame((Leave) command, session);
                     break;
                 case JOIN_OBSERVER:
-                    handleJoinObserver(gson.fromJson(message, JoinObserver.class), session);
+                    handleJoinObserver((JoinObserver) command, session);
                     break;
                 case JOIN_PLAYER:
-                    handleJoinPlayer(gson.fromJson(message, JoinPlayer.class), session);
+                    handleJoinPlayer((JoinPlayer) command, session);
                     break;
                 case MAKE_MOVE:
-                    handleMakeMove(gson.fromJson(message, MakeMove.class), session);
+                    handleMakeMove((MakeMove) command, session);
                     break;
                 case RESIGN:
-                    handleResign(gson.fromJson(message, Resign.class), session);
+                    handleResign((Resign) command, session);
+                    break;
+                case ANALYZE:
+                    handleAnalyze((Analyze) command, session);
                     break;
                 default:
                     sendError(session, "Unsupported command type: " + command.getCommandType());
@@ -83,7 +119,7 @@ public class WSHandler {
         }
     }
 
-    private void handleResign(Resign command, Session session) throws IOException {
+    private void handleResign(Resign command, Connection session) throws IOException {
         try {
             // Retrieve the current game state
             ChessGame currentGame = gameService.getGame(command.getGameID());
@@ -100,19 +136,20 @@ public class WSHandler {
                 return;
             }
 
-            // Handle Double Resign!
-            if (Objects.equals(gameService.getGameStatus(command.getGameID()), "Resigned")){
-                sendError(session, "Can't resign the same game twice!");
+            // Handle Double Resign, or resigning a game already decided
+            if (gameService.isGameOver(command.getGameID())) {
+                sendError(session, "Can't resign a game that is over!");
                 return;
             }
 
             // Resign the game
-            gameService.updateGameStatus(command.getGameID());
+            gameService.resignGame(command.getGameID(), playerColor);
 
             // Notify all clients that the game has ended due to resignation
             String notificationMessage = "Game has been resigned by " + adminService.getUsernameByToken(command.getAuthToken());
             Notification notification = new Notification(ServerMessage.ServerMessageType.NOTIFICATION, notificationMessage);
             connectionManager.broadcastToGame(command.getGameID(), gson.toJson(notification));
+            sendBotsAway(command.getGameID());
 
         } catch (Exception e) {
             sendError(session, "Error processing resignation: " + e.getMessage());
@@ -120,7 +157,7 @@ public class WSHandler {
     }
 
 
-    private void handleMakeMove(MakeMove command, Session session) throws IOException {
+    private void handleMakeMove(MakeMove command, Connection session) throws IOException {
 
 
         try {
@@ -128,8 +165,8 @@ public class WSHandler {
             ChessGame currentGame = gameService.getGame(command.getGameID());
             System.out.println("currentGame.getTeamTurn().toString() " + currentGame.getTeamTurn().toString());
 
-            if (Objects.equals(gameService.getGameStatus(command.getGameID()), "Resigned")){
-                sendError(session, "Resigned game! Can't make moves!");
+            if (gameService.isGameOver(command.getGameID())) {
+                sendError(session, "Game is over! Can't make moves!");
                 return;
             }
 
@@ -138,10 +175,15 @@ public class WSHandler {
                 return;
             }
 
-            ChessPiece piece = currentGame.getBoard().getPiece(command.getMove().getStartPosition());
+            ChessMove move = command.getMove();
+            if (move == null) {
+                sendError(session, "No move given.");
+                return;
+            }
+            ChessPiece piece = currentGame.getBoard().getPiece(move.getStartPosition());
 
             // Verify if the move is valid
-            if (!currentGame.isMoveValid(command.getMove(), currentGame.getBoard(), command.getMove().getStartPosition())) {
+            if (!currentGame.isMoveValid(move, currentGame.getBoard(), move.getStartPosition())) {
                 sendError(session, "Invalid move.");
                 return;
             }
@@ -158,32 +200,57 @@ public class WSHandler {
             ChessGame.TeamColor playerColor = gameService.getPlayerColor(command.getGameID(), username);
             currentGame.setTeamTurn(playerColor);
 
-            // Apply the move
-            currentGame.makeMove(command.getMove());
+            // Apply the move, naming it in SAN first since that needs the position before it
+            String san = MoveNotation.toSan(currentGame, move);
+            currentGame.makeMove(move);
 
-            // Update the game state in the database
-            boolean updateSuccess = gameService.updateGameState(command.getGameID(), currentGame);
+            // Log the move in the database
+            boolean updateSuccess = gameService.recordMove(command.getGameID(), move, currentGame);
             if (!updateSuccess) {
                 sendError(session, "Failed to update game state.");
                 return;
             }
 
-            // Serialize the updated game state to JSON
-            String updatedGameStateJson = gson.toJson(new LoadGame(ServerMessage.ServerMessageType.LOAD_GAME, gson.toJson(currentGame)));
+            // The updated game as FEN, with the evaluation for observers' eval bar
+            String updatedGameStateJson = gson.toJson(loadGame(currentGame));
 
             // Send LOAD_GAME message to all clients including the root client
             connectionManager.broadcastToGame(command.getGameID(), updatedGameStateJson);
 
-            Notification notification = new Notification(ServerMessage.ServerMessageType.NOTIFICATION,"Move has been made!");
+            Notification notification = new Notification(ServerMessage.ServerMessageType.NOTIFICATION,"Move played: " + san);
             connectionManager.broadcastToGameExcept(command.getGameID(), session, gson.toJson(notification));
 
+            // Mate, stalemate, bare kings or a tablebase result ends the game for everyone
+            ChessGame.Outcome outcome = currentGame.adjudicate();
+            if (outcome != ChessGame.Outcome.ONGOING) {
+                gameService.finishGame(command.getGameID());
+                Notification gameOver = new Notification(ServerMessage.ServerMessageType.NOTIFICATION, gameOverMessage(outcome));
+                connectionManager.broadcastToGame(command.getGameID(), gson.toJson(gameOver));
+                sendBotsAway(command.getGameID());
+            }
+
         } catch (Exception e) {
             sendError(session, "Error processing move: " + e.getMessage());
         }
     }
 
 
-    private void handleJoinPlayer(JoinPlayer command, Session session) throws IOException {
+    private static LoadGame loadGame(ChessGame game) {
+        if (game == null) {
+            return new LoadGame(ServerMessage.ServerMessageType.LOAD_GAME, "game");
+        }
+        return new LoadGame(ServerMessage.ServerMessageType.LOAD_GAME, "game", game.evaluation(), game.toFen());
+    }
+
+    private static String gameOverMessage(ChessGame.Outcome outcome) {
+        return switch (outcome) {
+            case WHITE_WINS -> "Game over: white wins.";
+            case BLACK_WINS -> "Game over: black wins.";
+            default -> "Game over: draw.";
+        };
+    }
+
+    private void handleJoinPlayer(JoinPlayer command, Connection session) throws IOException {
 
         try {
 
@@ -197,8 +264,7 @@ public class WSHandler {
 
             // If successful, proceed to add session and send game state
             connectionManager.addSession(command.getGameID(), session);
-            String game = "Detailed game state here"; // Fetch actual game state
-            ServerMessage loadGameMessage = new LoadGame(ServerMessage.ServerMessageType.LOAD_GAME, game);
+            ServerMessage loadGameMessage = loadGame(gameService.getGame(command.getGameID()));
             connectionManager.sendMessageToSession(session, gson.toJson(loadGameMessage));
 
             Notification notification = new Notification(ServerMessage.ServerMessageType.NOTIFICATION, "Player joined as: " + command.getPlayerColor());
@@ -211,7 +277,7 @@ public class WSHandler {
     }
 
 
-    private void handleJoinObserver(JoinObserver command, Session session) throws IOException {
+    private void handleJoinObserver(JoinObserver command, Connection session) throws IOException {
 
 
         boolean canObserverJoin = gameService.joinObserverChecks(command.getGameID(), command.getAuthToken());
@@ -224,21 +290,55 @@ public class WSHandler {
         connectionManager.addSession(command.getGameID(), session);
 
         // Load game message to the observer
-        String game = "Game in load game String!!";
-        ServerMessage loadGameMessage = new LoadGame(ServerMessage.ServerMessageType.LOAD_GAME, game);
+        ServerMessage loadGameMessage = loadGame(gameService.getGame(command.getGameID()));
         connectionManager.sendMessageToSession(session, gson.toJson(loadGameMessage));
 
         // Notification to all other clients
         Notification notification = new Notification(ServerMessage.ServerMessageType.NOTIFICATION,"Observer joined the game.");connectionManager.broadcastToGameExcept(command.getGameID(), session, gson.toJson(notification));
     }
 
-    private void handleLeaveGame(Leave command, Session session) throws IOException {
+    private void handleAnalyze(Analyze command, Connection session) {
+        if (!adminService.checkAuth(command.getAuthToken())) {
+            sendError(session, "Error: bad AuthToken");
+            return;
+        }
+
+        // Players get their own game analyzed ahead of observers
+        String username = adminService.getUsernameByToken(command.getAuthToken());
+        AnalysisService.Priority priority = gameService.getPlayerColor(command.getGameID(), username) != null
+                ? AnalysisService.Priority.HIGH : AnalysisService.Priority.NORMAL;
+        SearchLimits limits = new SearchLimits().setDepth(command.getDepth()).setMoveTime(command.getMoveTime());
+
+        try {
+            // Results arrive on an analysis worker thread and go straight to this session
+            analysisService.submit(username, command.getGameID(), limits, priority,
+                    message -> connectionManager.sendMessageToSession(session, gson.toJson(message)));
+        } catch (InvalidGameIdException | AnalysisRejectedException e) {
+            sendError(session, e.getMessage());
+        }
+    }
+
+    private void handleLeaveGame(Leave command, Connection session) throws IOException {
         connectionManager.removeSession(command.getGameID(), session);
         Notification notification = new Notification(ServerMessage.ServerMessageType.NOTIFICATION,"Player has left the game.");
         connectionManager.broadcastToGame(command.getGameID(), gson.toJson(notification));
+
+        // Clients resign with LEAVE, so a player leaving ends the game for any bot in it;
+        // an observer leaving does not
+        String username = adminService.getUsernameByToken(command.getAuthToken());
+        if (username != null && gameService.getPlayerColor(command.getGameID(), username) != null) {
+            sendBotsAway(command.getGameID());
+        }
+    }
+
+    private void sendBotsAway(int gameID) {
+        BotManager bots = botManager;
+        if (bots != null) {
+            bots.leaveGame(gameID);
+        }
     }
 
-    private void sendError(Session session, String errorMessage) {
+    private void sendError(Connection session, String errorMessage) {
         System.err.println("Sending error: " + errorMessage);  // Log the specific error message
         ServerMessage error = new Error(ServerMessage.ServerMessageType.ERROR, "Error!");
         connectionManager.sendMessageToSession(session, gson.toJson(error));
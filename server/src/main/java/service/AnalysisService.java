@@ -0,0 +1,256 @@
+package service;
+
+import chess.ChessMove;
+import chess.Move;
+import chess.Position;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import dataAccess.GameDAO;
+import exceptions.AnalysisRejectedException;
+import exceptions.InvalidGameIdException;
+import model.GameData;
+import webSocketMessages.serverMessages.AnalysisUpdate;
+import webSocketMessages.serverMessages.Error;
+import webSocketMessages.serverMessages.ServerMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs engine analysis of stored games in the background and streams the results back.
+ * <p>
+ * Jobs run on a fixed pool of worker threads owned by this service, so a busy analysis queue
+ * never holds up the threads that handle moves. The pool leaves one core free and its
+ * threads run at low priority. A job waits in a priority queue until a worker is free. The
+ * queue has a fixed size, and each user may only have a few jobs queued or running at once.
+ * A job over either limit is turned away straight away rather than queued without bound.
+ */
+public class AnalysisService {
+
+    public enum Priority {
+        // Players analyzing their own game
+        HIGH,
+        // Observers
+        NORMAL,
+        // Batch and admin work
+        LOW
+    }
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+    public static final int DEFAULT_USER_LIMIT = 2;
+
+    // Caps on what a single job may ask for, so one request cannot hold a worker for long
+    public static final int MAX_DEPTH = 30;
+    public static final long MAX_MOVE_TIME = 10_000;
+    public static final long DEFAULT_MOVE_TIME = 2_000;
+
+    private static final int TABLE_MEGABYTES = 16;
+
+    private final GameDAO gameDAO;
+    private final int userLimit;
+    private final ThreadPoolExecutor workers;
+    // One permit per job that may be queued or running at once
+    private final Semaphore slots;
+    private final Map<String, Integer> jobsByUser = new ConcurrentHashMap<>();
+    private final Set<Job> running = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Each worker keeps its own search and table between jobs
+    private final ThreadLocal<Search> searches = Search.perThread(TABLE_MEGABYTES);
+
+    public AnalysisService(GameDAO gameDAO) {
+        this(gameDAO, Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+                DEFAULT_QUEUE_CAPACITY, DEFAULT_USER_LIMIT);
+    }
+
+    /**
+     * @param gameDAO       where games are loaded from
+     * @param threads       worker threads, at least 1
+     * @param queueCapacity jobs that may wait for a worker on top of those running
+     * @param userLimit     jobs one user may have queued or running at once
+     */
+    public AnalysisService(GameDAO gameDAO, int threads, int queueCapacity, int userLimit) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Analysis needs at least one worker thread");
+        }
+        this.gameDAO = gameDAO;
+        this.userLimit = userLimit;
+        this.slots = new Semaphore(threads + queueCapacity);
+
+        AtomicInteger worker = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "analysis-" + worker.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues analysis of a game's current position. The position is read now, so moves made
+     * while the job waits do not change what it analyzes.
+     *
+     * @param username who asked, for their quota
+     * @param gameID   the game to analyze
+     * @param limits   depth and time wanted; both are capped and a default time applies
+     * @param priority where the job goes in the queue
+     * @param sink     receives an ANALYSIS message per search iteration and then one
+     *                 ANALYSIS_COMPLETE, or an ERROR if the search fails; called on a worker thread
+     * @throws InvalidGameIdException    if there is no such game or it has no board
+     * @throws AnalysisRejectedException if the user is over quota or the queue is full
+     */
+    public void submit(String username, int gameID, SearchLimits limits, Priority priority,
+                       Consumer<ServerMessage> sink) throws InvalidGameIdException, AnalysisRejectedException {
+        if (workers.isShutdown()) {
+            throw new AnalysisRejectedException("error: Analysis service is shut down");
+        }
+        GameData data = gameDAO.getGame(gameID);
+        if (data == null || data.getGame() == null) {
+            throw new InvalidGameIdException("error: Invalid game ID: " + gameID);
+        }
+        Position position = data.getGame().copyPosition();
+
+        if (jobsByUser.merge(username, 1, Integer::sum) > userLimit) {
+            leaveQuota(username);
+            throw new AnalysisRejectedException("error: Too many analysis requests in progress");
+        }
+        if (!slots.tryAcquire()) {
+            leaveQuota(username);
+            throw new AnalysisRejectedException("error: Analysis queue is full, try again later");
+        }
+
+        SearchLimits capped = limits.capped(MAX_DEPTH, MAX_MOVE_TIME, DEFAULT_MOVE_TIME);
+        Job job = new Job(username, gameID, position, capped, priority, sequence.getAndIncrement(), sink);
+        try {
+            workers.execute(job);
+        } catch (RuntimeException e) {
+            release(job);
+            throw new AnalysisRejectedException("error: Analysis service is shut down");
+        }
+    }
+
+    /**
+     * @return jobs waiting for a worker
+     */
+    public int queued() {
+        return workers.getQueue().size();
+    }
+
+    /**
+     * @return jobs being searched right now
+     */
+    public int running() {
+        return running.size();
+    }
+
+    /**
+     * Drops every queued job, stops the running ones and lets the workers exit
+     */
+    public void shutdown() {
+        for (Runnable dropped : workers.shutdownNow()) {
+            release((Job) dropped);
+        }
+        for (Job job : running) {
+            job.stop();
+        }
+    }
+
+    private void release(Job job) {
+        slots.release();
+        leaveQuota(job.username);
+    }
+
+    private void leaveQuota(String username) {
+        jobsByUser.computeIfPresent(username, (user, jobs) -> jobs == 1 ? null : jobs - 1);
+    }
+
+    private static AnalysisUpdate update(ServerMessage.ServerMessageType type, int gameID, Position position,
+                                         SearchResult result) {
+        // Scores come back from the side to move's point of view; the wire uses white's
+        boolean white = position.sideToMove() == Position.WHITE;
+        int score = white ? result.getScore() : -result.getScore();
+        Integer mateIn = null;
+        if (result.isMate()) {
+            int moves = (Search.MATE - Math.abs(result.getScore()) + 1) / 2;
+            mateIn = score > 0 ? moves : -moves;
+        }
+        List<ChessMove> line = new ArrayList<>();
+        for (int move : result.getPrincipalVariation()) {
+            line.add(Move.toChessMove(move));
+        }
+        return new AnalysisUpdate(type, gameID, result.getDepth(), score, mateIn, result.getBestMove(),
+                line, result.getNodes(), result.getTimeMillis());
+    }
+
+    private final class Job implements Runnable, Comparable<Job> {
+        private final String username;
+        private final int gameID;
+        private final Position position;
+        private final SearchLimits limits;
+        private final Priority priority;
+        private final long sequence;
+        private final Consumer<ServerMessage> sink;
+        private volatile Search search;
+
+        Job(String username, int gameID, Position position, SearchLimits limits, Priority priority,
+            long sequence, Consumer<ServerMessage> sink) {
+            this.username = username;
+            this.gameID = gameID;
+            this.position = position;
+            this.limits = limits;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.sink = sink;
+        }
+
+        @Override
+        public void run() {
+            running.add(this);
+            Search search = searches.get();
+            this.search = search;
+            try {
+                if (workers.isShutdown()) {
+                    return;
+                }
+                search.setListener(result -> sink.accept(
+                        update(ServerMessage.ServerMessageType.ANALYSIS, gameID, position, result)));
+                SearchResult result = search.search(position, limits);
+                sink.accept(update(ServerMessage.ServerMessageType.ANALYSIS_COMPLETE, gameID, position, result));
+            } catch (RuntimeException e) {
+                System.err.println("Analysis of game " + gameID + " failed: " + e.getMessage());
+                sink.accept(new Error(ServerMessage.ServerMessageType.ERROR, "Analysis failed: " + e.getMessage()));
+            } finally {
+                search.setListener(null);
+                this.search = null;
+                running.remove(this);
+                release(this);
+            }
+        }
+
+        void stop() {
+            Search current = search;
+            if (current != null) {
+                current.stop();
+            }
+        }
+
+        // Higher priority first, then first come first served
+        @Override
+        public int compareTo(Job other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
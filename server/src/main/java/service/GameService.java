@@ -1,6 +1,10 @@
 package service;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.PgnGame;
+import chess.PgnWriter;
 import dataAccess.AuthDAO;
 import dataAccess.GameDAO;
 import dataAccess.UserDAO;
@@ -12,7 +16,11 @@ import request.JoinGameRequest;
 import result.GameCreationResult;
 import result.JoinGameResult;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.Collection;
+import java.util.List;
 
 
 public class GameService {
@@ -20,6 +28,11 @@ public class GameService {
     private final AuthDAO authDAO;
     private final UserDAO userDAO;
 
+    // Statuses stored in game_status besides "Active" and "Finished"; games resigned before
+    // the side was kept have plain "Resigned"
+    private static final String WHITE_RESIGNED = "White resigned";
+    private static final String BLACK_RESIGNED = "Black resigned";
+
     public GameService(GameDAO gameDAO, AuthDAO authDAO, UserDAO userDAO) {
         this.gameDAO = gameDAO;
         this.authDAO = authDAO;
@@ -62,6 +75,76 @@ public class GameService {
         return gameDAO.listGames();
     }
 
+    /**
+     * Writes every stored game as PGN. Games are read and written one at a time, so the
+     * export runs in constant memory however many games there are.
+     *
+     * @param out where the PGN goes; it is flushed but not closed
+     */
+    public void exportPgn(String authToken, Writer out) throws AuthenticationException, IOException {
+        if (!authDAO.isValidToken(authToken)) {
+            throw new AuthenticationException("Invalid or expired authToken.");
+        }
+
+        PgnWriter writer = new PgnWriter(out);
+        try {
+            gameDAO.forEachGameWithMoves((game, moves) -> {
+                try {
+                    writer.write(toPgn(game, moves, gameDAO.getGameStatus(game.getGameID())));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    // A game's logged moves are written from the initial position when they lead to where it
+    // stands. They need not: a game set up from a FEN, or stored whole, starts elsewhere, and
+    // then the PGN starts at its current position with no moves. Either way a FEN tag says where.
+    static PgnGame toPgn(GameData data, List<ChessMove> moves, String status) {
+        PgnGame game = new PgnGame()
+                .setTag("Event", data.getGameName())
+                .setTag("White", data.getWhiteUsername())
+                .setTag("Black", data.getBlackUsername());
+        ChessGame chessGame = data.getGame();
+        if (chessGame != null) {
+            if (replaysTo(chessGame, moves)) {
+                game.setTag("SetUp", "1").setTag("FEN", new ChessGame().toFen());
+                game.getMoves().addAll(moves);
+            } else {
+                game.setTag("SetUp", "1").setTag("FEN", chessGame.toFen());
+            }
+            if (WHITE_RESIGNED.equals(status)) {
+                game.setResult(PgnGame.BLACK_WINS);
+            } else if (BLACK_RESIGNED.equals(status)) {
+                game.setResult(PgnGame.WHITE_WINS);
+            } else {
+                game.setResult(switch (chessGame.adjudicate()) {
+                    case WHITE_WINS -> PgnGame.WHITE_WINS;
+                    case BLACK_WINS -> PgnGame.BLACK_WINS;
+                    case DRAW -> PgnGame.DRAW;
+                    case ONGOING -> PgnGame.UNKNOWN;
+                });
+            }
+        }
+        return game;
+    }
+
+    private static boolean replaysTo(ChessGame game, List<ChessMove> moves) {
+        ChessGame replay = new ChessGame();
+        for (ChessMove move : moves) {
+            try {
+                replay.makeMove(move);
+            } catch (InvalidMoveException e) {
+                return false;
+            }
+        }
+        return replay.toFen().equals(game.toFen());
+    }
+
     public JoinGameResult joinGame(String authToken, JoinGameRequest request) throws AuthenticationException, AlreadyTakenException, InvalidGameIdException {
         if (!authDAO.isValidToken(authToken)) {
             throw new AuthenticationException("Invalid or expired authToken.");
@@ -101,14 +184,40 @@ public class GameService {
         return gameDAO.updateGame(gameID, updatedChessGame);
     }
 
-    public void updateGameStatus(int gameId){
-        gameDAO.updateGameStatus(gameId, "Resigned");
+    /**
+     * Saves a move already made on {@code updatedChessGame}, appending it to the game's move log
+     */
+    public boolean recordMove(int gameID, ChessMove move, ChessGame updatedChessGame) {
+        return gameDAO.recordMove(gameID, move, updatedChessGame);
+    }
+
+    /**
+     * Marks a game resigned by one side, so it takes no more moves and exports as a win for the other
+     */
+    public void resignGame(int gameId, ChessGame.TeamColor resigned) {
+        gameDAO.updateGameStatus(gameId, resigned == ChessGame.TeamColor.WHITE ? WHITE_RESIGNED : BLACK_RESIGNED);
+    }
+
+    /**
+     * Marks a game adjudicated over by mate, stalemate, bare kings or a tablebase result, so
+     * it takes no more moves
+     */
+    public void finishGame(int gameId) {
+        gameDAO.updateGameStatus(gameId, "Finished");
     }
 
     public String getGameStatus(int gameId){
         return gameDAO.getGameStatus(gameId);
     }
 
+    /**
+     * @return true if the game was resigned or adjudicated over
+     */
+    public boolean isGameOver(int gameId) {
+        String status = gameDAO.getGameStatus(gameId);
+        return status != null && !status.equals("Active");
+    }
+
     public ChessGame.TeamColor getPlayerColor(int gameId, String username){
         return gameDAO.getPlayerColor(gameId, username);
     }
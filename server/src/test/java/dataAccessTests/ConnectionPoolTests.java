@@ -0,0 +1,210 @@
+package dataAccessTests;
+
+import dataAccess.ConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTests {
+
+    private final List<FakeConnection> opened = new ArrayList<>();
+    private ConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void testClosingHandsTheConnectionBack() throws Exception {
+        pool = new ConnectionPool(this::open, 2, 1000, 60_000, 60_000);
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            assertEquals(1, pool.active());
+        }
+        assertEquals(0, pool.active());
+        assertEquals(1, pool.idle());
+        assertFalse(opened.get(0).closed, "A returned connection should stay open");
+        assertTrue(opened.get(0).autoCommit, "Auto-commit should be restored when handed back");
+        assertEquals(1, opened.get(0).rollbacks, "Uncommitted work should be rolled back when handed back");
+
+        Connection again = pool.getConnection();
+        assertEquals(1, pool.created(), "The idle connection should be reused");
+        again.close();
+        again.close();
+        assertTrue(again.isClosed());
+        assertThrows(SQLException.class, again::getAutoCommit, "A returned connection should not be usable");
+        assertEquals(1, pool.idle(), "Closing twice should hand back once");
+    }
+
+    @Test
+    void testBorrowersWaitForAFreeConnectionAndTimeOut() throws Exception {
+        pool = new ConnectionPool(this::open, 1, 200, 60_000, 60_000);
+        Connection held = pool.getConnection();
+        assertThrows(SQLTimeoutException.class, pool::getConnection);
+        assertEquals(1, pool.timeouts());
+
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.getConnection();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        while (pool.waiters() == 0) {
+            Thread.onSpinWait();
+        }
+        held.close();
+        waiting.get(1, TimeUnit.SECONDS).close();
+        assertEquals(1, pool.created(), "The waiter should get the connection handed back");
+        assertTrue(pool.maxWaitMillis() > 0);
+    }
+
+    @Test
+    void testInvalidAndExpiredConnectionsAreReplaced() throws Exception {
+        pool = new ConnectionPool(this::open, 2, 1000, 60_000, 60_000);
+        pool.getConnection().close();
+        opened.get(0).valid = false;
+        Thread.sleep(600); // Past the window in which a returned connection is lent unchecked
+
+        pool.getConnection().close();
+        assertEquals(2, pool.created());
+        assertEquals(1, pool.evicted());
+        assertTrue(opened.get(0).closed, "An invalid connection should be closed");
+        pool.close();
+
+        pool = new ConnectionPool(this::open, 2, 1000, 60_000, 50);
+        pool.getConnection().close();
+        Thread.sleep(100);
+        pool.getConnection().close();
+        assertEquals(1, pool.evicted(), "A connection past its lifetime should be replaced");
+    }
+
+    @Test
+    void testStatementsAreReusedPerConnectionUpToTheBound() throws Exception {
+        pool = new ConnectionPool(this::open, 1, 1000, 60_000, 60_000, 2);
+        String byToken = "SELECT username FROM auth_tokens WHERE auth_token = ?;";
+        PreparedStatement first;
+        try (Connection conn = pool.getConnection(); PreparedStatement stmt = conn.prepareStatement(byToken)) {
+            first = stmt;
+            stmt.setString(1, "token");
+        }
+        assertTrue(first.isClosed());
+        assertThrows(SQLException.class, () -> first.setString(1, "again"), "A closed handle should not be usable");
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(byToken);
+             PreparedStatement same = conn.prepareStatement(byToken)) {
+            assertSame(conn, stmt.getConnection());
+            assertNotSame(stmt, same);
+            assertEquals(2, opened.get(0).prepares, "A statement still open should not be handed out twice");
+        }
+        assertEquals(1, pool.statementHits());
+        assertEquals(2, opened.get(0).clearParameters, "A statement should be cleared each time it is handed back");
+
+        try (Connection conn = pool.getConnection()) {
+            conn.prepareStatement("SELECT 1;").close();
+            conn.prepareStatement("SELECT 2;").close();
+            conn.prepareStatement(byToken).close();
+        }
+        assertEquals(2, pool.statementEvictions(), "The cache should keep only the two most recently used");
+        assertEquals(5, pool.statementPrepares());
+        // The two evicted, and the duplicate, which was never cached
+        assertEquals(3, opened.get(0).statementsClosed);
+    }
+
+    @Test
+    void testStatementThatCannotBeClearedIsPreparedAgain() throws Exception {
+        pool = new ConnectionPool(this::open, 1, 1000, 60_000, 60_000, 2);
+        String byToken = "SELECT username FROM auth_tokens WHERE auth_token = ?;";
+        try (Connection conn = pool.getConnection()) {
+            opened.get(0).failClear = true;
+            conn.prepareStatement(byToken).close();
+            assertEquals(1, opened.get(0).statementsClosed, "A statement that cannot be cleared should be closed");
+            opened.get(0).failClear = false;
+
+            conn.prepareStatement(byToken).close();
+            assertEquals(2, opened.get(0).prepares, "The closed statement should not be lent again");
+            conn.prepareStatement(byToken).close();
+        }
+        assertEquals(1, pool.statementHits(), "The statement prepared in its place should be cached");
+        assertEquals(2, pool.statementPrepares());
+    }
+
+    private Connection open() {
+        FakeConnection fake = new FakeConnection();
+        opened.add(fake);
+        return fake.connection;
+    }
+
+    private static class FakeConnection {
+        boolean closed;
+        boolean valid = true;
+        boolean autoCommit = true;
+        int rollbacks;
+        int prepares;
+        int clearParameters;
+        boolean failClear;
+        int statementsClosed;
+
+        final Connection connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        closed = true;
+                        yield null;
+                    }
+                    case "isClosed" -> closed;
+                    case "isValid" -> valid && !closed;
+                    case "getAutoCommit" -> autoCommit;
+                    case "setAutoCommit" -> {
+                        autoCommit = (Boolean) args[0];
+                        yield null;
+                    }
+                    case "rollback" -> {
+                        rollbacks++;
+                        yield null;
+                    }
+                    case "prepareStatement" -> {
+                        prepares++;
+                        yield statement();
+                    }
+                    default -> null;
+                });
+
+        private PreparedStatement statement() {
+            boolean[] statementClosed = new boolean[1];
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            if (!statementClosed[0]) {
+                                statementClosed[0] = true;
+                                statementsClosed++;
+                            }
+                            yield null;
+                        }
+                        case "isClosed" -> statementClosed[0];
+                        case "clearParameters" -> {
+                            clearParameters++;
+                            if (failClear) {
+                                throw new SQLException("Cannot clear parameters");
+                            }
+                            yield null;
+                        }
+                        default -> null;
+                    });
+        }
+    }
+}
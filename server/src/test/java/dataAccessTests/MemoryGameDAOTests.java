@@ -1,6 +1,8 @@
 package dataAccessTests;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
 import dataAccess.MemoryGameDAO;
 import model.GameData;
 import org.junit.jupiter.api.BeforeEach;
@@ -34,7 +36,7 @@ public class MemoryGameDAOTests {
         GameData createdGame = memoryGameDAO.getGame(1); // Assuming getGame(int id) method exists
         assertNotNull(createdGame, "The game should not be null");
         assertEquals(gameName, createdGame.getGameName(), "Game name should match");
-        assertEquals(chessGame, createdGame.getGame(), "ChessGame object should match");
+        assertEquals(chessGame.toFen(), createdGame.getGame().toFen(), "ChessGame state should match");
     }
 
     @Test
@@ -81,10 +83,25 @@ public class MemoryGameDAOTests {
         // Retrieve the updated game and verify its ChessGame state
         GameData updatedGame = memoryGameDAO.getGame(gameId);
         assertNotNull(updatedGame, "Updated game should not be null");
-        assertEquals(updatedChessGame, updatedGame.getGame(), "The ChessGame state should be updated");
+        assertEquals(updatedChessGame.toFen(), updatedGame.getGame().toFen(), "The ChessGame state should be updated");
 
         // Verify update fails for a non-existent game
         assertFalse(memoryGameDAO.updateGame(999, updatedChessGame), "Update should fail for a non-existent game");
     }
 
+    @Test
+    void testGamesAreStoredAndReturnedAsCopies() throws Exception {
+        ChessGame chessGame = new ChessGame();
+        int gameId = memoryGameDAO.createGame("Copies", null, null, chessGame);
+        String start = chessGame.toFen();
+
+        chessGame.makeMove(ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        assertEquals(start, memoryGameDAO.getGameState(gameId).toFen(), "The caller's game should not be stored");
+
+        ChessGame returned = memoryGameDAO.getGame(gameId).getGame();
+        assertNotSame(returned, memoryGameDAO.getGame(gameId).getGame());
+        returned.makeMove(ChessMove.of(ChessPosition.of(2, 4), ChessPosition.of(4, 4), null));
+        assertEquals(start, memoryGameDAO.getGameState(gameId).toFen(), "A returned game should not be the stored one");
+    }
+
 }
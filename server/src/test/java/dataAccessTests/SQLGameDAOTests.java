@@ -1,6 +1,8 @@
 package dataAccessTests;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.MoveNotation;
 import dataAccess.DatabaseManager;
 import dataAccess.SQLGameDAO;
 import model.GameData;
@@ -77,4 +79,25 @@ public class SQLGameDAOTests {
 
         assertTrue(sqlGameDAO.listGames().isEmpty(), "All games should be cleared");
     }
+
+    @Test
+    void testRecordedMovesReplayFromLastSnapshot() throws Exception {
+        int gameId = sqlGameDAO.createGame("LogTest", "player1", "player2", new ChessGame());
+        ChessGame game = new ChessGame();
+        // Knights out and back, past the snapshot interval so a read starts from a snapshot
+        String[] cycle = {"g1f3", "g8f6", "f3g1", "f6g8"};
+        for (int i = 0; i < SQLGameDAO.SNAPSHOT_INTERVAL + 3; i++) {
+            ChessMove move = MoveNotation.fromUci(cycle[i % cycle.length]);
+            game.makeMove(move);
+            assertTrue(sqlGameDAO.recordMove(gameId, move, game), "Move should be logged");
+            assertEquals(game.toFen(), sqlGameDAO.getGame(gameId).getGame().toFen());
+        }
+        assertFalse(sqlGameDAO.recordMove(gameId, MoveNotation.fromUci("f6g8"), game),
+                "A second move at the same ply should be refused");
+
+        // A whole-game update replaces the log after it
+        ChessGame reset = new ChessGame();
+        assertTrue(sqlGameDAO.updateGame(gameId, reset));
+        assertEquals(reset.toFen(), sqlGameDAO.getGameState(gameId).toFen());
+    }
 }
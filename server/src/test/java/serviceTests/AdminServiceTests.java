@@ -65,4 +65,5 @@ public class AdminServiceTests {
     }
 
     // Add more tests as needed for other methods like getUsernameByToken
+
 }
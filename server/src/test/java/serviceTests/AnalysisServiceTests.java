@@ -0,0 +1,133 @@
+package serviceTests;
+
+import chess.ChessGame;
+import chess.engine.SearchLimits;
+import dataAccess.MemoryGameDAO;
+import exceptions.AnalysisRejectedException;
+import exceptions.InvalidGameIdException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.AnalysisService;
+import webSocketMessages.serverMessages.AnalysisUpdate;
+import webSocketMessages.serverMessages.ServerMessage;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnalysisServiceTests {
+
+    private MemoryGameDAO gameDAO;
+    private AnalysisService analysisService;
+    private int gameID;
+
+    @BeforeEach
+    void setUp() {
+        gameDAO = new MemoryGameDAO();
+        analysisService = new AnalysisService(gameDAO, 1, 2, 2);
+        gameID = gameDAO.createGame("analysis", "black", "white", new ChessGame());
+    }
+
+    @AfterEach
+    void tearDown() {
+        analysisService.shutdown();
+    }
+
+    @Test
+    void submit_StreamsIterationsThenResult() throws Exception {
+        List<ServerMessage> messages = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        analysisService.submit("user1", gameID, SearchLimits.depth(3), AnalysisService.Priority.NORMAL, message -> {
+            messages.add(message);
+            if (message.getServerMessageType() != ServerMessage.ServerMessageType.ANALYSIS) {
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(4, messages.size());
+        for (int depth = 1; depth <= 3; depth++) {
+            AnalysisUpdate update = (AnalysisUpdate) messages.get(depth - 1);
+            assertEquals(ServerMessage.ServerMessageType.ANALYSIS, update.getServerMessageType());
+            assertEquals(depth, update.getDepth());
+            assertEquals(gameID, update.getGameID());
+        }
+        AnalysisUpdate result = (AnalysisUpdate) messages.get(3);
+        assertEquals(ServerMessage.ServerMessageType.ANALYSIS_COMPLETE, result.getServerMessageType());
+        assertEquals(3, result.getDepth());
+        assertNotNull(result.getBestMove());
+        assertEquals(result.getBestMove(), result.getPrincipalVariation().get(0));
+        assertNull(result.getMateIn());
+    }
+
+    @Test
+    void submit_UnknownGame_Throws() {
+        assertThrows(InvalidGameIdException.class, () -> analysisService.submit("user1", 9999,
+                SearchLimits.depth(1), AnalysisService.Priority.NORMAL, message -> { }));
+    }
+
+    @Test
+    void submit_OverQuotaOrFullQueue_IsRejected() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        // Holds the only worker until released
+        analysisService.submit("user1", gameID, SearchLimits.depth(1), AnalysisService.Priority.NORMAL, message -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        analysisService.submit("user1", gameID, SearchLimits.depth(1), AnalysisService.Priority.NORMAL, message -> { });
+        assertThrows(AnalysisRejectedException.class, () -> analysisService.submit("user1", gameID,
+                SearchLimits.depth(1), AnalysisService.Priority.NORMAL, message -> { }));
+
+        // One worker plus two queue slots: the next job fills the queue, the one after is shed
+        analysisService.submit("user2", gameID, SearchLimits.depth(1), AnalysisService.Priority.NORMAL, message -> { });
+        assertEquals(2, analysisService.queued());
+        assertThrows(AnalysisRejectedException.class, () -> analysisService.submit("user3", gameID,
+                SearchLimits.depth(1), AnalysisService.Priority.NORMAL, message -> { }));
+
+        release.countDown();
+    }
+
+    @Test
+    void submit_HigherPriorityRunsFirst() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        analysisService.submit("blocker", gameID, SearchLimits.depth(1), AnalysisService.Priority.NORMAL, message -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        analysisService.submit("observer", gameID, SearchLimits.depth(1), AnalysisService.Priority.LOW,
+                message -> finished(message, "low", order, done));
+        analysisService.submit("player", gameID, SearchLimits.depth(1), AnalysisService.Priority.HIGH,
+                message -> finished(message, "high", order, done));
+        release.countDown();
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of("high", "low"), order);
+    }
+
+    private static void finished(ServerMessage message, String name, List<String> order, CountDownLatch done) {
+        if (message.getServerMessageType() == ServerMessage.ServerMessageType.ANALYSIS_COMPLETE) {
+            order.add(name);
+            done.countDown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
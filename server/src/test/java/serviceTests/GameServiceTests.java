@@ -1,6 +1,10 @@
 package serviceTests;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.PgnGame;
+import chess.PgnReader;
 import dataAccess.MemoryAuthDAO;
 import dataAccess.MemoryGameDAO;
 import dataAccess.MemoryUserDAO;
@@ -13,7 +17,10 @@ import request.JoinGameRequest;
 import result.JoinGameResult;
 import service.GameService;
 
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.Collection;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -121,5 +128,80 @@ public class GameServiceTests {
                 "Should throw InvalidGameIdException for non-existent game ID.");
     }
 
+    @Test
+    void exportPgn_WritesEveryGame() throws Exception {
+        gameDAO.createGame("Fresh", null, null, new ChessGame());
+        ChessGame mated = ChessGame.fromFen("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3");
+        gameDAO.createGame("Fool's mate", null, null, mated);
+
+        StringWriter out = new StringWriter();
+        gameService.exportPgn(validToken, out);
+
+        PgnReader reader = new PgnReader(new StringReader(out.toString()));
+        PgnGame first = reader.next();
+        assertEquals("Fresh", first.getTag("Event"));
+        assertEquals(new ChessGame().toFen(), first.getTag("FEN"));
+        assertEquals(PgnGame.UNKNOWN, first.getResult());
+
+        PgnGame second = reader.next();
+        assertEquals(mated.toFen(), second.getTag("FEN"));
+        assertEquals(PgnGame.BLACK_WINS, second.getResult());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void exportPgn_WritesLoggedMoves() throws Exception {
+        ChessGame game = new ChessGame();
+        int gameId = gameDAO.createGame("Played", null, null, game);
+        List<ChessMove> moves = List.of(
+                ChessMove.of(ChessPosition.of(2, 6), ChessPosition.of(3, 6), null),
+                ChessMove.of(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null),
+                ChessMove.of(ChessPosition.of(2, 7), ChessPosition.of(4, 7), null),
+                ChessMove.of(ChessPosition.of(8, 4), ChessPosition.of(4, 8), null));
+        for (ChessMove move : moves) {
+            game.makeMove(move);
+            assertTrue(gameService.recordMove(gameId, move, game));
+        }
+        // Set up from a FEN, a game has no moves leading to it from the initial position
+        ChessGame setUp = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K2R w K - 0 1");
+        gameDAO.createGame("Set up", null, null, setUp);
+
+        StringWriter out = new StringWriter();
+        gameService.exportPgn(validToken, out);
+
+        PgnReader reader = new PgnReader(new StringReader(out.toString()));
+        PgnGame played = reader.next();
+        assertEquals(new ChessGame().toFen(), played.getTag("FEN"));
+        assertEquals(moves, played.getMoves());
+        assertEquals(game.toFen(), played.replay().toFen());
+        assertEquals(PgnGame.BLACK_WINS, played.getResult());
+
+        PgnGame setUpGame = reader.next();
+        assertEquals(setUp.toFen(), setUpGame.getTag("FEN"));
+        assertTrue(setUpGame.getMoves().isEmpty());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void exportPgn_ResignedGameIsWonByTheOtherSide() throws Exception {
+        int whiteResigned = gameDAO.createGame("White resigns", null, null, new ChessGame());
+        int blackResigned = gameDAO.createGame("Black resigns", null, null, new ChessGame());
+        gameService.resignGame(whiteResigned, ChessGame.TeamColor.WHITE);
+        gameService.resignGame(blackResigned, ChessGame.TeamColor.BLACK);
+        assertTrue(gameService.isGameOver(whiteResigned));
+
+        StringWriter out = new StringWriter();
+        gameService.exportPgn(validToken, out);
+
+        PgnReader reader = new PgnReader(new StringReader(out.toString()));
+        assertEquals(PgnGame.BLACK_WINS, reader.next().getResult());
+        assertEquals(PgnGame.WHITE_WINS, reader.next().getResult());
+    }
+
+    @Test
+    void exportPgn_InvalidToken_ThrowsAuthenticationException() {
+        assertThrows(AuthenticationException.class, () -> gameService.exportPgn(invalidToken, new StringWriter()));
+    }
+
     // Similar approach for other tests...
 }
@@ -0,0 +1,144 @@
+package websocketTests;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.engine.SearchLimits;
+import com.google.gson.Gson;
+import dataAccess.MemoryAuthDAO;
+import dataAccess.MemoryGameDAO;
+import dataAccess.MemoryUserDAO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import request.JoinGameRequest;
+import server.websocket.BotManager;
+import server.websocket.BotPlayer;
+import server.websocket.Connection;
+import server.websocket.WSHandler;
+import service.AdminService;
+import service.AnalysisService;
+import service.GameService;
+import service.UserService;
+import webSocketMessages.userCommands.JoinPlayer;
+import webSocketMessages.userCommands.MakeMove;
+import webSocketMessages.userCommands.Resign;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BotManagerTests {
+
+    private MemoryAuthDAO authDAO;
+    private GameService gameService;
+    private AnalysisService analysisService;
+    private WSHandler wsHandler;
+    private BotManager botManager;
+    private int gameID;
+
+    @BeforeEach
+    void setUp() {
+        MemoryUserDAO userDAO = new MemoryUserDAO();
+        authDAO = new MemoryAuthDAO();
+        MemoryGameDAO gameDAO = new MemoryGameDAO();
+        UserService userService = new UserService(userDAO, authDAO);
+        AdminService adminService = new AdminService(userDAO, authDAO, gameDAO);
+        gameService = new GameService(gameDAO, authDAO, userDAO);
+        analysisService = new AnalysisService(gameDAO, 1, 1, 1);
+        wsHandler = new WSHandler(gameService, userService, adminService, analysisService);
+        botManager = new BotManager(wsHandler, userService, gameService, 2, 0);
+        gameID = gameDAO.createGame("bots", null, null, new ChessGame());
+    }
+
+    @AfterEach
+    void tearDown() {
+        botManager.shutdown();
+        analysisService.shutdown();
+    }
+
+    @Test
+    void botsPlayEachOther() throws Exception {
+        // Depth 2 sees a mate in one coming, so neither side is mated this early
+        BotPlayer black = botManager.seat(gameID, ChessGame.TeamColor.BLACK, SearchLimits.depth(2));
+        BotPlayer white = botManager.seat(gameID, ChessGame.TeamColor.WHITE, SearchLimits.depth(2));
+
+        waitFor(() -> black.getMovesPlayed() >= 5 && white.getMovesPlayed() >= 5);
+        assertEquals(0, white.getErrorsReceived());
+        assertEquals(0, black.getErrorsReceived());
+    }
+
+    @Test
+    void botAnswersHumanMove() throws Exception {
+        String token = authDAO.createAuth("human");
+        gameService.joinGame(token, new JoinGameRequest(gameID, "WHITE"));
+        List<String> received = new CopyOnWriteArrayList<>();
+        Connection human = connection(received);
+        Gson gson = new Gson();
+        wsHandler.handle(human, gson.toJson(new JoinPlayer(token, gameID, ChessGame.TeamColor.WHITE)));
+
+        BotPlayer bot = botManager.seat(gameID, ChessGame.TeamColor.BLACK, SearchLimits.depth(2));
+        assertEquals(0, bot.getMovesPlayed());
+
+        wsHandler.handle(human, gson.toJson(new MakeMove(token, gameID,
+                ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null))));
+        waitFor(() -> gameService.getGame(gameID).getTeamTurn() == ChessGame.TeamColor.WHITE);
+
+        assertEquals(1, bot.getMovesPlayed());
+        assertTrue(received.stream().anyMatch(message -> message.contains("LOAD_GAME")));
+    }
+
+    @Test
+    void botLeavesWhenHumanResigns() throws Exception {
+        String token = authDAO.createAuth("human");
+        gameService.joinGame(token, new JoinGameRequest(gameID, "WHITE"));
+        Connection human = connection(new CopyOnWriteArrayList<>());
+        Gson gson = new Gson();
+        wsHandler.handle(human, gson.toJson(new JoinPlayer(token, gameID, ChessGame.TeamColor.WHITE)));
+        BotPlayer bot = botManager.seat(gameID, ChessGame.TeamColor.BLACK, SearchLimits.depth(1));
+
+        wsHandler.handle(human, gson.toJson(new Resign(token, gameID)));
+
+        assertFalse(bot.isOpen());
+        assertTrue(botManager.activeBots().isEmpty());
+    }
+
+    @Test
+    void botUsersAreReused() throws Exception {
+        BotPlayer first = botManager.seat(gameID, ChessGame.TeamColor.BLACK, SearchLimits.depth(1));
+        first.leave();
+
+        // The same user cannot take the other side of the game it left
+        BotPlayer sameGame = botManager.seat(gameID, ChessGame.TeamColor.WHITE, SearchLimits.depth(1));
+        assertNotEquals(first.getUsername(), sameGame.getUsername());
+        sameGame.leave();
+
+        int otherGame = gameService.createGame(authDAO.createAuth("host"), "other", null, null, new ChessGame()).gameID();
+        BotPlayer reused = botManager.seat(otherGame, ChessGame.TeamColor.BLACK, SearchLimits.depth(1));
+        assertEquals(sameGame.getUsername(), reused.getUsername(), "A bot should play as the user the last bot left");
+    }
+
+    private static Connection connection(List<String> received) {
+        return new Connection() {
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void send(String message) {
+                received.add(message);
+            }
+        };
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package websocketTests;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Tablebase;
+import chess.TablebaseGenerator;
+import com.google.gson.Gson;
+import dataAccess.MemoryAuthDAO;
+import dataAccess.MemoryGameDAO;
+import dataAccess.MemoryUserDAO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import request.JoinGameRequest;
+import server.websocket.Connection;
+import server.websocket.WSHandler;
+import service.AdminService;
+import service.AnalysisService;
+import service.GameService;
+import service.UserService;
+import webSocketMessages.userCommands.JoinPlayer;
+import webSocketMessages.userCommands.MakeMove;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WSHandlerTests {
+
+    @TempDir
+    Path dir;
+
+    private MemoryAuthDAO authDAO;
+    private MemoryGameDAO gameDAO;
+    private GameService gameService;
+    private AnalysisService analysisService;
+    private WSHandler wsHandler;
+    private final Gson gson = new Gson();
+
+    @BeforeEach
+    void setUp() {
+        MemoryUserDAO userDAO = new MemoryUserDAO();
+        authDAO = new MemoryAuthDAO();
+        gameDAO = new MemoryGameDAO();
+        AdminService adminService = new AdminService(userDAO, authDAO, gameDAO);
+        gameService = new GameService(gameDAO, authDAO, userDAO);
+        analysisService = new AnalysisService(gameDAO, 1, 1, 1);
+        wsHandler = new WSHandler(gameService, new UserService(userDAO, authDAO), adminService, analysisService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ChessGame.setTablebase(null);
+        analysisService.shutdown();
+    }
+
+    @Test
+    void noMovesAfterTablebaseDraw() throws Exception {
+        TablebaseGenerator generator = new TablebaseGenerator();
+        generator.generate("KQvK");
+        generator.write(dir);
+        ChessGame.setTablebase(Tablebase.open(dir));
+
+        int gameID = gameDAO.createGame("endgame", null, null, ChessGame.fromFen("7K/8/8/8/8/1Q6/8/k7 w - - 0 1"));
+        String white = authDAO.createAuth("white");
+        String black = authDAO.createAuth("black");
+        gameService.joinGame(white, new JoinGameRequest(gameID, "WHITE"));
+        gameService.joinGame(black, new JoinGameRequest(gameID, "BLACK"));
+        List<String> toWhite = new CopyOnWriteArrayList<>();
+        List<String> toBlack = new CopyOnWriteArrayList<>();
+        Connection whiteConnection = connection(toWhite);
+        Connection blackConnection = connection(toBlack);
+        wsHandler.handle(whiteConnection, gson.toJson(new JoinPlayer(white, gameID, ChessGame.TeamColor.WHITE)));
+        wsHandler.handle(blackConnection, gson.toJson(new JoinPlayer(black, gameID, ChessGame.TeamColor.BLACK)));
+
+        // Qb2+ hangs the queen to the king, which the tablebase knows is a draw
+        wsHandler.handle(whiteConnection, gson.toJson(new MakeMove(white, gameID,
+                ChessMove.of(ChessPosition.of(3, 2), ChessPosition.of(2, 2), null))));
+        assertTrue(gameService.isGameOver(gameID));
+        assertTrue(toBlack.stream().anyMatch(message -> message.contains("Game over: draw.")));
+        String drawn = gameService.getGame(gameID).toFen();
+
+        toBlack.clear();
+        wsHandler.handle(blackConnection, gson.toJson(new MakeMove(black, gameID,
+                ChessMove.of(ChessPosition.of(1, 1), ChessPosition.of(2, 2), null))));
+        assertEquals(drawn, gameService.getGame(gameID).toFen(), "A finished game should take no more moves");
+        assertTrue(toBlack.stream().anyMatch(message -> message.contains("ERROR")));
+    }
+
+    private static Connection connection(List<String> received) {
+        return new Connection() {
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void send(String message) {
+                received.add(message);
+            }
+        };
+    }
+}
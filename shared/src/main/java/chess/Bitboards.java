@@ -0,0 +1,206 @@
+package chess;
+
+/**
+ * Precomputed attack tables and helpers for 64-bit board masks.
+ * <p>
+ * Squares are numbered 0-63 with a1 = 0, h1 = 7 and h8 = 63, so a square is
+ * {@code (row - 1) * 8 + (column - 1)} in {@link ChessPosition} terms.
+ * Nothing in here allocates once the class is initialized.
+ */
+public final class Bitboards {
+
+    public static final int NO_SQUARE = -1;
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_2 = RANK_1 << 8;
+    public static final long RANK_7 = RANK_1 << 48;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    // Ray directions, the first four grow the square index and the last four shrink it
+    static final int NORTH = 0;
+    static final int EAST = 1;
+    static final int NORTH_EAST = 2;
+    static final int NORTH_WEST = 3;
+    static final int SOUTH = 4;
+    static final int WEST = 5;
+    static final int SOUTH_WEST = 6;
+    static final int SOUTH_EAST = 7;
+
+    private static final int[] ROW_STEP = {1, 0, 1, 1, -1, 0, -1, -1};
+    private static final int[] COL_STEP = {0, 1, 1, -1, 0, -1, -1, 1};
+
+    static final long[][] RAYS = new long[8][64];
+    static final long[] KNIGHT_ATTACKS = new long[64];
+    static final long[] KING_ATTACKS = new long[64];
+    static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    // For two squares on a shared row, column or diagonal: the squares strictly between them,
+    // and the whole board-length line through both. Both are 0 when the squares are not aligned.
+    static final long[][] BETWEEN = new long[64][64];
+    static final long[][] LINE = new long[64][64];
+
+    static {
+        int[][] knightSteps = {{2, 1}, {2, -1}, {1, 2}, {-1, 2}, {-2, 1}, {-2, -1}, {1, -2}, {-1, -2}};
+
+        for (int sq = 0; sq < 64; sq++) {
+            int row = sq >>> 3;
+            int col = sq & 7;
+
+            for (int dir = 0; dir < 8; dir++) {
+                long ray = 0L;
+                for (int r = row + ROW_STEP[dir], c = col + COL_STEP[dir];
+                     onBoard(r, c); r += ROW_STEP[dir], c += COL_STEP[dir]) {
+                    ray |= bit(r * 8 + c);
+                }
+                RAYS[dir][sq] = ray;
+
+                // The king steps exactly one square in every ray direction
+                int r = row + ROW_STEP[dir];
+                int c = col + COL_STEP[dir];
+                if (onBoard(r, c)) {
+                    KING_ATTACKS[sq] |= bit(r * 8 + c);
+                }
+            }
+
+            for (int[] step : knightSteps) {
+                int r = row + step[0];
+                int c = col + step[1];
+                if (onBoard(r, c)) {
+                    KNIGHT_ATTACKS[sq] |= bit(r * 8 + c);
+                }
+            }
+
+            for (int dc = -1; dc <= 1; dc += 2) {
+                if (onBoard(row + 1, col + dc)) {
+                    PAWN_ATTACKS[Position.WHITE][sq] |= bit((row + 1) * 8 + col + dc);
+                }
+                if (onBoard(row - 1, col + dc)) {
+                    PAWN_ATTACKS[Position.BLACK][sq] |= bit((row - 1) * 8 + col + dc);
+                }
+            }
+        }
+
+        // Needs every ray in place, so it runs once the loop above is done
+        for (int sq = 0; sq < 64; sq++) {
+            for (int dir = 0; dir < 4; dir++) {
+                long line = RAYS[dir][sq] | RAYS[dir + 4][sq] | bit(sq);
+                for (long targets = RAYS[dir][sq]; targets != 0; targets &= targets - 1) {
+                    int target = Long.numberOfTrailingZeros(targets);
+                    BETWEEN[sq][target] = RAYS[dir][sq] & ~RAYS[dir][target] & ~bit(target);
+                    BETWEEN[target][sq] = BETWEEN[sq][target];
+                    LINE[sq][target] = line;
+                    LINE[target][sq] = line;
+                }
+            }
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    private static boolean onBoard(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    }
+
+    /**
+     * @param row    1 codes for the bottom row
+     * @param column 1 codes for the left column
+     * @return the square index, or {@link #NO_SQUARE} if the coordinates are off the board
+     */
+    public static int square(int row, int column) {
+        if (row < 1 || row > 8 || column < 1 || column > 8) {
+            return NO_SQUARE;
+        }
+        return (row - 1) * 8 + (column - 1);
+    }
+
+    /**
+     * @return the 1-based row of a square index
+     */
+    public static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    /**
+     * @return the 1-based column of a square index
+     */
+    public static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * @return index of the lowest set bit; undefined for an empty mask
+     */
+    public static int lowestSquare(long mask) {
+        return Long.numberOfTrailingZeros(mask);
+    }
+
+    /**
+     * @return the squares strictly between two aligned squares, or 0 if they are not aligned
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * @return the full row, column or diagonal through two squares, or 0 if they are not aligned
+     */
+    public static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @param color {@link Position#WHITE} or {@link Position#BLACK}
+     * @return the squares a pawn of that color on {@code square} captures on
+     */
+    public static long pawnAttacks(int color, int square) {
+        return PAWN_ATTACKS[color][square];
+    }
+
+    public static long rookAttacks(int square, long occupied) {
+        return positiveRay(NORTH, square, occupied) | positiveRay(EAST, square, occupied)
+                | negativeRay(SOUTH, square, occupied) | negativeRay(WEST, square, occupied);
+    }
+
+    public static long bishopAttacks(int square, long occupied) {
+        return positiveRay(NORTH_EAST, square, occupied) | positiveRay(NORTH_WEST, square, occupied)
+                | negativeRay(SOUTH_WEST, square, occupied) | negativeRay(SOUTH_EAST, square, occupied);
+    }
+
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    // A ray stops at (and includes) the first blocker; for rays that grow the index that is the lowest bit
+    private static long positiveRay(int dir, int square, long occupied) {
+        long ray = RAYS[dir][square];
+        long blockers = ray & occupied;
+        if (blockers != 0) {
+            ray ^= RAYS[dir][Long.numberOfTrailingZeros(blockers)];
+        }
+        return ray;
+    }
+
+    private static long negativeRay(int dir, int square, long occupied) {
+        long ray = RAYS[dir][square];
+        long blockers = ray & occupied;
+        if (blockers != 0) {
+            ray ^= RAYS[dir][63 - Long.numberOfLeadingZeros(blockers)];
+        }
+        return ray;
+    }
+}
@@ -0,0 +1,278 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Hand-written Gson adapters for the chess model: {@link ChessGame}, {@link ChessBoard},
+ * {@link ChessPiece}, {@link ChessPosition} and {@link ChessMove}. They stream fields straight
+ * to and from the JSON instead of going through reflection, and read positions, pieces and
+ * moves as their canonical instances instead of allocating a copy of each. The JSON looks
+ * exactly like Gson's reflective output for those classes, so stored games and older clients
+ * read the same either way.
+ * <p>
+ * Register it with {@code new GsonBuilder().registerTypeAdapterFactory(new CanonicalTypeAdapterFactory())},
+ * or use {@code json.Json.GSON}, which already has it.
+ */
+public class CanonicalTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> raw = type.getRawType();
+        if (raw == ChessPosition.class) {
+            return (TypeAdapter<T>) new PositionAdapter().nullSafe();
+        }
+        if (raw == ChessPiece.class) {
+            return (TypeAdapter<T>) new PieceAdapter(gson).nullSafe();
+        }
+        if (raw == ChessMove.class) {
+            return (TypeAdapter<T>) new MoveAdapter(gson).nullSafe();
+        }
+        if (raw == ChessBoard.class) {
+            return (TypeAdapter<T>) new BoardAdapter(gson).nullSafe();
+        }
+        if (raw == ChessGame.class) {
+            return (TypeAdapter<T>) new GameAdapter(gson).nullSafe();
+        }
+        return null;
+    }
+
+    // The board is its 9x9 grid, row and column 0 always empty, as reflection writes it
+    private static class BoardAdapter extends TypeAdapter<ChessBoard> {
+        private static final int GRID_SIZE = 9;
+
+        private final TypeAdapter<ChessPiece> pieces;
+
+        BoardAdapter(Gson gson) {
+            pieces = gson.getAdapter(ChessPiece.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, ChessBoard board) throws IOException {
+            out.beginObject();
+            out.name("grid").beginArray();
+            for (int row = 0; row < GRID_SIZE; row++) {
+                out.beginArray();
+                for (int col = 0; col < GRID_SIZE; col++) {
+                    pieces.write(out, row == 0 || col == 0 ? null : board.getPiece(ChessPosition.of(row, col)));
+                }
+                out.endArray();
+            }
+            out.endArray();
+            out.endObject();
+        }
+
+        @Override
+        public ChessBoard read(JsonReader in) throws IOException {
+            ChessBoard board = new ChessBoard();
+            in.beginObject();
+            while (in.hasNext()) {
+                if (!in.nextName().equals("grid") || in.peek() == JsonToken.NULL) {
+                    in.skipValue();
+                    continue;
+                }
+                in.beginArray();
+                for (int row = 0; in.hasNext(); row++) {
+                    in.beginArray();
+                    for (int col = 0; in.hasNext(); col++) {
+                        ChessPiece piece = pieces.read(in);
+                        if (piece != null && row >= 1 && row < GRID_SIZE && col >= 1 && col < GRID_SIZE) {
+                            board.addPiece(ChessPosition.of(row, col), piece);
+                        }
+                    }
+                    in.endArray();
+                }
+                in.endArray();
+            }
+            in.endObject();
+            return board;
+        }
+    }
+
+    // Fields a game leaves out of its JSON keep the values a new game starts with, except that a
+    // board saved without its castling rights, as every game was before they were kept, gets none:
+    // with no history to show the kings and rooks never moved, no castling is safe to allow
+    private static class GameAdapter extends TypeAdapter<ChessGame> {
+        private final TypeAdapter<ChessGame.TeamColor> colors;
+        private final TypeAdapter<ChessBoard> boards;
+
+        GameAdapter(Gson gson) {
+            colors = gson.getAdapter(ChessGame.TeamColor.class);
+            boards = gson.getAdapter(ChessBoard.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, ChessGame game) throws IOException {
+            out.beginObject();
+            if (game.getTeamTurn() != null) {
+                out.name("teamTurn");
+                colors.write(out, game.getTeamTurn());
+            }
+            if (game.getBoard() != null) {
+                out.name("grid");
+                boards.write(out, game.getBoard());
+            }
+            out.name("castlingRights").value(game.castlingRights());
+            out.name("enPassantSquare").value(game.enPassantSquare());
+            out.name("halfmoveClock").value(game.halfmoveClock());
+            out.name("fullmoveNumber").value(game.fullmoveNumber());
+            out.endObject();
+        }
+
+        @Override
+        public ChessGame read(JsonReader in) throws IOException {
+            ChessGame.TeamColor teamTurn = ChessGame.TeamColor.WHITE;
+            ChessBoard board = null;
+            Integer castlingRights = null;
+            int enPassantSquare = Bitboards.NO_SQUARE;
+            int halfmoveClock = 0;
+            int fullmoveNumber = 1;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "teamTurn" -> teamTurn = colors.read(in);
+                    case "grid" -> board = boards.read(in);
+                    case "castlingRights" -> castlingRights = in.nextInt();
+                    case "enPassantSquare" -> enPassantSquare = in.nextInt();
+                    case "halfmoveClock" -> halfmoveClock = in.nextInt();
+                    case "fullmoveNumber" -> fullmoveNumber = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (board == null) {
+                board = new ChessBoard();
+                board.resetBoard();
+                if (castlingRights == null) {
+                    castlingRights = Position.ALL_CASTLING;
+                }
+            } else if (castlingRights == null) {
+                castlingRights = 0;
+            }
+            return ChessGame.restore(board, teamTurn, castlingRights, enPassantSquare, halfmoveClock, fullmoveNumber);
+        }
+    }
+
+    private static class PositionAdapter extends TypeAdapter<ChessPosition> {
+        @Override
+        public void write(JsonWriter out, ChessPosition position) throws IOException {
+            out.beginObject();
+            out.name("row").value(position.getRow());
+            out.name("col").value(position.getColumn());
+            out.endObject();
+        }
+
+        @Override
+        public ChessPosition read(JsonReader in) throws IOException {
+            int row = 0;
+            int col = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "row" -> row = in.nextInt();
+                    case "col" -> col = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return ChessPosition.of(row, col);
+        }
+    }
+
+    private static class PieceAdapter extends TypeAdapter<ChessPiece> {
+        private final TypeAdapter<ChessGame.TeamColor> colors;
+        private final TypeAdapter<ChessPiece.PieceType> types;
+
+        PieceAdapter(Gson gson) {
+            colors = gson.getAdapter(ChessGame.TeamColor.class);
+            types = gson.getAdapter(ChessPiece.PieceType.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, ChessPiece piece) throws IOException {
+            out.beginObject();
+            out.name("pieceColor");
+            colors.write(out, piece.getTeamColor());
+            out.name("type");
+            types.write(out, piece.getPieceType());
+            out.endObject();
+        }
+
+        @Override
+        public ChessPiece read(JsonReader in) throws IOException {
+            ChessGame.TeamColor color = null;
+            ChessPiece.PieceType type = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "pieceColor" -> color = colors.read(in);
+                    case "type" -> type = types.read(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            // A half-filled piece cannot be canonical; keep it as Gson would have built it
+            return color == null || type == null ? new ChessPiece(color, type) : ChessPiece.of(color, type);
+        }
+    }
+
+    private static class MoveAdapter extends TypeAdapter<ChessMove> {
+        private final TypeAdapter<ChessPosition> positions;
+        private final TypeAdapter<ChessPiece.PieceType> types;
+
+        MoveAdapter(Gson gson) {
+            positions = gson.getAdapter(ChessPosition.class);
+            types = gson.getAdapter(ChessPiece.PieceType.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, ChessMove move) throws IOException {
+            out.beginObject();
+            out.name("startPosition");
+            positions.write(out, move.getStartPosition());
+            out.name("endPosition");
+            positions.write(out, move.getEndPosition());
+            if (move.getPromotionPiece() != null) {
+                out.name("promotionPiece");
+                types.write(out, move.getPromotionPiece());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public ChessMove read(JsonReader in) throws IOException {
+            ChessPosition start = null;
+            ChessPosition end = null;
+            ChessPiece.PieceType promotion = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "startPosition" -> start = positions.read(in);
+                    case "endPosition" -> end = positions.read(in);
+                    case "promotionPiece" -> promotion = types.read(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return start == null || end == null ? new ChessMove(start, end, promotion) : ChessMove.of(start, end, promotion);
+        }
+    }
+}
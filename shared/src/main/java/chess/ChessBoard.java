@@ -10,6 +10,14 @@ import java.util.Arrays;
  */
 public class ChessBoard {
     private final ChessPiece[][] grid = new ChessPiece[9][9];
+
+    // Bitboard mirror of grid, built on first use and kept in step by addPiece.
+    // Transient so Gson leaves it out; a deserialized board rebuilds it from grid.
+    private transient volatile Position position;
+
+    // Each thread's copy of some board's pieces plus one game's state, for queries that must not write to the board
+    private static final ThreadLocal<Position> VIEW = ThreadLocal.withInitial(Position::new);
+
     public ChessBoard() {
 
     }
@@ -22,6 +30,15 @@ public class ChessBoard {
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
         grid[position.getRow()][position.getColumn()] = piece;
+
+        if (this.position != null) {
+            int square = Bitboards.square(position.getRow(), position.getColumn());
+            if (square != Bitboards.NO_SQUARE) {
+                this.position.set(square, piece == null ? Position.EMPTY : Position.piece(piece));
+            }
+            // A hand-placed piece is not a move, so earlier moves can no longer be taken back
+            this.position.clearUndo();
+        }
     }
 
     /**
@@ -47,101 +64,177 @@ public class ChessBoard {
                 grid[i][j] = null;
             }
         }
+        position = null;
 
         ChessPosition newPosition;
         ChessPiece newPiece;
 
         // Add pawns to white
         for (int i = 1; i <= 8; i++){
-            newPosition = new ChessPosition(2, i);
-            newPiece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+            newPosition = ChessPosition.of(2, i);
+            newPiece = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
             addPiece(newPosition, newPiece);
         }
 
         // Add pawns to black
         for (int i = 1; i <= 8; i++){
-            newPosition = new ChessPosition(7, i);
-            newPiece = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+            newPosition = ChessPosition.of(7, i);
+            newPiece = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
             addPiece(newPosition, newPiece);
         }
 
         // Add White Rooks
-        newPosition = new ChessPosition(1,1);
-        newPiece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        newPosition = ChessPosition.of(1,1);
+        newPiece = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
         addPiece(newPosition, newPiece);
 
-        newPosition = new ChessPosition(1,8);
-        newPiece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        newPosition = ChessPosition.of(1,8);
+        newPiece = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
         addPiece(newPosition, newPiece);
 
         // Add Black Rooks
-        newPosition = new ChessPosition(8,1);
-        newPiece = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        newPosition = ChessPosition.of(8,1);
+        newPiece = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
         addPiece(newPosition, newPiece);
 
-        newPosition = new ChessPosition(8,8);
-        newPiece = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        newPosition = ChessPosition.of(8,8);
+        newPiece = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
         addPiece(newPosition, newPiece);
 
         // Add White Knights
-        newPosition = new ChessPosition(1,2);
-        newPiece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
+        newPosition = ChessPosition.of(1,2);
+        newPiece = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
         addPiece(newPosition, newPiece);
 
-        newPosition = new ChessPosition(1,7);
-        newPiece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
+        newPosition = ChessPosition.of(1,7);
+        newPiece = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
         addPiece(newPosition, newPiece);
 
         // Add Black Knights
-        newPosition = new ChessPosition(8,2);
-        newPiece = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        newPosition = ChessPosition.of(8,2);
+        newPiece = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
         addPiece(newPosition, newPiece);
 
-        newPosition = new ChessPosition(8,7);
-        newPiece = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        newPosition = ChessPosition.of(8,7);
+        newPiece = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
         addPiece(newPosition, newPiece);
 
 
         // Add White Bishops
-        newPosition = new ChessPosition(1,3);
-        newPiece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
+        newPosition = ChessPosition.of(1,3);
+        newPiece = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
         addPiece(newPosition, newPiece);
 
-        newPosition = new ChessPosition(1,6);
-        newPiece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
+        newPosition = ChessPosition.of(1,6);
+        newPiece = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
         addPiece(newPosition, newPiece);
 
         // Add Black Bishops
-        newPosition = new ChessPosition(8,3);
-        newPiece = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+        newPosition = ChessPosition.of(8,3);
+        newPiece = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
         addPiece(newPosition, newPiece);
 
-        newPosition = new ChessPosition(8,6);
-        newPiece = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+        newPosition = ChessPosition.of(8,6);
+        newPiece = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
         addPiece(newPosition, newPiece);
 
 
         // Add White Queen
-        newPosition = new ChessPosition(1,4);
-        newPiece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
+        newPosition = ChessPosition.of(1,4);
+        newPiece = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
         addPiece(newPosition, newPiece);
 
         // Add Black Queen
-        newPosition = new ChessPosition(8,4);
-        newPiece = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
+        newPosition = ChessPosition.of(8,4);
+        newPiece = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
         addPiece(newPosition, newPiece);
 
         // Add White King
-        newPosition = new ChessPosition(1,5);
-        newPiece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        newPosition = ChessPosition.of(1,5);
+        newPiece = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
         addPiece(newPosition, newPiece);
 
         // Add Black King
-        newPosition = new ChessPosition(8,5);
-        newPiece = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+        newPosition = ChessPosition.of(8,5);
+        newPiece = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
         addPiece(newPosition, newPiece);
     }
 
+    /**
+     * Plays a packed move on the bitboard mirror and copies the squares it touched back
+     * into the grid, without allocating
+     *
+     * @param move a legal move from {@link MoveGenerator}
+     */
+    void doMove(int move) {
+        position().doMove(move);
+        copyTouchedSquares(move);
+    }
+
+    /**
+     * Takes back the last move played with {@link #doMove(int)}
+     *
+     * @return the move taken back
+     */
+    int undoMove() {
+        int move = position().undoMove();
+        copyTouchedSquares(move);
+        return move;
+    }
+
+    private void copyTouchedSquares(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        copySquare(from);
+        copySquare(to);
+        if (Move.isEnPassant(move)) {
+            copySquare(Position.enPassantVictim(to, from < to ? Position.WHITE : Position.BLACK));
+        } else if (Move.isCastle(move)) {
+            copySquare(Position.castleRookFrom(from, to));
+            copySquare(Position.castleRookTo(from, to));
+        }
+    }
+
+    private void copySquare(int square) {
+        grid[Bitboards.row(square)][Bitboards.column(square)] = Position.toChessPiece(position.pieceAt(square));
+    }
+
+    /**
+     * @return the bitboard mirror of this board, kept in step with {@link #addPiece}. Only
+     * moves write to it; queries read through {@link #view}.
+     */
+    Position position() {
+        Position mirror = position;
+        if (mirror == null) {
+            synchronized (this) {
+                mirror = position;
+                if (mirror == null) {
+                    mirror = Position.fromBoard(this);
+                    position = mirror;
+                }
+            }
+        }
+        return mirror;
+    }
+
+    /**
+     * Copies this board's pieces into the calling thread's scratch position and gives it a
+     * game's state, so moves can be generated for that game without writing its turn or
+     * rights into the board, which other games or threads may be reading
+     *
+     * @return this thread's scratch position, valid until its next call
+     */
+    Position view(int sideToMove, int castlingRights, int epSquare, int halfmoveClock, int fullmoveNumber) {
+        Position view = VIEW.get();
+        view.copyFrom(position());
+        view.setSideToMove(sideToMove);
+        view.setCastlingRights(castlingRights);
+        view.setEpSquare(epSquare);
+        view.setHalfmoveClock(halfmoveClock);
+        view.setFullmoveNumber(fullmoveNumber);
+        return view;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -149,8 +242,12 @@ public class ChessBoard {
         return Arrays.deepEquals(grid, that.grid);
     }
 
+    /**
+     * Hashes the piece placement through the mirror's Zobrist key, which {@link #addPiece}
+     * keeps current, instead of walking all 81 cells
+     */
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(grid);
+        return Long.hashCode(position().pieceKey());
     }
 }
@@ -14,12 +14,34 @@ public class ChessGame {
     private TeamColor teamTurn = TeamColor.WHITE;
     private ChessBoard grid;
 
+    // Castling rights and en passant square in Position terms. A new game starts with every
+    // right; a board handed to setBoard starts with none, since its history is unknown.
+    private int castlingRights = Position.ALL_CASTLING;
+    private int enPassantSquare = Bitboards.NO_SQUARE;
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
+
+    private static final TeamColor[] TEAM_COLORS = TeamColor.values();
+
+    // Per-thread move buffer so the Collection adapters do not allocate one per call
+    private static final ThreadLocal<MoveList> SCRATCH = ThreadLocal.withInitial(MoveList::new);
+
+    // Legal moves and status for positions seen before; null generates every time
+    private static volatile PositionCache cache = PositionCache.shared();
+
+    // Exact results for endgames with few pieces; null when none are loaded
+    private static volatile Tablebase tablebase;
+
     public ChessGame() {
         //this.teamTurn = TeamColor.WHITE;
         this.grid = new ChessBoard();
         this.grid.resetBoard();  // Optionally reset board to default state
     }
 
+    private ChessGame(ChessBoard grid) {
+        this.grid = grid;
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -44,6 +66,16 @@ public class ChessGame {
         BLACK
     }
 
+    /**
+     * How a game stands, as decided by {@link #adjudicate()}
+     */
+    public enum Outcome {
+        ONGOING,
+        WHITE_WINS,
+        BLACK_WINS,
+        DRAW
+    }
+
     /**
      * Gets a valid moves for a piece at the given location
      *
@@ -52,114 +84,204 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
+        if (startPosition == null) {
+            return null;
+        }
 
         // If there is nothing at the start position, return null
-        Collection<ChessMove> moves = new HashSet<>();
-
-        if (startPosition == null){
+        int square = Bitboards.square(startPosition.getRow(), startPosition.getColumn());
+        Position position = position();
+        if (square == Bitboards.NO_SQUARE || position.pieceAt(square) == Position.EMPTY) {
             return null;
         }
 
-        // Initialize parameter startPosition
-        ChessPiece piece = grid.getPiece(startPosition);
-        Collection<ChessMove> potentialMoves = piece.pieceMoves(grid, startPosition);
+        MoveList legal = legalMoves(position, Position.colorOf(position.pieceAt(square)));
 
-        // Filter out invalid moves
-        for (ChessMove move : potentialMoves) {
-            if (isMoveValid(move, grid, startPosition)) {
-                moves.add(move);
+        Collection<ChessMove> moves = new HashSet<>();
+        for (int i = 0; i < legal.size(); i++) {
+            if (Move.from(legal.get(i)) == square) {
+                moves.add(Move.toChessMove(legal.get(i)));
             }
         }
         return moves;
     }
 
+    /**
+     * A 64-bit Zobrist key for the game's current position: the pieces on the board, whose
+     * turn it is, castling rights and the en passant file. Equal positions always share a
+     * key, and placing a piece or passing the turn updates it in constant time, so it is
+     * cheap enough to use as a map key for caches, repetition checks and deduplication.
+     *
+     * @return the position key
+     */
+    public long positionKey() {
+        return position().key();
+    }
 
-    public boolean isMoveValid(ChessMove move, ChessBoard board, ChessPosition startPosition){
+    /**
+     * Static evaluation of the current position for an evaluation bar: material plus piece
+     * placement, in centipawns. It is kept up to date as pieces move, so reading it after
+     * every move costs nothing.
+     *
+     * @return the evaluation, positive when white is better off regardless of whose turn it is
+     */
+    public int evaluation() {
+        return grid.position().materialScore();
+    }
 
-        Collection<ChessMove> opponentMoves;
+    /**
+     * Replaces the cache every game consults for legal moves and checkmate/stalemate status
+     *
+     * @param positionCache the cache to use, or null to always generate from scratch
+     */
+    public static void setPositionCache(PositionCache positionCache) {
+        cache = positionCache;
+    }
 
-        ChessPosition startPiecePosition = new ChessPosition(startPosition.getRow(), startPosition.getColumn());
-        ChessPiece startPiece = board.getPiece(startPiecePosition);
-        if (startPiece == null) {
-            // If there's no piece at the start position, the move cannot be valid.
-            return false; // Or consider throwing an IllegalArgumentException to indicate a bad input.
-        }
-        ChessPosition endPosition = move.getEndPosition();
-        ChessPiece originalEndPositionPiece = board.getPiece(endPosition);
-
-        //let's find the king and get its position
-        ChessPosition kingPosition = findKingPosition(board, startPiece.getTeamColor());
-
-
-        if (startPiece.getPieceType() == ChessPiece.PieceType.KING) {
-            for (int i = 1; i <= 8; i++) {
-                for (int j = 1; j <= 8; j++) {
-                    ChessPosition opponentPosition = new ChessPosition(i, j);
-                    ChessPiece opponentPiece = board.getPiece(opponentPosition);
-
-                    if (opponentPiece != null && opponentPiece.getTeamColor() != startPiece.getTeamColor()) {
-                        opponentMoves = opponentPiece.pieceMoves(board, opponentPosition);
-                        if (move.getEndPosition().equals(opponentPosition)){
-                            return true; // it can overtake the piece that endangers it
-                        }
-                        for (ChessMove againstKingMove : opponentMoves) {
-                            // Instead of comparing the entire move, compare just the end position to the king's intended end position.
-                            if (againstKingMove.getEndPosition().equals(move.getEndPosition())) {
-                                return false; // The king's move would place it in a position that can be captured.
-                            }
-                        }
-                    }
-                }
-            }
-            return true; // If no opponent moves can capture the king at the move's end position, the move is considered valid.
-        }
+    /**
+     * @return the cache games consult, or null if caching is off
+     */
+    public static PositionCache getPositionCache() {
+        return cache;
+    }
 
-        // say the piece moved from its current position?
-        board.addPiece(startPiecePosition, null);
-        board.addPiece(move.getEndPosition(), startPiece);
-
-        // After the move, check if the king is in a position that can be captured by any opponent's piece
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                ChessPosition opponentPosition = new ChessPosition(i, j);
-                ChessPiece opponentPiece = board.getPiece(opponentPosition);
-
-                if (opponentPiece != null && opponentPiece.getTeamColor() != startPiece.getTeamColor()) {
-                    opponentMoves = opponentPiece.pieceMoves(board, opponentPosition);
-
-                    for (ChessMove oppMove : opponentMoves) {
-                        if (oppMove.getEndPosition().equals(kingPosition)) {
-                            // If any opponent's move can capture the king, the move is not valid
-                            // Undo the move before returning false
-                            board.addPiece(startPosition, startPiece); // Undo: Move back the start piece
-                            board.addPiece(endPosition, originalEndPositionPiece); // Restore the original piece at the end position, if any
-                            return false;
-                        }
-                    }
-                }
-            }
-        }
+    /**
+     * Replaces the tablebase every game and search consults for endgames with few pieces
+     *
+     * @param endgames the tablebase to use, or null for none
+     */
+    public static void setTablebase(Tablebase endgames) {
+        tablebase = endgames;
+    }
 
-        // Undo the temporary move after checking
-        board.addPiece(startPosition, startPiece); // Move back the start piece
-        board.addPiece(endPosition, originalEndPositionPiece); // Restore the original piece at the end position, if any
+    /**
+     * @return the tablebase games consult, or null if none is loaded
+     */
+    public static Tablebase getTablebase() {
+        return tablebase;
+    }
 
-        // If no opponent's move can capture the king after the move, it is considered valid
-        return true;
+    /**
+     * @return a new, independent bitboard copy of this game's position, which another
+     * thread can use without touching the game
+     */
+    public Position copyPosition() {
+        return position().copy();
     }
 
-    private ChessPosition findKingPosition(ChessBoard board, TeamColor teamColor) {
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                ChessPosition position = new ChessPosition(i, j);
-                ChessPiece piece = board.getPiece(position);
-                if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING &&
-                                     piece.getTeamColor() == teamColor) {
-                    return position;
-                }
-            }
+    /**
+     * Builds a game from Forsyth-Edwards Notation, keeping castling rights, the en passant
+     * square and both move counters
+     *
+     * @param fen for example {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}
+     * @return a new game with no moves to take back
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static ChessGame fromFen(String fen) {
+        return fromPosition(Position.fromFen(fen));
+    }
+
+    /**
+     * @return a new game in the position, with no moves to take back
+     */
+    static ChessGame fromPosition(Position position) {
+        return restore(position.toBoard(), TEAM_COLORS[position.sideToMove()], position.castlingRights(),
+                position.epSquare(), position.halfmoveClock(), position.fullmoveNumber());
+    }
+
+    /**
+     * Rebuilds a game from its parts, as serialization reads them
+     *
+     * @return a new game on the board, which it takes ownership of
+     */
+    static ChessGame restore(ChessBoard board, TeamColor teamTurn, int castlingRights, int enPassantSquare,
+                             int halfmoveClock, int fullmoveNumber) {
+        ChessGame game = new ChessGame(board);
+        game.teamTurn = teamTurn;
+        game.castlingRights = castlingRights;
+        game.enPassantSquare = enPassantSquare;
+        game.halfmoveClock = halfmoveClock;
+        game.fullmoveNumber = fullmoveNumber;
+        return game;
+    }
+
+    int castlingRights() {
+        return castlingRights;
+    }
+
+    int enPassantSquare() {
+        return enPassantSquare;
+    }
+
+    int halfmoveClock() {
+        return halfmoveClock;
+    }
+
+    int fullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * The game's state as one line of Forsyth-Edwards Notation, about 60 characters. Together
+     * with {@link #fromFen(String)} it round-trips everything a game keeps except the moves
+     * {@link #undoMove()} could take back.
+     *
+     * @return for example {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1}
+     */
+    public String toFen() {
+        return position().toFen();
+    }
+
+    /**
+     * @return the board's pieces with this game's turn, rights and clocks, in this thread's
+     * scratch position: valid until the thread's next query, and nothing is written to the board
+     */
+    Position position() {
+        return grid.view(teamTurn.ordinal(), castlingRights, enPassantSquare, halfmoveClock, fullmoveNumber);
+    }
+
+    // Moves are played on the board's mirror, which needs this game's state to update it
+    private Position syncMirror() {
+        Position mirror = grid.position();
+        mirror.setSideToMove(teamTurn.ordinal());
+        mirror.setCastlingRights(castlingRights);
+        mirror.setEpSquare(enPassantSquare);
+        mirror.setHalfmoveClock(halfmoveClock);
+        mirror.setFullmoveNumber(fullmoveNumber);
+        return mirror;
+    }
+
+    /**
+     * Checks that a move is one the piece on {@code startPosition} can make, and that it does
+     * not leave that piece's king in check
+     *
+     * @param move          the move to test
+     * @param board         the board to test it on
+     * @param startPosition where the moving piece stands
+     * @return True if the move is legal
+     */
+    public boolean isMoveValid(ChessMove move, ChessBoard board, ChessPosition startPosition){
+        int from = Bitboards.square(startPosition.getRow(), startPosition.getColumn());
+        int packed = Move.fromChessMove(move);
+        if (from == Bitboards.NO_SQUARE || packed == Move.NONE) {
+            return false;
         }
-        return null; // Or throw an exception if the king must exist
+
+        Position position = board == grid ? position() : Position.fromBoard(board, teamTurn);
+        int piece = position.pieceAt(from);
+        if (piece == Position.EMPTY) {
+            // If there's no piece at the start position, the move cannot be valid.
+            return false;
+        }
+
+        // Find the generated move, which carries the capture/castle/en passant flags the check test needs
+        MoveList moves = SCRATCH.get();
+        moves.clear();
+        int us = Position.colorOf(piece);
+        MoveGenerator.generatePieceMoves(position, from, Position.typeOf(piece), us, moves);
+        int generated = moves.find(Move.of(from, Move.to(packed), Move.promotion(packed), 0));
+
+        return generated != Move.NONE && MoveGenerator.isLegal(position, generated, us);
     }
 
     /**
@@ -174,65 +296,78 @@ public class ChessGame {
             throw new InvalidMoveException("No piece at the starting position.");
         }
 
-        // Ensure the move is legal
-        Collection<ChessMove> legalMoves = validMoves(move.getStartPosition());
-        //System.out.println(legalMoves.toString());
-        if (!legalMoves.contains(move) && move.getPromotionPiece() == null) {
+        // Ensure the move is legal: the generator only emits moves that keep the king safe,
+        // so the board is never changed until the move is known to stand
+        int from = Bitboards.square(move.getStartPosition().getRow(), move.getStartPosition().getColumn());
+        int packed = Move.fromChessMove(move);
+        MoveList legal = legalMoves(position(), movingPiece.getTeamColor().ordinal());
+        if (packed == Move.NONE || legal.find(packed) == Move.NONE) {
+            if (packed != Move.NONE && Move.promotion(packed) == 0
+                    && legal.find(Move.of(from, Move.to(packed), Position.QUEEN, 0)) != Move.NONE) {
+                throw new InvalidMoveException("Promotion type must be specified for pawn promotion.");
+            }
             throw new InvalidMoveException("Move is not legal for the piece.");
         }
 
-        //System.out.println(movingPiece.getTeamColor().toString());
         // Ensure it's the correct team's turn
-        if (movingPiece.getTeamColor() != (teamTurn)) {
+        if (movingPiece.getTeamColor() != teamTurn) {
             throw new InvalidMoveException("It's not your turn.");
         }
 
+        doMove(legal.find(packed));
+    }
 
+    /**
+     * Plays a move without checking it, keeping enough state to take it back with
+     * {@link #undoMove()}: the captured piece, promotion, turn, castling rights, en passant
+     * square and position key. Meant for search and replay, which play and take back
+     * millions of moves, so nothing is allocated.
+     *
+     * @param move a legal move for the side to move, packed as described in {@link Move}
+     *             and carrying the flags {@link MoveGenerator} gives it
+     */
+    public void doMove(int move) {
+        syncMirror();
+        grid.doMove(move);
+        readState();
+    }
 
-        // Directly check for pawn promotion before simulating any move.
-        if (movingPiece.getPieceType() == ChessPiece.PieceType.PAWN &&
-                ((movingPiece.getTeamColor() == TeamColor.WHITE && move.getEndPosition().getRow() == 8) ||
-                        (movingPiece.getTeamColor() == TeamColor.BLACK && move.getEndPosition().getRow() == 1))) {
-            // Check for the promotion piece type in the move.
-            if (move.getPromotionPiece() != null) {
-                // Create and place the promotion piece at the destination.
-                movingPiece = new ChessPiece(movingPiece.getTeamColor(), move.getPromotionPiece());
-                // Note: At this point, movingPiece now refers to the promoted piece.
-            } else {
-                throw new InvalidMoveException("Promotion type must be specified for pawn promotion.");
-            }
-        }
-
-        // Now, simulate the move with the potentially new movingPiece (promoted piece if applicable).
-        ChessPiece capturedPiece = grid.getPiece(move.getEndPosition()); // Save the captured piece if any
-        grid.addPiece(move.getStartPosition(), null); // Remove the piece from the original position
-        grid.addPiece(move.getEndPosition(), movingPiece);
-
-        if (isInCheck(movingPiece.getTeamColor())) {
-            // Undo the move if it puts your own king in check
-            grid.addPiece(move.getStartPosition(), movingPiece);
-            grid.addPiece(move.getEndPosition(), capturedPiece);
-            throw new InvalidMoveException("Move would put or leave your king in check.");
-        }
+    /**
+     * Takes back the last move played with {@link #doMove(int)} or {@link #makeMove}
+     *
+     * @return the move taken back
+     * @throws IllegalStateException if no move can be taken back, including after the
+     *                               board was changed by other means
+     */
+    public int undoMove() {
+        syncMirror();
+        int move = grid.undoMove();
+        readState();
+        return move;
+    }
 
-        // After making the move, check for checkmate or stalemate against the opponent
-        TeamColor opponentColor = (movingPiece.getTeamColor() == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-        if (isInCheckmate(opponentColor)) {
-            // Handle the checkmate scenario
-            // This could involve setting some state to end the game or notifying the players
-        } else if (isInStalemate(opponentColor)) {
-            // Handle the stalemate scenario
-            // Similar to checkmate, adjust the game state or notify players as necessary
-        }
+    /**
+     * @return how many moves {@link #undoMove()} can take back
+     */
+    public int undoDepth() {
+        return grid.position().undoDepth();
+    }
 
-        // Switch the team turns
-        // There is definitely a 1 line of code version to do this...
-        if (teamTurn == TeamColor.WHITE){
-            teamTurn = TeamColor.BLACK;
-        } else if (teamTurn == TeamColor.BLACK){
-            teamTurn = TeamColor.WHITE;
-        }
+    /**
+     * @return how many half-moves have been played, counted from the fullmove number and
+     * the side to move, so 0 at the start and 1 once White has moved
+     */
+    public int ply() {
+        return (fullmoveNumber - 1) * 2 + teamTurn.ordinal();
+    }
 
+    private void readState() {
+        Position position = grid.position();
+        teamTurn = TEAM_COLORS[position.sideToMove()];
+        castlingRights = position.castlingRights();
+        enPassantSquare = position.epSquare();
+        halfmoveClock = position.halfmoveClock();
+        fullmoveNumber = position.fullmoveNumber();
     }
 
     /**
@@ -242,26 +377,10 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        Collection<ChessMove> opponentMoves;
-        ChessPosition kingPosition = findKingPosition(grid, teamColor);
-        // if, on the opponents turn, the king can be captured.
-            for (int i = 1; i <= 8; i++) {
-                for (int j = 1; j <= 8; j++) {
-                    ChessPosition opponentPosition = new ChessPosition(i, j);
-                    ChessPiece opponentPiece = grid.getPiece(opponentPosition);
-
-                    if (opponentPiece != null && opponentPiece.getTeamColor() != teamColor){
-                        opponentMoves = opponentPiece.pieceMoves(grid, new ChessPosition(i, j));
-
-                        for (ChessMove oppMove : opponentMoves) {
-                            if (oppMove.getEndPosition().equals(kingPosition)) {
-                                return true;
-                            }
-                        }
-                    }
-                }
-            }
-        return false;
+        // Work backwards from the king: look for attackers along ray, knight, pawn and king patterns
+        Position position = position();
+        int king = position.kingSquare(teamColor.ordinal());
+        return king != Bitboards.NO_SQUARE && position.isSquareAttacked(king, teamColor.ordinal() ^ 1);
     }
 
     /**
@@ -271,43 +390,11 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        // First, check if the king is in check.
-        if (!isInCheck(teamColor)) {
-            return false; // Not in checkmate if the king is not in check.
-        }
-
-        // Attempt to find a legal move that would get the king out of check.
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                ChessPosition position = new ChessPosition(i, j);
-                ChessPiece piece = grid.getPiece(position);
-
-                // Consider only the pieces of the team currently in check.
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    Collection<ChessMove> possibleMoves = piece.pieceMoves(grid, position);
-
-                    for (ChessMove move : possibleMoves) {
-                        // Simulate each move.
-                        ChessPiece targetPiece = grid.getPiece(move.getEndPosition());
-                        grid.addPiece(move.getEndPosition(), piece); // Make the move
-                        grid.addPiece(position, null); // Remove the piece from the original position
-
-                        boolean stillInCheck = isInCheck(teamColor);
-
-                        // Undo the move.
-                        grid.addPiece(position, piece);
-                        grid.addPiece(move.getEndPosition(), targetPiece);
-
-                        if (!stillInCheck) {
-                            return false; // Found a move that gets the king out of check, so it's not checkmate.
-                        }
-                    }
-                }
-            }
+        PositionCache positionCache = cache;
+        if (positionCache != null) {
+            return positionCache.get(position(), teamColor.ordinal()).isInCheckmate();
         }
-
-        // If no legal moves can remove the king from check, it's checkmate.
-        return true;
+        return isInCheck(teamColor) && !hasLegalMove(teamColor);
     }
 
 
@@ -319,41 +406,68 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        boolean hasLegalMove = false;
-
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                ChessPosition position = new ChessPosition(i, j);
-                ChessPiece piece = grid.getPiece(position);
-
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    Collection<ChessMove> possibleMoves = piece.pieceMoves(grid, position);
-
-                    for (ChessMove move : possibleMoves) {
-                        // Temporarily make the move on the board
-                        ChessPiece targetPiece = grid.getPiece(move.getEndPosition());
-                        grid.addPiece(move.getEndPosition(), piece);
-                        grid.addPiece(position, null);
-
-                        // Check if making this move puts the king in check
-                        if (!isInCheck(teamColor)) {
-                            hasLegalMove = true; // Found at least one legal move
-                        }
-
-                        // Undo the move
-                        grid.addPiece(position, piece);
-                        grid.addPiece(move.getEndPosition(), targetPiece);
-
-                        if (hasLegalMove) {
-                            return false; // Not a stalemate, since there's at least one legal move
-                        }
-                    }
-                }
+        PositionCache positionCache = cache;
+        if (positionCache != null) {
+            return positionCache.get(position(), teamColor.ordinal()).isInStalemate();
+        }
+        return !isInCheck(teamColor) && !hasLegalMove(teamColor);
+    }
+
+    /**
+     * Decides the game if it is over: checkmate or stalemate for the side to move, bare kings,
+     * or a position the tablebase knows the result of with best play
+     *
+     * @return the result, or {@link Outcome#ONGOING} if the game should go on
+     */
+    public Outcome adjudicate() {
+        TeamColor winner = teamTurn == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+        if (isInCheckmate(teamTurn)) {
+            return winner == TeamColor.WHITE ? Outcome.WHITE_WINS : Outcome.BLACK_WINS;
+        }
+        if (isInStalemate(teamTurn)) {
+            return Outcome.DRAW;
+        }
+        Position position = copyPosition();
+        if (Long.bitCount(position.occupied()) == 2) {
+            return Outcome.DRAW;
+        }
+        Tablebase endgames = tablebase;
+        int result = endgames == null ? Tablebase.NOT_FOUND : endgames.probe(position);
+        if (result == Tablebase.NOT_FOUND) {
+            return Outcome.ONGOING;
+        }
+        if (result == Tablebase.DRAW) {
+            return Outcome.DRAW;
+        }
+        if (Tablebase.isWin(result)) {
+            winner = teamTurn;
+        }
+        return winner == TeamColor.WHITE ? Outcome.WHITE_WINS : Outcome.BLACK_WINS;
+    }
+
+    /**
+     * Every legal move for one side, from the cache when there is one
+     *
+     * @return this thread's scratch list, valid until the next call
+     */
+    private static MoveList legalMoves(Position position, int us) {
+        MoveList legal = SCRATCH.get();
+        legal.clear();
+        PositionCache positionCache = cache;
+        if (positionCache == null) {
+            MoveGenerator.generateLegal(position, us, legal);
+        } else {
+            PositionCache.Entry entry = positionCache.get(position, us);
+            for (int i = 0; i < entry.moveCount(); i++) {
+                legal.add(entry.move(i));
             }
         }
+        return legal;
+    }
 
-        // If no legal moves were found and the king is not in check, it's a stalemate
-        return !isInCheck(teamColor);
+    private boolean hasLegalMove(TeamColor teamColor) {
+        MoveList scratch = SCRATCH.get();
+        return MoveGenerator.hasLegalMove(position(), teamColor.ordinal(), scratch);
     }
 
     /**
@@ -363,6 +477,10 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         grid = board;
+        castlingRights = 0;
+        enPassantSquare = Bitboards.NO_SQUARE;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
     }
 
     /**
@@ -1,6 +1,7 @@
 package chess;
 
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Represents moving a chess piece on a chessboard
@@ -12,8 +13,11 @@ public class ChessMove {
 
     private final ChessPosition startPosition;
     private final ChessPosition endPosition;
-    private ChessPiece.PieceType promotionPiece = null;
+    private final ChessPiece.PieceType promotionPiece;
 
+    // Canonical moves between on-board squares, created on first request. Slot
+    // (from * 64 + to) * 7 + promotion, where promotion is 0 for none or the type's ordinal + 1.
+    private static final AtomicReferenceArray<ChessMove> MOVES = new AtomicReferenceArray<>(64 * 64 * 7);
 
     public ChessMove(ChessPosition startPosition, ChessPosition endPosition,
                      ChessPiece.PieceType promotionPiece) {
@@ -23,8 +27,40 @@ public class ChessMove {
     }
 
     /**
-     * @return ChessPosition of starting location
+     * Returns the shared instance of a move. Moves between on-board squares are created once
+     * and reused, so equal moves are usually the same object; any other move gets a fresh one.
+     *
+     * @return the canonical move
+     */
+    public static ChessMove of(ChessPosition startPosition, ChessPosition endPosition,
+                               ChessPiece.PieceType promotionPiece) {
+        int from = Bitboards.square(startPosition.getRow(), startPosition.getColumn());
+        int to = Bitboards.square(endPosition.getRow(), endPosition.getColumn());
+        if (from == Bitboards.NO_SQUARE || to == Bitboards.NO_SQUARE) {
+            return new ChessMove(startPosition, endPosition, promotionPiece);
+        }
+        return of(from, to, promotionPiece);
+    }
+
+    /**
+     * @param from           a square index in {@link Bitboards} numbering
+     * @param to             a square index in {@link Bitboards} numbering
+     * @param promotionPiece the piece a pawn promotes to, or null
+     * @return the canonical move
      */
+    public static ChessMove of(int from, int to, ChessPiece.PieceType promotionPiece) {
+        int slot = (from * 64 + to) * 7 + (promotionPiece == null ? 0 : promotionPiece.ordinal() + 1);
+        ChessMove move = MOVES.get(slot);
+        if (move == null) {
+            move = new ChessMove(ChessPosition.of(from), ChessPosition.of(to), promotionPiece);
+            // Another thread may have got there first; theirs wins so there is only ever one
+            if (!MOVES.compareAndSet(slot, null, move)) {
+                move = MOVES.get(slot);
+            }
+        }
+        return move;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -34,10 +70,14 @@ public class ChessMove {
 
     @Override
     public int hashCode() {
-        return Objects.hash(getStartPosition(), getEndPosition(), getPromotionPiece());
+        int hash = Objects.hashCode(startPosition) * 31 + Objects.hashCode(endPosition);
+        return hash * 31 + (promotionPiece == null ? 0 : promotionPiece.ordinal() + 1);
     }
 
 
+    /**
+     * @return ChessPosition of starting location
+     */
     public ChessPosition getStartPosition() {
         return startPosition;
     }
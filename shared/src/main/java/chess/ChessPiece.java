@@ -2,7 +2,6 @@ package chess;
 
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.Objects;
 
 /**
  * Represents a single chess piece
@@ -15,12 +14,36 @@ public class ChessPiece {
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
 
+    // Per-thread move buffer so the Collection adapter below does not allocate one per call
+    private static final ThreadLocal<MoveList> SCRATCH = ThreadLocal.withInitial(MoveList::new);
+
+
+    // One shared instance per color and type, indexed like Position piece codes
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[color.ordinal() * 6 + type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
 
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         this.pieceColor = pieceColor;
         this.type = type;
     }
 
+    /**
+     * Returns the shared instance for a color and type. Pieces hold no state of their own,
+     * so the twelve canonical instances can stand in for every piece on every board.
+     *
+     * @return the canonical piece
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return PIECES[pieceColor.ordinal() * 6 + type.ordinal()];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -58,7 +81,7 @@ public class ChessPiece {
 
     @Override
     public int hashCode() {
-        return Objects.hash(pieceColor, type);
+        return pieceColor.ordinal() * 6 + type.ordinal();
     }
 
     /**
@@ -71,700 +94,20 @@ public class ChessPiece {
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
         Collection<ChessMove> moves = new HashSet<>();
 
-        ChessPosition newPosition;
-        ChessPiece pieceAtNewPosition;
-
-        if (type.equals(PieceType.BISHOP)) {
-
-            // TOP RIGHT
-            for (int i = myPosition.getRow() + 1, j = myPosition.getColumn() + 1; i <= 8 && j <= 8; i++, j++){
-
-                newPosition = new ChessPosition(i, j);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, j),null));
-
-                } else if (pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, j), null));
-                    break;
-
-                } else{
-                    break;
-                }
-            }
-
-            // BOTTOM RIGHT
-            for (int i = myPosition.getRow() - 1, j = myPosition.getColumn() + 1; i >= 1 && j <= 8; i--, j++){
-
-                newPosition = new ChessPosition(i, j);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, j),null));
-
-                } else if (pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, j), null));
-                    break;
-
-                } else{
-                    break;
-                }
-            }
-
-            // BOTTOM LEFT
-            for (int i = myPosition.getRow() - 1, j = myPosition.getColumn() - 1; i >= 1 && j >= 1; i--, j--){
-
-                newPosition = new ChessPosition(i, j);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, j), null));
-
-                } else if (pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, j), null));
-                    break;
-
-                } else{
-                    break;
-                }
-            }
-
-            // TOP LEFT
-            for (int i = myPosition.getRow() + 1, j = myPosition.getColumn() - 1; i <= 8 && j >= 1; i++, j--){
-
-                newPosition = new ChessPosition(i, j);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, j), null));
-
-                } else if (pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, j), null));
-                    break;
-
-                } else{
-                    break;
-                }
-            }
+        int square = Bitboards.square(myPosition.getRow(), myPosition.getColumn());
+        if (square == Bitboards.NO_SQUARE) {
             return moves;
         }
 
-        if (type.equals(PieceType.KNIGHT)) {
-            int knightRow;
-            int knightCol;
-
-            // UP 2 RIGHT 1
-            knightRow = myPosition.getRow() + 2;
-            knightCol = myPosition.getColumn() + 1;
-
-            if (knightRow <= 8 && knightCol <= 8 && knightRow >= 1 && knightCol >= 1){
-                newPosition = new ChessPosition(knightRow, knightCol);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-
-                if (pieceAtNewPosition == null || pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(knightRow, knightCol), null));
-                }
-            }
-
-            // UP 2 LEFT 1
-            knightRow = myPosition.getRow() + 2;
-            knightCol = myPosition.getColumn() - 1;
+        MoveList list = SCRATCH.get();
+        list.clear();
+        // A bare board has no history, so its kings get no castling rights and its pawns no en passant
+        Position position = board.view(pieceColor.ordinal(), 0, Bitboards.NO_SQUARE, 0, 1);
+        MoveGenerator.generatePieceMoves(position, square, type.ordinal(), pieceColor.ordinal(), list);
 
-            if (knightRow <= 8 && knightCol <= 8 && knightRow >= 1 && knightCol >= 1){
-                newPosition = new ChessPosition(knightRow, knightCol);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null || pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(knightRow, knightCol), null));
-                }
-            }
-
-            // RIGHT 2 UP 1
-            knightRow = myPosition.getRow() + 1;
-            knightCol = myPosition.getColumn() + 2;
-
-            if (knightRow <= 8 && knightCol <= 8 && knightRow >= 1 && knightCol >= 1){
-                newPosition = new ChessPosition(knightRow, knightCol);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null || pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(knightRow, knightCol), null));
-                }
-            }
-
-            // RIGHT 2 DOWN 1
-            knightRow = myPosition.getRow() - 1;
-            knightCol = myPosition.getColumn() + 2;
-
-            if (knightRow <= 8 && knightCol <= 8 && knightRow >= 1 && knightCol >= 1){
-                newPosition = new ChessPosition(knightRow, knightCol);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null || pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(knightRow, knightCol), null));
-                }
-            }
-
-            // DOWN 2 RIGHT 1
-            knightRow = myPosition.getRow() - 2;
-            knightCol = myPosition.getColumn() + 1;
-
-            if (knightRow <= 8 && knightCol <= 8 && knightRow >= 1 && knightCol >= 1){
-                newPosition = new ChessPosition(knightRow, knightCol);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null || pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(knightRow, knightCol), null));
-                }
-            }
-
-
-            // DOWN 2 LEFT 1
-            knightRow = myPosition.getRow() - 2;
-            knightCol = myPosition.getColumn() - 1;
-
-            if (knightRow <= 8 && knightCol <= 8 && knightRow >= 1 && knightCol >= 1){
-                newPosition = new ChessPosition(knightRow, knightCol);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null || pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(knightRow, knightCol), null));
-                }
-            }
-
-            // LEFT 2 DOWN 1
-            knightRow = myPosition.getRow() - 1;
-            knightCol = myPosition.getColumn() - 2;
-
-            if (knightRow <= 8 && knightCol <= 8 && knightRow >= 1 && knightCol >= 1){
-                newPosition = new ChessPosition(knightRow, knightCol);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null || pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(knightRow, knightCol), null));
-                }
-            }
-
-            // LEFT 2 UP 1
-            knightRow = myPosition.getRow() + 1;
-            knightCol = myPosition.getColumn() - 2;
-
-            if (knightRow <= 8 && knightCol <= 8 && knightRow >= 1 && knightCol >= 1){
-                newPosition = new ChessPosition(knightRow, knightCol);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null || pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(knightRow, knightCol), null));
-                }
-            }
-
-            return moves;
+        for (int i = 0; i < list.size(); i++) {
+            moves.add(Move.toChessMove(list.get(i)));
         }
-
-        if (type.equals(PieceType.ROOK)){
-            // for the CALCULATE ROOK MOVES CLASS, make 2 functions that do the math,
-            // 1 for the column, and 1 for the row being what's staying put.
-
-            // UP
-            for (int i = myPosition.getRow() + 1; i <= 8; i++){
-                newPosition = new ChessPosition(i, myPosition.getColumn());
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, myPosition.getColumn()),null));
-
-                } else if (pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, myPosition.getColumn()), null));
-                    break;
-
-                } else{
-                    break;
-                }
-            }
-
-            // DOWN
-            for (int i = myPosition.getRow() - 1; i >= 1; i--){
-                newPosition = new ChessPosition(i, myPosition.getColumn());
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, myPosition.getColumn()), null));
-
-                } else if (pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, myPosition.getColumn()), null));
-                    break;
-
-                } else{
-                    break;
-                }
-            }
-
-            // RIGHT
-            for (int i = myPosition.getColumn() + 1; i <= 8; i++){
-                newPosition = new ChessPosition(myPosition.getRow(), i);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(myPosition.getRow(), i), null));
-
-                } else if (pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(myPosition.getRow(), i), null));
-                    break;
-
-                } else{
-                    break;
-                }
-            }
-
-            // LEFT
-            for (int i = myPosition.getColumn() - 1; i >= 1; i--){
-                newPosition = new ChessPosition(myPosition.getRow(), i);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(myPosition.getRow(), i), null));
-
-                } else if (pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(myPosition.getRow(), i), null));
-                    break;
-
-                } else{
-                    break;
-                }
-            }
-            return moves;
-        }
-
-        if (type.equals(PieceType.QUEEN)){
-            // essentially copy the copy all the code from bishop and from rook
-
-            // UP
-            for (int i = myPosition.getRow() + 1; i <= 8; i++){
-                newPosition = new ChessPosition(i, myPosition.getColumn());
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, myPosition.getColumn()), null));
-
-                } else if (pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, myPosition.getColumn()), null));
-                    break;
-
-                } else{
-                    break;
-                }
-            }
-
-            // DOWN
-            for (int i = myPosition.getRow() - 1; i >= 1; i--){
-                newPosition = new ChessPosition(i, myPosition.getColumn());
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, myPosition.getColumn()), null));
-
-                } else if (pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, myPosition.getColumn()), null));
-                    break;
-
-                } else{
-                    break;
-                }
-            }
-
-            // RIGHT
-            for (int i = myPosition.getColumn() + 1; i <= 8; i++){
-                newPosition = new ChessPosition(myPosition.getRow(), i);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(myPosition.getRow(), i), null));
-
-                } else if (pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(myPosition.getRow(), i), null));
-                    break;
-
-                } else{
-                    break;
-                }
-            }
-
-            // LEFT
-            for (int i = myPosition.getColumn() - 1; i >= 1; i--){
-                newPosition = new ChessPosition(myPosition.getRow(), i);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(myPosition.getRow(), i), null));
-
-                } else if (pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(myPosition.getRow(), i), null));
-                    break;
-
-                } else{
-                    break;
-                }
-            }
-
-            // TOP RIGHT
-            for (int i = myPosition.getRow() + 1, j = myPosition.getColumn() + 1; i <= 8 && j <= 8; i++, j++){
-
-                newPosition = new ChessPosition(i, j);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, j), null));
-
-                } else if (pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, j), null));
-                    break;
-
-                } else{
-                    break;
-                }
-            }
-
-            // BOTTOM RIGHT
-            for (int i = myPosition.getRow() - 1, j = myPosition.getColumn() + 1; i >= 1 && j <= 8; i--, j++){
-
-                newPosition = new ChessPosition(i, j);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, j), null));
-
-                } else if (pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, j), null));
-                    break;
-
-                } else{
-                    break;
-                }
-            }
-
-            // BOTTOM LEFT
-            for (int i = myPosition.getRow() - 1, j = myPosition.getColumn() - 1; i >= 1 && j >= 1; i--, j--){
-
-                newPosition = new ChessPosition(i, j);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, j), null));
-
-                } else if (pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, j), null));
-                    break;
-
-                } else{
-                    break;
-                }
-            }
-
-            // TOP LEFT
-            for (int i = myPosition.getRow() + 1, j = myPosition.getColumn() - 1; i <= 8 && j >= 1; i++, j--){
-
-                newPosition = new ChessPosition(i, j);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, j), null));
-
-                } else if (pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(i, j), null));
-                    break;
-
-                } else{
-                    break;
-                }
-            }
-            return moves;
-        }
-
-        if (type.equals(PieceType.KING)){
-            int kingRow;
-            int kingCol;
-
-
-            // UP
-            kingRow = myPosition.getRow() + 1;
-            kingCol = myPosition.getColumn();
-
-            if (kingRow <= 8 && kingRow >= 1 && kingCol <= 8 && kingCol >= 1){
-                newPosition = new ChessPosition(kingRow, kingCol);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null || pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(kingRow, kingCol), null));
-                }
-            }
-
-            // UP RIGHT
-            kingRow = myPosition.getRow() + 1;
-            kingCol = myPosition.getColumn() + 1;
-
-            if (kingRow <= 8 && kingRow >= 1 && kingCol <= 8 && kingCol >= 1){
-                newPosition = new ChessPosition(kingRow, kingCol);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null || pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(kingRow, kingCol), null));
-                }
-            }
-
-            // RIGHT
-            kingRow = myPosition.getRow();
-            kingCol = myPosition.getColumn() + 1;
-
-            if (kingRow <= 8 && kingRow >= 1 && kingCol <= 8 && kingCol >= 1){
-                newPosition = new ChessPosition(kingRow, kingCol);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null || pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(kingRow, kingCol), null));
-                }
-            }
-
-            // RIGHT DOWN
-            kingRow = myPosition.getRow() - 1;
-            kingCol = myPosition.getColumn() + 1;
-
-            if (kingRow <= 8 && kingRow >= 1 && kingCol <= 8 && kingCol >= 1){
-                newPosition = new ChessPosition(kingRow, kingCol);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null || pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(kingRow, kingCol), null));
-                }
-            }
-
-            // DOWN
-            kingRow = myPosition.getRow() - 1;
-            kingCol = myPosition.getColumn();
-
-
-            if (kingRow <= 8 && kingRow >= 1 && kingCol <= 8 && kingCol >= 1){
-                newPosition = new ChessPosition(kingRow, kingCol);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null || pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(kingRow, kingCol), null));
-                }
-            }
-
-            // DOWN LEFT
-            kingRow = myPosition.getRow() - 1;
-            kingCol = myPosition.getColumn() - 1;
-
-            if (kingRow <= 8 && kingRow >= 1 && kingCol <= 8 && kingCol >= 1){
-                newPosition = new ChessPosition(kingRow, kingCol);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null || pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(kingRow, kingCol),null));
-                }
-            }
-
-            //LEFT
-            kingRow = myPosition.getRow();
-            kingCol = myPosition.getColumn() - 1;
-
-            if (kingRow <= 8 && kingRow >= 1 && kingCol <= 8 && kingCol >= 1){
-                newPosition = new ChessPosition(kingRow, kingCol);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null || pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(kingRow, kingCol), null));
-                }
-            }
-
-            //LEFT UP
-            kingRow = myPosition.getRow() + 1;
-            kingCol = myPosition.getColumn() - 1;
-
-            if (kingRow <= 8 && kingRow >= 1 && kingCol <= 8 && kingCol >= 1){
-                newPosition = new ChessPosition(kingRow, kingCol);
-                pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null || pieceAtNewPosition.pieceColor != this.pieceColor){
-                    moves.add(new ChessMove(myPosition, new ChessPosition(kingRow, kingCol), null));
-                }
-            }
-            return moves;
-        }
-
-        if (type.equals(PieceType.PAWN)){
-
-            int pawnRow;
-            int pawnCol;
-
-            if (this.pieceColor.equals(ChessGame.TeamColor.WHITE)){
-
-                pawnRow = myPosition.getRow() + 1;
-                pawnCol = myPosition.getColumn() + 1;
-
-                if (pawnRow <= 8 && pawnRow >= 1 && pawnCol <= 8 && pawnCol >= 1){
-                    newPosition = new ChessPosition(pawnRow, pawnCol);
-                    pieceAtNewPosition = board.getPiece(newPosition);
-
-                    if (pieceAtNewPosition != null){
-                        if (pieceAtNewPosition.pieceColor != this.pieceColor && myPosition.getRow() != 7){
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), null));
-                        } else if (myPosition.getRow() == 7){
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.ROOK));
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.BISHOP));
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.QUEEN));
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.KNIGHT));
-                        }
-                    }
-                }
-
-                pawnRow = myPosition.getRow() + 1;
-                pawnCol = myPosition.getColumn() - 1;
-
-                if (pawnRow <= 8 && pawnRow >= 1 && pawnCol <= 8 && pawnCol >= 1){
-                    newPosition = new ChessPosition(pawnRow, pawnCol);
-                    pieceAtNewPosition = board.getPiece(newPosition);
-
-                    if (pieceAtNewPosition != null){
-                        if (pieceAtNewPosition.pieceColor != this.pieceColor && myPosition.getRow() != 7){
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), null));
-                        } else if (myPosition.getRow() == 7){
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.ROOK));
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.BISHOP));
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.QUEEN));
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.KNIGHT));
-                        }
-                    }
-                }
-
-                if(myPosition.getRow() == 2){
-                    // initial move
-                    pawnRow = myPosition.getRow() + 1;
-                    pawnCol = myPosition.getColumn();
-
-                    newPosition = new ChessPosition(pawnRow, pawnCol);
-                    pieceAtNewPosition = board.getPiece(newPosition);
-
-                    if (pieceAtNewPosition == null){
-                        moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), null));
-
-                        pawnRow = myPosition.getRow() + 2;
-
-                        newPosition = new ChessPosition(pawnRow, pawnCol);
-                        pieceAtNewPosition = board.getPiece(newPosition);
-
-                        if (pieceAtNewPosition == null){
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), null));
-                        }
-                    }
-
-
-                } else {
-                    pawnRow = myPosition.getRow() + 1;
-                    pawnCol = myPosition.getColumn();
-
-                    if (pawnRow <= 8 && pawnRow >= 1 && pawnCol <=8 && pawnCol >= 1){
-                        newPosition = new ChessPosition(pawnRow, pawnCol);
-                        pieceAtNewPosition = board.getPiece(newPosition);
-                        if (pieceAtNewPosition == null && myPosition.getRow() !=7 ) {
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), null));
-                        } else if (pieceAtNewPosition == null && myPosition.getRow() == 7){
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.ROOK));
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.BISHOP));
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.QUEEN));
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.KNIGHT));
-                        }
-                    }
-                }
-            }
-
-            if (this.pieceColor.equals(ChessGame.TeamColor.BLACK)){
-
-                pawnRow = myPosition.getRow() - 1;
-                pawnCol = myPosition.getColumn() - 1;
-
-
-                if (pawnRow <= 8 && pawnRow >= 1 && pawnCol <= 8 && pawnCol >= 1){
-                    newPosition = new ChessPosition(pawnRow, pawnCol);
-                    pieceAtNewPosition = board.getPiece(newPosition);
-
-
-                    if (pieceAtNewPosition != null){
-                        if (pieceAtNewPosition.pieceColor != this.pieceColor && myPosition.getRow() != 2){
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), null));
-                        } else if (myPosition.getRow() == 2){
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.ROOK));
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.BISHOP));
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.QUEEN));
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.KNIGHT));
-                        }
-                    }
-                }
-
-                pawnRow = myPosition.getRow() - 1;
-                pawnCol = myPosition.getColumn() + 1;
-
-                if (pawnRow <= 8 && pawnRow >= 1 && pawnCol <= 8 && pawnCol >= 1){
-                    newPosition = new ChessPosition(pawnRow, pawnCol);
-                    pieceAtNewPosition = board.getPiece(newPosition);
-
-                    if (pieceAtNewPosition != null){
-                        if (pieceAtNewPosition.pieceColor != this.pieceColor && myPosition.getRow() != 7){
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), null));
-                        } else if (pawnRow == 2){
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.ROOK));
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.BISHOP));
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.QUEEN));
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.KNIGHT));
-                        }
-                    }
-                }
-
-
-                if(myPosition.getRow() == 7){
-                    // initial move
-                    pawnRow = myPosition.getRow() - 1;
-                    pawnCol = myPosition.getColumn();
-
-                    newPosition = new ChessPosition(pawnRow, pawnCol);
-                    pieceAtNewPosition = board.getPiece(newPosition);
-
-                    if (pieceAtNewPosition == null){
-                        moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), null));
-
-                        pawnRow = myPosition.getRow() - 2;
-
-                        newPosition = new ChessPosition(pawnRow, pawnCol);
-                        pieceAtNewPosition = board.getPiece(newPosition);
-
-                        if (pieceAtNewPosition == null){
-                            moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), null));
-                        }
-                    }
-
-
-                }else {
-                    pawnRow = myPosition.getRow() - 1;
-                    pawnCol = myPosition.getColumn();
-
-                    newPosition = new ChessPosition(pawnRow, pawnCol);
-                    pieceAtNewPosition = board.getPiece(newPosition);
-
-                    if (pieceAtNewPosition == null && myPosition.getRow() !=2 ) {
-                        moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), null));
-                    } else if (pieceAtNewPosition == null && myPosition.getRow() == 2){
-                        moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.ROOK));
-                        moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.BISHOP));
-                        moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.QUEEN));
-                        moves.add(new ChessMove(myPosition, new ChessPosition(pawnRow, pawnCol), ChessPiece.PieceType.KNIGHT));
-                    }
-                }
-            }
-            return moves;
-        }
-        return new HashSet<>();
-        //throw new RuntimeException("Not implemented");
+        return moves;
     }
 }
@@ -1,7 +1,5 @@
 package chess;
 
-import java.util.Objects;
-
 /**
  * Represents a single square position on a chess board
  * <p>
@@ -13,11 +11,41 @@ public class ChessPosition {
     private final int row;
     private final int col;
 
+    // One shared instance per square on the board, indexed like Bitboards squares
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            SQUARES[sq] = new ChessPosition(Bitboards.row(sq), Bitboards.column(sq));
+        }
+    }
+
     public ChessPosition(int row, int col) {
         this.row = row;
         this.col = col;
     }
 
+    /**
+     * Returns the shared instance for a square, so on-board positions can be compared by
+     * reference and never need allocating. Coordinates off the board get a fresh instance.
+     *
+     * @param row 1 codes for the bottom row
+     * @param col 1 codes for the left column
+     * @return the canonical position for the square
+     */
+    public static ChessPosition of(int row, int col) {
+        int square = Bitboards.square(row, col);
+        return square == Bitboards.NO_SQUARE ? new ChessPosition(row, col) : SQUARES[square];
+    }
+
+    /**
+     * @param square a square index in {@link Bitboards} numbering
+     * @return the canonical position for the square
+     */
+    public static ChessPosition of(int square) {
+        return SQUARES[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -43,6 +71,6 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(getRow(), col);
+        return row * 31 + col;
     }
 }
@@ -0,0 +1,142 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Works out legal-move counts and check/checkmate/stalemate status for many games at once,
+ * spread over a fork/join pool. Used to re-validate stored games after a rules fix, so it
+ * always generates from scratch and never consults {@link PositionCache}.
+ */
+public final class GameAnalyzer {
+
+    // Below this many games a task analyzes them itself instead of splitting
+    private static final int BATCH_SIZE = 64;
+
+    private GameAnalyzer() {
+    }
+
+    /**
+     * The state of one game for the side whose turn it is
+     */
+    public static final class Analysis {
+        private final long positionKey;
+        private final ChessGame.TeamColor teamTurn;
+        private final int legalMoves;
+        private final boolean inCheck;
+
+        Analysis(long positionKey, ChessGame.TeamColor teamTurn, int legalMoves, boolean inCheck) {
+            this.positionKey = positionKey;
+            this.teamTurn = teamTurn;
+            this.legalMoves = legalMoves;
+            this.inCheck = inCheck;
+        }
+
+        public long getPositionKey() {
+            return positionKey;
+        }
+
+        public ChessGame.TeamColor getTeamTurn() {
+            return teamTurn;
+        }
+
+        public int getLegalMoves() {
+            return legalMoves;
+        }
+
+        public boolean isInCheck() {
+            return inCheck;
+        }
+
+        public boolean isInCheckmate() {
+            return inCheck && legalMoves == 0;
+        }
+
+        public boolean isInStalemate() {
+            return !inCheck && legalMoves == 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Analysis{teamTurn=" + teamTurn + ", legalMoves=" + legalMoves + ", inCheck=" + inCheck
+                    + ", checkmate=" + isInCheckmate() + ", stalemate=" + isInStalemate() + "}";
+        }
+    }
+
+    /**
+     * Analyzes one game
+     *
+     * @param game the game to look at, which is not modified
+     * @return its analysis for the side to move
+     */
+    public static Analysis analyze(ChessGame game) {
+        return analyze(game.copyPosition(), game.getTeamTurn(), new MoveList());
+    }
+
+    /**
+     * Analyzes every game on the common fork/join pool
+     *
+     * @see #analyzeAll(Collection, ForkJoinPool)
+     */
+    public static List<Analysis> analyzeAll(Collection<ChessGame> games) {
+        return analyzeAll(games, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Analyzes every game in parallel. The games are only read, so they must not be changed
+     * while this runs.
+     *
+     * @param games the games to analyze; null entries are allowed
+     * @param pool  the pool to run on
+     * @return one analysis per game in iteration order, null where the game was null
+     */
+    public static List<Analysis> analyzeAll(Collection<ChessGame> games, ForkJoinPool pool) {
+        ChessGame[] input = games.toArray(new ChessGame[0]);
+        Analysis[] output = new Analysis[input.length];
+        pool.invoke(new AnalyzeTask(input, output, 0, input.length));
+        return new ArrayList<>(Arrays.asList(output));
+    }
+
+    private static Analysis analyze(Position position, ChessGame.TeamColor teamTurn, MoveList moves) {
+        int us = teamTurn.ordinal();
+        moves.clear();
+        MoveGenerator.generateLegal(position, us, moves);
+        int king = position.kingSquare(us);
+        boolean check = king != Bitboards.NO_SQUARE && position.isSquareAttacked(king, us ^ 1);
+        return new Analysis(position.key(), teamTurn, moves.size(), check);
+    }
+
+    private static class AnalyzeTask extends RecursiveAction {
+        private final ChessGame[] games;
+        private final Analysis[] results;
+        private final int from;
+        private final int to;
+
+        AnalyzeTask(ChessGame[] games, Analysis[] results, int from, int to) {
+            this.games = games;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BATCH_SIZE) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new AnalyzeTask(games, results, from, mid), new AnalyzeTask(games, results, mid, to));
+                return;
+            }
+            MoveList moves = new MoveList();
+            for (int i = from; i < to; i++) {
+                ChessGame game = games[i];
+                if (game != null) {
+                    results[i] = analyze(game.copyPosition(), game.getTeamTurn(), moves);
+                }
+            }
+        }
+    }
+}
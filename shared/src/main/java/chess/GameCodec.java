@@ -0,0 +1,163 @@
+package chess;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A fixed-size binary form of a game, for storage and transport: {@value #SIZE} bytes
+ * against about 60 for FEN and several kilobytes for a game serialized by Gson.
+ * <p>
+ * Layout, version 1:
+ * <pre>
+ *  byte  0      format version
+ *  bytes 1-32   the board, one nibble per square from a1 to h8, low nibble first:
+ *               0 for empty, otherwise the {@link Position} piece code + 1
+ *  byte  33     bit 0 the side to move, bits 4-7 the castling rights
+ *  byte  34     the en passant square, or 0xFF for none
+ *  bytes 35-36  the halfmove clock, big-endian
+ *  bytes 37-38  the fullmove number, big-endian
+ * </pre>
+ * Reading and writing go straight between a {@link ByteBuffer} and a {@link Position}, with
+ * no intermediate array, so a direct buffer or a slice of a larger one works as well as a
+ * wrapped byte array. Like {@link ChessGame#toFen()}, the encoding keeps everything a game
+ * holds except the moves {@link ChessGame#undoMove()} could take back.
+ */
+public final class GameCodec {
+
+    public static final int VERSION = 1;
+    public static final int SIZE = 39;
+
+    private static final int NO_EP_SQUARE = 0xFF;
+
+    private GameCodec() {
+    }
+
+    /**
+     * @return the game in {@value #SIZE} bytes
+     */
+    public static byte[] encode(ChessGame game) {
+        byte[] bytes = new byte[SIZE];
+        write(game, ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * @param bytes an encoded game
+     * @return a new game with no moves to take back
+     * @throws IllegalArgumentException if the bytes are not an encoded game
+     */
+    public static ChessGame decode(byte[] bytes) {
+        return read(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * @return true if the bytes start like an encoded game. Neither FEN nor JSON can start
+     * with the version byte, so this tells the formats apart.
+     */
+    public static boolean isEncoded(byte[] bytes) {
+        return bytes.length == SIZE && bytes[0] == VERSION;
+    }
+
+    /**
+     * Writes a game at the buffer's position and advances it by {@value #SIZE}
+     *
+     * @throws BufferOverflowException if fewer than {@value #SIZE} bytes remain
+     */
+    public static void write(ChessGame game, ByteBuffer out) {
+        write(game.position(), out);
+    }
+
+    /**
+     * Reads a game at the buffer's position and advances it by {@value #SIZE}
+     *
+     * @return a new game with no moves to take back
+     * @throws IllegalArgumentException if the bytes are not an encoded game
+     */
+    public static ChessGame read(ByteBuffer in) {
+        return ChessGame.fromPosition(readPosition(in));
+    }
+
+    /**
+     * Writes a position at the buffer's position and advances it by {@value #SIZE}
+     *
+     * @throws BufferOverflowException if fewer than {@value #SIZE} bytes remain
+     */
+    public static void write(Position position, ByteBuffer out) {
+        if (out.remaining() < SIZE) {
+            throw new BufferOverflowException();
+        }
+        out.put((byte) VERSION);
+        byte[] mailbox = position.mailbox;
+        for (int square = 0; square < 64; square += 2) {
+            out.put((byte) ((mailbox[square] + 1) | (mailbox[square + 1] + 1) << 4));
+        }
+        out.put((byte) (position.sideToMove() | position.castlingRights() << 4));
+        int ep = position.epSquare();
+        out.put((byte) (ep == Bitboards.NO_SQUARE ? NO_EP_SQUARE : ep));
+        putShort(out, position.halfmoveClock());
+        putShort(out, position.fullmoveNumber());
+    }
+
+    /**
+     * Reads a position at the buffer's position and advances it by {@value #SIZE}
+     *
+     * @return a new position
+     * @throws IllegalArgumentException if the bytes are not an encoded position
+     */
+    public static Position readPosition(ByteBuffer in) {
+        if (in.remaining() < SIZE) {
+            throw new IllegalArgumentException("An encoded game needs " + SIZE + " bytes, not " + in.remaining());
+        }
+        int version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unknown game encoding version " + version);
+        }
+        Position position = new Position();
+        for (int square = 0; square < 64; square += 2) {
+            int pair = in.get() & 0xFF;
+            putNibble(position, square, pair & 0xF);
+            putNibble(position, square + 1, pair >>> 4);
+        }
+        int state = in.get() & 0xFF;
+        if ((state & 0x0E) != 0) {
+            throw new IllegalArgumentException("Bad side to move in encoded game");
+        }
+        position.setSideToMove(state & 1);
+        position.setCastlingRights(state >>> 4);
+
+        int ep = in.get() & 0xFF;
+        if (ep != NO_EP_SQUARE && ep >= 64) {
+            throw new IllegalArgumentException("Bad en passant square in encoded game");
+        }
+        position.setEpSquare(ep == NO_EP_SQUARE ? Bitboards.NO_SQUARE : ep);
+
+        int halfmoveClock = getShort(in);
+        int fullmoveNumber = getShort(in);
+        if (fullmoveNumber < 1) {
+            throw new IllegalArgumentException("Bad move counters in encoded game");
+        }
+        position.setHalfmoveClock(halfmoveClock);
+        position.setFullmoveNumber(fullmoveNumber);
+        return position;
+    }
+
+    private static void putNibble(Position position, int square, int nibble) {
+        if (nibble > 12) {
+            throw new IllegalArgumentException("Bad piece code " + nibble + " in encoded game");
+        }
+        if (nibble != 0) {
+            position.put(square, nibble - 1);
+        }
+    }
+
+    // Byte by byte, so the result does not depend on the order the caller's buffer is set to
+    private static void putShort(ByteBuffer out, int value) {
+        int clamped = Math.min(value, 0xFFFF);
+        out.put((byte) (clamped >>> 8));
+        out.put((byte) clamped);
+    }
+
+    private static int getShort(ByteBuffer in) {
+        return (in.get() & 0xFF) << 8 | in.get() & 0xFF;
+    }
+}
@@ -0,0 +1,107 @@
+package chess;
+
+/**
+ * Static helpers for moves packed into a single int, so move lists can live in
+ * primitive buffers instead of collections of {@link ChessMove}.
+ * <p>
+ * Layout, from the low bits up:
+ * <pre>
+ *  bits  0-5   from square
+ *  bits  6-11  to square
+ *  bits 12-14  promotion piece type, 0 when the move is not a promotion
+ *  bits 15-18  flags: capture, double pawn push, en passant, castling
+ * </pre>
+ * Squares use {@link Bitboards} numbering and piece types use {@link Position} constants.
+ * Since {@link Position#KING} is 0 and a pawn can never promote to a king, 0 is free to
+ * mean "no promotion".
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int DOUBLE_PUSH = 1 << 16;
+    public static final int EN_PASSANT = 1 << 17;
+    public static final int CASTLE = 1 << 18;
+
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    public static int of(int from, int to) {
+        return from | (to << 6);
+    }
+
+    public static int of(int from, int to, int promotion, int flags) {
+        return from | (to << 6) | (promotion << 12) | flags;
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * @return the promotion piece type, or 0 if the move does not promote
+     */
+    public static int promotion(int move) {
+        return (move >>> 12) & 0x7;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return promotion(move) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    public static boolean isDoublePush(int move) {
+        return (move & DOUBLE_PUSH) != 0;
+    }
+
+    /**
+     * @return the from, to and promotion bits only, which is all a {@link ChessMove} carries
+     */
+    public static int withoutFlags(int move) {
+        return move & 0x7FFF;
+    }
+
+    /**
+     * Packs the squares and promotion of a {@link ChessMove}. The result carries no flags,
+     * so compare it against generated moves with {@link #withoutFlags(int)}.
+     *
+     * @param move the move to pack
+     * @return the packed move, or {@link #NONE} if either square is off the board
+     */
+    public static int fromChessMove(ChessMove move) {
+        ChessPosition start = move.getStartPosition();
+        ChessPosition end = move.getEndPosition();
+        int from = Bitboards.square(start.getRow(), start.getColumn());
+        int to = Bitboards.square(end.getRow(), end.getColumn());
+        if (from == Bitboards.NO_SQUARE || to == Bitboards.NO_SQUARE) {
+            return NONE;
+        }
+        int promotion = move.getPromotionPiece() == null ? 0 : move.getPromotionPiece().ordinal();
+        return of(from, to, promotion, 0);
+    }
+
+    public static ChessMove toChessMove(int move) {
+        int from = from(move);
+        int to = to(move);
+        int promotion = promotion(move);
+        return ChessMove.of(from, to, promotion == 0 ? null : PIECE_TYPES[promotion]);
+    }
+}
@@ -0,0 +1,305 @@
+package chess;
+
+import static chess.Position.*;
+
+/**
+ * Generates moves for a {@link Position} into a caller-supplied {@link MoveList}.
+ * <p>
+ * Nothing here allocates: moves are packed ints (see {@link Move}) and every scan walks
+ * bitboards. Callers keep one {@link MoveList} per search ply or per thread and reuse it.
+ */
+public final class MoveGenerator {
+
+    private static final int[] PROMOTIONS = {QUEEN, ROOK, BISHOP, KNIGHT};
+
+    // Squares castling needs empty and needs unattacked, indexed by side then kingside/queenside
+    private static final int[][] CASTLE_RIGHT = {
+            {WHITE_KINGSIDE, WHITE_QUEENSIDE}, {BLACK_KINGSIDE, BLACK_QUEENSIDE}};
+    private static final long[][] CASTLE_EMPTY = {
+            {0x60L, 0x0EL}, {0x60L << 56, 0x0EL << 56}};
+    private static final long[][] CASTLE_SAFE = {
+            {0x70L, 0x1CL}, {0x70L << 56, 0x1CL << 56}};
+    private static final int[][] CASTLE_KING_TO = {{6, 2}, {62, 58}};
+    private static final int[][] CASTLE_ROOK_FROM = {{7, 0}, {63, 56}};
+    private static final int[] KING_HOME = {4, 60};
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Appends every pseudo-legal move for one side: moves that follow the piece rules but may
+     * leave that side's king in check. Castling is only generated when it is fully legal.
+     *
+     * @param position the position to generate for
+     * @param us       {@link Position#WHITE} or {@link Position#BLACK}
+     * @param list     the buffer to append to
+     */
+    public static void generatePseudoLegal(Position position, int us, MoveList list) {
+        for (long own = position.colors[us]; own != 0; own &= own - 1) {
+            int square = Bitboards.lowestSquare(own);
+            generatePieceMoves(position, square, typeOf(position.mailbox[square]), us, list);
+        }
+    }
+
+    /**
+     * Appends the pseudo-legal moves of a piece standing on {@code square} as if it were
+     * of the given type and color
+     *
+     * @param position the position to generate for
+     * @param square   the square the piece moves from
+     * @param type     the piece type, see {@link Position#KING} and friends
+     * @param us       the piece color
+     * @param list     the buffer to append to
+     */
+    public static void generatePieceMoves(Position position, int square, int type, int us, MoveList list) {
+        long own = position.colors[us];
+        long enemy = position.colors[us ^ 1];
+
+        switch (type) {
+            case PAWN -> generatePawnMoves(position, square, us, enemy, -1L, false, list);
+            case KING -> {
+                addTargets(square, Bitboards.kingAttacks(square) & ~own, enemy, list);
+                generateCastling(position, square, us, list);
+            }
+            default -> addTargets(square, Position.attacks(type, us, square, position.occupied) & ~own, enemy, list);
+        }
+    }
+
+    /**
+     * Appends every legal move for one side. Pins and checks are worked out once for the
+     * position, so each move is emitted only if legal and nothing is made and unmade.
+     *
+     * @param position the position to generate for
+     * @param us       {@link Position#WHITE} or {@link Position#BLACK}
+     * @param list     the buffer to append to
+     */
+    public static void generateLegal(Position position, int us, MoveList list) {
+        generateLegal(position, us, -1L, list);
+    }
+
+    /**
+     * Appends the legal moves of whichever piece stands on a square
+     *
+     * @param position the position to generate for
+     * @param square   the square the piece moves from
+     * @param list     the buffer to append to; left untouched if the square is empty
+     */
+    public static void generateLegalFrom(Position position, int square, MoveList list) {
+        int piece = position.mailbox[square];
+        if (piece != EMPTY) {
+            generateLegal(position, colorOf(piece), Bitboards.bit(square), list);
+        }
+    }
+
+    /**
+     * Tests whether a side has any legal move. Checkmate and stalemate both come down to
+     * this plus a single check test.
+     *
+     * @param position the position to test
+     * @param us       {@link Position#WHITE} or {@link Position#BLACK}
+     * @param scratch  a buffer the generator may overwrite
+     * @return true if at least one legal move exists
+     */
+    public static boolean hasLegalMove(Position position, int us, MoveList scratch) {
+        scratch.clear();
+        // The king first: when it can step somewhere the answer comes almost for free
+        long king = position.pieces[piece(us, KING)];
+        generateLegal(position, us, king, scratch);
+        if (scratch.isEmpty()) {
+            generateLegal(position, us, ~king, scratch);
+        }
+        return !scratch.isEmpty();
+    }
+
+    /**
+     * Finds the pieces of one side that are pinned to their own king: each stands alone
+     * between the king and an enemy slider that would otherwise attack it
+     *
+     * @param position the position to look at
+     * @param us       the side whose pieces may be pinned
+     * @return the squares of pinned pieces, 0 if there are none or no king
+     */
+    public static long pinned(Position position, int us) {
+        int king = position.kingSquare(us);
+        if (king == Bitboards.NO_SQUARE) {
+            return 0L;
+        }
+        int them = us ^ 1;
+        long queens = position.pieces[piece(them, QUEEN)];
+        long snipers = (Bitboards.rookAttacks(king, 0L) & (position.pieces[piece(them, ROOK)] | queens))
+                | (Bitboards.bishopAttacks(king, 0L) & (position.pieces[piece(them, BISHOP)] | queens));
+
+        long pinned = 0L;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Bitboards.between(king, Bitboards.lowestSquare(snipers)) & position.occupied;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & position.colors[us];
+            }
+        }
+        return pinned;
+    }
+
+    private static void generateLegal(Position position, int us, long fromMask, MoveList list) {
+        int king = position.kingSquare(us);
+        if (king == Bitboards.NO_SQUARE) {
+            // Without a king nothing can be illegal
+            for (long own = position.colors[us] & fromMask; own != 0; own &= own - 1) {
+                int square = Bitboards.lowestSquare(own);
+                generatePieceMoves(position, square, typeOf(position.mailbox[square]), us, list);
+            }
+            return;
+        }
+
+        int them = us ^ 1;
+        long own = position.colors[us];
+        long enemy = position.colors[them];
+        long kingBit = Bitboards.bit(king);
+        long checkers = position.attackersTo(king, position.occupied) & enemy;
+
+        if ((fromMask & kingBit) != 0) {
+            // The king may go anywhere not attacked once it has stepped off its square
+            long occupied = position.occupied ^ kingBit;
+            for (long targets = Bitboards.kingAttacks(king) & ~own; targets != 0; targets &= targets - 1) {
+                int to = Bitboards.lowestSquare(targets);
+                long toBit = Bitboards.bit(to);
+                if (!position.isSquareAttacked(to, them, occupied, toBit)) {
+                    list.add(Move.of(king, to, 0, (enemy & toBit) != 0 ? Move.CAPTURE : 0));
+                }
+            }
+            if (checkers == 0) {
+                generateCastling(position, king, us, list);
+            }
+        }
+
+        // In double check only the king can move
+        if ((checkers & (checkers - 1)) != 0) {
+            return;
+        }
+        // In single check a move must capture the checker or block its line
+        long evasion = checkers == 0 ? -1L : checkers | Bitboards.between(king, Bitboards.lowestSquare(checkers));
+        long pinned = pinned(position, us);
+
+        for (long pieces = own & ~kingBit & fromMask; pieces != 0; pieces &= pieces - 1) {
+            int from = Bitboards.lowestSquare(pieces);
+            long allowed = evasion;
+            if ((pinned & Bitboards.bit(from)) != 0) {
+                // A pinned piece may only slide along the line through its king
+                allowed &= Bitboards.line(king, from);
+            }
+
+            int type = typeOf(position.mailbox[from]);
+            if (type == PAWN) {
+                generatePawnMoves(position, from, us, enemy, allowed, true, list);
+            } else {
+                addTargets(from, Position.attacks(type, us, from, position.occupied) & ~own & allowed, enemy, list);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a pseudo-legal move keeps the mover's own king out of check, without
+     * changing the position: the move is applied to a copy of the occupancy mask only
+     *
+     * @param position the position the move was generated in
+     * @param move     a pseudo-legal move
+     * @param us       the color making the move
+     * @return true if the move is legal
+     */
+    public static boolean isLegal(Position position, int move, int us) {
+        if (Move.isCastle(move)) {
+            return true;
+        }
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int king = typeOf(position.mailbox[from]) == KING ? to : position.kingSquare(us);
+        if (king == Bitboards.NO_SQUARE) {
+            return true;
+        }
+
+        long toBit = Bitboards.bit(to);
+        long captured = toBit;
+        if (Move.isEnPassant(move)) {
+            captured = Bitboards.bit(us == WHITE ? to - 8 : to + 8);
+        }
+        long occupied = ((position.occupied ^ Bitboards.bit(from)) | toBit) & ~(captured ^ toBit);
+        return !position.isSquareAttacked(king, us ^ 1, occupied, captured);
+    }
+
+    private static void addTargets(int from, long targets, long enemy, MoveList list) {
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Bitboards.lowestSquare(targets);
+            list.add(Move.of(from, to, 0, (enemy & Bitboards.bit(to)) != 0 ? Move.CAPTURE : 0));
+        }
+    }
+
+    /**
+     * @param allowed targets the caller permits, for check evasions and pins
+     * @param legal   whether en passant must be proven legal, since removing two pawns from a
+     *                row at once can expose the king in a way the pin mask does not capture
+     */
+    private static void generatePawnMoves(Position position, int from, int us, long enemy, long allowed,
+                                          boolean legal, MoveList list) {
+        int forward = us == WHITE ? 8 : -8;
+        long startRank = us == WHITE ? Bitboards.RANK_2 : Bitboards.RANK_7;
+        long lastRank = us == WHITE ? Bitboards.RANK_8 : Bitboards.RANK_1;
+
+        int one = from + forward;
+        if (one >= 0 && one < 64 && (position.occupied & Bitboards.bit(one)) == 0) {
+            if ((allowed & Bitboards.bit(one)) != 0) {
+                addPawnMove(from, one, 0, lastRank, list);
+            }
+
+            int two = one + forward;
+            if ((startRank & Bitboards.bit(from)) != 0 && (position.occupied & Bitboards.bit(two)) == 0
+                    && (allowed & Bitboards.bit(two)) != 0) {
+                list.add(Move.of(from, two, 0, Move.DOUBLE_PUSH));
+            }
+        }
+
+        long attacks = Bitboards.pawnAttacks(us, from);
+        for (long captures = attacks & enemy & allowed; captures != 0; captures &= captures - 1) {
+            addPawnMove(from, Bitboards.lowestSquare(captures), Move.CAPTURE, lastRank, list);
+        }
+
+        // An en passant square only belongs to the side whose turn it is
+        int ep = position.epSquare;
+        if (ep != Bitboards.NO_SQUARE && us == position.sideToMove && (attacks & Bitboards.bit(ep)) != 0) {
+            int move = Move.of(from, ep, 0, Move.CAPTURE | Move.EN_PASSANT);
+            if (!legal || isLegal(position, move, us)) {
+                list.add(move);
+            }
+        }
+    }
+
+    private static void addPawnMove(int from, int to, int flags, long lastRank, MoveList list) {
+        if ((lastRank & Bitboards.bit(to)) != 0) {
+            for (int promotion : PROMOTIONS) {
+                list.add(Move.of(from, to, promotion, flags));
+            }
+        } else {
+            list.add(Move.of(from, to, 0, flags));
+        }
+    }
+
+    private static void generateCastling(Position position, int from, int us, MoveList list) {
+        if (from != KING_HOME[us] || (position.castlingRights & (CASTLE_RIGHT[us][0] | CASTLE_RIGHT[us][1])) == 0) {
+            return;
+        }
+        int them = us ^ 1;
+        int rook = piece(us, ROOK);
+        for (int side = 0; side < 2; side++) {
+            if ((position.castlingRights & CASTLE_RIGHT[us][side]) == 0
+                    || position.mailbox[CASTLE_ROOK_FROM[us][side]] != rook
+                    || (position.occupied & CASTLE_EMPTY[us][side]) != 0) {
+                continue;
+            }
+            boolean safe = true;
+            for (long path = CASTLE_SAFE[us][side]; path != 0 && safe; path &= path - 1) {
+                safe = !position.isSquareAttacked(Bitboards.lowestSquare(path), them);
+            }
+            if (safe) {
+                list.add(Move.of(from, CASTLE_KING_TO[us][side], 0, Move.CASTLE));
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer of packed {@link Move} ints. Generators append to it; callers
+ * {@link #clear()} and refill it instead of allocating a new collection per call.
+ */
+public class MoveList {
+
+    // No legal chess position has more than 218 moves. A board set up piece by piece can
+    // have more, such as one with a dozen queens, and the list grows for it.
+    public static final int CAPACITY = 256;
+
+    private int[] moves = new int[CAPACITY];
+    private int size;
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Shrinks the list, keeping the first {@code size} moves
+     *
+     * @param size the new size
+     */
+    public void truncate(int size) {
+        this.size = size;
+    }
+
+    public void swap(int i, int j) {
+        int tmp = moves[i];
+        moves[i] = moves[j];
+        moves[j] = tmp;
+    }
+
+    /**
+     * Looks a move up by its squares and promotion, ignoring flags
+     *
+     * @param move the move to look for, flags are not compared
+     * @return the matching generated move, with its flags, or {@link Move#NONE}
+     */
+    public int find(int move) {
+        int key = Move.withoutFlags(move);
+        for (int i = 0; i < size; i++) {
+            if (Move.withoutFlags(moves[i]) == key) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+}
@@ -0,0 +1,312 @@
+package chess;
+
+/**
+ * Converts moves to and from text.
+ * <ul>
+ * <li>UCI coordinates, such as {@code e2e4} or {@code e7e8q}, name the squares only and
+ * need no position, so they are what the socket and compact move logs carry.</li>
+ * <li>Standard Algebraic Notation, as used in PGN, such as {@code e4}, {@code Nbd7},
+ * {@code exd8=Q+} or {@code O-O-O}, needs the position: it is read and written against the
+ * legal moves there, so a SAN string always names exactly one legal move.</li>
+ * </ul>
+ * Apart from the strings they return, none of these methods allocate: moves come back as
+ * shared {@link ChessMove} instances and each thread reuses one move list and one buffer.
+ */
+public final class MoveNotation {
+
+    private static final String PIECE_LETTERS = "KQBNRP";
+    private static final String UCI_PIECE_LETTERS = "kqbnrp";
+
+    // The longest SAN is seven characters, such as Qa1xb2# or exd8=Q#; the longest UCI is five
+    private static final int MAX_CHARS = 8;
+
+    // Per-thread buffers, so neither parsing a long archive nor writing moves to the socket
+    // allocates anything beyond the result
+    private static final ThreadLocal<MoveList> SCRATCH = ThreadLocal.withInitial(MoveList::new);
+    private static final ThreadLocal<char[]> CHARS = ThreadLocal.withInitial(() -> new char[MAX_CHARS]);
+
+    private MoveNotation() {
+    }
+
+    /**
+     * @return the move in UCI coordinates, for example {@code g1f3} or {@code a7a8q}
+     */
+    public static String toUci(ChessMove move) {
+        return toUci(Move.fromChessMove(move));
+    }
+
+    /**
+     * @param move a packed move; its flags are ignored
+     * @return the move in UCI coordinates
+     */
+    public static String toUci(int move) {
+        char[] chars = CHARS.get();
+        int length = appendSquare(chars, 0, Move.from(move));
+        length = appendSquare(chars, length, Move.to(move));
+        if (Move.isPromotion(move)) {
+            chars[length++] = UCI_PIECE_LETTERS.charAt(Move.promotion(move));
+        }
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * Reads UCI coordinates. Nothing is checked against a position, so the move may not be
+     * legal anywhere.
+     *
+     * @param uci for example {@code e2e4}, or {@code e7e8q} for a promotion
+     * @return the shared instance of the move
+     * @throws IllegalArgumentException if the string is not UCI coordinates
+     */
+    public static ChessMove fromUci(String uci) {
+        return Move.toChessMove(uciMove(uci));
+    }
+
+    /**
+     * Finds the legal move that UCI coordinates name
+     *
+     * @return the move, with the flags {@link MoveGenerator} gives it
+     * @throws IllegalArgumentException if the string is not UCI coordinates or not a legal move
+     */
+    public static int parseUci(Position position, String uci) {
+        MoveList legal = SCRATCH.get();
+        legal.clear();
+        MoveGenerator.generateLegal(position, position.sideToMove(), legal);
+        int move = legal.find(uciMove(uci));
+        if (move == Move.NONE) {
+            throw new IllegalArgumentException("Illegal move: " + uci);
+        }
+        return move;
+    }
+
+    /**
+     * @param game the game the move is about to be played in
+     * @param move a legal move for the side to move
+     * @return the move in SAN, for example {@code Nbd7}
+     * @throws IllegalArgumentException if the move is not legal in the game
+     */
+    public static String toSan(ChessGame game, ChessMove move) {
+        // A copy, since naming the move plays it to test for check, and the game's board may be read by other threads
+        Position position = game.copyPosition();
+        MoveList legal = SCRATCH.get();
+        legal.clear();
+        MoveGenerator.generateLegal(position, position.sideToMove(), legal);
+        int packed = legal.find(Move.fromChessMove(move));
+        if (packed == Move.NONE) {
+            throw new IllegalArgumentException("Illegal move: " + toUci(move));
+        }
+        return toSan(position, packed);
+    }
+
+    /**
+     * @param game the game the move is to be played in
+     * @param san  the move, for example {@code exd8=Q+}
+     * @return the shared instance of the move it names
+     * @throws IllegalArgumentException if the string is not SAN, or names no legal move or more than one
+     */
+    public static ChessMove fromSan(ChessGame game, String san) {
+        return Move.toChessMove(parseSan(game.copyPosition(), san));
+    }
+
+    /**
+     * Finds the legal move a SAN string names. Check and mate marks and trailing {@code !}
+     * and {@code ?} annotations are ignored, castling may be written with zeros, and the
+     * {@code =} before a promotion piece is optional.
+     *
+     * @param position the position the move is played in
+     * @param san      the move, for example {@code Nxe5}
+     * @return the move, with the flags {@link MoveGenerator} gives it
+     * @throws IllegalArgumentException if the string is not SAN, or names no legal move or more than one
+     */
+    public static int parseSan(Position position, String san) {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        if (end < 2) {
+            throw new IllegalArgumentException("Not a SAN move: " + san);
+        }
+        MoveList legal = SCRATCH.get();
+        legal.clear();
+        MoveGenerator.generateLegal(position, position.sideToMove(), legal);
+
+        if (isCastling(san, end)) {
+            boolean kingside = end == 3;
+            for (int i = 0; i < legal.size(); i++) {
+                int move = legal.get(i);
+                if (Move.isCastle(move) && (Move.to(move) > Move.from(move)) == kingside) {
+                    return move;
+                }
+            }
+            throw new IllegalArgumentException("Castling is not legal here: " + san);
+        }
+
+        int promotion = 0;
+        if ("QBNR".indexOf(san.charAt(end - 1)) >= 0) {
+            promotion = PIECE_LETTERS.indexOf(san.charAt(end - 1));
+            end -= san.charAt(end - 2) == '=' ? 2 : 1;
+        }
+        int to = end >= 2 ? square(san.charAt(end - 2), san.charAt(end - 1)) : Bitboards.NO_SQUARE;
+        if (to == Bitboards.NO_SQUARE) {
+            throw new IllegalArgumentException("Not a SAN move: " + san);
+        }
+
+        // Pawn moves name no piece, though some writers put a P in anyway
+        int type = PIECE_LETTERS.indexOf(san.charAt(0));
+        int start = type >= 0 ? 1 : 0;
+        if (type < 0) {
+            type = Position.PAWN;
+        }
+
+        // Whatever sits between the piece and the target narrows down where it came from
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != '-' && c != ':') {
+                throw new IllegalArgumentException("Not a SAN move: " + san);
+            }
+        }
+
+        int found = Move.NONE;
+        for (int i = 0; i < legal.size(); i++) {
+            int move = legal.get(i);
+            int from = Move.from(move);
+            if (Move.to(move) != to || Move.promotion(move) != promotion || Move.isCastle(move)
+                    || Position.typeOf(position.pieceAt(from)) != type
+                    || (fromFile >= 0 && (from & 7) != fromFile) || (fromRank >= 0 && (from >>> 3) != fromRank)) {
+                continue;
+            }
+            if (found != Move.NONE) {
+                throw new IllegalArgumentException("Ambiguous move: " + san);
+            }
+            found = move;
+        }
+        if (found == Move.NONE) {
+            throw new IllegalArgumentException("Illegal move: " + san);
+        }
+        return found;
+    }
+
+    /**
+     * Writes a legal move in SAN, with the least disambiguation that makes it unique and a
+     * {@code +} or {@code #} if it gives check or mate
+     *
+     * @param position the position the move is played in; it is left as it was
+     * @param move     a legal move for the side to move, with its generator flags
+     * @return for example {@code Rad1}, {@code exd6} or {@code O-O}
+     */
+    public static String toSan(Position position, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int type = Position.typeOf(position.pieceAt(from));
+        boolean capture = Move.isEnPassant(move) || position.pieceAt(to) != Position.EMPTY;
+        char[] chars = CHARS.get();
+        int length = 0;
+
+        if (Move.isCastle(move)) {
+            length = to > from ? 3 : 5;
+            "O-O-O".getChars(0, length, chars, 0);
+        } else {
+            if (type != Position.PAWN) {
+                chars[length++] = PIECE_LETTERS.charAt(type);
+                length = appendDisambiguation(chars, length, position, move, type);
+            } else if (capture) {
+                chars[length++] = (char) ('a' + (from & 7));
+            }
+            if (capture) {
+                chars[length++] = 'x';
+            }
+            length = appendSquare(chars, length, to);
+            if (Move.isPromotion(move)) {
+                chars[length++] = '=';
+                chars[length++] = PIECE_LETTERS.charAt(Move.promotion(move));
+            }
+        }
+
+        position.doMove(move);
+        int them = position.sideToMove();
+        if (position.isSquareAttacked(position.kingSquare(them), them ^ 1)) {
+            chars[length++] = MoveGenerator.hasLegalMove(position, them, SCRATCH.get()) ? '+' : '#';
+        }
+        position.undoMove();
+        return new String(chars, 0, length);
+    }
+
+    // Names the from file, rank or both when another piece of the same kind could also go there.
+    // Only pieces of that kind which attack the target can be rivals, so the legal moves are
+    // generated just for them, and only when there is one.
+    private static int appendDisambiguation(char[] chars, int length, Position position, int move, int type) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int us = position.sideToMove();
+        long rivals = position.pieces(us, type) & position.attackersTo(to, position.occupied()) & ~Bitboards.bit(from);
+        if (rivals == 0) {
+            return length;
+        }
+
+        MoveList legal = SCRATCH.get();
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (; rivals != 0; rivals &= rivals - 1) {
+            int other = Bitboards.lowestSquare(rivals);
+            legal.clear();
+            MoveGenerator.generateLegalFrom(position, other, legal);
+            if (legal.find(Move.of(other, to, Move.promotion(move), 0)) == Move.NONE) {
+                continue;  // pinned
+            }
+            ambiguous = true;
+            sameFile |= (other & 7) == (from & 7);
+            sameRank |= (other >>> 3) == (from >>> 3);
+        }
+        if (!ambiguous) {
+            return length;
+        }
+        if (!sameFile) {
+            chars[length++] = (char) ('a' + (from & 7));
+        } else if (!sameRank) {
+            chars[length++] = (char) ('1' + (from >>> 3));
+        } else {
+            length = appendSquare(chars, length, from);
+        }
+        return length;
+    }
+
+    private static boolean isCastling(String san, int end) {
+        return (end == 3 || end == 5)
+                && (san.regionMatches(0, "O-O-O", 0, end) || san.regionMatches(0, "0-0-0", 0, end));
+    }
+
+    private static int uciMove(String uci) {
+        if (uci.length() != 4 && uci.length() != 5) {
+            throw new IllegalArgumentException("Not a UCI move: " + uci);
+        }
+        int from = square(uci.charAt(0), uci.charAt(1));
+        int to = square(uci.charAt(2), uci.charAt(3));
+        int promotion = 0;
+        if (uci.length() == 5) {
+            promotion = UCI_PIECE_LETTERS.indexOf(Character.toLowerCase(uci.charAt(4)));
+            if (promotion == Position.KING || promotion == Position.PAWN) {
+                promotion = -1;
+            }
+        }
+        if (from == Bitboards.NO_SQUARE || to == Bitboards.NO_SQUARE || promotion < 0) {
+            throw new IllegalArgumentException("Not a UCI move: " + uci);
+        }
+        return Move.of(from, to, promotion, 0);
+    }
+
+    private static int appendSquare(char[] chars, int length, int square) {
+        chars[length] = (char) ('a' + (square & 7));
+        chars[length + 1] = (char) ('1' + (square >>> 3));
+        return length + 2;
+    }
+
+    private static int square(char file, char rank) {
+        return Bitboards.square(rank - '0', file - 'a' + 1);
+    }
+}
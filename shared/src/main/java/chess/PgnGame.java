@@ -0,0 +1,85 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game as {@link PgnReader} reads it and {@link PgnWriter} writes it: the tag pairs in
+ * file order, the main line of moves and the result. Comments, variations and annotation
+ * glyphs are not kept.
+ */
+public class PgnGame {
+
+    public static final String WHITE_WINS = "1-0";
+    public static final String BLACK_WINS = "0-1";
+    public static final String DRAW = "1/2-1/2";
+    public static final String UNKNOWN = "*";
+
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private final List<ChessMove> moves = new ArrayList<>();
+    private String result = UNKNOWN;
+
+    /**
+     * @return the tag pairs, in the order they were read or added
+     */
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    public PgnGame setTag(String name, String value) {
+        tags.put(name, value);
+        return this;
+    }
+
+    /**
+     * @return the main line, from {@link #startFen()}
+     */
+    public List<ChessMove> getMoves() {
+        return moves;
+    }
+
+    /**
+     * @return {@link #WHITE_WINS}, {@link #BLACK_WINS}, {@link #DRAW} or {@link #UNKNOWN}
+     */
+    public String getResult() {
+        return result;
+    }
+
+    public PgnGame setResult(String result) {
+        this.result = result;
+        return this;
+    }
+
+    /**
+     * @return the position the moves start from: the FEN tag if there is one, otherwise
+     * the initial position
+     */
+    public String startFen() {
+        String fen = tags.get("FEN");
+        return fen != null ? fen : new ChessGame().toFen();
+    }
+
+    /**
+     * Plays the moves out from the start position
+     *
+     * @return the game after its last move
+     * @throws IllegalArgumentException if the start position or a move is not legal
+     */
+    public ChessGame replay() {
+        ChessGame game = ChessGame.fromFen(startFen());
+        for (int ply = 0; ply < moves.size(); ply++) {
+            try {
+                game.makeMove(moves.get(ply));
+            } catch (InvalidMoveException e) {
+                throw new IllegalArgumentException("Illegal move at ply " + (ply + 1) + ": " + e.getMessage());
+            }
+        }
+        return game;
+    }
+}
@@ -0,0 +1,256 @@
+package chess;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads games one at a time from a PGN stream, so an archive of any size is read in the
+ * memory of its longest game.
+ * <p>
+ * Each move is checked against the legal moves of the position it is played in. A game
+ * with a move that is not legal is skipped through to its result and reported with an
+ * {@link IllegalArgumentException}; calling {@link #next()} again carries on with the game
+ * after it. Comments, variations, annotation glyphs and escape lines are skipped.
+ */
+public class PgnReader implements Closeable {
+
+    private static final int BUFFER_CHARS = 1 << 16;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_CHARS];
+    private int position;
+    private int limit;
+    private boolean atLineStart = true;
+
+    private final StringBuilder token = new StringBuilder();
+    private final Position board = new Position();
+    private int gamesRead;
+
+    /**
+     * @param in the PGN text; it is buffered here, so it need not be buffered already
+     */
+    public PgnReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * @param channel PGN text in UTF-8, such as a {@link java.nio.channels.FileChannel}
+     */
+    public PgnReader(ReadableByteChannel channel) {
+        this(Channels.newReader(channel, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the next game
+     *
+     * @return the game, or null at the end of the stream
+     * @throws IllegalArgumentException if the game has a malformed tag, a bad FEN tag or a
+     *                                  move that is not legal; the rest of that game has
+     *                                  been skipped
+     * @throws IOException              if the stream cannot be read
+     */
+    public PgnGame next() throws IOException {
+        int c = skipWhitespace();
+        if (c < 0) {
+            return null;
+        }
+        gamesRead++;
+        PgnGame game = new PgnGame();
+        try {
+            while (c == '[') {
+                readTag(game);
+                c = skipWhitespace();
+            }
+            board.copyFrom(Position.fromFen(game.startFen()));
+        } catch (IllegalArgumentException e) {
+            skipMovetext();
+            throw new IllegalArgumentException("Game " + gamesRead + ": " + e.getMessage(), e);
+        }
+        readMovetext(game);
+        return game;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void readTag(PgnGame game) throws IOException {
+        read();  // the '['
+        int c = skipWhitespace();
+        token.setLength(0);
+        while (c >= 0 && !Character.isWhitespace(c) && c != '"' && c != ']') {
+            token.append((char) read());
+            c = peek();
+        }
+        String name = token.toString();
+        if (skipWhitespace() != '"' || name.isEmpty()) {
+            throw new IllegalArgumentException("Malformed tag " + name);
+        }
+        read();
+
+        token.setLength(0);
+        for (c = read(); c != '"'; c = read()) {
+            if (c < 0 || c == '\n') {
+                throw new IllegalArgumentException("Unterminated tag " + name);
+            }
+            token.append((char) (c == '\\' ? read() : c));
+        }
+        if (skipWhitespace() != ']') {
+            throw new IllegalArgumentException("Malformed tag " + name);
+        }
+        read();
+        game.setTag(name, token.toString());
+    }
+
+    private void readMovetext(PgnGame game) throws IOException {
+        for (String word = nextWord(); word != null; word = nextWord()) {
+            if (isResult(word)) {
+                game.setResult(word);
+                return;
+            }
+            String san = stripMoveNumber(word);
+            if (san.isEmpty()) {
+                continue;
+            }
+            int move;
+            try {
+                move = MoveNotation.parseSan(board, san);
+            } catch (IllegalArgumentException e) {
+                skipMovetext();
+                throw new IllegalArgumentException("Game " + gamesRead + ", move " + (game.getMoves().size() / 2 + 1)
+                        + ": " + e.getMessage(), e);
+            }
+            board.makeMove(move);
+            game.getMoves().add(Move.toChessMove(move));
+        }
+    }
+
+    private void skipMovetext() throws IOException {
+        for (String word = nextWord(); word != null && !isResult(word); word = nextWord()) {
+            // skipped
+        }
+    }
+
+    /**
+     * The next move, move number or result, passing over everything else
+     *
+     * @return the word, or null at the end of the game's movetext: the end of the stream,
+     * or a tag line with no result before it
+     */
+    private String nextWord() throws IOException {
+        for (;;) {
+            int c = skipWhitespace();
+            if (c < 0 || (c == '[' && atLineStart)) {
+                return null;
+            }
+            if (c == '%' && atLineStart) {
+                skipLine();
+            } else if (c == '{') {
+                skipUntil('}');
+            } else if (c == ';') {
+                skipLine();
+            } else if (c == '(') {
+                skipVariation();
+            } else if (c == '$') {
+                read();
+                while (peek() >= '0' && peek() <= '9') {
+                    read();
+                }
+            } else if (c == ')') {
+                read();  // a stray close from a variation that never opened
+            } else {
+                token.setLength(0);
+                while (c >= 0 && !Character.isWhitespace(c) && "{};()[$".indexOf(c) < 0) {
+                    token.append((char) read());
+                    c = peek();
+                }
+                return token.toString();
+            }
+        }
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 0;
+        for (int c = read(); c >= 0; c = read()) {
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return;
+            } else if (c == '{') {
+                skipUntil('}');
+            } else if (c == ';') {
+                skipLine();
+            }
+        }
+    }
+
+    private void skipUntil(int end) throws IOException {
+        for (int c = read(); c >= 0 && c != end; c = read()) {
+            // skipped
+        }
+    }
+
+    private void skipLine() throws IOException {
+        skipUntil('\n');
+    }
+
+    private static boolean isResult(String word) {
+        return word.equals(PgnGame.WHITE_WINS) || word.equals(PgnGame.BLACK_WINS)
+                || word.equals(PgnGame.DRAW) || word.equals(PgnGame.UNKNOWN);
+    }
+
+    // "12." and "12..." on their own are just numbers; "12.e4" carries a move after them
+    private static String stripMoveNumber(String word) {
+        int i = 0;
+        while (i < word.length() && Character.isDigit(word.charAt(i))) {
+            i++;
+        }
+        if (i > 0 && i < word.length() && word.charAt(i) != '.') {
+            return word;
+        }
+        while (i < word.length() && word.charAt(i) == '.') {
+            i++;
+        }
+        return word.substring(i);
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c = peek();
+        while (c >= 0 && Character.isWhitespace(c)) {
+            read();
+            c = peek();
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        char c = buffer[position++];
+        atLineStart = c == '\n';
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
@@ -0,0 +1,109 @@
+package chess;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes games as PGN, one at a time, so a whole database can be exported without holding
+ * more than one game in memory. Tags come out with the seven required ones first, and
+ * movetext is in SAN, wrapped at 80 columns.
+ */
+public class PgnWriter implements Closeable, Flushable {
+
+    private static final int LINE_WIDTH = 80;
+    private static final List<String> SEVEN_TAG_ROSTER =
+            List.of("Event", "Site", "Date", "Round", "White", "Black", "Result");
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(LINE_WIDTH + 16);
+    private final Position board = new Position();
+    private final MoveList legal = new MoveList();
+
+    /**
+     * @param out where to write; wrap it in a {@link java.io.BufferedWriter} for files
+     */
+    public PgnWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes one game
+     *
+     * @throws IllegalArgumentException if a move is not legal where it is played
+     * @throws IOException              if the output cannot be written
+     */
+    public void write(PgnGame game) throws IOException {
+        for (String name : SEVEN_TAG_ROSTER) {
+            String value = name.equals("Result") ? game.getResult() : game.getTag(name);
+            writeTag(name, value == null ? "?" : value);
+        }
+        for (Map.Entry<String, String> tag : game.getTags().entrySet()) {
+            if (!SEVEN_TAG_ROSTER.contains(tag.getKey())) {
+                writeTag(tag.getKey(), tag.getValue());
+            }
+        }
+        out.write('\n');
+
+        board.copyFrom(Position.fromFen(game.startFen()));
+        line.setLength(0);
+        List<ChessMove> moves = game.getMoves();
+        for (int ply = 0; ply < moves.size(); ply++) {
+            int move = findLegal(Move.fromChessMove(moves.get(ply)), ply);
+            if (board.sideToMove() == Position.WHITE) {
+                append(board.fullmoveNumber() + ".");
+            } else if (ply == 0) {
+                append(board.fullmoveNumber() + "...");
+            }
+            append(MoveNotation.toSan(board, move));
+            board.makeMove(move);
+        }
+        append(game.getResult());
+        out.write(line.toString());
+        out.write("\n\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        out.write('[');
+        out.write(name);
+        out.write(" \"");
+        out.write(value.replace("\\", "\\\\").replace("\"", "\\\""));
+        out.write("\"]\n");
+    }
+
+    private int findLegal(int packed, int ply) {
+        legal.clear();
+        MoveGenerator.generateLegal(board, board.sideToMove(), legal);
+        int move = packed == Move.NONE ? Move.NONE : legal.find(packed);
+        if (move == Move.NONE) {
+            throw new IllegalArgumentException("Illegal move at ply " + (ply + 1));
+        }
+        return move;
+    }
+
+    // Adds a word to the movetext, starting a new line first if it would not fit
+    private void append(String word) throws IOException {
+        if (!line.isEmpty() && line.length() + 1 + word.length() > LINE_WIDTH) {
+            out.write(line.toString());
+            out.write('\n');
+            line.setLength(0);
+        }
+        if (!line.isEmpty()) {
+            line.append(' ');
+        }
+        line.append(word);
+    }
+}
@@ -0,0 +1,694 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * A bitboard representation of a chess position: one 64-bit mask per piece type and
+ * color, per-color and total occupancy masks, and a square-indexed mailbox for piece lookup.
+ * <p>
+ * Squares follow {@link Bitboards} numbering. Pieces are encoded as small ints,
+ * {@code color * 6 + type}, where type is the {@link ChessPiece.PieceType} ordinal and
+ * color is the {@link ChessGame.TeamColor} ordinal, so conversion to and from
+ * {@link ChessBoard} is lossless for every square on the board.
+ * <p>
+ * Positions are mutable and not thread-safe; copy one with {@link #copy()} to hand it
+ * to another thread.
+ */
+public class Position {
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    // Piece types, in ChessPiece.PieceType order
+    public static final int KING = 0;
+    public static final int QUEEN = 1;
+    public static final int BISHOP = 2;
+    public static final int KNIGHT = 3;
+    public static final int ROOK = 4;
+    public static final int PAWN = 5;
+
+    public static final int EMPTY = -1;
+
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = 15;
+
+    // Castling rights that survive a move touching each square: moving a king or rook, or
+    // capturing a rook, on its home square clears the matching rights
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        CASTLING_MASK[0] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASK[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASK[7] &= ~WHITE_KINGSIDE;
+        CASTLING_MASK[56] &= ~BLACK_QUEENSIDE;
+        CASTLING_MASK[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASK[63] &= ~BLACK_KINGSIDE;
+    }
+
+    private static final ChessGame.TeamColor[] TEAM_COLORS = ChessGame.TeamColor.values();
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    final long[] pieces = new long[12];
+    final long[] colors = new long[2];
+    long occupied;
+    final byte[] mailbox = new byte[64];
+
+    // Zobrist key of the pieces alone, kept up to date by put and remove
+    long pieceKey;
+
+    // Sum of PieceSquareTables values over every piece, kept up to date by put and remove
+    int materialScore;
+
+    int sideToMove = WHITE;
+    int castlingRights;
+    int epSquare = Bitboards.NO_SQUARE;
+
+    // Plies since the last capture or pawn move, and the move number, which goes up after black moves
+    int halfmoveClock;
+    int fullmoveNumber = 1;
+
+    // Undo stack for doMove/undoMove. Each entry packs the move with what it destroyed:
+    // bits 0-18 the move, 19-22 the captured piece + 1, 23-26 castling rights,
+    // 27-33 the en passant square + 1, 34 the side to move, 35-44 the halfmove clock.
+    // The piece key sits alongside.
+    private long[] undoStates = new long[INITIAL_UNDO_CAPACITY];
+    private long[] undoKeys = new long[INITIAL_UNDO_CAPACITY];
+    private int undoSize;
+
+    private static final int INITIAL_UNDO_CAPACITY = 256;
+    private static final int MAX_UNDO_CLOCK = 0x3FF;
+
+    public Position() {
+        Arrays.fill(mailbox, (byte) EMPTY);
+    }
+
+    /**
+     * Builds a bitboard position holding the same pieces as a board, with white to move
+     * and no castling or en passant rights
+     *
+     * @param board the board to convert
+     * @return a new position
+     */
+    public static Position fromBoard(ChessBoard board) {
+        return fromBoard(board, ChessGame.TeamColor.WHITE);
+    }
+
+    /**
+     * Builds a bitboard position holding the same pieces as a board
+     *
+     * @param board      the board to convert
+     * @param sideToMove the team whose turn it is
+     * @return a new position
+     */
+    public static Position fromBoard(ChessBoard board, ChessGame.TeamColor sideToMove) {
+        Position position = new Position();
+        for (int sq = 0; sq < 64; sq++) {
+            ChessPiece piece = board.getPiece(ChessPosition.of(sq));
+            if (piece != null) {
+                position.put(sq, piece(piece));
+            }
+        }
+        position.sideToMove = sideToMove.ordinal();
+        return position;
+    }
+
+    /**
+     * @return a new {@link ChessBoard} holding the same pieces as this position
+     */
+    public ChessBoard toBoard() {
+        ChessBoard board = new ChessBoard();
+        for (long occ = occupied; occ != 0; occ &= occ - 1) {
+            int sq = Bitboards.lowestSquare(occ);
+            board.addPiece(ChessPosition.of(sq), toChessPiece(mailbox[sq]));
+        }
+        return board;
+    }
+
+    public static int piece(int color, int type) {
+        return color * 6 + type;
+    }
+
+    public static int piece(ChessPiece piece) {
+        return piece(piece.getTeamColor().ordinal(), piece.getPieceType().ordinal());
+    }
+
+    public static int colorOf(int piece) {
+        return piece < 6 ? WHITE : BLACK;
+    }
+
+    public static int typeOf(int piece) {
+        return piece < 6 ? piece : piece - 6;
+    }
+
+    public static ChessPiece toChessPiece(int piece) {
+        if (piece == EMPTY) {
+            return null;
+        }
+        return ChessPiece.of(TEAM_COLORS[colorOf(piece)], PIECE_TYPES[typeOf(piece)]);
+    }
+
+    /**
+     * Places a piece on an empty square
+     *
+     * @param square the square to fill
+     * @param piece  the piece code, see {@link #piece(int, int)}
+     */
+    public void put(int square, int piece) {
+        long bit = Bitboards.bit(square);
+        pieces[piece] |= bit;
+        colors[colorOf(piece)] |= bit;
+        occupied |= bit;
+        mailbox[square] = (byte) piece;
+        pieceKey ^= Zobrist.piece(piece, square);
+        materialScore += PieceSquareTables.value(piece, square);
+    }
+
+    /**
+     * Empties a square
+     *
+     * @param square the square to clear
+     * @return the piece that was there, or {@link #EMPTY}
+     */
+    public int remove(int square) {
+        int piece = mailbox[square];
+        if (piece != EMPTY) {
+            long bit = ~Bitboards.bit(square);
+            pieces[piece] &= bit;
+            colors[colorOf(piece)] &= bit;
+            occupied &= bit;
+            mailbox[square] = (byte) EMPTY;
+            pieceKey ^= Zobrist.piece(piece, square);
+            materialScore -= PieceSquareTables.value(piece, square);
+        }
+        return piece;
+    }
+
+    /**
+     * Replaces whatever is on a square
+     *
+     * @param square the square to set
+     * @param piece  the piece code, or {@link #EMPTY} to clear the square
+     */
+    public void set(int square, int piece) {
+        remove(square);
+        if (piece != EMPTY) {
+            put(square, piece);
+        }
+    }
+
+    public void clear() {
+        for (long occ = occupied; occ != 0; occ &= occ - 1) {
+            remove(Bitboards.lowestSquare(occ));
+        }
+        sideToMove = WHITE;
+        castlingRights = 0;
+        epSquare = Bitboards.NO_SQUARE;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        undoSize = 0;
+    }
+
+    /**
+     * @return the piece code on a square, or {@link #EMPTY}
+     */
+    public int pieceAt(int square) {
+        return mailbox[square];
+    }
+
+    public long pieces(int piece) {
+        return pieces[piece];
+    }
+
+    public long pieces(int color, int type) {
+        return pieces[piece(color, type)];
+    }
+
+    public long colorMask(int color) {
+        return colors[color];
+    }
+
+    public long occupied() {
+        return occupied;
+    }
+
+    /**
+     * The Zobrist key of the whole position: pieces, side to move, castling rights and en
+     * passant file. Piece moves update it incrementally, so reading it is O(1).
+     *
+     * @return a 64-bit hash of the position
+     */
+    public long key() {
+        return pieceKey ^ Zobrist.state(sideToMove, castlingRights, epSquare);
+    }
+
+    /**
+     * @return the Zobrist key of the piece placement only, ignoring whose turn it is
+     */
+    public long pieceKey() {
+        return pieceKey;
+    }
+
+    /**
+     * Material and piece placement in centipawns, positive when white is better off. Kept up
+     * to date piece by piece, so reading it is O(1).
+     *
+     * @return the static evaluation from white's side
+     */
+    public int materialScore() {
+        return materialScore;
+    }
+
+    public int sideToMove() {
+        return sideToMove;
+    }
+
+    public void setSideToMove(int color) {
+        sideToMove = color;
+    }
+
+    public int castlingRights() {
+        return castlingRights;
+    }
+
+    public void setCastlingRights(int rights) {
+        castlingRights = rights;
+    }
+
+    /**
+     * @return the square a pawn may capture en passant onto, or {@link Bitboards#NO_SQUARE}
+     */
+    public int epSquare() {
+        return epSquare;
+    }
+
+    public void setEpSquare(int square) {
+        epSquare = square;
+    }
+
+    /**
+     * @return plies since the last capture or pawn move, for the fifty-move rule
+     */
+    public int halfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public void setHalfmoveClock(int plies) {
+        halfmoveClock = plies;
+    }
+
+    /**
+     * @return the move number, starting at 1 and going up after each black move
+     */
+    public int fullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    public void setFullmoveNumber(int number) {
+        fullmoveNumber = number;
+    }
+
+    /**
+     * @return the king's square for a color, or {@link Bitboards#NO_SQUARE} if it has no king
+     */
+    public int kingSquare(int color) {
+        long king = pieces[piece(color, KING)];
+        return king == 0 ? Bitboards.NO_SQUARE : Bitboards.lowestSquare(king);
+    }
+
+    /**
+     * Squares attacked by the piece on a square, given the current occupancy. Pawns
+     * attack their two capture squares, not the squares they push to.
+     *
+     * @param square the square the piece stands on
+     * @return the attacked squares, or 0 if the square is empty
+     */
+    public long attacks(int square) {
+        int piece = mailbox[square];
+        if (piece == EMPTY) {
+            return 0L;
+        }
+        return attacks(typeOf(piece), colorOf(piece), square, occupied);
+    }
+
+    static long attacks(int type, int color, int square, long occupied) {
+        return switch (type) {
+            case KING -> Bitboards.kingAttacks(square);
+            case QUEEN -> Bitboards.queenAttacks(square, occupied);
+            case BISHOP -> Bitboards.bishopAttacks(square, occupied);
+            case KNIGHT -> Bitboards.knightAttacks(square);
+            case ROOK -> Bitboards.rookAttacks(square, occupied);
+            case PAWN -> Bitboards.pawnAttacks(color, square);
+            default -> 0L;
+        };
+    }
+
+    /**
+     * Finds every piece, of either color, that attacks a square. Works backwards from the
+     * target: a knight attacks the square exactly when a knight stands a knight's move
+     * away from it, and likewise for the other piece patterns.
+     *
+     * @param square   the target square
+     * @param occupied the occupancy to slide rays through
+     * @return the squares of all attacking pieces
+     */
+    public long attackersTo(int square, long occupied) {
+        long rooksQueens = pieces[piece(WHITE, ROOK)] | pieces[piece(BLACK, ROOK)]
+                | pieces[piece(WHITE, QUEEN)] | pieces[piece(BLACK, QUEEN)];
+        long bishopsQueens = pieces[piece(WHITE, BISHOP)] | pieces[piece(BLACK, BISHOP)]
+                | pieces[piece(WHITE, QUEEN)] | pieces[piece(BLACK, QUEEN)];
+
+        return (Bitboards.pawnAttacks(BLACK, square) & pieces[piece(WHITE, PAWN)])
+                | (Bitboards.pawnAttacks(WHITE, square) & pieces[piece(BLACK, PAWN)])
+                | (Bitboards.knightAttacks(square) & (pieces[piece(WHITE, KNIGHT)] | pieces[piece(BLACK, KNIGHT)]))
+                | (Bitboards.kingAttacks(square) & (pieces[piece(WHITE, KING)] | pieces[piece(BLACK, KING)]))
+                | (Bitboards.rookAttacks(square, occupied) & rooksQueens)
+                | (Bitboards.bishopAttacks(square, occupied) & bishopsQueens);
+    }
+
+    /**
+     * @param square  the target square
+     * @param byColor the attacking color
+     * @return true if any piece of {@code byColor} attacks the square
+     */
+    public boolean isSquareAttacked(int square, int byColor) {
+        return isSquareAttacked(square, byColor, occupied, 0L);
+    }
+
+    /**
+     * Square-attacked test against a hypothetical board, used to try a move without making it
+     *
+     * @param occupied occupancy after the hypothetical move
+     * @param removed  squares whose pieces no longer count as attackers, such as a captured piece
+     */
+    boolean isSquareAttacked(int square, int byColor, long occupied, long removed) {
+        int them = byColor * 6;
+        long keep = ~removed;
+        // Cheapest patterns first; the sliders only need a ray walk if one could possibly see the square
+        if ((Bitboards.pawnAttacks(byColor ^ 1, square) & pieces[them + PAWN] & keep) != 0
+                || (Bitboards.knightAttacks(square) & pieces[them + KNIGHT] & keep) != 0
+                || (Bitboards.kingAttacks(square) & pieces[them + KING] & keep) != 0) {
+            return true;
+        }
+        long rooksQueens = (pieces[them + ROOK] | pieces[them + QUEEN]) & keep;
+        if (rooksQueens != 0 && (Bitboards.rookAttacks(square, occupied) & rooksQueens) != 0) {
+            return true;
+        }
+        long bishopsQueens = (pieces[them + BISHOP] | pieces[them + QUEEN]) & keep;
+        return bishopsQueens != 0 && (Bitboards.bishopAttacks(square, occupied) & bishopsQueens) != 0;
+    }
+
+    /**
+     * Plays a move generated for this position. Handles captures, promotion, castling and
+     * en passant, updates castling rights and the en passant square, and passes the turn.
+     * The move cannot be taken back; see {@link #doMove(int)} for that.
+     *
+     * @param move a move from {@link MoveGenerator} for the side to move
+     */
+    public void makeMove(int move) {
+        apply(move);
+    }
+
+    /**
+     * Plays a move like {@link #makeMove(int)} and records what it changed, so
+     * {@link #undoMove()} can restore the position exactly. Nothing is allocated unless the
+     * undo stack has to grow past its initial size.
+     *
+     * @param move a move from {@link MoveGenerator} for the side to move
+     */
+    public void doMove(int move) {
+        if (undoSize == undoStates.length) {
+            undoStates = Arrays.copyOf(undoStates, undoSize * 2);
+            undoKeys = Arrays.copyOf(undoKeys, undoSize * 2);
+        }
+        int to = Move.to(move);
+        int captured = Move.isEnPassant(move) ? mailbox[enPassantVictim(to, sideToMove)] : mailbox[to];
+
+        undoStates[undoSize] = (move & 0x7FFFFL)
+                | (long) (captured + 1) << 19
+                | (long) castlingRights << 23
+                | (long) (epSquare + 1) << 27
+                | (long) sideToMove << 34
+                | (long) Math.min(halfmoveClock, MAX_UNDO_CLOCK) << 35;
+        undoKeys[undoSize] = pieceKey;
+        undoSize++;
+        apply(move);
+    }
+
+    /**
+     * Takes back the last move played with {@link #doMove(int)}
+     *
+     * @return the move that was taken back
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public int undoMove() {
+        if (undoSize == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        long state = undoStates[--undoSize];
+        int move = (int) (state & 0x7FFFF);
+        int from = Move.from(move);
+        int to = Move.to(move);
+
+        if (Move.isCastle(move)) {
+            put(castleRookFrom(from, to), remove(castleRookTo(from, to)));
+        }
+        int piece = remove(to);
+        put(from, Move.isPromotion(move) ? piece(colorOf(piece), PAWN) : piece);
+
+        int captured = (int) (state >>> 19 & 0xF) - 1;
+        if (captured != EMPTY) {
+            put(Move.isEnPassant(move) ? enPassantVictim(to, colorOf(piece)) : to, captured);
+        }
+
+        castlingRights = (int) (state >>> 23 & 0xF);
+        epSquare = (int) (state >>> 27 & 0x7F) - 1;
+        sideToMove = (int) (state >>> 34 & 1);
+        halfmoveClock = (int) (state >>> 35 & MAX_UNDO_CLOCK);
+        if (sideToMove == BLACK) {
+            fullmoveNumber--;
+        }
+        pieceKey = undoKeys[undoSize];
+        return move;
+    }
+
+    /**
+     * @return how many moves {@link #undoMove()} can take back
+     */
+    public int undoDepth() {
+        return undoSize;
+    }
+
+    /**
+     * Forgets every recorded move, for when the position is changed in a way the undo
+     * stack knows nothing about
+     */
+    public void clearUndo() {
+        undoSize = 0;
+    }
+
+    private void apply(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int piece = mailbox[from];
+        int us = colorOf(piece);
+        boolean resetsClock = typeOf(piece) == PAWN || mailbox[to] != EMPTY;
+
+        if (Move.isEnPassant(move)) {
+            remove(enPassantVictim(to, us));
+        } else {
+            remove(to);
+        }
+        remove(from);
+        put(to, Move.isPromotion(move) ? piece(us, Move.promotion(move)) : piece);
+
+        if (Move.isCastle(move)) {
+            // The king went two squares; bring the rook from its corner to the square it crossed
+            put(castleRookTo(from, to), remove(castleRookFrom(from, to)));
+        }
+
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        epSquare = Move.isDoublePush(move) ? (from + to) >>> 1 : Bitboards.NO_SQUARE;
+        sideToMove = us ^ 1;
+        halfmoveClock = resetsClock ? 0 : halfmoveClock + 1;
+        if (us == BLACK) {
+            fullmoveNumber++;
+        }
+    }
+
+    /**
+     * @return the square of the pawn taken by an en passant capture landing on {@code to}
+     */
+    static int enPassantVictim(int to, int us) {
+        return us == WHITE ? to - 8 : to + 8;
+    }
+
+    static int castleRookFrom(int from, int to) {
+        return to > from ? to + 1 : to - 2;
+    }
+
+    static int castleRookTo(int from, int to) {
+        return to > from ? to - 1 : to + 1;
+    }
+
+    /**
+     * Builds a position from Forsyth-Edwards Notation. The move counters are optional.
+     *
+     * @param fen for example {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}
+     * @return a new position
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static Position fromFen(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 4) {
+            throw new IllegalArgumentException("FEN needs at least 4 fields: " + fen);
+        }
+        Position position = new Position();
+
+        int row = 7;
+        int col = 0;
+        for (int i = 0; i < fields[0].length(); i++) {
+            char c = fields[0].charAt(i);
+            if (c == '/') {
+                if (col != 8) {
+                    throw new IllegalArgumentException("Bad piece placement in FEN: " + fen);
+                }
+                row--;
+                col = 0;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+            } else {
+                int type = "kqbnrp".indexOf(Character.toLowerCase(c));
+                if (type < 0 || row < 0 || col > 7) {
+                    throw new IllegalArgumentException("Bad piece placement in FEN: " + fen);
+                }
+                position.put(row * 8 + col, piece(Character.isUpperCase(c) ? WHITE : BLACK, type));
+                col++;
+            }
+        }
+        if (row != 0 || col != 8) {
+            throw new IllegalArgumentException("Bad piece placement in FEN: " + fen);
+        }
+
+        switch (fields[1]) {
+            case "w" -> position.sideToMove = WHITE;
+            case "b" -> position.sideToMove = BLACK;
+            default -> throw new IllegalArgumentException("Bad side to move in FEN: " + fen);
+        }
+
+        for (int i = 0; i < fields[2].length(); i++) {
+            switch (fields[2].charAt(i)) {
+                case 'K' -> position.castlingRights |= WHITE_KINGSIDE;
+                case 'Q' -> position.castlingRights |= WHITE_QUEENSIDE;
+                case 'k' -> position.castlingRights |= BLACK_KINGSIDE;
+                case 'q' -> position.castlingRights |= BLACK_QUEENSIDE;
+                case '-' -> { }
+                default -> throw new IllegalArgumentException("Bad castling rights in FEN: " + fen);
+            }
+        }
+
+        if (!fields[3].equals("-")) {
+            int square = fields[3].length() == 2
+                    ? Bitboards.square(fields[3].charAt(1) - '0', fields[3].charAt(0) - 'a' + 1)
+                    : Bitboards.NO_SQUARE;
+            if (square == Bitboards.NO_SQUARE) {
+                throw new IllegalArgumentException("Bad en passant square in FEN: " + fen);
+            }
+            position.epSquare = square;
+        }
+
+        try {
+            if (fields.length > 4) {
+                position.halfmoveClock = Integer.parseInt(fields[4]);
+            }
+            if (fields.length > 5) {
+                position.fullmoveNumber = Integer.parseInt(fields[5]);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad move counters in FEN: " + fen);
+        }
+        if (position.halfmoveClock < 0 || position.fullmoveNumber < 1) {
+            throw new IllegalArgumentException("Bad move counters in FEN: " + fen);
+        }
+        return position;
+    }
+
+    /**
+     * Writes the position in Forsyth-Edwards Notation, move counters included
+     *
+     * @return for example {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1}
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(90);
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                int piece = mailbox[row * 8 + col];
+                if (piece == EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                char letter = "kqbnrp".charAt(typeOf(piece));
+                fen.append(colorOf(piece) == WHITE ? Character.toUpperCase(letter) : letter);
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (row > 0) {
+                fen.append('/');
+            }
+        }
+
+        fen.append(sideToMove == WHITE ? " w " : " b ");
+        if (castlingRights == 0) {
+            fen.append('-');
+        }
+        // The rights' bits run in the order FEN lists them
+        for (int right = 0; right < 4; right++) {
+            if ((castlingRights & 1 << right) != 0) {
+                fen.append("KQkq".charAt(right));
+            }
+        }
+        fen.append(' ');
+        if (epSquare == Bitboards.NO_SQUARE) {
+            fen.append('-');
+        } else {
+            fen.append((char) ('a' + (epSquare & 7))).append((char) ('1' + (epSquare >>> 3)));
+        }
+        return fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber).toString();
+    }
+
+    /**
+     * Overwrites this position with another one without allocating. The other position's
+     * undo history is not copied.
+     *
+     * @param other the position to copy
+     */
+    public void copyFrom(Position other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, pieces.length);
+        System.arraycopy(other.colors, 0, colors, 0, colors.length);
+        System.arraycopy(other.mailbox, 0, mailbox, 0, mailbox.length);
+        occupied = other.occupied;
+        pieceKey = other.pieceKey;
+        materialScore = other.materialScore;
+        sideToMove = other.sideToMove;
+        castlingRights = other.castlingRights;
+        epSquare = other.epSquare;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        undoSize = 0;
+    }
+
+    public Position copy() {
+        Position position = new Position();
+        position.copyFrom(this);
+        return position;
+    }
+}
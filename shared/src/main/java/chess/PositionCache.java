@@ -0,0 +1,276 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded cache of legal moves and check/checkmate/stalemate status, keyed by Zobrist
+ * position key (see {@link Position#key()}). Openings and common middlegames come up across
+ * many games, so a server answering the same questions about them can look the answer up
+ * instead of generating it again.
+ * <p>
+ * The cache is split into independently locked stripes so threads working on different
+ * positions rarely contend. Each stripe evicts its least recently used entries once it grows
+ * past its share of the memory budget. Entries are immutable, so a looked-up entry stays
+ * valid after its lock is released or it is evicted.
+ * <p>
+ * Two positions are treated as equal when their 64-bit keys are equal.
+ */
+public class PositionCache {
+
+    public static final int CHECK = 1;
+    public static final int CHECKMATE = 2;
+    public static final int STALEMATE = 4;
+
+    public static final long DEFAULT_BUDGET = 32L << 20;
+    public static final int DEFAULT_STRIPES = 16;
+
+    // Rough heap cost of one entry besides its move array: the map node, the boxed key
+    // and the Entry object with its array header
+    static final int ENTRY_OVERHEAD = 112;
+
+    private static final PositionCache SHARED =
+            new PositionCache(Long.getLong("chess.positionCache.bytes", DEFAULT_BUDGET), DEFAULT_STRIPES);
+
+    private final Stripe[] stripes;
+    private final long stripeBudget;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxBytes approximate heap the cache may use
+     */
+    public PositionCache(long maxBytes) {
+        this(maxBytes, DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param maxBytes approximate heap the cache may use
+     * @param stripes  number of independently locked segments, rounded up to a power of two
+     */
+    public PositionCache(long maxBytes, int stripes) {
+        if (maxBytes <= 0 || stripes <= 0) {
+            throw new IllegalArgumentException("Cache budget and stripe count must be positive");
+        }
+        int count = Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Stripe[Math.max(count, 1)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.stripeBudget = Math.max(maxBytes / this.stripes.length, 1);
+    }
+
+    /**
+     * @return the process-wide cache {@link ChessGame} consults by default, sized by the
+     * {@code chess.positionCache.bytes} system property
+     */
+    public static PositionCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Looks up the legal moves and status of one side in a position, generating and
+     * storing them on a miss
+     *
+     * @param position the position, left unchanged
+     * @param us       the side whose moves are wanted, which need not be the side to move
+     * @return the cached entry
+     */
+    public Entry get(Position position, int us) {
+        // An en passant square only gives moves to the side to move, so it only counts for that side
+        int ep = us == position.sideToMove() ? position.epSquare() : Bitboards.NO_SQUARE;
+        long key = position.pieceKey() ^ Zobrist.state(us, position.castlingRights(), ep);
+
+        Stripe stripe = stripes[(int) (key ^ (key >>> 32)) & (stripes.length - 1)];
+        Entry entry;
+        stripe.lock.lock();
+        try {
+            entry = stripe.map.get(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+        if (entry != null) {
+            hits.increment();
+            return entry;
+        }
+
+        // Generate outside the lock; if two threads race on one position both compute the same answer
+        misses.increment();
+        entry = Entry.compute(key, position, us);
+        stripe.lock.lock();
+        try {
+            if (stripe.map.putIfAbsent(key, entry) == null) {
+                stripe.bytes += entry.bytes();
+                stripe.evict();
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        return entry;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the number of cached positions
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.map.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the estimated heap held by cached entries
+     */
+    public long bytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                bytes += stripe.bytes;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Empties the cache and resets the counters
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.map.clear();
+                stripe.bytes = 0;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "PositionCache{size=" + size() + ", bytes=" + bytes() + ", hits=" + hits()
+                + ", misses=" + misses() + ", evictions=" + evictions() + "}";
+    }
+
+    private class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        // Access order makes iteration start at the least recently used entry
+        final LinkedHashMap<Long, Entry> map = new LinkedHashMap<>(64, 0.75f, true);
+        long bytes;
+
+        void evict() {
+            var oldest = map.values().iterator();
+            while (bytes > stripeBudget && oldest.hasNext()) {
+                bytes -= oldest.next().bytes();
+                oldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * The legal moves and status of one side in one position
+     */
+    public static final class Entry {
+        private final long key;
+        private final int[] moves;
+        private final int status;
+
+        private Entry(long key, int[] moves, int status) {
+            this.key = key;
+            this.moves = moves;
+            this.status = status;
+        }
+
+        private static Entry compute(long key, Position position, int us) {
+            MoveList list = new MoveList();
+            MoveGenerator.generateLegal(position, us, list);
+            int[] moves = new int[list.size()];
+            for (int i = 0; i < moves.length; i++) {
+                moves[i] = list.get(i);
+            }
+
+            int king = position.kingSquare(us);
+            boolean check = king != Bitboards.NO_SQUARE && position.isSquareAttacked(king, us ^ 1);
+            int status = check ? CHECK : 0;
+            if (moves.length == 0) {
+                status |= check ? CHECKMATE : STALEMATE;
+            }
+            return new Entry(key, moves, status);
+        }
+
+        public long key() {
+            return key;
+        }
+
+        public int moveCount() {
+            return moves.length;
+        }
+
+        /**
+         * @return a legal move packed as described in {@link Move}
+         */
+        public int move(int index) {
+            return moves[index];
+        }
+
+        /**
+         * Looks a move up by its squares and promotion, ignoring flags
+         *
+         * @return the matching legal move, or {@link Move#NONE}
+         */
+        public int find(int move) {
+            int wanted = Move.withoutFlags(move);
+            for (int candidate : moves) {
+                if (Move.withoutFlags(candidate) == wanted) {
+                    return candidate;
+                }
+            }
+            return Move.NONE;
+        }
+
+        public boolean isInCheck() {
+            return (status & CHECK) != 0;
+        }
+
+        public boolean isInCheckmate() {
+            return (status & CHECKMATE) != 0;
+        }
+
+        public boolean isInStalemate() {
+            return (status & STALEMATE) != 0;
+        }
+
+        long bytes() {
+            return ENTRY_OVERHEAD + 4L * moves.length;
+        }
+    }
+}
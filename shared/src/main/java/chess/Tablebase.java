@@ -0,0 +1,253 @@
+package chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exact results for positions with few pieces, read from files made by
+ * {@link TablebaseGenerator}.
+ * <p>
+ * Each file covers one material balance, such as king and queen against king, from white's
+ * side. A probe of the same material with the colors swapped mirrors the board and uses the
+ * same file. A file is a 16-byte header followed by one byte per position. The position's
+ * index packs the side to move into bit 0 and each piece's square into the next 6 bits, in
+ * the header's piece order. A byte is {@link #DRAW}, {@link #ILLEGAL}, or the number of plies
+ * to mate plus one. An odd number of plies means the side to move mates, an even number that it
+ * is mated. Files are memory-mapped, so opening them costs almost no heap, and probes are
+ * absolute reads that any number of threads can share.
+ * <p>
+ * Positions with castling rights or an en passant square are never in a table.
+ */
+public class Tablebase {
+
+    /** Probe result for a position no table covers */
+    public static final int NOT_FOUND = -1;
+    public static final int DRAW = 0;
+
+    static final int MAGIC = 0x43544231;   // "CTB1"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int MAX_PIECES = 4;
+    static final int ILLEGAL = 0xFF;
+    static final String SUFFIX = ".ctb";
+
+    private static final String PIECE_LETTERS = "KQBNRP";
+
+    private final List<Table> tables = new ArrayList<>();
+    private int maxPieces;
+
+    Tablebase() {
+    }
+
+    /**
+     * Maps every table file in a directory
+     *
+     * @param directory where {@link TablebaseGenerator} wrote its files
+     * @return the tablebase, possibly with no tables if the directory has none
+     * @throws IOException if a file cannot be read or is not a table
+     */
+    public static Tablebase open(Path directory) throws IOException {
+        Tablebase tablebase = new Tablebase();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                tablebase.add(map(file));
+            }
+        }
+        return tablebase;
+    }
+
+    private static Table map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+                throw new IOException("Not a tablebase file: " + file);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a tablebase file, or an unsupported version: " + file);
+            }
+            int count = buffer.getInt(8);
+            if (count < 2 || count > MAX_PIECES) {
+                throw new IOException("Bad piece count in tablebase file: " + file);
+            }
+            int[] pieces = new int[count];
+            for (int i = 0; i < count; i++) {
+                pieces[i] = buffer.get(12 + i);
+            }
+            if (length != HEADER_BYTES + Table.size(count)) {
+                throw new IOException("Tablebase file is truncated: " + file);
+            }
+            return new Table(pieces, buffer.slice(HEADER_BYTES, (int) (length - HEADER_BYTES)));
+        }
+    }
+
+    void add(Table table) {
+        tables.add(table);
+        maxPieces = Math.max(maxPieces, table.pieces.length);
+    }
+
+    /**
+     * @return the most pieces, kings included, any table covers; 0 if there are no tables
+     */
+    public int maxPieces() {
+        return maxPieces;
+    }
+
+    /**
+     * @return the material balances covered, such as {@code KQvK}
+     */
+    public List<String> tables() {
+        List<String> names = new ArrayList<>();
+        for (Table table : tables) {
+            names.add(name(table.pieces));
+        }
+        return names;
+    }
+
+    /**
+     * Looks a position up
+     *
+     * @param position the position, with the side to move set
+     * @return {@link #NOT_FOUND}, {@link #DRAW}, or plies to mate plus one; see
+     * {@link #isWin(int)}, {@link #isLoss(int)} and {@link #pliesToMate(int)}
+     */
+    public int probe(Position position) {
+        if (position.castlingRights() != 0 || position.epSquare() != Bitboards.NO_SQUARE
+                || Long.bitCount(position.occupied()) > maxPieces) {
+            return NOT_FOUND;
+        }
+        long material = material(position, false);
+        long flipped = material(position, true);
+        for (Table table : tables) {
+            if (table.material == material) {
+                return table.get(index(table, position, false));
+            }
+            if (table.material == flipped) {
+                return table.get(index(table, position, true));
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * @return true if the side to move mates with best play
+     */
+    public static boolean isWin(int result) {
+        return result > 0 && (result - 1) % 2 == 1;
+    }
+
+    /**
+     * @return true if the side to move is mated with best play
+     */
+    public static boolean isLoss(int result) {
+        return result > 0 && (result - 1) % 2 == 0;
+    }
+
+    /**
+     * @return plies until mate with best play by both sides, for a win or a loss
+     */
+    public static int pliesToMate(int result) {
+        return result - 1;
+    }
+
+    // Piece counts by code, 4 bits each, with the colors swapped when flipped
+    static long material(Position position, boolean flip) {
+        long material = 0;
+        for (int piece = 0; piece < 12; piece++) {
+            int code = flip ? (piece + 6) % 12 : piece;
+            material |= (long) Long.bitCount(position.pieces(piece)) << (4 * code);
+        }
+        return material;
+    }
+
+    static long material(int[] pieces) {
+        long material = 0;
+        for (int piece : pieces) {
+            material += 1L << (4 * piece);
+        }
+        return material;
+    }
+
+    // Pieces of one code take consecutive slots in the table, so they fill them in square order
+    static int index(Table table, Position position, boolean flip) {
+        int index = (flip ? position.sideToMove() ^ 1 : position.sideToMove());
+        int slot = 0;
+        while (slot < table.pieces.length) {
+            int piece = table.pieces[slot];
+            long squares = position.pieces(flip ? (piece + 6) % 12 : piece);
+            for (; squares != 0; squares &= squares - 1) {
+                int square = Bitboards.lowestSquare(squares);
+                index |= (flip ? square ^ 56 : square) << (1 + 6 * slot);
+                slot++;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return a table's name, such as {@code KQvK}: white's pieces, then black's
+     */
+    static String name(int[] pieces) {
+        StringBuilder white = new StringBuilder();
+        StringBuilder black = new StringBuilder();
+        for (int piece : pieces) {
+            (Position.colorOf(piece) == Position.WHITE ? white : black)
+                    .append(PIECE_LETTERS.charAt(Position.typeOf(piece)));
+        }
+        return white + "v" + black;
+    }
+
+    /**
+     * @param name a table name such as {@code KRvKP}
+     * @return the piece codes, white's then black's, each side ordered by piece type
+     */
+    static int[] parse(String name) {
+        int split = name.indexOf('v');
+        if (split < 1 || name.charAt(0) != 'K' || split + 1 >= name.length() || name.charAt(split + 1) != 'K') {
+            throw new IllegalArgumentException("Not a table name: " + name);
+        }
+        List<Integer> pieces = new ArrayList<>();
+        for (int i = 0; i < name.length(); i++) {
+            if (i == split) {
+                continue;
+            }
+            int type = PIECE_LETTERS.indexOf(name.charAt(i));
+            if (type < 0 || (type == Position.KING && i != 0 && i != split + 1)) {
+                throw new IllegalArgumentException("Not a table name: " + name);
+            }
+            pieces.add(Position.piece(i < split ? Position.WHITE : Position.BLACK, type));
+        }
+        if (pieces.size() > MAX_PIECES) {
+            throw new IllegalArgumentException("Tables cover at most " + MAX_PIECES + " pieces: " + name);
+        }
+        return pieces.stream().sorted().mapToInt(Integer::intValue).toArray();
+    }
+
+    static final class Table {
+        final int[] pieces;
+        final long material;
+        private final ByteBuffer values;
+
+        Table(int[] pieces, ByteBuffer values) {
+            this.pieces = pieces;
+            this.material = material(pieces);
+            this.values = values;
+        }
+
+        static int size(int pieces) {
+            return 2 << (6 * pieces);
+        }
+
+        int get(int index) {
+            int value = Byte.toUnsignedInt(values.get(index));
+            return value == ILLEGAL ? NOT_FOUND : value;
+        }
+    }
+}
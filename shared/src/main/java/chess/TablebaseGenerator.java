@@ -0,0 +1,324 @@
+package chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds {@link Tablebase} files by retrograde analysis.
+ * <p>
+ * Every placement of the table's pieces is set up on a {@link Position}, with either side to
+ * move. Pass 0 marks illegal placements, checkmates (mated in 0 plies) and stalemates. Each
+ * later pass n works back one ply from the results of the passes before it. A position wins
+ * in n plies if some move reaches a position lost in n - 1. It loses in n plies if every move
+ * reaches a position already known to be won for the opponent. Captures and promotions change
+ * the material, so their results come from smaller tables, which are generated first.
+ * Positions still open once the passes stop changing anything are draws.
+ * <p>
+ * Tables may hold up to four pieces, kings included. Tables with pawns on both sides are not
+ * supported, because a double push there could allow an en passant capture that the index
+ * does not record.
+ */
+public class TablebaseGenerator {
+
+    // Only during generation: a legal position whose result is not known yet
+    private static final int UNKNOWN = 0xFE;
+    private static final int MAX_PLIES = UNKNOWN - 2;
+
+    private static final int[] PROMOTIONS = {Position.QUEEN, Position.ROOK, Position.BISHOP, Position.KNIGHT};
+
+    private final Tablebase tablebase = new Tablebase();
+    private final Map<String, byte[]> generated = new LinkedHashMap<>();
+    // Longest mate a capture or promotion out of the table being built has led into
+    private int longestProbed;
+
+    /**
+     * Generates a table and every smaller table it depends on, keeping them in memory
+     *
+     * @param name the material, white's pieces then black's, such as {@code KQvK} or {@code KRvKN}
+     * @throws IllegalArgumentException if the name is malformed or the table is not supported
+     */
+    public void generate(String name) {
+        int[] pieces = Tablebase.parse(name);
+        int whitePawns = 0;
+        int blackPawns = 0;
+        for (int piece : pieces) {
+            if (piece == Position.piece(Position.WHITE, Position.PAWN)) {
+                whitePawns++;
+            } else if (piece == Position.piece(Position.BLACK, Position.PAWN)) {
+                blackPawns++;
+            }
+        }
+        if (whitePawns > 0 && blackPawns > 0) {
+            throw new IllegalArgumentException("Tables with pawns on both sides are not supported: " + name);
+        }
+        generate(pieces);
+    }
+
+    /**
+     * @return the names of the tables generated so far, smallest first
+     */
+    public List<String> tables() {
+        return new ArrayList<>(generated.keySet());
+    }
+
+    /**
+     * @return the tables generated so far, ready to probe
+     */
+    public Tablebase tablebase() {
+        return tablebase;
+    }
+
+    /**
+     * Writes every table generated so far into a directory, one file per table
+     */
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, byte[]> table : generated.entrySet()) {
+            int[] pieces = Tablebase.parse(table.getKey());
+            ByteBuffer header = ByteBuffer.allocate(Tablebase.HEADER_BYTES);
+            header.putInt(Tablebase.MAGIC).putInt(Tablebase.VERSION).putInt(pieces.length);
+            for (int piece : pieces) {
+                header.put((byte) piece);
+            }
+            header.clear();
+            ByteBuffer values = ByteBuffer.wrap(table.getValue());
+
+            Path file = directory.resolve(table.getKey() + Tablebase.SUFFIX);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                while (values.hasRemaining()) {
+                    channel.write(values);
+                }
+            }
+        }
+    }
+
+    /**
+     * Usage: {@code TablebaseGenerator <directory> <table>...}, for example
+     * {@code TablebaseGenerator tables KQvK KRvK KPvK}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: TablebaseGenerator <directory> <table>...");
+            System.exit(1);
+        }
+        TablebaseGenerator generator = new TablebaseGenerator();
+        for (int i = 1; i < args.length; i++) {
+            long start = System.nanoTime();
+            generator.generate(args[i]);
+            System.out.println(args[i] + " and its subtables: " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+        generator.write(Path.of(args[0]));
+        System.out.println("Wrote " + generator.tables() + " to " + args[0]);
+    }
+
+    private void generate(int[] pieces) {
+        if (pieces.length <= 2 || isKnown(pieces)) {
+            return;
+        }
+        // Every capture and promotion leads into a smaller or different table
+        for (int slot = 0; slot < pieces.length; slot++) {
+            if (Position.typeOf(pieces[slot]) == Position.KING) {
+                continue;
+            }
+            generate(canonical(without(pieces, slot)));
+            if (Position.typeOf(pieces[slot]) == Position.PAWN) {
+                for (int type : PROMOTIONS) {
+                    int[] promoted = pieces.clone();
+                    promoted[slot] = Position.piece(Position.colorOf(pieces[slot]), type);
+                    generate(canonical(sorted(promoted)));
+                }
+            }
+        }
+
+        byte[] values = build(pieces);
+        generated.put(Tablebase.name(pieces), values);
+        tablebase.add(new Tablebase.Table(pieces, ByteBuffer.wrap(values)));
+    }
+
+    private boolean isKnown(int[] pieces) {
+        long material = Tablebase.material(pieces);
+        long flipped = Tablebase.material(flip(pieces));
+        for (String name : generated.keySet()) {
+            long other = Tablebase.material(Tablebase.parse(name));
+            if (other == material || other == flipped) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private byte[] build(int[] pieces) {
+        int size = Tablebase.Table.size(pieces.length);
+        byte[] values = new byte[size];
+        Position position = new Position();
+        MoveList moves = new MoveList();
+        longestProbed = 0;
+
+        for (int n = 0; ; n++) {
+            boolean changed = false;
+            for (int index = 0; index < size; index++) {
+                if (n > 0 && Byte.toUnsignedInt(values[index]) != UNKNOWN) {
+                    continue;
+                }
+                if (n == 0) {
+                    if (!setUp(position, pieces, index)) {
+                        values[index] = (byte) Tablebase.ILLEGAL;
+                        continue;
+                    }
+                    values[index] = (byte) UNKNOWN;
+                } else {
+                    setUp(position, pieces, index);
+                }
+
+                int us = position.sideToMove();
+                moves.clear();
+                MoveGenerator.generateLegal(position, us, moves);
+                if (moves.isEmpty()) {
+                    boolean mated = position.isSquareAttacked(position.kingSquare(us), us ^ 1);
+                    values[index] = (byte) (mated ? 1 : Tablebase.DRAW);
+                    changed = true;
+                    continue;
+                }
+                if (n == 0) {
+                    continue;
+                }
+
+                boolean win = false;
+                boolean allLost = true;
+                for (int i = 0; i < moves.size() && !win; i++) {
+                    int child = childValue(position, pieces, values, index, moves.get(i));
+                    if (child == UNKNOWN || child - 1 >= n) {
+                        // Not settled by an earlier pass
+                        allLost = false;
+                    } else if (child == Tablebase.DRAW) {
+                        allLost = false;
+                    } else if (Tablebase.isLoss(child)) {
+                        win = Tablebase.pliesToMate(child) == n - 1;
+                        allLost = false;
+                    }
+                }
+                if (win || allLost) {
+                    values[index] = (byte) (n + 1);
+                    changed = true;
+                }
+            }
+            // A long mate in a smaller table can still settle positions here after a quiet pass
+            if (!changed && n > longestProbed + 1) {
+                break;
+            }
+            if (n >= MAX_PLIES) {
+                throw new IllegalStateException("Mates are too long to store in " + Tablebase.name(pieces));
+            }
+        }
+
+        for (int index = 0; index < size; index++) {
+            if (Byte.toUnsignedInt(values[index]) == UNKNOWN) {
+                values[index] = Tablebase.DRAW;
+            }
+        }
+        return values;
+    }
+
+    private int childValue(Position position, int[] pieces, byte[] values, int index, int move) {
+        if (Move.isCapture(move) || Move.isPromotion(move)) {
+            position.doMove(move);
+            int result = Long.bitCount(position.occupied()) == 2 ? Tablebase.DRAW : tablebase.probe(position);
+            position.undoMove();
+            if (result == Tablebase.NOT_FOUND) {
+                throw new IllegalStateException("Missing subtable for a move out of " + Tablebase.name(pieces));
+            }
+            if (result != Tablebase.DRAW) {
+                longestProbed = Math.max(longestProbed, Tablebase.pliesToMate(result));
+            }
+            return result;
+        }
+        // A quiet move only changes one piece's square, so the child's index follows directly
+        int from = Move.from(move);
+        int to = Move.to(move);
+        for (int slot = 0; ; slot++) {
+            int shift = 1 + 6 * slot;
+            if ((index >>> shift & 63) == from) {
+                int child = (index ^ 1) ^ (from << shift) ^ (to << shift);
+                return Byte.toUnsignedInt(values[child]);
+            }
+        }
+    }
+
+    // Places the pieces for an index; false if that placement is not a legal position
+    private static boolean setUp(Position position, int[] pieces, int index) {
+        position.clear();
+        for (int slot = 0; slot < pieces.length; slot++) {
+            int square = index >>> (1 + 6 * slot) & 63;
+            int rank = square >>> 3;
+            if (position.pieceAt(square) != Position.EMPTY
+                    || (Position.typeOf(pieces[slot]) == Position.PAWN && (rank == 0 || rank == 7))) {
+                return false;
+            }
+            position.put(square, pieces[slot]);
+        }
+        int us = index & 1;
+        position.setSideToMove(us);
+        // The side that just moved cannot have left its king in check
+        return !position.isSquareAttacked(position.kingSquare(us ^ 1), us);
+    }
+
+    private static int[] without(int[] pieces, int slot) {
+        int[] rest = new int[pieces.length - 1];
+        for (int i = 0, j = 0; i < pieces.length; i++) {
+            if (i != slot) {
+                rest[j++] = pieces[i];
+            }
+        }
+        return rest;
+    }
+
+    private static int[] flip(int[] pieces) {
+        int[] flipped = new int[pieces.length];
+        for (int i = 0; i < pieces.length; i++) {
+            flipped[i] = (pieces[i] + 6) % 12;
+        }
+        return sorted(flipped);
+    }
+
+    private static int[] sorted(int[] pieces) {
+        int[] copy = pieces.clone();
+        java.util.Arrays.sort(copy);
+        return copy;
+    }
+
+    // Tables are stored with the side that has more, or stronger, pieces as white
+    private static int[] canonical(int[] pieces) {
+        int[] flipped = flip(pieces);
+        return compareSides(pieces) >= 0 ? pieces : flipped;
+    }
+
+    private static int compareSides(int[] pieces) {
+        List<Integer> white = new ArrayList<>();
+        List<Integer> black = new ArrayList<>();
+        for (int piece : pieces) {
+            (Position.colorOf(piece) == Position.WHITE ? white : black).add(Position.typeOf(piece));
+        }
+        if (white.size() != black.size()) {
+            return white.size() - black.size();
+        }
+        for (int i = 0; i < white.size(); i++) {
+            if (!white.get(i).equals(black.get(i))) {
+                // Lower type codes are the stronger pieces
+                return black.get(i) - white.get(i);
+            }
+        }
+        return 0;
+    }
+}
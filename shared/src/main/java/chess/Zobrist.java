@@ -0,0 +1,90 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing. A position's key is the XOR of one key per piece on
+ * its square, plus keys for the side to move, the castling rights and the en passant file.
+ * Because XOR undoes itself, moving a piece costs two XORs instead of a rehash of the board.
+ * <p>
+ * The keys come from a fixed seed, so a key computed today matches one stored yesterday.
+ */
+public final class Zobrist {
+
+    private static final long SEED = 0x5EED_C4E5_5L;
+
+    static final long[][] PIECE_SQUARE = new long[12][64];
+    static final long[] CASTLING = new long[16];
+    static final long[] EP_FILE = new long[8];
+    static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (long[] squares : PIECE_SQUARE) {
+            for (int sq = 0; sq < 64; sq++) {
+                squares[sq] = random.nextLong();
+            }
+        }
+        // Each right gets its own key and a set of rights is the XOR of its members
+        long[] rights = new long[4];
+        for (int i = 0; i < rights.length; i++) {
+            rights[i] = random.nextLong();
+        }
+        for (int set = 0; set < CASTLING.length; set++) {
+            for (int i = 0; i < rights.length; i++) {
+                if ((set & (1 << i)) != 0) {
+                    CASTLING[set] ^= rights[i];
+                }
+            }
+        }
+        for (int file = 0; file < EP_FILE.length; file++) {
+            EP_FILE[file] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @return the key of a piece code standing on a square
+     */
+    public static long piece(int piece, int square) {
+        return PIECE_SQUARE[piece][square];
+    }
+
+    /**
+     * The part of the key that does not depend on where the pieces stand
+     *
+     * @param sideToMove     {@link Position#WHITE} or {@link Position#BLACK}
+     * @param castlingRights a set of {@link Position} castling flags
+     * @param epSquare       the en passant square, or {@link Bitboards#NO_SQUARE}
+     * @return the combined key for those three
+     */
+    public static long state(int sideToMove, int castlingRights, int epSquare) {
+        long key = CASTLING[castlingRights];
+        if (sideToMove == Position.BLACK) {
+            key ^= BLACK_TO_MOVE;
+        }
+        if (epSquare != Bitboards.NO_SQUARE) {
+            key ^= EP_FILE[epSquare & 7];
+        }
+        return key;
+    }
+
+    /**
+     * Computes a key from scratch. {@link Position#key()} keeps the same value up to date
+     * incrementally; this is the reference it is checked against.
+     *
+     * @param position the position to hash
+     * @return the position's key
+     */
+    public static long key(Position position) {
+        long key = 0L;
+        for (long occ = position.occupied(); occ != 0; occ &= occ - 1) {
+            int sq = Bitboards.lowestSquare(occ);
+            key ^= piece(position.pieceAt(sq), sq);
+        }
+        return key ^ state(position.sideToMove(), position.castlingRights(), position.epSquare());
+    }
+}
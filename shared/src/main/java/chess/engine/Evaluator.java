@@ -0,0 +1,31 @@
+package chess.engine;
+
+import chess.PieceSquareTables;
+import chess.Position;
+
+/**
+ * Static evaluation: material plus piece-square tables (see {@link PieceSquareTables}), in
+ * centipawns from the point of view of the side to move. The position keeps the total
+ * up to date as moves are made and taken back, so evaluating a node costs O(1).
+ */
+public final class Evaluator {
+
+    private Evaluator() {
+    }
+
+    /**
+     * @param position the position to score
+     * @return the score in centipawns, positive when the side to move is better off
+     */
+    public static int evaluate(Position position) {
+        int score = position.materialScore();
+        return position.sideToMove() == Position.WHITE ? score : -score;
+    }
+
+    /**
+     * @return the material value of a piece type, see {@link Position#KING} and friends
+     */
+    public static int value(int type) {
+        return PieceSquareTables.materialValue(type);
+    }
+}
@@ -0,0 +1,178 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.Position;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Book moves for early positions, read straight from a memory-mapped file.
+ * <p>
+ * The file is a 16-byte header followed by 12-byte records sorted by position key: the
+ * Zobrist key ({@link Position#key()}) as a long, the move's from, to and promotion bits
+ * ({@link Move#withoutFlags(int)}) as a short, and an unsigned short weight. Records for one
+ * position are adjacent, heaviest first. Opening a book maps the file and reads only the
+ * header, so it costs almost no time or heap whatever the book's size. A lookup is a binary
+ * search over the mapped records. Lookups never change the buffer's position, so any number of
+ * threads can share one book. {@link OpeningBookBuilder} writes the files.
+ */
+public class OpeningBook {
+
+    static final int MAGIC = 0x43424B31;   // "CBK1"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 12;
+
+    private final ByteBuffer records;
+    private final int size;
+
+    private OpeningBook(ByteBuffer records, int size) {
+        this.records = records;
+        this.size = size;
+    }
+
+    /**
+     * Maps a book file. The mapping outlives the file handle, which is closed straight away.
+     *
+     * @param path a file written by {@link OpeningBookBuilder}
+     * @return the book
+     * @throws IOException if the file cannot be read or is not a book
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+                throw new IOException("Not an opening book: " + path);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not an opening book, or an unsupported version: " + path);
+            }
+            long count = buffer.getLong(8);
+            if (count < 0 || HEADER_BYTES + count * RECORD_BYTES != length) {
+                throw new IOException("Opening book is truncated: " + path);
+            }
+            return new OpeningBook(buffer.slice(HEADER_BYTES, (int) (length - HEADER_BYTES)), (int) count);
+        }
+    }
+
+    /**
+     * @return how many (position, move) records the book holds
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param position the position to look up
+     * @return its book moves that are legal there, heaviest first; empty when out of book
+     */
+    public List<BookMove> moves(Position position) {
+        List<BookMove> moves = new ArrayList<>();
+        long key = position.key();
+        int index = firstIndex(key);
+        if (index == size) {
+            return moves;
+        }
+        MoveList legal = new MoveList();
+        MoveGenerator.generateLegal(position, position.sideToMove(), legal);
+        for (; index < size && keyAt(index) == key; index++) {
+            // A key collision could point at a move this position does not have
+            int move = legal.find(moveAt(index));
+            if (move != Move.NONE) {
+                moves.add(new BookMove(move, weightAt(index)));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * @return the heaviest legal book move, or {@link Move#NONE} when out of book
+     */
+    public int bestMove(Position position) {
+        List<BookMove> moves = moves(position);
+        return moves.isEmpty() ? Move.NONE : moves.get(0).move();
+    }
+
+    /**
+     * @return the heaviest book move for the side to move, or null when out of book
+     */
+    public ChessMove bestMove(ChessGame game) {
+        int move = bestMove(game.copyPosition());
+        return move == Move.NONE ? null : Move.toChessMove(move);
+    }
+
+    /**
+     * Picks a book move at random in proportion to the weights, so a player that uses the
+     * book does not always play the same opening
+     *
+     * @return the move, or {@link Move#NONE} when out of book
+     */
+    public int pickMove(Position position, RandomGenerator random) {
+        List<BookMove> moves = moves(position);
+        long total = 0;
+        for (BookMove move : moves) {
+            total += move.weight();
+        }
+        if (total == 0) {
+            return Move.NONE;
+        }
+        long pick = random.nextLong(total);
+        for (BookMove move : moves) {
+            pick -= move.weight();
+            if (pick < 0) {
+                return move.move();
+            }
+        }
+        return moves.get(moves.size() - 1).move();
+    }
+
+    // Lowest index whose key is not below the one wanted, or size if there is none
+    private int firstIndex(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keyAt(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(int index) {
+        return records.getLong(index * RECORD_BYTES);
+    }
+
+    private int moveAt(int index) {
+        return records.getShort(index * RECORD_BYTES + 8) & 0x7FFF;
+    }
+
+    private int weightAt(int index) {
+        return Short.toUnsignedInt(records.getShort(index * RECORD_BYTES + 10));
+    }
+
+    /**
+     * @param move   a legal move, packed as described in {@link Move}
+     * @param weight how strongly the book recommends it
+     */
+    public record BookMove(int move, int weight) {
+
+        public ChessMove toChessMove() {
+            return Move.toChessMove(move);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.MoveNotation;
+import chess.PgnGame;
+import chess.PgnReader;
+import chess.Position;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles games into an {@link OpeningBook} file. Every move played in the first
+ * {@code maxPly} plies of a game counts once towards the weight of that move in that
+ * position; moves seen fewer than {@code minCount} times are left out of the book.
+ * <p>
+ * Run from the command line it reads a PGN archive, streamed a game at a time, or a text
+ * file with one game per line as moves in coordinate notation starting from the initial
+ * position (for example {@code e2e4 e7e5 g1f3}, with promotions written {@code e7e8q}). In
+ * text files, blank lines and lines starting with {@code #} are skipped. Games that do not
+ * start from the initial position or have an illegal move are skipped too.
+ */
+public class OpeningBookBuilder {
+
+    public static final int DEFAULT_MAX_PLY = 24;
+
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    private final int maxPly;
+    private final Map<BookKey, Integer> counts = new HashMap<>();
+    private int games;
+
+    public OpeningBookBuilder() {
+        this(DEFAULT_MAX_PLY);
+    }
+
+    /**
+     * @param maxPly how many plies from the start of each game to take into the book
+     */
+    public OpeningBookBuilder(int maxPly) {
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * Adds a game played from the initial position
+     *
+     * @param moves the game's moves in order; only the first {@code maxPly} are read
+     * @throws IllegalArgumentException if a move is not legal where it is played, in which
+     *                                  case none of the game is added
+     */
+    public void addGame(List<ChessMove> moves) {
+        Position position = new ChessGame().copyPosition();
+        MoveList legal = new MoveList();
+        int plies = Math.min(moves.size(), maxPly);
+        List<BookKey> keys = new ArrayList<>(plies);
+        for (int ply = 0; ply < plies; ply++) {
+            legal.clear();
+            MoveGenerator.generateLegal(position, position.sideToMove(), legal);
+            int move = legal.find(Move.fromChessMove(moves.get(ply)));
+            if (move == Move.NONE) {
+                throw new IllegalArgumentException("Illegal move " + moves.get(ply) + " at ply " + (ply + 1));
+            }
+            keys.add(new BookKey(position.key(), Move.withoutFlags(move)));
+            position.makeMove(move);
+        }
+        // Counted only once every move has checked out
+        for (BookKey key : keys) {
+            counts.merge(key, 1, Integer::sum);
+        }
+        games++;
+    }
+
+    /**
+     * @return how many games have been added
+     */
+    public int games() {
+        return games;
+    }
+
+    /**
+     * Writes the book, replacing any file already at the path
+     *
+     * @param path     where to write
+     * @param minCount leave out moves played fewer times than this
+     * @return how many records were written
+     */
+    public int write(Path path, int minCount) throws IOException {
+        List<Map.Entry<BookKey, Integer>> entries = new ArrayList<>();
+        for (Map.Entry<BookKey, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() >= minCount) {
+                entries.add(entry);
+            }
+        }
+        // By key, the order the reader's binary search expects, then heaviest move first
+        entries.sort(Comparator.<Map.Entry<BookKey, Integer>>comparingLong(entry -> entry.getKey().key())
+                .thenComparing(Map.Entry::getValue, Comparator.reverseOrder())
+                .thenComparingInt(entry -> entry.getKey().move()));
+
+        ByteBuffer buffer = ByteBuffer.allocate(OpeningBook.HEADER_BYTES + entries.size() * OpeningBook.RECORD_BYTES);
+        buffer.putInt(OpeningBook.MAGIC).putInt(OpeningBook.VERSION).putLong(entries.size());
+        for (Map.Entry<BookKey, Integer> entry : entries) {
+            buffer.putLong(entry.getKey().key())
+                    .putShort((short) entry.getKey().move())
+                    .putShort((short) Math.min(entry.getValue(), MAX_WEIGHT));
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        return entries.size();
+    }
+
+    /**
+     * Usage: {@code OpeningBookBuilder <games.pgn|games.txt> <book.bin> [maxPly] [minCount]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: OpeningBookBuilder <games.pgn|games.txt> <book.bin> [maxPly] [minCount]");
+            System.exit(1);
+        }
+        int maxPly = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_PLY;
+        int minCount = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(maxPly);
+        if (args[0].endsWith(".pgn")) {
+            addPgn(builder, Path.of(args[0]));
+        } else {
+            addText(builder, Path.of(args[0]));
+        }
+        int records = builder.write(Path.of(args[1]), minCount);
+        System.out.println("Wrote " + records + " book moves from " + builder.games() + " games to " + args[1]);
+    }
+
+    private static void addPgn(OpeningBookBuilder builder, Path path) throws IOException {
+        try (PgnReader reader = new PgnReader(FileChannel.open(path, StandardOpenOption.READ))) {
+            for (;;) {
+                PgnGame game;
+                try {
+                    game = reader.next();
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Skipping " + e.getMessage());
+                    continue;
+                }
+                if (game == null) {
+                    return;
+                }
+                if (game.getTag("FEN") == null) {
+                    builder.addGame(game.getMoves());
+                }
+            }
+        }
+    }
+
+    private static void addText(OpeningBookBuilder builder, Path path) throws IOException {
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    builder.addGame(parseMoves(line));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Skipping line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    static List<ChessMove> parseMoves(String line) {
+        List<ChessMove> moves = new ArrayList<>();
+        for (String token : line.split("\\s+")) {
+            moves.add(MoveNotation.fromUci(token));
+        }
+        return moves;
+    }
+
+    private record BookKey(long key, int move) {
+    }
+}
@@ -0,0 +1,138 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lazy SMP: several {@link Search} threads search the same position at once and share one
+ * lock-free {@link TranspositionTable}. They do not split the tree between them. Instead
+ * each one profits from the others' table entries, and helpers start at staggered depths so
+ * they drift apart instead of repeating one another. The main thread's result is the answer;
+ * the helpers stop when it finishes.
+ * <p>
+ * The worker threads are daemons owned by this object; {@link #close()} shuts them down.
+ */
+public class ParallelSearch implements AutoCloseable {
+
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+    private final TranspositionTable table;
+    private final Search[] searches;
+    private final ExecutorService helpers;
+
+    /**
+     * @param threads how many threads search, at least 1
+     */
+    public ParallelSearch(int threads) {
+        this(threads, new TranspositionTable(64));
+    }
+
+    /**
+     * @param threads how many threads search, at least 1
+     * @param table   the table every thread shares
+     */
+    public ParallelSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("A search needs at least one thread");
+        }
+        this.table = table;
+        this.searches = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new Search(table);
+        }
+
+        int pool = POOL_NUMBER.incrementAndGet();
+        AtomicInteger worker = new AtomicInteger();
+        this.helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, task -> {
+            Thread thread = new Thread(task, "search-" + pool + "-helper-" + worker.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int threads() {
+        return searches.length;
+    }
+
+    public TranspositionTable table() {
+        return table;
+    }
+
+    /**
+     * Searches a game's current position for the side whose turn it is
+     *
+     * @param game   the game, which is not modified
+     * @param limits when to stop; they apply to the main thread
+     * @return the main thread's result, with nodes counted across every thread
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        return search(game.copyPosition(), limits);
+    }
+
+    /**
+     * Searches a position for its side to move
+     *
+     * @param root   the position, which is not modified
+     * @param limits when to stop; they apply to the main thread
+     * @return the main thread's result, with nodes counted across every thread
+     */
+    public synchronized SearchResult search(Position root, SearchLimits limits) {
+        // Helpers search without a limit of their own and run until the main thread is done
+        SearchLimits unlimited = new SearchLimits();
+        List<Future<SearchResult>> running = new ArrayList<>();
+        for (int i = 1; i < searches.length; i++) {
+            Search helper = searches[i];
+            int startDepth = 1 + (i & 1);
+            helper.resetStop();
+            running.add(helpers.submit(() -> helper.run(root, unlimited, startDepth)));
+        }
+
+        SearchResult main;
+        try {
+            main = searches[0].search(root, limits);
+        } finally {
+            for (int i = 1; i < searches.length; i++) {
+                searches[i].stop();
+            }
+        }
+
+        long nodes = main.getNodes();
+        for (Future<SearchResult> helper : running) {
+            try {
+                nodes += helper.get().getNodes();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search helper failed", e.getCause());
+            }
+        }
+        return new SearchResult(main.getPackedMove(), main.getScore(), main.getDepth(), nodes,
+                main.getTimeMillis(), main.getPrincipalVariation());
+    }
+
+    /**
+     * Stops a running search early; it still returns its best move so far
+     */
+    public void stop() {
+        for (Search search : searches) {
+            search.stop();
+        }
+    }
+
+    @Override
+    public void close() {
+        stop();
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+}
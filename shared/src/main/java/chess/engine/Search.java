@@ -0,0 +1,495 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessGame;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.Position;
+import chess.Tablebase;
+
+import java.util.Arrays;
+
+/**
+ * Iterative-deepening alpha-beta search with a quiescence search at the leaves.
+ * <p>
+ * Moves are tried transposition-table move first, then captures by most valuable victim and
+ * least valuable attacker (MVV-LVA), then killer moves, then quiet moves by history score.
+ * Positions are searched by playing and taking back moves on one {@link Position}, with a
+ * move list and ordering buffer per ply allocated up front, so the search itself does not
+ * allocate.
+ * <p>
+ * A Search is used by one thread at a time; {@link #stop()} may be called from any thread.
+ * {@link ParallelSearch} runs several over one shared table.
+ */
+public class Search {
+
+    public static final int MAX_PLY = 128;
+    public static final int MAX_DEPTH = 64;
+    public static final int MATE = 30000;
+
+    private static final int INFINITY = 32000;
+
+    // How often, in nodes, the clock and node limit are looked at
+    private static final int CHECK_INTERVAL = 1024;
+
+    private static final int TT_MOVE_ORDER = 1 << 30;
+    private static final int CAPTURE_ORDER = 1 << 28;
+    private static final int KILLER_ORDER = 1 << 27;
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    private final TranspositionTable table;
+
+    private final MoveList[] lists = new MoveList[MAX_PLY + 1];
+    private final int[][] orderScores = new int[MAX_PLY + 1][MoveList.CAPACITY];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[][] history = new int[12][64];
+    private final long[] pathKeys = new long[MAX_PLY + 1];
+
+    private Position position;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean aborted;
+    private volatile boolean stopRequested;
+    private int rootBest;
+    private SearchListener listener;
+    private Tablebase tablebase;
+
+    public Search() {
+        this(new TranspositionTable(16));
+    }
+
+    /**
+     * @return a Search per thread, each with a table of its own, for a pool of threads that
+     * each search one position at a time
+     */
+    public static ThreadLocal<Search> perThread(int tableMegabytes) {
+        return ThreadLocal.withInitial(() -> new Search(new TranspositionTable(tableMegabytes)));
+    }
+
+    /**
+     * @param table the transposition table to use; keeping one across searches lets later
+     *              searches of related positions start from earlier results
+     */
+    public Search(TranspositionTable table) {
+        this.table = table;
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Searches a game's current position for the side whose turn it is
+     *
+     * @param game   the game, which is not modified
+     * @param limits when to stop
+     * @return the best move found and its score
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        return search(game.copyPosition(), limits);
+    }
+
+    /**
+     * Searches a position for its side to move
+     *
+     * @param root   the position, which is not modified
+     * @param limits when to stop
+     * @return the best move found and its score
+     */
+    public SearchResult search(Position root, SearchLimits limits) {
+        stopRequested = false;
+        return run(root, limits, 1);
+    }
+
+    /**
+     * Runs a search without clearing an earlier {@link #stop()} request, so a caller can
+     * stop a helper before its thread even gets going
+     *
+     * @param startDepth the first iteration's depth; Lazy SMP helpers start at different
+     *                   depths so they do not all search the same tree in step
+     */
+    SearchResult run(Position root, SearchLimits limits, int startDepth) {
+        long start = System.nanoTime();
+        position = root.copy();
+        tablebase = ChessGame.getTablebase();
+        nodes = 0;
+        aborted = false;
+        nodeLimit = limits.getNodes() > 0 ? limits.getNodes() : Long.MAX_VALUE;
+        deadline = limits.getMoveTime() > 0 ? start + limits.getMoveTime() * 1_000_000 : Long.MAX_VALUE;
+        int maxDepth = limits.getDepth() > 0 ? Math.min(limits.getDepth(), MAX_DEPTH) : MAX_DEPTH;
+        resetOrdering();
+
+        MoveList rootMoves = new MoveList();
+        MoveGenerator.generateLegal(position, position.sideToMove(), rootMoves);
+        if (rootMoves.isEmpty()) {
+            int score = inCheck(position.sideToMove()) ? -MATE : 0;
+            return new SearchResult(Move.NONE, score, 0, 0, elapsedMillis(start), new int[0]);
+        }
+
+        int bestMove = rootMoves.get(0);
+        int bestScore = 0;
+        int completed = 0;
+        for (int depth = Math.min(startDepth, maxDepth); depth <= maxDepth; depth++) {
+            int score = alphaBeta(depth, -INFINITY, INFINITY, 0);
+            if (aborted) {
+                break;
+            }
+            bestMove = rootBest;
+            bestScore = score;
+            completed = depth;
+            if (listener != null) {
+                listener.iterationComplete(new SearchResult(bestMove, bestScore, completed, nodes,
+                        elapsedMillis(start), principalVariation(root, bestMove, completed)));
+            }
+            // A forced mate inside the horizon will not change with more depth
+            if (Math.abs(score) >= MATE - depth) {
+                break;
+            }
+        }
+        return new SearchResult(bestMove, bestScore, completed, nodes, elapsedMillis(start),
+                principalVariation(root, bestMove, Math.max(completed, 1)));
+    }
+
+    /**
+     * @param listener told about every finished iteration of later searches, or null
+     */
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Asks a running search to finish as soon as it can; it still returns its best move
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    void resetStop() {
+        stopRequested = false;
+    }
+
+    /**
+     * @return nodes visited by the current or last search; only exact once it has returned
+     */
+    public long nodes() {
+        return nodes;
+    }
+
+    public TranspositionTable table() {
+        return table;
+    }
+
+    private int alphaBeta(int depth, int alpha, int beta, int ply) {
+        if (++nodes % CHECK_INTERVAL == 0) {
+            checkLimits();
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        long key = position.key();
+        if (ply > 0 && isRepetition(key, ply)) {
+            return 0;
+        }
+        if (ply >= MAX_PLY) {
+            return Evaluator.evaluate(position);
+        }
+        pathKeys[ply] = key;
+
+        // Endgames in the tablebase are scored exactly, mates counted from the root
+        if (ply > 0 && tablebase != null && Long.bitCount(position.occupied()) <= tablebase.maxPieces()) {
+            int result = tablebase.probe(position);
+            if (result == Tablebase.DRAW) {
+                return 0;
+            }
+            if (result != Tablebase.NOT_FOUND) {
+                int mateScore = MATE - ply - Tablebase.pliesToMate(result);
+                return Tablebase.isWin(result) ? mateScore : -mateScore;
+            }
+        }
+
+        int us = position.sideToMove();
+        boolean inCheck = inCheck(us);
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiesce(alpha, beta, ply);
+        }
+
+        int ttMove = Move.NONE;
+        long entry = table.probe(key);
+        if (entry != 0) {
+            ttMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        MoveList moves = lists[ply];
+        moves.clear();
+        MoveGenerator.generateLegal(position, us, moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(moves, ply, ttMove);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, ply, i);
+            position.doMove(move);
+            int score = -alphaBeta(depth - 1, -beta, -alpha, ply + 1);
+            position.undoMove();
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (ply == 0) {
+                    rootBest = move;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        if (!Move.isCapture(move) && !Move.isPromotion(move)) {
+                            rememberQuietCutoff(move, depth, ply);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER_BOUND
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+        table.store(key, bestMove, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Plays out captures and promotions until the position is quiet, so a search that stops
+     * in the middle of an exchange does not misjudge it. The side to move may always stand
+     * pat on the static evaluation unless it is in check.
+     */
+    private int quiesce(int alpha, int beta, int ply) {
+        if (++nodes % CHECK_INTERVAL == 0) {
+            checkLimits();
+        }
+        if (aborted) {
+            return 0;
+        }
+        if (ply >= MAX_PLY) {
+            return Evaluator.evaluate(position);
+        }
+
+        int us = position.sideToMove();
+        boolean inCheck = inCheck(us);
+        int best = -INFINITY;
+        if (!inCheck) {
+            best = Evaluator.evaluate(position);
+            if (best >= beta) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+        }
+
+        MoveList moves = lists[ply];
+        moves.clear();
+        MoveGenerator.generateLegal(position, us, moves);
+        if (inCheck) {
+            if (moves.isEmpty()) {
+                return -MATE + ply;
+            }
+        } else {
+            retainTactical(moves);
+        }
+        scoreMoves(moves, ply, Move.NONE);
+
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, ply, i);
+            position.doMove(move);
+            int score = -quiesce(-beta, -alpha, ply + 1);
+            position.undoMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private void scoreMoves(MoveList moves, int ply, int ttMove) {
+        int[] scores = orderScores[ply];
+        if (scores.length < moves.size()) {
+            // Only a board set up by hand has this many moves
+            scores = orderScores[ply] = new int[moves.size()];
+        }
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = Move.from(move);
+            int to = Move.to(move);
+            int score;
+            if (move == ttMove) {
+                score = TT_MOVE_ORDER;
+            } else if (Move.isCapture(move) || Move.isPromotion(move)) {
+                // Most valuable victim first, and among equal victims the least valuable attacker
+                int victim = Move.isEnPassant(move) ? Position.PAWN
+                        : Move.isCapture(move) ? Position.typeOf(position.pieceAt(to)) : Position.KING;
+                int attacker = Position.typeOf(position.pieceAt(from));
+                score = CAPTURE_ORDER + Evaluator.value(victim) * 16 - Evaluator.value(attacker) / 16
+                        + (Move.isPromotion(move) ? Evaluator.value(Move.promotion(move)) : 0);
+            } else if (move == killers[ply][0]) {
+                score = KILLER_ORDER + 1;
+            } else if (move == killers[ply][1]) {
+                score = KILLER_ORDER;
+            } else {
+                score = history[position.pieceAt(from)][to];
+            }
+            scores[i] = score;
+        }
+    }
+
+    // Selection sort one step at a time: cutoffs usually come early, so most moves are never sorted
+    private int pickNext(MoveList moves, int ply, int index) {
+        int[] scores = orderScores[ply];
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            moves.swap(index, best);
+            int tmp = scores[index];
+            scores[index] = scores[best];
+            scores[best] = tmp;
+        }
+        return moves.get(index);
+    }
+
+    private void rememberQuietCutoff(int move, int depth, int ply) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] slot = history[position.pieceAt(Move.from(move))];
+        slot[Move.to(move)] += depth * depth;
+        if (slot[Move.to(move)] > HISTORY_LIMIT) {
+            ageHistory();
+        }
+    }
+
+    private static void retainTactical(MoveList moves) {
+        int kept = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (Move.isCapture(move) || Move.isPromotion(move)) {
+                moves.set(kept++, move);
+            }
+        }
+        moves.truncate(kept);
+    }
+
+    private boolean isRepetition(long key, int ply) {
+        for (int i = ply - 2; i >= 0; i -= 2) {
+            if (pathKeys[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean inCheck(int us) {
+        int king = position.kingSquare(us);
+        return king != Bitboards.NO_SQUARE && position.isSquareAttacked(king, us ^ 1);
+    }
+
+    private void checkLimits() {
+        if (stopRequested || nodes >= nodeLimit || System.nanoTime() >= deadline) {
+            aborted = true;
+        }
+    }
+
+    private void resetOrdering() {
+        for (int[] pair : killers) {
+            pair[0] = Move.NONE;
+            pair[1] = Move.NONE;
+        }
+        ageHistory();
+    }
+
+    private void ageHistory() {
+        for (int[] row : history) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>= 1;
+            }
+        }
+    }
+
+    // Mate scores are stored relative to the node so they stay right when reached at another ply
+    private static int toTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Follows table moves from the root to recover the line the search expects
+     */
+    private int[] principalVariation(Position root, int bestMove, int maxLength) {
+        Position line = root.copy();
+        MoveList legal = new MoveList();
+        int[] moves = new int[maxLength];
+        int length = 0;
+        int move = bestMove;
+        while (move != Move.NONE && length < maxLength) {
+            legal.clear();
+            MoveGenerator.generateLegal(line, line.sideToMove(), legal);
+            move = legal.find(move);
+            if (move == Move.NONE) {
+                break;
+            }
+            moves[length++] = move;
+            line.makeMove(move);
+            move = TranspositionTable.move(table.probe(line.key()));
+        }
+        return Arrays.copyOf(moves, length);
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
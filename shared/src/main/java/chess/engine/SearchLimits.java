@@ -0,0 +1,73 @@
+package chess.engine;
+
+/**
+ * When a search should stop. Any limit left at 0 does not apply; with none set the search
+ * runs to {@link Search#MAX_DEPTH}.
+ */
+public class SearchLimits {
+
+    private int depth;
+    private long nodes;
+    private long moveTimeMillis;
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits().setDepth(depth);
+    }
+
+    public static SearchLimits moveTime(long millis) {
+        return new SearchLimits().setMoveTime(millis);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits().setNodes(nodes);
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @param depth the deepest iteration to run, in plies
+     */
+    public SearchLimits setDepth(int depth) {
+        this.depth = depth;
+        return this;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @param nodes stop after visiting about this many nodes
+     */
+    public SearchLimits setNodes(long nodes) {
+        this.nodes = nodes;
+        return this;
+    }
+
+    public long getMoveTime() {
+        return moveTimeMillis;
+    }
+
+    /**
+     * @param millis stop after about this much wall-clock time
+     */
+    public SearchLimits setMoveTime(long millis) {
+        this.moveTimeMillis = millis;
+        return this;
+    }
+
+    /**
+     * Bounds limits a user asked for, so one request cannot hold a search thread for long.
+     * The node limit is dropped.
+     *
+     * @param defaultMoveTime the time to allow when no time was asked for
+     * @return new limits with the depth at most maxDepth and the time at most maxMoveTime
+     */
+    public SearchLimits capped(int maxDepth, long maxMoveTime, long defaultMoveTime) {
+        int cappedDepth = depth > 0 ? Math.min(depth, maxDepth) : 0;
+        long cappedMoveTime = moveTimeMillis > 0 ? Math.min(moveTimeMillis, maxMoveTime) : defaultMoveTime;
+        return new SearchLimits().setDepth(cappedDepth).setMoveTime(cappedMoveTime);
+    }
+}
@@ -0,0 +1,15 @@
+package chess.engine;
+
+/**
+ * Hears about a {@link Search} as it deepens, for callers that show analysis while it runs
+ */
+@FunctionalInterface
+public interface SearchListener {
+
+    /**
+     * Called on the searching thread each time an iteration finishes
+     *
+     * @param result the best move and score so far, counted up to the iteration just finished
+     */
+    void iterationComplete(SearchResult result);
+}
@@ -0,0 +1,85 @@
+package chess.engine;
+
+import chess.ChessMove;
+import chess.Move;
+
+/**
+ * The outcome of a {@link Search}: the best move of the last completed iteration, its
+ * score and how much work it took
+ */
+public class SearchResult {
+
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long timeMillis;
+    private final int[] principalVariation;
+
+    SearchResult(int bestMove, int score, int depth, long nodes, long timeMillis, int[] principalVariation) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+        this.principalVariation = principalVariation;
+    }
+
+    /**
+     * @return the best move, or null if the side to move has no legal move
+     */
+    public ChessMove getBestMove() {
+        return bestMove == Move.NONE ? null : Move.toChessMove(bestMove);
+    }
+
+    /**
+     * @return the best move packed as described in {@link Move}, or {@link Move#NONE}
+     */
+    public int getPackedMove() {
+        return bestMove;
+    }
+
+    /**
+     * @return centipawns from the point of view of the side to move; mate scores are
+     * within {@link Search#MAX_PLY} of ±{@link Search#MATE}
+     */
+    public int getScore() {
+        return score;
+    }
+
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    /**
+     * @return the deepest iteration that finished
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public long getNodesPerSecond() {
+        return timeMillis == 0 ? nodes * 1000 : nodes * 1000 / timeMillis;
+    }
+
+    /**
+     * @return the expected line of play starting with the best move, packed moves
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "SearchResult{bestMove=" + getBestMove() + ", score=" + score + ", depth=" + depth
+                + ", nodes=" + nodes + ", nps=" + getNodesPerSecond() + "}";
+    }
+}
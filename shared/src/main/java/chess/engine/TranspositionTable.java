@@ -0,0 +1,108 @@
+package chess.engine;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table of search results keyed by Zobrist position key. Each slot is a
+ * pair of longs: the packed entry (see {@link #pack}) and the key XORed with that entry, so
+ * a probe touches two array cells and nothing is ever allocated after construction.
+ * <p>
+ * Any number of search threads can share one table without locks. Each cell is read and
+ * written atomically, but two threads storing into one slot can still interleave and leave
+ * one thread's key next to the other's entry. The XOR catches that: a torn pair no longer
+ * decodes to the probed key, so it reads as a miss rather than as a wrong result.
+ */
+public class TranspositionTable {
+
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    // Opaque access makes each long read and write whole on every JVM, without the
+    // ordering cost of volatile; the XOR check does not need ordering between the two cells
+    private static final VarHandle CELL = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] keys;
+    private final long[] entries;
+    private final int mask;
+
+    /**
+     * @param megabytes memory to use, rounded down to a power of two number of slots
+     */
+    public TranspositionTable(int megabytes) {
+        long slots = Math.max(1L, ((long) megabytes << 20) / 16);
+        int size = Integer.highestOneBit((int) Math.min(slots, 1 << 30));
+        keys = new long[size];
+        entries = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Looks a position up
+     *
+     * @param key the position key
+     * @return the packed entry, or 0 if the position is not stored
+     */
+    public long probe(long key) {
+        int index = (int) key & mask;
+        long entry = (long) CELL.getOpaque(entries, index);
+        long check = (long) CELL.getOpaque(keys, index);
+        return (check ^ entry) == key ? entry : 0L;
+    }
+
+    /**
+     * Stores a result, replacing the slot's entry unless that one is for the same position
+     * and was searched deeper
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = (int) key & mask;
+        long old = (long) CELL.getOpaque(entries, index);
+        if (((long) CELL.getOpaque(keys, index) ^ old) == key && depth(old) > depth) {
+            return;
+        }
+        long entry = pack(move, score, depth, bound);
+        CELL.setOpaque(entries, index, entry);
+        CELL.setOpaque(keys, index, key ^ entry);
+    }
+
+    /**
+     * Empties the table. Not safe to call while a search is using it.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(entries, 0L);
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Entry layout: bits 0-18 move, 19-20 bound, 21-28 depth, 32-47 score as a signed short.
+     * A zero entry has no bound, which is how an empty slot reads.
+     */
+    static long pack(int move, int score, int depth, int bound) {
+        return (move & 0x7FFFFL)
+                | (long) bound << 19
+                | (long) (depth & 0xFF) << 21
+                | (long) (score & 0xFFFF) << 32;
+    }
+
+    public static int move(long entry) {
+        return (int) (entry & 0x7FFFF);
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 19 & 3);
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 21 & 0xFF);
+    }
+
+    public static int score(long entry) {
+        return (short) (entry >>> 32);
+    }
+}
@@ -0,0 +1,25 @@
+package json;
+
+import chess.CanonicalTypeAdapterFactory;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import webSocketMessages.serverMessages.MessageTypeAdapterFactory;
+import webSocketMessages.userCommands.CommandTypeAdapterFactory;
+
+/**
+ * The one {@link Gson} the client and server share. The chess model and the WebSocket
+ * messages go through hand-written streaming adapters; requests, results and the other
+ * plain classes still bind by reflection. Gson instances are thread-safe and cache the
+ * adapters they build, so use this one rather than creating another per call.
+ */
+public final class Json {
+
+    public static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapterFactory(new CanonicalTypeAdapterFactory())
+            .registerTypeAdapterFactory(new CommandTypeAdapterFactory())
+            .registerTypeAdapterFactory(new MessageTypeAdapterFactory())
+            .create();
+
+    private Json() {
+    }
+}
@@ -0,0 +1,4 @@
+package request;
+
+public record BotRequest(int gameID, String playerColor, int depth, long moveTime) {
+}
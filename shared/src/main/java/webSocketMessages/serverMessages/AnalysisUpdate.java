@@ -0,0 +1,52 @@
+package webSocketMessages.serverMessages;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * Engine analysis of a game: sent as {@link ServerMessageType#ANALYSIS} after each search
+ * iteration and as {@link ServerMessageType#ANALYSIS_COMPLETE} with the final result
+ */
+public class AnalysisUpdate extends ServerMessage {
+
+    private final int gameID;
+    private final int depth;
+    // Centipawns from white's side, like LoadGame's evaluation
+    private final int score;
+    // Moves until mate, negative when black mates; null when no mate was found
+    private final Integer mateIn;
+    private final ChessMove bestMove;
+    private final List<ChessMove> principalVariation;
+    private final long nodes;
+    private final long timeMillis;
+
+    public AnalysisUpdate(ServerMessageType type, int gameID, int depth, int score, Integer mateIn,
+                          ChessMove bestMove, List<ChessMove> principalVariation, long nodes, long timeMillis) {
+        super(type);
+        this.gameID = gameID;
+        this.depth = depth;
+        this.score = score;
+        this.mateIn = mateIn;
+        this.bestMove = bestMove;
+        this.principalVariation = principalVariation;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+    }
+
+    public int getGameID() { return gameID; }
+
+    public int getDepth() { return depth; }
+
+    public int getScore() { return score; }
+
+    public Integer getMateIn() { return mateIn; }
+
+    public ChessMove getBestMove() { return bestMove; }
+
+    public List<ChessMove> getPrincipalVariation() { return principalVariation; }
+
+    public long getNodes() { return nodes; }
+
+    public long getTimeMillis() { return timeMillis; }
+}
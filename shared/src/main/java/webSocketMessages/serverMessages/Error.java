@@ -10,6 +10,12 @@ public class Error extends ServerMessage {
         this.errorMessage = "error";
     }
 
+    // The message as read from JSON, for MessageTypeAdapterFactory
+    Error(String errorMessage) {
+        super(ServerMessageType.ERROR);
+        this.errorMessage = errorMessage;
+    }
+
     public String getErrorMessage() {
         return errorMessage;
     }
@@ -3,17 +3,43 @@ package webSocketMessages.serverMessages;
 public class LoadGame extends ServerMessage{
 
     private String game;
+    // Centipawns from white's side for an evaluation bar; null (and so left out of the JSON) when not known
+    private Integer evaluation;
+    // The position as one FEN line, which a client can rebuild the game from with ChessGame.fromFen
+    private String fen;
     public LoadGame (ServerMessageType type, String game){
         super(type);
         this.serverMessageType = ServerMessageType.LOAD_GAME;
         this.game = "game";
     }
 
+    public LoadGame(ServerMessageType type, String game, int evaluation){
+        this(type, game);
+        this.evaluation = evaluation;
+    }
+
+    public LoadGame(ServerMessageType type, String game, int evaluation, String fen){
+        this(type, game, evaluation);
+        this.fen = fen;
+    }
+
     public LoadGame(ServerMessageType type){
         super(type);
     }
 
+    // Every field as read from JSON, for MessageTypeAdapterFactory
+    LoadGame(String game, Integer evaluation, String fen){
+        super(ServerMessageType.LOAD_GAME);
+        this.game = game;
+        this.evaluation = evaluation;
+        this.fen = fen;
+    }
+
     public String getGame(){ return game; }
 
+    public Integer getEvaluation(){ return evaluation; }
+
+    public String getFen(){ return fen; }
+
 
 }
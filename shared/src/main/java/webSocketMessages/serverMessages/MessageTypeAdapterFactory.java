@@ -0,0 +1,169 @@
+package webSocketMessages.serverMessages;
+
+import chess.ChessMove;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A hand-written Gson adapter for {@link ServerMessage} and its subclasses. Read as
+ * {@code ServerMessage}, a message comes back as the subclass its {@code serverMessageType}
+ * names. The JSON is the same as Gson's reflective output.
+ */
+public class MessageTypeAdapterFactory implements TypeAdapterFactory {
+
+    private static final TypeToken<List<ChessMove>> MOVE_LIST = new TypeToken<>() { };
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> raw = type.getRawType();
+        if (!ServerMessage.class.isAssignableFrom(raw)) {
+            return null;
+        }
+        return (TypeAdapter<T>) new MessageAdapter(gson, (Class<? extends ServerMessage>) raw).nullSafe();
+    }
+
+    private static class MessageAdapter extends TypeAdapter<ServerMessage> {
+        private final Class<? extends ServerMessage> requested;
+        private final TypeAdapter<ServerMessage.ServerMessageType> messageTypes;
+        private final TypeAdapter<ChessMove> moves;
+        private final TypeAdapter<List<ChessMove>> moveLists;
+
+        MessageAdapter(Gson gson, Class<? extends ServerMessage> requested) {
+            this.requested = requested;
+            messageTypes = gson.getAdapter(ServerMessage.ServerMessageType.class);
+            moves = gson.getAdapter(ChessMove.class);
+            moveLists = gson.getAdapter(MOVE_LIST);
+        }
+
+        @Override
+        public void write(JsonWriter out, ServerMessage message) throws IOException {
+            out.beginObject();
+            if (message instanceof LoadGame loadGame) {
+                writeIfPresent(out, "game", loadGame.getGame());
+                if (loadGame.getEvaluation() != null) {
+                    out.name("evaluation").value(loadGame.getEvaluation());
+                }
+                writeIfPresent(out, "fen", loadGame.getFen());
+            } else if (message instanceof Notification notification) {
+                writeIfPresent(out, "message", notification.getNotification());
+            } else if (message instanceof Error error) {
+                writeIfPresent(out, "errorMessage", error.getErrorMessage());
+            } else if (message instanceof AnalysisUpdate update) {
+                out.name("gameID").value(update.getGameID());
+                out.name("depth").value(update.getDepth());
+                out.name("score").value(update.getScore());
+                if (update.getMateIn() != null) {
+                    out.name("mateIn").value(update.getMateIn());
+                }
+                if (update.getBestMove() != null) {
+                    out.name("bestMove");
+                    moves.write(out, update.getBestMove());
+                }
+                if (update.getPrincipalVariation() != null) {
+                    out.name("principalVariation");
+                    moveLists.write(out, update.getPrincipalVariation());
+                }
+                out.name("nodes").value(update.getNodes());
+                out.name("timeMillis").value(update.getTimeMillis());
+            }
+            if (message.getServerMessageType() != null) {
+                out.name("serverMessageType");
+                messageTypes.write(out, message.getServerMessageType());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public ServerMessage read(JsonReader in) throws IOException {
+            ServerMessage.ServerMessageType messageType = null;
+            String game = null;
+            Integer evaluation = null;
+            String fen = null;
+            String text = null;
+            String errorMessage = null;
+            int gameID = 0;
+            int depth = 0;
+            int score = 0;
+            Integer mateIn = null;
+            ChessMove bestMove = null;
+            List<ChessMove> principalVariation = null;
+            long nodes = 0;
+            long timeMillis = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "serverMessageType" -> messageType = messageTypes.read(in);
+                    case "game" -> game = in.nextString();
+                    case "evaluation" -> evaluation = in.nextInt();
+                    case "fen" -> fen = in.nextString();
+                    case "message" -> text = in.nextString();
+                    case "errorMessage" -> errorMessage = in.nextString();
+                    case "gameID" -> gameID = in.nextInt();
+                    case "depth" -> depth = in.nextInt();
+                    case "score" -> score = in.nextInt();
+                    case "mateIn" -> mateIn = in.nextInt();
+                    case "bestMove" -> bestMove = moves.read(in);
+                    case "principalVariation" -> principalVariation = moveLists.read(in);
+                    case "nodes" -> nodes = in.nextLong();
+                    case "timeMillis" -> timeMillis = in.nextLong();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+
+            // The requested subclass wins; a plain ServerMessage becomes whatever serverMessageType names
+            Class<? extends ServerMessage> target = requested != ServerMessage.class ? requested : classOf(messageType);
+            ServerMessage message;
+            if (target == LoadGame.class) {
+                message = new LoadGame(game, evaluation, fen);
+            } else if (target == Notification.class) {
+                message = new Notification(messageType, text);
+            } else if (target == Error.class) {
+                message = new Error(errorMessage);
+            } else if (target == AnalysisUpdate.class) {
+                message = new AnalysisUpdate(messageType, gameID, depth, score, mateIn, bestMove, principalVariation,
+                        nodes, timeMillis);
+            } else if (target == ServerMessage.class) {
+                message = new ServerMessage(messageType);
+            } else {
+                throw new JsonParseException("Cannot read " + target.getName());
+            }
+            // As sent, not as the constructor sets it
+            message.serverMessageType = messageType;
+            return message;
+        }
+
+        private static void writeIfPresent(JsonWriter out, String name, String value) throws IOException {
+            if (value != null) {
+                out.name(name).value(value);
+            }
+        }
+
+        private static Class<? extends ServerMessage> classOf(ServerMessage.ServerMessageType messageType) {
+            if (messageType == null) {
+                return ServerMessage.class;
+            }
+            return switch (messageType) {
+                case LOAD_GAME -> LoadGame.class;
+                case ERROR -> Error.class;
+                case NOTIFICATION -> Notification.class;
+                case ANALYSIS, ANALYSIS_COMPLETE -> AnalysisUpdate.class;
+            };
+        }
+    }
+}
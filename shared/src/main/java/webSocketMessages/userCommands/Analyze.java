@@ -0,0 +1,36 @@
+package webSocketMessages.userCommands;
+
+/**
+ * Asks the server to analyze a game's current position with the engine. Any limit left at 0
+ * is up to the server, which also caps both.
+ */
+public class Analyze extends UserGameCommand {
+
+    private int gameID;
+    private int depth;
+    private long moveTime;
+
+    public Analyze(String authToken, int gameID, int depth, long moveTime){
+        super(authToken);
+        this.commandType = CommandType.ANALYZE;
+        this.gameID = gameID;
+        this.depth = depth;
+        this.moveTime = moveTime;
+    }
+
+    public Analyze(String authToken){
+        super(authToken);
+    }
+
+    public int getGameID(){ return gameID; }
+
+    /**
+     * @return the deepest iteration wanted, in plies, or 0 for no depth limit
+     */
+    public int getDepth(){ return depth; }
+
+    /**
+     * @return how long to think in milliseconds, or 0 for the server's default
+     */
+    public long getMoveTime(){ return moveTime; }
+}
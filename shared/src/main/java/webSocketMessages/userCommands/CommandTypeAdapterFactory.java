@@ -0,0 +1,152 @@
+package webSocketMessages.userCommands;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * A hand-written Gson adapter for {@link UserGameCommand} and its subclasses. Read as
+ * {@code UserGameCommand}, a command comes back as the subclass its {@code commandType}
+ * names, so the server parses each message once instead of once for the type and again for
+ * the fields. The JSON is the same as Gson's reflective output.
+ */
+public class CommandTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> raw = type.getRawType();
+        if (!UserGameCommand.class.isAssignableFrom(raw)) {
+            return null;
+        }
+        return (TypeAdapter<T>) new CommandAdapter(gson, (Class<? extends UserGameCommand>) raw).nullSafe();
+    }
+
+    private static class CommandAdapter extends TypeAdapter<UserGameCommand> {
+        private final Class<? extends UserGameCommand> requested;
+        private final TypeAdapter<UserGameCommand.CommandType> commandTypes;
+        private final TypeAdapter<ChessGame.TeamColor> colors;
+        private final TypeAdapter<ChessMove> moves;
+
+        CommandAdapter(Gson gson, Class<? extends UserGameCommand> requested) {
+            this.requested = requested;
+            commandTypes = gson.getAdapter(UserGameCommand.CommandType.class);
+            colors = gson.getAdapter(ChessGame.TeamColor.class);
+            moves = gson.getAdapter(ChessMove.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, UserGameCommand command) throws IOException {
+            out.beginObject();
+            if (command instanceof JoinPlayer joinPlayer) {
+                out.name("gameID").value(joinPlayer.getGameID());
+                if (joinPlayer.getPlayerColor() != null) {
+                    out.name("playerColor");
+                    colors.write(out, joinPlayer.getPlayerColor());
+                }
+            } else if (command instanceof JoinObserver joinObserver) {
+                out.name("gameID").value(joinObserver.getGameID());
+            } else if (command instanceof MakeMove makeMove) {
+                out.name("gameID").value(makeMove.getGameID());
+                if (makeMove.getUci() != null) {
+                    out.name("uci").value(makeMove.getUci());
+                }
+            } else if (command instanceof Leave leave) {
+                out.name("gameID").value(leave.getGameID());
+            } else if (command instanceof Resign resign) {
+                out.name("gameID").value(resign.getGameID());
+            } else if (command instanceof Analyze analyze) {
+                out.name("gameID").value(analyze.getGameID());
+                out.name("depth").value(analyze.getDepth());
+                out.name("moveTime").value(analyze.getMoveTime());
+            }
+            if (command.getCommandType() != null) {
+                out.name("commandType");
+                commandTypes.write(out, command.getCommandType());
+            }
+            if (command.getAuthString() != null) {
+                out.name("authToken").value(command.getAuthString());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public UserGameCommand read(JsonReader in) throws IOException {
+            UserGameCommand.CommandType commandType = null;
+            String authToken = null;
+            int gameID = 0;
+            ChessGame.TeamColor playerColor = null;
+            String uci = null;
+            ChessMove move = null;
+            int depth = 0;
+            long moveTime = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "commandType" -> commandType = commandTypes.read(in);
+                    case "authToken" -> authToken = in.nextString();
+                    case "gameID" -> gameID = in.nextInt();
+                    case "playerColor" -> playerColor = colors.read(in);
+                    case "uci" -> uci = in.nextString();
+                    case "move" -> move = moves.read(in);
+                    case "depth" -> depth = in.nextInt();
+                    case "moveTime" -> moveTime = in.nextLong();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+
+            // The requested subclass wins; a plain UserGameCommand becomes whatever commandType names
+            Class<? extends UserGameCommand> target = requested != UserGameCommand.class ? requested : classOf(commandType);
+            UserGameCommand command;
+            if (target == JoinPlayer.class) {
+                command = new JoinPlayer(authToken, gameID, playerColor);
+            } else if (target == JoinObserver.class) {
+                command = new JoinObserver(authToken, gameID);
+            } else if (target == MakeMove.class) {
+                command = move != null && uci == null ? new MakeMove(authToken, gameID, move) : new MakeMove(authToken, gameID, uci);
+            } else if (target == Leave.class) {
+                command = new Leave(authToken, gameID);
+            } else if (target == Resign.class) {
+                command = new Resign(authToken, gameID);
+            } else if (target == Analyze.class) {
+                command = new Analyze(authToken, gameID, depth, moveTime);
+            } else if (target == UserGameCommand.class) {
+                command = new UserGameCommand(authToken);
+            } else {
+                throw new JsonParseException("Cannot read " + target.getName());
+            }
+            // As sent, not as the constructor sets it
+            command.commandType = commandType;
+            return command;
+        }
+
+        private static Class<? extends UserGameCommand> classOf(UserGameCommand.CommandType commandType) {
+            if (commandType == null) {
+                return UserGameCommand.class;
+            }
+            return switch (commandType) {
+                case JOIN_PLAYER -> JoinPlayer.class;
+                case JOIN_OBSERVER -> JoinObserver.class;
+                case MAKE_MOVE -> MakeMove.class;
+                case LEAVE -> Leave.class;
+                case RESIGN -> Resign.class;
+                case ANALYZE -> Analyze.class;
+            };
+        }
+    }
+}
@@ -1,24 +1,56 @@
 package webSocketMessages.userCommands;
 import chess.ChessMove;
+import chess.MoveNotation;
 
+/**
+ * Plays a move. The move travels as UCI coordinates, such as {@code e7e8q}; a nested
+ * {@code move} object from older clients is still read.
+ */
 public class MakeMove extends UserGameCommand{
 
     private int gameID;
+    private String uci;
     private ChessMove move;
 
     public MakeMove(String authToken, int gameID, ChessMove move){
         super(authToken);
         this.commandType = CommandType.MAKE_MOVE;
         this.gameID = gameID;
-        this.move = move;
+        this.uci = MoveNotation.toUci(move);
     }
 
 
+    /**
+     * @param uci the move in UCI coordinates, for example {@code e2e4}
+     */
+    public MakeMove(String authToken, int gameID, String uci){
+        super(authToken);
+        this.commandType = CommandType.MAKE_MOVE;
+        this.gameID = gameID;
+        this.uci = uci;
+    }
+
     public MakeMove(String authToken){
         super(authToken);
     }
 
     public int getGameID() { return gameID; }
 
-    public ChessMove getMove() {return move;}
+    /**
+     * @return the move in UCI coordinates, or null if the message carries none
+     */
+    public String getUci() {
+        return uci != null || move == null ? uci : MoveNotation.toUci(move);
+    }
+
+    /**
+     * @return the move
+     * @throws IllegalArgumentException if the message carries malformed UCI coordinates
+     */
+    public ChessMove getMove() {
+        if (move == null && uci != null) {
+            move = MoveNotation.fromUci(uci);
+        }
+        return move;
+    }
 }
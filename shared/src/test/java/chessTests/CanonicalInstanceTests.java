@@ -0,0 +1,54 @@
+package chessTests;
+
+import chess.*;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CanonicalInstanceTests {
+
+    @Test
+    void testFactoriesReturnSharedInstances() {
+        assertSame(ChessPosition.of(3, 4), ChessPosition.of(3, 4));
+        assertEquals(new ChessPosition(3, 4), ChessPosition.of(3, 4));
+        assertNotSame(ChessPosition.of(0, 4), ChessPosition.of(0, 4));
+
+        assertSame(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK),
+                ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+
+        ChessMove move = ChessMove.of(ChessPosition.of(7, 1), ChessPosition.of(8, 1), ChessPiece.PieceType.QUEEN);
+        assertSame(move, ChessMove.of(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN));
+        assertNotSame(move, ChessMove.of(ChessPosition.of(7, 1), ChessPosition.of(8, 1), null));
+        assertEquals(new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN), move);
+    }
+
+    @Test
+    void testGeneratedMovesAreCanonical() {
+        ChessGame game = new ChessGame();
+        for (ChessMove move : game.validMoves(ChessPosition.of(1, 2))) {
+            assertSame(ChessMove.of(move.getStartPosition(), move.getEndPosition(), null), move);
+            assertSame(ChessPosition.of(1, 2), move.getStartPosition());
+        }
+    }
+
+    @Test
+    void testGsonReadsCanonicalInstances() {
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(new CanonicalTypeAdapterFactory()).create();
+        ChessGame game = new ChessGame();
+
+        // Same JSON as plain reflective Gson, in both directions
+        String json = gson.toJson(game);
+        assertEquals(new Gson().toJson(game), json);
+
+        ChessGame copy = gson.fromJson(json, ChessGame.class);
+        assertEquals(game.getBoard(), copy.getBoard());
+        assertSame(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING),
+                copy.getBoard().getPiece(ChessPosition.of(1, 5)));
+
+        ChessMove move = ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+        assertEquals(new Gson().toJson(move), gson.toJson(move));
+        assertSame(move, gson.fromJson(new Gson().toJson(move), ChessMove.class));
+    }
+}
@@ -0,0 +1,76 @@
+package chessTests;
+
+import chess.*;
+import chess.engine.Evaluator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvaluationTests {
+
+    @Test
+    void testStartPositionIsBalanced() {
+        assertEquals(0, new ChessGame().evaluation());
+        assertEquals(0, Evaluator.evaluate(Position.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1")));
+    }
+
+    @Test
+    void testIncrementalScoreMatchesRecount() {
+        Position position = Position.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        int start = position.materialScore();
+        assertEquals(recount(position), start);
+
+        // Two plies of every move, covering captures, castling, en passant and promotions
+        MoveList moves = new MoveList();
+        MoveList replies = new MoveList();
+        MoveGenerator.generateLegal(position, position.sideToMove(), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            position.doMove(moves.get(i));
+            assertEquals(recount(position), position.materialScore());
+            replies.clear();
+            MoveGenerator.generateLegal(position, position.sideToMove(), replies);
+            for (int j = 0; j < replies.size(); j++) {
+                position.doMove(replies.get(j));
+                assertEquals(recount(position), position.materialScore());
+                position.undoMove();
+            }
+            position.undoMove();
+            assertEquals(start, position.materialScore());
+        }
+    }
+
+    @Test
+    void testEvaluationIsRelativeToSideToMove() {
+        Position position = Position.fromFen("4k3/8/8/8/8/8/8/3QK3 w - - 0 1");
+        assertTrue(Evaluator.evaluate(position) > 800);
+        position.setSideToMove(Position.BLACK);
+        assertEquals(-position.materialScore(), Evaluator.evaluate(position));
+    }
+
+    @Test
+    void testGameEvaluationFollowsMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(7, 4), ChessPosition.of(5, 4), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(4, 5), ChessPosition.of(5, 4), null));
+
+        // White is a pawn up, whoever is to move
+        int evaluation = game.evaluation();
+        assertTrue(evaluation > 50, "evaluation " + evaluation);
+        assertEquals(recount(game.copyPosition()), evaluation);
+
+        game.undoMove();
+        assertEquals(recount(game.copyPosition()), game.evaluation());
+    }
+
+    private static int recount(Position position) {
+        int score = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            int piece = position.pieceAt(sq);
+            if (piece != Position.EMPTY) {
+                score += PieceSquareTables.value(piece, sq);
+            }
+        }
+        return score;
+    }
+}
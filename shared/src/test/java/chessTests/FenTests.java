@@ -0,0 +1,88 @@
+package chessTests;
+
+import chess.*;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FenTests {
+
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Test
+    void testNewGameIsTheStartPosition() {
+        assertEquals(START, new ChessGame().toFen());
+        assertEquals(new ChessGame().positionKey(), ChessGame.fromFen(START).positionKey());
+    }
+
+    @Test
+    void testRoundTrip() {
+        String[] fens = {
+                START,
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 17 42",
+                "r3k3/8/8/8/8/8/8/4K2R b Kq - 3 20",
+        };
+        for (String fen : fens) {
+            assertEquals(fen, ChessGame.fromFen(fen).toFen());
+            assertEquals(fen, Position.fromFen(fen).toFen());
+        }
+    }
+
+    @Test
+    void testMovesUpdateEnPassantAndCounters() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", game.toFen());
+
+        game.makeMove(move(8, 7, 6, 6));
+        game.makeMove(move(1, 5, 2, 5));
+        assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPPKPPP/RNBQ1BNR b kq - 2 2", game.toFen());
+
+        // A capture starts the fifty-move count again
+        game.makeMove(move(6, 6, 4, 5));
+        assertEquals("rnbqkb1r/pppppppp/8/8/4n3/8/PPPPKPPP/RNBQ1BNR w kq - 0 3", game.toFen());
+
+        game.undoMove();
+        game.undoMove();
+        assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 1 2", game.toFen());
+    }
+
+    @Test
+    void testFromFenPlaysOn() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K2R w KQ - 7 30");
+        assertTrue(game.validMoves(ChessPosition.of(1, 5)).contains(move(1, 5, 1, 7)));
+
+        game.makeMove(move(1, 5, 1, 7));
+        assertEquals("4k3/8/8/8/8/8/8/R4RK1 b - - 8 30", game.toFen());
+    }
+
+    @Test
+    void testCountersAreOptional() {
+        assertEquals("8/8/8/8/8/8/8/K6k w - - 0 1", ChessGame.fromFen("8/8/8/8/8/8/8/K6k w - -").toFen());
+    }
+
+    @Test
+    void testBadFen() {
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8 w - -"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(START.replace(" w ", " x ")));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(START.replace(" 0 1", " zero 1")));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(START.replace(" 0 1", " 0 0")));
+    }
+
+    @Test
+    void testCountersSurviveJson() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(1, 7, 3, 6));
+        game.makeMove(move(7, 4, 5, 4));
+
+        Gson gson = new Gson();
+        assertEquals(game.toFen(), gson.fromJson(gson.toJson(game), ChessGame.class).toFen());
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return ChessMove.of(ChessPosition.of(fromRow, fromCol), ChessPosition.of(toRow, toCol), null);
+    }
+}
@@ -0,0 +1,54 @@
+package chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoffTests.TestFactory.loadBoard;
+
+public class GameAnalyzerTests {
+
+    @Test
+    void testAnalyzeAll() {
+        ChessGame start = new ChessGame();
+
+        // Back-rank mate: black to move and no way out
+        ChessGame mated = new ChessGame();
+        mated.setBoard(loadBoard("""
+                | | | | |R| |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | |K| |
+                """));
+        mated.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        List<ChessGame> games = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            games.add(i % 2 == 0 ? start : mated);
+        }
+        games.add(null);
+
+        List<GameAnalyzer.Analysis> results = GameAnalyzer.analyzeAll(games);
+        assertEquals(games.size(), results.size());
+        for (int i = 0; i < 500; i++) {
+            GameAnalyzer.Analysis analysis = results.get(i);
+            if (i % 2 == 0) {
+                assertEquals(20, analysis.getLegalMoves());
+                assertFalse(analysis.isInCheck());
+                assertEquals(start.positionKey(), analysis.getPositionKey());
+            } else {
+                assertEquals(0, analysis.getLegalMoves());
+                assertTrue(analysis.isInCheckmate());
+                assertFalse(analysis.isInStalemate());
+            }
+        }
+        assertNull(results.get(500));
+    }
+}
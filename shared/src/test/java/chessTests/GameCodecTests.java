@@ -0,0 +1,71 @@
+package chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameCodecTests {
+
+    private static final String[] FENS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq e6 0 2",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b Kq - 3 17",
+            "8/8/8/8/8/8/8/K6k w - - 99 300",
+    };
+
+    @Test
+    void testRoundTripsEverythingFenKeeps() {
+        for (String fen : FENS) {
+            byte[] bytes = GameCodec.encode(ChessGame.fromFen(fen));
+            assertEquals(GameCodec.SIZE, bytes.length);
+            assertTrue(GameCodec.isEncoded(bytes));
+            assertEquals(fen, GameCodec.decode(bytes).toFen());
+        }
+    }
+
+    @Test
+    void testDecodedGameKeepsPlaying() throws InvalidMoveException {
+        ChessGame game = GameCodec.decode(GameCodec.encode(ChessGame.fromFen(FENS[1])));
+        game.makeMove(MoveNotation.fromSan(game, "Nf3"));
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+    }
+
+    @Test
+    void testWritesIntoSlicesOfDirectBuffers() {
+        // Several games back to back, in a buffer whose byte order is not the default
+        ByteBuffer buffer = ByteBuffer.allocateDirect(3 + GameCodec.SIZE * FENS.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(3);
+        for (String fen : FENS) {
+            GameCodec.write(ChessGame.fromFen(fen), buffer);
+        }
+        assertFalse(buffer.hasRemaining());
+
+        buffer.position(3);
+        for (String fen : FENS) {
+            assertEquals(fen, GameCodec.read(buffer).toFen());
+        }
+    }
+
+    @Test
+    void testRejectsWhatIsNotAnEncodedGame() {
+        byte[] fen = FENS[0].getBytes(StandardCharsets.UTF_8);
+        byte[] json = "{\"teamTurn\":\"WHITE\"}".getBytes(StandardCharsets.UTF_8);
+        assertFalse(GameCodec.isEncoded(fen));
+        assertFalse(GameCodec.isEncoded(json));
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(fen));
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(new byte[5]));
+
+        byte[] badPiece = GameCodec.encode(new ChessGame());
+        badPiece[10] = (byte) 0xFF;
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(badPiece));
+
+        byte[] badVersion = GameCodec.encode(new ChessGame());
+        badVersion[0] = 2;
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(badVersion));
+    }
+}
@@ -0,0 +1,98 @@
+package chessTests;
+
+import chess.*;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import json.Json;
+import org.junit.jupiter.api.Test;
+import webSocketMessages.serverMessages.*;
+import webSocketMessages.userCommands.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonTests {
+
+    private final Gson reflective = new Gson();
+
+    @Test
+    void testGameJsonMatchesReflection() {
+        ChessGame game = ChessGame.fromFen("r3k2r/8/8/3pP3/8/8/8/R3K2R w Kq d6 4 30");
+        assertSameJson(reflective.toJson(game), Json.GSON.toJson(game));
+
+        ChessGame read = Json.GSON.fromJson(reflective.toJson(game), ChessGame.class);
+        assertEquals(game.toFen(), read.toFen());
+        assertSame(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING),
+                read.getBoard().getPiece(ChessPosition.of(1, 5)));
+    }
+
+    @Test
+    void testMissingGameFieldsKeepNewGameDefaults() {
+        ChessGame read = Json.GSON.fromJson("{\"teamTurn\":\"BLACK\"}", ChessGame.class);
+        assertEquals(ChessGame.TeamColor.BLACK, read.getTeamTurn());
+        assertEquals("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR b KQkq - 0 1", read.toFen());
+    }
+
+    @Test
+    void testLegacyGameWithoutCastlingRightsCannotCastle() {
+        // Saved before the game kept its castling rights: only the board and the turn
+        ChessGame played = ChessGame.fromFen("r3k2r/pppppppp/8/8/8/8/PPPPPPPP/R3K2R w - - 0 12");
+        JsonObject legacy = new JsonObject();
+        legacy.addProperty("teamTurn", "WHITE");
+        legacy.add("grid", reflective.toJsonTree(played.getBoard()));
+
+        ChessGame read = Json.GSON.fromJson(legacy, ChessGame.class);
+        assertEquals("r3k2r/pppppppp/8/8/8/8/PPPPPPPP/R3K2R w - - 0 1", read.toFen());
+        assertFalse(read.validMoves(ChessPosition.of(1, 5)).contains(MoveNotation.fromUci("e1g1")),
+                "A king with no known history should not castle");
+    }
+
+    @Test
+    void testCommandsMatchReflectionAndReadAsTheirSubclass() {
+        ChessMove move = MoveNotation.fromUci("e7e8q");
+        List<UserGameCommand> commands = List.of(
+                new JoinPlayer("token", 3, ChessGame.TeamColor.BLACK),
+                new JoinObserver("token", 3),
+                new MakeMove("token", 3, move),
+                new Leave("token", 3),
+                new Resign("token", 3),
+                new Analyze("token", 3, 12, 500));
+        for (UserGameCommand command : commands) {
+            String json = reflective.toJson(command);
+            assertSameJson(json, Json.GSON.toJson(command));
+
+            // Read by its command type, so a Resign, which is sent as LEAVE, comes back as a Leave
+            UserGameCommand read = Json.GSON.fromJson(json, UserGameCommand.class);
+            assertEquals(command, read);
+            assertEquals(command.getClass(), Json.GSON.fromJson(json, command.getClass()).getClass());
+            assertSameJson(json, Json.GSON.toJson(read));
+        }
+        MakeMove read = (MakeMove) Json.GSON.fromJson(reflective.toJson(commands.get(2)), UserGameCommand.class);
+        assertSame(move, read.getMove());
+    }
+
+    @Test
+    void testServerMessagesMatchReflection() {
+        List<ServerMessage> messages = List.of(
+                new LoadGame(ServerMessage.ServerMessageType.LOAD_GAME, "game", -35, new ChessGame().toFen()),
+                new Notification(ServerMessage.ServerMessageType.NOTIFICATION, "Move played: e4"),
+                new webSocketMessages.serverMessages.Error(ServerMessage.ServerMessageType.ERROR, "Invalid move."),
+                new AnalysisUpdate(ServerMessage.ServerMessageType.ANALYSIS, 3, 7, 40, null,
+                        MoveNotation.fromUci("g1f3"), List.of(MoveNotation.fromUci("g1f3"), MoveNotation.fromUci("d7d5")),
+                        12345, 67));
+        for (ServerMessage message : messages) {
+            String json = reflective.toJson(message);
+            assertSameJson(json, Json.GSON.toJson(message));
+
+            ServerMessage read = Json.GSON.fromJson(json, ServerMessage.class);
+            assertEquals(message.getClass(), read.getClass());
+            assertSameJson(json, Json.GSON.toJson(read));
+        }
+    }
+
+    private static void assertSameJson(String expected, String actual) {
+        assertEquals(JsonParser.parseString(expected), JsonParser.parseString(actual), actual);
+    }
+}
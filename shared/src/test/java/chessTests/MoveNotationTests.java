@@ -0,0 +1,70 @@
+package chessTests;
+
+import chess.*;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import webSocketMessages.userCommands.MakeMove;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveNotationTests {
+
+    @Test
+    void testUciRoundTrips() {
+        ChessMove push = ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+        assertEquals("e2e4", MoveNotation.toUci(push));
+        assertSame(push, MoveNotation.fromUci("e2e4"));
+
+        ChessMove promotion = ChessMove.of(ChessPosition.of(7, 1), ChessPosition.of(8, 1), ChessPiece.PieceType.KNIGHT);
+        assertEquals("a7a8n", MoveNotation.toUci(promotion));
+        assertSame(promotion, MoveNotation.fromUci("a7a8N"));
+
+        for (String bad : new String[]{"", "e2", "e2e9", "i2e4", "e7e8k", "e7e8p", "e2e4qq"}) {
+            assertThrows(IllegalArgumentException.class, () -> MoveNotation.fromUci(bad), bad);
+        }
+    }
+
+    @Test
+    void testParseUciChecksLegality() {
+        Position position = Position.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        assertTrue(Move.isCastle(MoveNotation.parseUci(position, "e1g1")));
+        assertThrows(IllegalArgumentException.class, () -> MoveNotation.parseUci(position, "e1e3"));
+    }
+
+    @Test
+    void testGameLevelSan() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (String san : new String[]{"e4", "e5", "Nf3", "Nc6", "Bb5", "a6", "Bxc6", "dxc6", "O-O"}) {
+            ChessMove move = MoveNotation.fromSan(game, san);
+            assertEquals(san, MoveNotation.toSan(game, move));
+            game.makeMove(move);
+        }
+        assertEquals("r1bqkbnr/1pp2ppp/p1p5/4p3/4P3/5N2/PPPP1PPP/RNBQ1RK1 b kq - 1 5", game.toFen());
+
+        ChessMove illegal = ChessMove.of(ChessPosition.of(1, 1), ChessPosition.of(5, 1), null);
+        assertThrows(IllegalArgumentException.class, () -> MoveNotation.toSan(game, illegal));
+    }
+
+    @Test
+    void testPinnedPieceNeedsNoDisambiguation() {
+        // The c3 knight is pinned to the king by the a5 bishop, so only the g3 knight can go to e4
+        Position position = Position.fromFen("4k3/8/8/b7/8/2N3N1/8/4K3 w - - 0 1");
+        int move = MoveNotation.parseSan(position, "Ne4");
+        assertEquals("Ne4", MoveNotation.toSan(position, move));
+        assertEquals(Bitboards.square(3, 7), Move.from(move));
+    }
+
+    @Test
+    void testMakeMoveTravelsAsUci() {
+        Gson gson = new Gson();
+        ChessMove move = ChessMove.of(ChessPosition.of(7, 3), ChessPosition.of(8, 4), ChessPiece.PieceType.QUEEN);
+        String json = gson.toJson(new MakeMove("token", 7, move));
+        assertTrue(json.contains("\"uci\":\"c7d8q\""), json);
+        assertEquals(move, gson.fromJson(json, MakeMove.class).getMove());
+
+        // Clients from before the UCI field still send the move as an object
+        String legacy = "{\"gameID\":7,\"move\":{\"startPosition\":{\"row\":2,\"col\":5},"
+                + "\"endPosition\":{\"row\":4,\"col\":5}},\"commandType\":\"MAKE_MOVE\",\"authToken\":\"token\"}";
+        assertNotNull(gson.fromJson(legacy, MakeMove.class).getMove());
+    }
+}
@@ -0,0 +1,137 @@
+package chessTests;
+
+import chess.*;
+import chess.engine.OpeningBook;
+import chess.engine.OpeningBookBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OpeningBookTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testLookupFollowsWeights() throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(4);
+        builder.addGame(moves("e2e4 e7e5 g1f3 b8c6"));
+        builder.addGame(moves("e2e4 c7c5 g1f3 d7d6"));
+        builder.addGame(moves("e2e4 e7e5 f1c4"));
+        builder.addGame(moves("d2d4 d7d5"));
+        Path path = dir.resolve("book.bin");
+        int records = builder.write(path, 1);
+
+        OpeningBook book = OpeningBook.open(path);
+        assertEquals(records, book.size());
+
+        ChessGame game = new ChessGame();
+        List<OpeningBook.BookMove> moves = book.moves(game.copyPosition());
+        assertEquals(2, moves.size());
+        assertEquals(move("e2e4"), moves.get(0).toChessMove());
+        assertEquals(3, moves.get(0).weight());
+        assertEquals(move("d2d4"), moves.get(1).toChessMove());
+        assertEquals(1, moves.get(1).weight());
+        assertEquals(move("e2e4"), book.bestMove(game));
+
+        play(game, "e2e4 e7e5");
+        List<OpeningBook.BookMove> replies = book.moves(game.copyPosition());
+        assertEquals(2, replies.size());
+        assertEquals(move("g1f3"), book.bestMove(game));
+
+        // Past the ply limit, and positions never reached, are out of book
+        play(game, "g1f3 b8c6");
+        assertNull(book.bestMove(game));
+        assertEquals(Move.NONE, book.pickMove(game.copyPosition(), new SplittableRandom(1)));
+    }
+
+    @Test
+    void testPickMoveOnlyPicksBookMoves() throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        builder.addGame(moves("e2e4"));
+        builder.addGame(moves("d2d4"));
+        builder.addGame(moves("c2c4"));
+        Path path = dir.resolve("book.bin");
+        builder.write(path, 1);
+        OpeningBook book = OpeningBook.open(path);
+
+        Position start = new ChessGame().copyPosition();
+        SplittableRandom random = new SplittableRandom(7);
+        boolean[] seen = new boolean[3];
+        List<ChessMove> expected = List.of(move("e2e4"), move("d2d4"), move("c2c4"));
+        for (int i = 0; i < 200; i++) {
+            int index = expected.indexOf(Move.toChessMove(book.pickMove(start, random)));
+            assertTrue(index >= 0);
+            seen[index] = true;
+        }
+        assertArrayEquals(new boolean[]{true, true, true}, seen);
+    }
+
+    @Test
+    void testMinCountDropsRareMoves() throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        builder.addGame(moves("e2e4 e7e5"));
+        builder.addGame(moves("e2e4 c7c5"));
+        builder.addGame(moves("d2d4"));
+        Path path = dir.resolve("book.bin");
+        assertEquals(1, builder.write(path, 2));
+
+        OpeningBook book = OpeningBook.open(path);
+        assertEquals(1, book.moves(new ChessGame().copyPosition()).size());
+    }
+
+    @Test
+    void testRejectsBadInput() throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        assertThrows(IllegalArgumentException.class, () -> builder.addGame(moves("e2e5")));
+
+        Path notABook = dir.resolve("not-a-book.bin");
+        Files.write(notABook, new byte[40]);
+        assertThrows(IOException.class, () -> OpeningBook.open(notABook));
+
+        builder.addGame(moves("e2e4 e7e5"));
+        Path path = dir.resolve("book.bin");
+        builder.write(path, 1);
+        byte[] bytes = Files.readAllBytes(path);
+        Path truncated = dir.resolve("truncated.bin");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> OpeningBook.open(truncated));
+    }
+
+    @Test
+    void testLineWithIllegalMoveAddsNothing() throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        builder.addGame(moves("d2d4 d7d5"));
+        assertThrows(IllegalArgumentException.class, () -> builder.addGame(moves("e2e4 e7e5 g1f3 e5e3")));
+        assertEquals(1, builder.games());
+
+        Path path = dir.resolve("book.bin");
+        assertEquals(2, builder.write(path, 1), "No ply of the skipped line should be counted");
+        OpeningBook book = OpeningBook.open(path);
+        assertEquals(List.of(move("d2d4")), book.moves(new ChessGame().copyPosition()).stream()
+                .map(OpeningBook.BookMove::toChessMove).toList());
+    }
+
+    private static void play(ChessGame game, String line) {
+        for (ChessMove move : moves(line)) {
+            assertDoesNotThrow(() -> game.makeMove(move));
+        }
+    }
+
+    private static List<ChessMove> moves(String line) {
+        return Arrays.stream(line.split(" ")).map(OpeningBookTests::move).toList();
+    }
+
+    private static ChessMove move(String text) {
+        return ChessMove.of(ChessPosition.of(text.charAt(1) - '0', text.charAt(0) - 'a' + 1),
+                ChessPosition.of(text.charAt(3) - '0', text.charAt(2) - 'a' + 1), null);
+    }
+}
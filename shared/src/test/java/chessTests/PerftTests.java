@@ -0,0 +1,75 @@
+package chessTests;
+
+import chess.Perft;
+import chess.Position;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reference counts from https://www.chessprogramming.org/Perft_Results
+ */
+public class PerftTests {
+
+    @Test
+    void testStartingPosition() {
+        Position position = Position.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+
+        assertEquals(20, Perft.perft(position, 1));
+        assertEquals(400, Perft.perft(position, 2));
+        assertEquals(8902, Perft.perft(position, 3));
+        assertEquals(197281, Perft.perft(position, 4));
+    }
+
+    @Test
+    void testKiwipete() {
+        // Castling both ways, en passant, promotions and pins all show up by depth 3
+        Position position = Position.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+
+        assertEquals(48, Perft.perft(position, 1));
+        assertEquals(2039, Perft.perft(position, 2));
+        assertEquals(97862, Perft.perft(position, 3));
+    }
+
+    @Test
+    void testEndgameWithEnPassantPins() {
+        Position position = Position.fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1");
+
+        assertEquals(14, Perft.perft(position, 1));
+        assertEquals(191, Perft.perft(position, 2));
+        assertEquals(2812, Perft.perft(position, 3));
+        assertEquals(43238, Perft.perft(position, 4));
+    }
+
+    @Test
+    void testPromotionsAndChecks() {
+        Position position = Position.fromFen("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1");
+        assertEquals(6, Perft.perft(position, 1));
+        assertEquals(264, Perft.perft(position, 2));
+        assertEquals(9467, Perft.perft(position, 3));
+
+        position = Position.fromFen("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8");
+        assertEquals(44, Perft.perft(position, 1));
+        assertEquals(1486, Perft.perft(position, 2));
+        assertEquals(62379, Perft.perft(position, 3));
+    }
+
+    @Test
+    void testRootIsUnchanged() {
+        Position position = Position.fromFen("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10");
+        long occupied = position.occupied();
+
+        assertEquals(89890, Perft.perft(position, 3));
+        assertEquals(occupied, position.occupied());
+        assertEquals(Position.WHITE, position.sideToMove());
+    }
+
+    @Test
+    void testParallelMatchesSequential() {
+        Position position = Position.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        long key = position.key();
+
+        assertEquals(4085603, Perft.parallelPerft(position, 4));
+        assertEquals(key, position.key());
+    }
+}
@@ -0,0 +1,156 @@
+package chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PgnTests {
+
+    private static final String ARCHIVE = """
+            [Event "Casual"]
+            [Site "?"]
+            [White "Morphy, Paul"]
+            [Black "Duke \\"Karl\\" and Count Isouard"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Nf3 d6 3. d4 Bg4 {This is a weak move already.} 4. dxe5 Bxf3
+            5. Qxf3 dxe5 6. Bc4 Nf6 7. Qb3 Qe7 8. Nc3 c6 9. Bg5 b5 $6 10. Nxb5 cxb5
+            11. Bxb5+ Nbd7 12. O-O-O Rd8 13. Rxd7 Rxd7 14. Rd1 Qe6 (14... Qd8 15. Qb4) 15. Bxd7+
+            Nxd7 16. Qb8+ Nxb8 17. Rd8# 1-0
+
+            [Event "Broken"]
+            [Result "*"]
+
+            1. e4 e5 2. Ke3 Nc6 *
+
+            [Event "From a position"]
+            [SetUp "1"]
+            [FEN "4k3/P7/8/8/8/8/8/4K3 b - - 0 40"]
+            [Result "1/2-1/2"]
+
+            40... Kd7 41. a8=Q Kc7 ; drawn by agreement
+            1/2-1/2
+            """;
+
+    @Test
+    void testReadsGamesAndSkipsBrokenOnes() throws IOException {
+        PgnReader reader = new PgnReader(new StringReader(ARCHIVE));
+
+        PgnGame opera = reader.next();
+        assertEquals("Duke \"Karl\" and Count Isouard", opera.getTag("Black"));
+        assertEquals(PgnGame.WHITE_WINS, opera.getResult());
+        assertEquals(33, opera.getMoves().size());
+        ChessGame end = opera.replay();
+        assertTrue(end.isInCheckmate(ChessGame.TeamColor.BLACK));
+
+        IllegalArgumentException broken = assertThrows(IllegalArgumentException.class, reader::next);
+        assertTrue(broken.getMessage().contains("Ke3"));
+
+        PgnGame fromPosition = reader.next();
+        assertEquals(PgnGame.DRAW, fromPosition.getResult());
+        assertEquals(3, fromPosition.getMoves().size());
+        assertEquals(ChessPiece.PieceType.QUEEN, fromPosition.getMoves().get(1).getPromotionPiece());
+        assertEquals("Q7/2k5/8/8/8/8/8/4K3 w - - 1 42", fromPosition.replay().toFen());
+
+        assertNull(reader.next());
+    }
+
+    @Test
+    void testReadsFromChannels() throws IOException {
+        byte[] bytes = ARCHIVE.getBytes(StandardCharsets.UTF_8);
+        try (PgnReader reader = new PgnReader(Channels.newChannel(new ByteArrayInputStream(bytes)))) {
+            assertEquals("Casual", reader.next().getTag("Event"));
+        }
+    }
+
+    @Test
+    void testWriteThenReadRoundTrips() throws IOException {
+        PgnGame opera = new PgnReader(new StringReader(ARCHIVE)).next();
+        StringWriter out = new StringWriter();
+        new PgnWriter(out).write(opera);
+        String text = out.toString();
+
+        assertTrue(text.startsWith("[Event \"Casual\"]\n[Site \"?\"]\n[Date \"?\"]\n[Round \"?\"]\n"));
+        assertTrue(text.contains("11. Bxb5+ Nbd7 12. O-O-O Rd8"));
+        assertTrue(text.contains("17. Rd8# 1-0"));
+        for (String line : text.split("\n")) {
+            assertTrue(line.length() <= 80);
+        }
+
+        PgnGame again = new PgnReader(new StringReader(text)).next();
+        assertEquals(opera.getMoves(), again.getMoves());
+        assertEquals(opera.getTag("Black"), again.getTag("Black"));
+        assertEquals("?", again.getTag("Date"));
+    }
+
+    @Test
+    void testWriterStartsFromBlackToMove() throws IOException {
+        PgnGame game = new PgnGame().setTag("FEN", "4k3/P7/8/8/8/8/8/4K3 b - - 0 40");
+        game.getMoves().addAll(List.of(
+                ChessMove.of(ChessPosition.of(8, 5), ChessPosition.of(7, 4), null),
+                ChessMove.of(ChessPosition.of(7, 1), ChessPosition.of(8, 1), ChessPiece.PieceType.QUEEN)));
+        StringWriter out = new StringWriter();
+        new PgnWriter(out).write(game);
+        assertTrue(out.toString().contains("\n40... Kd7 41. a8=Q *\n"));
+    }
+
+    @Test
+    void testSanDisambiguation() {
+        // Rooks on a1 and e1 both reach d1, and knights on b3 and f3 both reach d2
+        Position position = Position.fromFen("4r1k1/8/8/8/8/1N3N2/8/R3R1K1 w - - 0 1");
+        assertEquals("Rad1", san(position, "a1", "d1"));
+        assertEquals("Nbd2", san(position, "b3", "d2"));
+        assertEquals("Nfd2", san(position, "f3", "d2"));
+        assertEquals("Rxe8+", san(position, "e1", "e8"));
+
+        Position ranks = Position.fromFen("6k1/8/8/R7/8/8/8/R5K1 w - - 0 1");
+        assertEquals("R1a3", san(ranks, "a1", "a3"));
+        assertEquals("R5a3", san(ranks, "a5", "a3"));
+
+        for (String text : List.of("Rad1", "Nbd2", "Nfd2", "Rxe8+", "Kf2", "Nh4")) {
+            assertEquals(text, MoveNotation.toSan(position, MoveNotation.parseSan(position, text)));
+        }
+        assertThrows(IllegalArgumentException.class, () -> MoveNotation.parseSan(position, "Nd2"));
+        assertThrows(IllegalArgumentException.class, () -> MoveNotation.parseSan(position, "Qd1"));
+        assertThrows(IllegalArgumentException.class, () -> MoveNotation.parseSan(position, "Zz9"));
+    }
+
+    @Test
+    void testSanSpecialMoves() {
+        Position castling = Position.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        assertEquals("O-O", MoveNotation.toSan(castling, MoveNotation.parseSan(castling, "0-0")));
+        assertEquals("O-O-O", MoveNotation.toSan(castling, MoveNotation.parseSan(castling, "O-O-O")));
+
+        Position enPassant = Position.fromFen("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1");
+        int move = MoveNotation.parseSan(enPassant, "exd6");
+        assertTrue(Move.isEnPassant(move));
+        assertEquals("exd6", MoveNotation.toSan(enPassant, move));
+
+        Position promotion = Position.fromFen("3r2k1/2P5/8/8/8/8/8/4K3 w - - 0 1");
+        assertEquals("cxd8=N", MoveNotation.toSan(promotion, MoveNotation.parseSan(promotion, "cxd8N")));
+        assertEquals("c8=Q", MoveNotation.toSan(promotion, MoveNotation.parseSan(promotion, "c8=Q")));
+        assertEquals("cxd8=Q+", MoveNotation.toSan(promotion, MoveNotation.parseSan(promotion, "cxd8=Q")));
+    }
+
+    private static String san(Position position, String from, String to) {
+        MoveList legal = new MoveList();
+        MoveGenerator.generateLegal(position, position.sideToMove(), legal);
+        int packed = Move.of(square(from), square(to));
+        int move = legal.find(packed);
+        assertNotEquals(Move.NONE, move, from + to);
+        return MoveNotation.toSan(position, move);
+    }
+
+    private static int square(String name) {
+        return Bitboards.square(name.charAt(1) - '0', name.charAt(0) - 'a' + 1);
+    }
+}
@@ -0,0 +1,105 @@
+package chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionCacheTests {
+
+    private PositionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PositionCache(1L << 20, 4);
+        ChessGame.setPositionCache(cache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ChessGame.setPositionCache(PositionCache.shared());
+    }
+
+    @Test
+    void testHitsAndMisses() {
+        Position start = Position.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+
+        PositionCache.Entry first = cache.get(start, Position.WHITE);
+        assertEquals(20, first.moveCount());
+        assertEquals(1, cache.misses());
+
+        assertSame(first, cache.get(start.copy(), Position.WHITE));
+        assertEquals(1, cache.hits());
+
+        // The other side's moves are a different entry
+        assertNotSame(first, cache.get(start, Position.BLACK));
+        assertEquals(2, cache.misses());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testStatus() {
+        // Fool's mate
+        Position mate = Position.fromFen("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3");
+        PositionCache.Entry entry = cache.get(mate, Position.WHITE);
+        assertTrue(entry.isInCheck());
+        assertTrue(entry.isInCheckmate());
+        assertFalse(entry.isInStalemate());
+
+        Position stalemate = Position.fromFen("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        entry = cache.get(stalemate, Position.BLACK);
+        assertFalse(entry.isInCheck());
+        assertTrue(entry.isInStalemate());
+        assertEquals(0, entry.moveCount());
+    }
+
+    @Test
+    void testEvictsWithinBudget() {
+        PositionCache small = new PositionCache(2048, 1);
+        Position position = Position.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(position, Position.WHITE, moves);
+
+        for (int i = 0; i < moves.size(); i++) {
+            Position child = position.copy();
+            child.makeMove(moves.get(i));
+            small.get(child, Position.BLACK);
+        }
+
+        assertTrue(small.evictions() > 0);
+        assertTrue(small.bytes() <= 2048);
+        assertEquals(moves.size(), small.misses());
+    }
+
+    @Test
+    void testGameConsultsCache() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.validMoves(new ChessPosition(2, 5));
+        long misses = cache.misses();
+
+        // Same position, same side: answered from the cache
+        game.validMoves(new ChessPosition(1, 7));
+        assertFalse(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        assertEquals(misses, cache.misses());
+        assertTrue(cache.hits() >= 2);
+
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        assertEquals(20, totalMoves(game));
+        assertTrue(cache.misses() > misses);
+    }
+
+    private static int totalMoves(ChessGame game) {
+        int total = 0;
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = game.getBoard().getPiece(new ChessPosition(row, col));
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    total += game.validMoves(new ChessPosition(row, col)).size();
+                }
+            }
+        }
+        return total;
+    }
+}
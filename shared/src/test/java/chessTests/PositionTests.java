@@ -0,0 +1,139 @@
+package chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoffTests.TestFactory.loadBoard;
+
+public class PositionTests {
+
+    @Test
+    void testRoundTripStartingBoard() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+
+        Position position = Position.fromBoard(board);
+
+        assertEquals(32, Long.bitCount(position.occupied()), "Starting board should have 32 pieces");
+        assertEquals(16, Long.bitCount(position.colorMask(Position.WHITE)));
+        assertEquals(0xFF00L, position.pieces(Position.WHITE, Position.PAWN), "White pawns should fill row 2");
+        assertEquals(board, position.toBoard(), "Converting back should give the same board");
+    }
+
+    @Test
+    void testRoundTripSparseBoard() {
+        ChessBoard board = loadBoard("""
+                | | | | | | | |k|
+                | | | | | | | | |
+                | | |n| | | |p| |
+                | | | | | | | | |
+                | | | |Q| | | | |
+                | | | | | | | | |
+                | | |B| | | | | |
+                | |K| | | | | |R|
+                """);
+
+        Position position = Position.fromBoard(board);
+
+        assertEquals(Bitboards.square(8, 8), position.kingSquare(Position.BLACK));
+        assertEquals(Position.piece(Position.BLACK, Position.KNIGHT), position.pieceAt(Bitboards.square(6, 3)));
+        assertEquals(Position.EMPTY, position.pieceAt(Bitboards.square(1, 1)));
+        assertEquals(board, position.toBoard());
+    }
+
+    @Test
+    void testAttackQueries() {
+        ChessBoard board = loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |p| | | |
+                | | | | | | | | |
+                |R| | | |K| | | |
+                """);
+        Position position = Position.fromBoard(board);
+
+        // The rook sees along the first row up to (and including) the king
+        long rookAttacks = position.attacks(Bitboards.square(1, 1));
+        assertEquals(11, Long.bitCount(rookAttacks));
+        assertTrue((rookAttacks & Bitboards.bit(Bitboards.square(1, 5))) != 0);
+        assertTrue((rookAttacks & Bitboards.bit(Bitboards.square(1, 6))) == 0);
+
+        // The black pawn on e3 attacks d2 and f2
+        assertTrue(position.isSquareAttacked(Bitboards.square(2, 4), Position.BLACK));
+        assertTrue(position.isSquareAttacked(Bitboards.square(2, 6), Position.BLACK));
+        assertFalse(position.isSquareAttacked(Bitboards.square(2, 5), Position.BLACK));
+
+        // Nothing white reaches the black king
+        assertFalse(position.isSquareAttacked(position.kingSquare(Position.BLACK), Position.WHITE));
+        assertEquals(1, Long.bitCount(position.attackersTo(Bitboards.square(2, 4), position.occupied())
+                & position.colorMask(Position.BLACK)));
+    }
+
+    @Test
+    void testPinsAndEvasions() {
+        // The white bishop is pinned by the rook; the knight on c3 gives check
+        Position position = Position.fromFen("4r1k1/8/8/8/8/2n5/4B3/4K3 w - - 0 1");
+
+        assertEquals(Bitboards.bit(Bitboards.square(2, 5)), MoveGenerator.pinned(position, Position.WHITE));
+
+        // The pinned bishop cannot take the checker, so only king moves remain
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(position, Position.WHITE, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            assertEquals(Bitboards.square(1, 5), Move.from(moves.get(i)));
+        }
+        assertEquals(3, moves.size());
+    }
+
+    @Test
+    void testGameQueriesLeaveTheBoardUntouched() {
+        ChessGame game = ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 3 20");
+        ChessBoard board = game.getBoard();
+        ChessPosition king = ChessPosition.of(1, 5);
+
+        // The game may castle, but asking it must not hand its rights or turn to the bare board
+        assertTrue(game.validMoves(ChessPosition.of(8, 5)).contains(MoveNotation.fromUci("e8g8")));
+        game.isInCheck(ChessGame.TeamColor.WHITE);
+        assertFalse(board.getPiece(king).pieceMoves(board, king).contains(MoveNotation.fromUci("e1g1")),
+                "A board with no history should not offer castling");
+
+        ChessGame other = new ChessGame();
+        other.setBoard(board);
+        assertFalse(other.validMoves(king).contains(MoveNotation.fromUci("e1g1")),
+                "Another game on the same board should keep its own rights");
+        assertEquals("r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 3 20", game.toFen());
+    }
+
+    @Test
+    void testBoardWithMoreMovesThanAnyGame() {
+        ChessBoard board = loadBoard("""
+                |Q|Q|Q|Q|Q|Q|Q|k|
+                |Q| | | | | | |Q|
+                |Q| | | | | | |Q|
+                |Q| | | | | | |Q|
+                |Q| | | | | | |Q|
+                |Q| | | | | | |Q|
+                |Q| | | | | | |Q|
+                |K|Q|Q|Q|Q|Q|Q|Q|
+                """);
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+
+        int moves = 0;
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition square = ChessPosition.of(row, col);
+                ChessPiece piece = board.getPiece(square);
+                if (piece != null && piece.getTeamColor() == ChessGame.TeamColor.WHITE) {
+                    assertEquals(piece.pieceMoves(board, square).size(), game.validMoves(square).size());
+                    moves += game.validMoves(square).size();
+                }
+            }
+        }
+        assertTrue(moves > MoveList.CAPACITY, "The board should have more moves than the list starts with");
+    }
+}
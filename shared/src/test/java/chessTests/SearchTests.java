@@ -0,0 +1,114 @@
+package chessTests;
+
+import chess.*;
+import chess.engine.ParallelSearch;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchTests {
+
+    @Test
+    void testCappedLimits() {
+        SearchLimits deep = SearchLimits.depth(50).setMoveTime(60_000).setNodes(1_000);
+        SearchLimits capped = deep.capped(20, 5_000, 500);
+        assertEquals(20, capped.getDepth());
+        assertEquals(5_000, capped.getMoveTime());
+        assertEquals(0, capped.getNodes());
+        assertEquals(50, deep.getDepth(), "The limits capped should be left as they were");
+
+        SearchLimits unset = new SearchLimits().capped(20, 5_000, 500);
+        assertEquals(0, unset.getDepth());
+        assertEquals(500, unset.getMoveTime());
+    }
+
+    @Test
+    void testFindsMateInOne() {
+        // Back-rank mate with Re8
+        Position position = Position.fromFen("6k1/5ppp/8/8/8/8/8/4R1K1 w - - 0 1");
+        SearchResult result = new Search().search(position, SearchLimits.depth(4));
+
+        assertEquals(ChessMove.of(ChessPosition.of(1, 5), ChessPosition.of(8, 5), null), result.getBestMove());
+        assertTrue(result.isMate());
+        assertEquals(Search.MATE - 1, result.getScore());
+    }
+
+    @Test
+    void testFindsMateInTwo() {
+        // Nf6+ gxf6 Bxf7#
+        Position position = Position.fromFen("r2qkb1r/pp2nppp/3p4/2pNN1B1/2BnP3/3P4/PPP2PPP/R2bK2R w KQkq - 1 1");
+        SearchResult result = new Search().search(position, SearchLimits.depth(6));
+
+        assertTrue(result.isMate());
+        assertEquals(Search.MATE - 3, result.getScore());
+    }
+
+    @Test
+    void testWinsHangingQueen() {
+        Position position = Position.fromFen("rnb1kbnr/pppp1ppp/8/4p1q1/3P4/8/PPP1PPPP/RNBQKBNR w KQkq - 0 3");
+        SearchResult result = new Search().search(position, SearchLimits.depth(4));
+
+        // Bxg5 wins the queen
+        assertEquals(ChessMove.of(ChessPosition.of(1, 3), ChessPosition.of(5, 7), null), result.getBestMove());
+        assertTrue(result.getScore() > 500);
+    }
+
+    @Test
+    void testLimitsAndGame() {
+        ChessGame game = new ChessGame();
+        long key = game.positionKey();
+
+        SearchResult result = new Search().search(game, SearchLimits.nodes(20_000));
+        assertNotNull(result.getBestMove());
+        assertTrue(game.validMoves(result.getBestMove().getStartPosition()).contains(result.getBestMove()));
+        assertTrue(result.getNodes() < 25_000);
+        assertEquals(key, game.positionKey());
+
+        result = new Search().search(game, SearchLimits.moveTime(100));
+        assertTrue(result.getDepth() >= 1);
+        assertTrue(result.getTimeMillis() < 1000);
+        assertEquals(result.getPackedMove(), result.getPrincipalVariation()[0]);
+    }
+
+    @Test
+    void testNoLegalMoves() {
+        Position stalemate = Position.fromFen("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        SearchResult result = new Search().search(stalemate, SearchLimits.depth(3));
+
+        assertNull(result.getBestMove());
+        assertEquals(0, result.getScore());
+    }
+
+    @Test
+    void testParallelSearch() {
+        Position position = Position.fromFen("r2qkb1r/pp2nppp/3p4/2pNN1B1/2BnP3/3P4/PPP2PPP/R2bK2R w KQkq - 1 1");
+        try (ParallelSearch search = new ParallelSearch(3)) {
+            SearchResult result = search.search(position, SearchLimits.depth(6));
+            assertEquals(Search.MATE - 3, result.getScore());
+
+            result = search.search(Position.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"),
+                    SearchLimits.nodes(10_000));
+            assertTrue(result.getNodes() >= 10_000);
+        }
+    }
+
+    @Test
+    void testTableRejectsMismatchedKeys() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 0x1234_5678_9ABC_DEF0L;
+        table.store(key, Move.of(12, 28), -150, 7, TranspositionTable.LOWER_BOUND);
+
+        long entry = table.probe(key);
+        assertEquals(Move.of(12, 28), TranspositionTable.move(entry));
+        assertEquals(-150, TranspositionTable.score(entry));
+        assertEquals(7, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(entry));
+
+        // Same slot, different position
+        assertEquals(0L, table.probe(key ^ (1L << 40)));
+    }
+}
@@ -0,0 +1,125 @@
+package chessTests;
+
+import chess.*;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TablebaseTests {
+
+    @TempDir
+    static Path dir;
+
+    private static Tablebase tablebase;
+
+    @BeforeAll
+    static void generate() throws IOException {
+        TablebaseGenerator generator = new TablebaseGenerator();
+        generator.generate("KQvK");
+        generator.write(dir);
+        tablebase = Tablebase.open(dir);
+    }
+
+    @AfterEach
+    void unload() {
+        ChessGame.setTablebase(null);
+    }
+
+    @Test
+    void testOpenFindsGeneratedTables() {
+        assertEquals(List.of("KQvK"), tablebase.tables());
+        assertEquals(3, tablebase.maxPieces());
+    }
+
+    @Test
+    void testMateInOne() {
+        int result = tablebase.probe(Position.fromFen("7k/8/6K1/8/8/8/8/1Q6 w - - 0 1"));
+        assertTrue(Tablebase.isWin(result));
+        assertEquals(1, Tablebase.pliesToMate(result));
+
+        int mated = tablebase.probe(Position.fromFen("Q6k/8/6K1/8/8/8/8/8 b - - 0 1"));
+        assertTrue(Tablebase.isLoss(mated));
+        assertEquals(0, Tablebase.pliesToMate(mated));
+    }
+
+    @Test
+    void testColorsSwappedUseTheSameTable() {
+        int result = tablebase.probe(Position.fromFen("1q6/8/8/8/8/6k1/8/7K b - - 0 1"));
+        assertTrue(Tablebase.isWin(result));
+        assertEquals(1, Tablebase.pliesToMate(result));
+    }
+
+    @Test
+    void testDrawsAndMisses() {
+        // The king takes the undefended queen
+        assertEquals(Tablebase.DRAW, tablebase.probe(Position.fromFen("7K/8/8/8/8/8/1Q6/k7 b - - 0 1")));
+        // Stalemate
+        assertEquals(Tablebase.DRAW, tablebase.probe(Position.fromFen("k7/2Q5/1K6/8/8/8/8/8 b - - 0 1")));
+
+        assertEquals(Tablebase.NOT_FOUND, tablebase.probe(Position.fromFen("7k/8/6K1/8/8/8/8/R7 w - - 0 1")));
+        assertEquals(Tablebase.NOT_FOUND, tablebase.probe(new ChessGame().copyPosition()));
+    }
+
+    @Test
+    void testEveryWinIsConsistentWithItsMoves() {
+        Position position = Position.fromFen("8/8/8/4k3/8/8/8/4K2Q w - - 0 1");
+        int result = tablebase.probe(position);
+        assertTrue(Tablebase.isWin(result));
+
+        // The best reply leaves a loss one ply shorter, and no move leaves a shorter one
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(position, position.sideToMove(), moves);
+        int best = Integer.MAX_VALUE;
+        for (int i = 0; i < moves.size(); i++) {
+            position.doMove(moves.get(i));
+            int child = tablebase.probe(position);
+            position.undoMove();
+            if (Tablebase.isLoss(child)) {
+                best = Math.min(best, Tablebase.pliesToMate(child));
+            }
+        }
+        assertEquals(Tablebase.pliesToMate(result) - 1, best);
+    }
+
+    @Test
+    void testRejectsFilesThatAreNotTables() throws IOException {
+        Path bad = Files.createDirectory(dir.resolve("bad"));
+        Files.write(bad.resolve("KQvK.ctb"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17});
+        assertThrows(IOException.class, () -> Tablebase.open(bad));
+    }
+
+    @Test
+    void testSearchScoresTablebaseMates() {
+        Position position = Position.fromFen("8/8/8/4k3/8/8/8/4K2Q w - - 0 1");
+        int plies = Tablebase.pliesToMate(tablebase.probe(position));
+        ChessGame.setTablebase(tablebase);
+
+        SearchResult result = new Search().search(position, new SearchLimits().setDepth(1));
+        assertEquals(Search.MATE - plies, result.getScore());
+    }
+
+    @Test
+    void testAdjudicate() {
+        ChessGame game = new ChessGame();
+        game.setBoard(Position.fromFen("8/8/8/4k3/8/8/8/4K2Q w - - 0 1").toBoard());
+        assertEquals(ChessGame.Outcome.ONGOING, game.adjudicate());
+
+        ChessGame.setTablebase(tablebase);
+        assertEquals(ChessGame.Outcome.WHITE_WINS, game.adjudicate());
+
+        game.setBoard(Position.fromFen("7K/8/8/8/8/8/8/k7 w - - 0 1").toBoard());
+        assertEquals(ChessGame.Outcome.DRAW, game.adjudicate());
+        assertEquals(ChessGame.Outcome.ONGOING, new ChessGame().adjudicate());
+    }
+}
@@ -0,0 +1,118 @@
+package chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UndoTests {
+
+    @Test
+    void testUndoRestoresPosition() {
+        Position position = Position.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        position.doMove(Move.of(Bitboards.square(2, 1), Bitboards.square(4, 1), 0, Move.DOUBLE_PUSH));
+        Position before = position.copy();
+
+        // Every black reply, including b4xa3 en passant, castling and promotions two plies on
+        MoveList moves = new MoveList();
+        MoveList replies = new MoveList();
+        MoveGenerator.generateLegal(position, position.sideToMove(), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            position.doMove(moves.get(i));
+            replies.clear();
+            MoveGenerator.generateLegal(position, position.sideToMove(), replies);
+            for (int j = 0; j < replies.size(); j++) {
+                position.doMove(replies.get(j));
+                assertEquals(Zobrist.key(position), position.key());
+                assertEquals(replies.get(j), position.undoMove());
+            }
+            assertEquals(moves.get(i), position.undoMove());
+            assertSamePosition(before, position);
+        }
+        assertEquals(1, position.undoDepth());
+    }
+
+    @Test
+    void testUndoWithNothingToUndo() {
+        assertThrows(IllegalStateException.class, () -> new Position().undoMove());
+
+        ChessGame game = new ChessGame();
+        assertThrows(IllegalStateException.class, game::undoMove);
+    }
+
+    @Test
+    void testGameDoAndUndo() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        ChessBoard start = new ChessGame().getBoard();
+        long startKey = game.positionKey();
+
+        game.makeMove(ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(7, 4), ChessPosition.of(5, 4), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(4, 5), ChessPosition.of(5, 4), null));
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        assertEquals(3, game.undoDepth());
+
+        game.undoMove();
+        assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        assertEquals(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN),
+                game.getBoard().getPiece(ChessPosition.of(5, 4)));
+
+        game.undoMove();
+        game.undoMove();
+        assertEquals(start, game.getBoard());
+        assertEquals(startKey, game.positionKey());
+        assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+    }
+
+    @Test
+    void testCastlingAndEnPassantInGame() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        play(game, 2, 5, 4, 5);   // e4
+        play(game, 7, 1, 6, 1);   // a6
+        play(game, 4, 5, 5, 5);   // e5
+        play(game, 7, 4, 5, 4);   // d5, can be taken en passant
+        play(game, 5, 5, 6, 4);   // exd6 e.p.
+        assertNull(game.getBoard().getPiece(ChessPosition.of(5, 4)));
+
+        play(game, 7, 3, 6, 4);   // cxd6
+        play(game, 1, 7, 3, 6);   // Nf3
+        play(game, 6, 1, 5, 1);   // a5
+        play(game, 1, 6, 4, 3);   // Bc4
+        play(game, 5, 1, 4, 1);   // a4
+        play(game, 1, 5, 1, 7);   // O-O
+        assertEquals(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK),
+                game.getBoard().getPiece(ChessPosition.of(1, 6)));
+        assertNull(game.getBoard().getPiece(ChessPosition.of(1, 8)));
+
+        game.undoMove();
+        assertEquals(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK),
+                game.getBoard().getPiece(ChessPosition.of(1, 8)));
+        assertTrue(game.validMoves(ChessPosition.of(1, 5)).contains(
+                ChessMove.of(ChessPosition.of(1, 5), ChessPosition.of(1, 7), null)));
+    }
+
+    @Test
+    void testSetBoardHasNoCastlingRights() {
+        ChessGame game = new ChessGame();
+        ChessBoard board = new ChessBoard();
+        board.addPiece(ChessPosition.of(1, 5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(ChessPosition.of(1, 8), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        game.setBoard(board);
+
+        assertFalse(game.validMoves(ChessPosition.of(1, 5)).contains(
+                ChessMove.of(ChessPosition.of(1, 5), ChessPosition.of(1, 7), null)));
+    }
+
+    private static void play(ChessGame game, int fromRow, int fromCol, int toRow, int toCol)
+            throws InvalidMoveException {
+        game.makeMove(ChessMove.of(ChessPosition.of(fromRow, fromCol), ChessPosition.of(toRow, toCol), null));
+    }
+
+    private static void assertSamePosition(Position expected, Position actual) {
+        assertEquals(expected.toBoard(), actual.toBoard());
+        assertEquals(expected.key(), actual.key());
+        assertEquals(expected.sideToMove(), actual.sideToMove());
+        assertEquals(expected.castlingRights(), actual.castlingRights());
+        assertEquals(expected.epSquare(), actual.epSquare());
+    }
+}
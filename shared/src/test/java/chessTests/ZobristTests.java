@@ -0,0 +1,60 @@
+package chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZobristTests {
+
+    @Test
+    void testIncrementalKeyMatchesRecomputed() {
+        // Every move from Kiwipete and every reply: castling, en passant and promotions included
+        Position root = Position.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        assertEquals(Zobrist.key(root), root.key());
+
+        MoveList moves = new MoveList();
+        MoveList replies = new MoveList();
+        MoveGenerator.generateLegal(root, root.sideToMove(), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            Position child = root.copy();
+            child.makeMove(moves.get(i));
+            assertEquals(Zobrist.key(child), child.key());
+
+            replies.clear();
+            MoveGenerator.generateLegal(child, child.sideToMove(), replies);
+            for (int j = 0; j < replies.size(); j++) {
+                Position grandchild = child.copy();
+                grandchild.makeMove(replies.get(j));
+                assertEquals(Zobrist.key(grandchild), grandchild.key());
+            }
+        }
+    }
+
+    @Test
+    void testTranspositionsShareAKey() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        long start = game.positionKey();
+
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        assertNotEquals(start, game.positionKey());
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null));
+        game.makeMove(new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null));
+
+        assertEquals(start, game.positionKey());
+        assertEquals(new ChessGame().getBoard().hashCode(), game.getBoard().hashCode());
+    }
+
+    @Test
+    void testTurnChangesTheKey() {
+        ChessGame game = new ChessGame();
+        long white = game.positionKey();
+
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertNotEquals(white, game.positionKey());
+
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        assertEquals(white, game.positionKey());
+    }
+}